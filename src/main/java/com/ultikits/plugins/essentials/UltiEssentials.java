@@ -1,5 +1,10 @@
 package com.ultikits.plugins.essentials;
 
+import com.ultikits.plugins.essentials.service.AltAccountService;
+import com.ultikits.plugins.essentials.service.BanService;
+import com.ultikits.plugins.essentials.service.ChestLockService;
+import com.ultikits.plugins.essentials.service.HomeService;
+import com.ultikits.plugins.essentials.service.LockTrustService;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.UltiToolsModule;
 
@@ -29,6 +34,12 @@ public class UltiEssentials extends UltiToolsPlugin {
 
     @Override
     public void unregisterSelf() {
+        // Save queued lock, trust and home writes, and stop background tasks
+        getContext().getBean(ChestLockService.class).shutdown();
+        getContext().getBean(HomeService.class).shutdown();
+        getContext().getBean(LockTrustService.class).shutdown();
+        getContext().getBean(BanService.class).shutdown();
+        getContext().getBean(AltAccountService.class).shutdown();
         getLogger().info(i18n("UltiEssentials 已禁用！"));
     }
 
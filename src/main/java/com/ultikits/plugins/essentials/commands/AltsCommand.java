@@ -0,0 +1,80 @@
+package com.ultikits.plugins.essentials.commands;
+
+import com.ultikits.plugins.essentials.service.AltAccountService;
+import com.ultikits.plugins.essentials.service.BanService;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Command for listing accounts that share IP addresses with a player.
+ * <p>
+ * Usage: /alts <player>
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@CmdTarget(CmdTarget.CmdTargetType.BOTH)
+@CmdExecutor(
+    alias = {"alts"},
+    permission = "ultiessentials.alts",
+    description = "查询玩家的关联账号"
+)
+public class AltsCommand extends BaseEssentialsCommand {
+
+    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+
+    @Autowired
+    private AltAccountService altAccountService;
+
+    @Autowired
+    private BanService banService;
+
+    @CmdMapping(format = "<player>")
+    public void alts(@CmdSender CommandSender sender, @CmdParam("player") String playerName) {
+        OfflinePlayer target = Bukkit.getOfflinePlayer(playerName);
+        if (target.getUniqueId() == null && !target.hasPlayedBefore()) {
+            sender.sendMessage(i18n("§c玩家不存在: ") + playerName);
+            return;
+        }
+
+        List<AltAccountService.AltAccount> alts = altAccountService.findAlts(target.getUniqueId());
+        if (alts.isEmpty()) {
+            sender.sendMessage(i18n("§a未发现关联账号"));
+            return;
+        }
+
+        sender.sendMessage(i18n("§6=== 关联账号 ===") + " §7(" + alts.size() + ")");
+        for (AltAccountService.AltAccount alt : alts) {
+            StringBuilder line = new StringBuilder("§e").append(alt.getPlayerName());
+            if (banService.getActiveBan(alt.getPlayerUuid()) != null) {
+                line.append(i18n(" §c[已封禁]"));
+            }
+            line.append(i18n(" §7最近: §f")).append(DATE_FORMAT.format(new Date(alt.getLastSeen())));
+            sender.sendMessage(line.toString());
+            sender.sendMessage(i18n("  §7共享IP: §f") + String.join(", ", alt.getSharedIps()));
+        }
+    }
+
+    @Override
+    protected void handleHelp(CommandSender sender) {
+        sender.sendMessage(i18n("用法: /alts <玩家>"));
+        sender.sendMessage(i18n("查看与该玩家共用IP的账号"));
+    }
+
+    @Override
+    protected List<String> suggest(Player player, Command command, String[] args) {
+        if (args.length == 1) {
+            return suggestOnlinePlayers(args[0]);
+        }
+        return super.suggest(player, command, args);
+    }
+}
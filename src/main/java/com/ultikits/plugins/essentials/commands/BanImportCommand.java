@@ -0,0 +1,66 @@
+package com.ultikits.plugins.essentials.commands;
+
+import com.ultikits.plugins.essentials.service.BanImportService;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Command for importing bans from other plugins.
+ * <p>
+ * Usage: /banimport vanilla
+ *        /banimport essentials
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@CmdTarget(CmdTarget.CmdTargetType.BOTH)
+@CmdExecutor(
+    alias = {"banimport"},
+    permission = "ultiessentials.ban.import",
+    description = "导入原版或EssentialsX封禁"
+)
+public class BanImportCommand extends BaseEssentialsCommand {
+
+    @Autowired
+    private BanImportService banImportService;
+
+    @CmdMapping(format = "vanilla")
+    public void importVanilla(@CmdSender CommandSender sender) {
+        startImport(sender, BanImportService.Source.VANILLA);
+    }
+
+    @CmdMapping(format = "essentials")
+    public void importEssentials(@CmdSender CommandSender sender) {
+        startImport(sender, BanImportService.Source.ESSENTIALS);
+    }
+
+    private void startImport(CommandSender sender, BanImportService.Source source) {
+        boolean started = banImportService.startImport(source, progress -> {
+            if (!progress.isDone()) {
+                sender.sendMessage(i18n("§7导入中... 已处理: §f") + progress.getProcessed() +
+                    i18n(" §7已导入: §f") + progress.getImported());
+                return;
+            }
+            if (progress.isFailed()) {
+                sender.sendMessage(i18n("§c导入中断，请查看控制台日志"));
+            }
+            sender.sendMessage(i18n("§a导入完成: §f") + progress.getImported() +
+                i18n(" §7条，重复: §f") + progress.getDuplicates() +
+                i18n(" §7条，跳过: §f") + progress.getSkipped() + i18n(" §7条"));
+        });
+
+        if (started) {
+            sender.sendMessage(i18n("§7开始导入封禁..."));
+        } else {
+            sender.sendMessage(i18n("§c已有导入任务正在进行"));
+        }
+    }
+
+    @Override
+    protected void handleHelp(CommandSender sender) {
+        sender.sendMessage(i18n("用法: /banimport <vanilla|essentials>"));
+        sender.sendMessage(i18n("§7vanilla: 导入 banned-players.json 和 banned-ips.json"));
+        sender.sendMessage(i18n("§7essentials: 导入 EssentialsX 用户数据中的封禁"));
+    }
+}
@@ -8,12 +8,11 @@ import org.bukkit.command.CommandSender;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 
 /**
  * Command for listing bans.
  * <p>
- * Usage: /banlist [page]
+ * Usage: /banlist [page] [newest|oldest|name]
  *
  * @author wisdomme
  * @version 1.0.0
@@ -34,33 +33,37 @@ public class BanListCommand extends BaseEssentialsCommand {
     
     @CmdMapping(format = "")
     public void banlist(@CmdSender CommandSender sender) {
-        showBanList(sender, 1);
+        showBanList(sender, 1, BanService.BanSort.NEWEST);
     }
     
     @CmdMapping(format = "<page>")
     public void banlistPage(@CmdSender CommandSender sender, @CmdParam("page") int page) {
-        showBanList(sender, Math.max(1, page));
+        showBanList(sender, Math.max(1, page), BanService.BanSort.NEWEST);
     }
     
-    private void showBanList(CommandSender sender, int page) {
-        List<BanData> allBans = banService.getActiveBans();
+    @CmdMapping(format = "<page> <sort>")
+    public void banlistSorted(@CmdSender CommandSender sender, @CmdParam("page") int page,
+                              @CmdParam("sort") String sort) {
+        BanService.BanSort banSort = BanService.BanSort.fromName(sort);
+        if (banSort == null) {
+            sender.sendMessage(i18n("§c未知的排序方式，可选: newest, oldest, name"));
+            return;
+        }
+        showBanList(sender, Math.max(1, page), banSort);
+    }
+    
+    private void showBanList(CommandSender sender, int page, BanService.BanSort sort) {
+        BanService.BanPage banPage = banService.getActiveBans(page, PAGE_SIZE, sort);
         
-        if (allBans.isEmpty()) {
+        if (banPage == null || banPage.getTotal() == 0) {
             sender.sendMessage(i18n("§a没有活跃的封禁"));
             return;
         }
         
-        int totalPages = (int) Math.ceil((double) allBans.size() / PAGE_SIZE);
-        int currentPage = Math.min(page, totalPages);
-
-        int start = (currentPage - 1) * PAGE_SIZE;
-        int end = Math.min(start + PAGE_SIZE, allBans.size());
-        
         sender.sendMessage(i18n("§6=== 封禁列表 ===") +
-            " §7(" + currentPage + "/" + totalPages + ")");
+            " §7(" + banPage.getPage() + "/" + banPage.getTotalPages() + ")");
         
-        for (int i = start; i < end; i++) {
-            BanData ban = allBans.get(i);
+        for (BanData ban : banPage.getItems()) {
             StringBuilder info = new StringBuilder();
             
             info.append("§e").append(ban.getPlayerName());
@@ -79,17 +82,17 @@ public class BanListCommand extends BaseEssentialsCommand {
                 i18n(" §7于 ") + DATE_FORMAT.format(new Date(ban.getBanTime())));
         }
         
-        sender.sendMessage(i18n("§7共 ") + allBans.size() + 
+        sender.sendMessage(i18n("§7共 ") + banPage.getTotal() + 
             i18n(" 个活跃封禁"));
         
-        if (totalPages > 1) {
+        if (banPage.getTotalPages() > 1) {
             sender.sendMessage(i18n("§7使用 /banlist <页码> 查看更多"));
         }
     }
     
     @Override
     protected void handleHelp(CommandSender sender) {
-        sender.sendMessage(i18n("用法: /banlist [页码]"));
+        sender.sendMessage(i18n("用法: /banlist [页码] [newest|oldest|name]"));
         sender.sendMessage(i18n("查看当前活跃的封禁列表"));
     }
 }
@@ -0,0 +1,119 @@
+package com.ultikits.plugins.essentials.commands;
+
+import com.ultikits.plugins.essentials.service.BanService;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Command for banning or unbanning many targets at once.
+ * <p>
+ * Usage: /banwave ban <target,target,...> [reason]
+ *        /banwave unban <target,target,...>
+ * Targets may be player names, UUIDs, IP addresses or CIDR ranges.
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@CmdTarget(CmdTarget.CmdTargetType.BOTH)
+@CmdExecutor(
+    alias = {"banwave"},
+    permission = "ultiessentials.banwave",
+    description = "批量封禁或解封"
+)
+public class BanWaveCommand extends BaseEssentialsCommand {
+
+    @Autowired
+    private BanService banService;
+
+    @CmdMapping(format = "ban <targets>")
+    public void ban(@CmdSender CommandSender sender, @CmdParam("targets") String targets) {
+        banWithReason(sender, targets, "无理由");
+    }
+
+    @CmdMapping(format = "ban <targets> <reason>")
+    public void banWithReason(
+        @CmdSender CommandSender sender,
+        @CmdParam("targets") String targets,
+        @CmdParam("reason") String reason
+    ) {
+        List<String> targetList = splitTargets(targets);
+        if (targetList.isEmpty()) {
+            handleHelp(sender);
+            return;
+        }
+
+        UUID operatorUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        String operatorName = sender instanceof Player ? sender.getName() : "Console";
+
+        sender.sendMessage(i18n("§7正在处理批量封禁，目标数: §f") + targetList.size());
+        banService.banWaveAsync(targetList, reason, operatorUuid, operatorName, -1,
+            results -> report(sender, results));
+    }
+
+    @CmdMapping(format = "unban <targets>")
+    public void unban(@CmdSender CommandSender sender, @CmdParam("targets") String targets) {
+        List<String> targetList = splitTargets(targets);
+        if (targetList.isEmpty()) {
+            handleHelp(sender);
+            return;
+        }
+
+        sender.sendMessage(i18n("§7正在处理批量解封，目标数: §f") + targetList.size());
+        banService.unbanWaveAsync(targetList, results -> report(sender, results));
+    }
+
+    private void report(CommandSender sender, List<BanService.WaveResult> results) {
+        int succeeded = 0;
+        for (BanService.WaveResult result : results) {
+            if (result.getStatus() == BanService.WaveStatus.BANNED
+                    || result.getStatus() == BanService.WaveStatus.UNBANNED) {
+                succeeded++;
+            }
+            sender.sendMessage("§7- §f" + result.getTarget() + " §7" + describe(result.getStatus()));
+        }
+        sender.sendMessage(i18n("§a批量操作完成: §f") + succeeded + "/" + results.size());
+    }
+
+    private String describe(BanService.WaveStatus status) {
+        switch (status) {
+            case BANNED:
+                return i18n("§a已封禁");
+            case UNBANNED:
+                return i18n("§a已解封");
+            case ALREADY_BANNED:
+                return i18n("§e已被封禁");
+            case NOT_BANNED:
+                return i18n("§e未被封禁");
+            case NOT_FOUND:
+                return i18n("§c玩家不存在");
+            case DISABLED:
+                return i18n("§c封禁功能已禁用");
+            default:
+                return i18n("§c写入失败");
+        }
+    }
+
+    private static List<String> splitTargets(String targets) {
+        List<String> result = new ArrayList<>();
+        for (String target : targets.split(",")) {
+            String trimmed = target.trim();
+            if (!trimmed.isEmpty()) {
+                result.add(trimmed);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    protected void handleHelp(CommandSender sender) {
+        sender.sendMessage(i18n("用法: /banwave ban <目标,目标,...> [原因]"));
+        sender.sendMessage(i18n("用法: /banwave unban <目标,目标,...>"));
+        sender.sendMessage(i18n("§7目标可以是玩家名、UUID、IP或IP段"));
+    }
+}
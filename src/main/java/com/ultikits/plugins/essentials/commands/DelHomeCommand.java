@@ -5,8 +5,11 @@ import com.ultikits.plugins.essentials.service.HomeService;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.command.*;
 import com.ultikits.ultitools.annotations.I18n;
+import org.bukkit.command.Command;
 import org.bukkit.entity.Player;
 
+import java.util.List;
+
 /**
  * Command to delete a home.
  * <p>
@@ -41,4 +44,12 @@ public class DelHomeCommand extends BaseEssentialsCommand {
             player.sendMessage(i18n("找不到该家"));
         }
     }
+    
+    @Override
+    protected List<String> suggest(Player player, Command command, String[] args) {
+        if (args.length == 1) {
+            return homeService.completeHomeNames(player.getUniqueId(), args[0], 50);
+        }
+        return super.suggest(player, command, args);
+    }
 }
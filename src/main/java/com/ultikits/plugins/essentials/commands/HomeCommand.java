@@ -7,6 +7,7 @@ import com.ultikits.plugins.essentials.service.HomeService;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.command.*;
 import com.ultikits.ultitools.annotations.I18n;
+import org.bukkit.command.Command;
 import org.bukkit.entity.Player;
 
 import java.util.List;
@@ -89,4 +90,12 @@ public class HomeCommand extends BaseEssentialsCommand {
                 break;
         }
     }
+    
+    @Override
+    protected List<String> suggest(Player player, Command command, String[] args) {
+        if (args.length == 1) {
+            return homeService.completeHomeNames(player.getUniqueId(), args[0], 50);
+        }
+        return super.suggest(player, command, args);
+    }
 }
@@ -0,0 +1,61 @@
+package com.ultikits.plugins.essentials.commands;
+
+import com.ultikits.plugins.essentials.service.HomeImportService;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Command for importing homes and warps from other plugins.
+ * <p>
+ * Usage: /homeimport essentials
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@CmdTarget(CmdTarget.CmdTargetType.BOTH)
+@CmdExecutor(
+    alias = {"homeimport"},
+    permission = "ultiessentials.home.import",
+    description = "导入EssentialsX的家和地标"
+)
+public class HomeImportCommand extends BaseEssentialsCommand {
+
+    @Autowired
+    private HomeImportService homeImportService;
+
+    @CmdMapping(format = "essentials")
+    public void importEssentials(@CmdSender CommandSender sender) {
+        boolean resuming = homeImportService.hasCheckpoint();
+        boolean started = homeImportService.startImport(progress -> {
+            if (!progress.isDone()) {
+                sender.sendMessage(i18n("§7导入中... 已处理: §f") + progress.getProcessed() +
+                    i18n(" §7家: §f") + progress.getHomes() + i18n(" §7地标: §f") + progress.getWarps());
+                return;
+            }
+            if (progress.isFailed()) {
+                sender.sendMessage(i18n("§c导入中断，请查看控制台日志"));
+                sender.sendMessage(i18n("§7再次执行该命令将从中断处继续"));
+                return;
+            }
+            sender.sendMessage(i18n("§a导入完成: §f") + progress.getHomes() +
+                i18n(" §7个家，§f") + progress.getWarps() +
+                i18n(" §7个地标，重复: §f") + progress.getDuplicates() +
+                i18n(" §7条，跳过: §f") + progress.getSkipped() + i18n(" §7条"));
+        });
+
+        if (!started) {
+            sender.sendMessage(i18n("§c已有导入任务正在进行"));
+        } else if (resuming) {
+            sender.sendMessage(i18n("§7从上次中断处继续导入家和地标..."));
+        } else {
+            sender.sendMessage(i18n("§7开始导入家和地标..."));
+        }
+    }
+
+    @Override
+    protected void handleHelp(CommandSender sender) {
+        sender.sendMessage(i18n("用法: /homeimport essentials"));
+        sender.sendMessage(i18n("§7essentials: 导入 EssentialsX 用户数据中的家和 warps 目录中的地标"));
+    }
+}
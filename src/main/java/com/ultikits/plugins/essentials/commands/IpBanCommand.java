@@ -0,0 +1,75 @@
+package com.ultikits.plugins.essentials.commands;
+
+import com.ultikits.plugins.essentials.service.BanService;
+import com.ultikits.plugins.essentials.utils.IpRange;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+/**
+ * Command for banning IP addresses and CIDR ranges.
+ * <p>
+ * Usage: /ipban <ip|cidr> [reason]
+ * Examples: 203.0.113.7, 203.0.113.0/24, 2001:db8::/64
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@CmdTarget(CmdTarget.CmdTargetType.BOTH)
+@CmdExecutor(
+    alias = {"ipban", "banip"},
+    permission = "ultiessentials.ban.ip",
+    description = "封禁IP或IP段"
+)
+public class IpBanCommand extends BaseEssentialsCommand {
+
+    @Autowired
+    private BanService banService;
+
+    @CmdMapping(format = "<address>")
+    public void ipban(@CmdSender CommandSender sender, @CmdParam("address") String address) {
+        ipbanWithReason(sender, address, "无理由");
+    }
+
+    @CmdMapping(format = "<address> <reason>")
+    public void ipbanWithReason(
+        @CmdSender CommandSender sender,
+        @CmdParam("address") String address,
+        @CmdParam("reason") String reason
+    ) {
+        IpRange range = IpRange.parse(address);
+        if (range == null) {
+            sender.sendMessage(i18n("§c无效的IP地址或IP段: ") + address);
+            return;
+        }
+
+        UUID operatorUuid = sender instanceof Player ? ((Player) sender).getUniqueId() : null;
+        String operatorName = sender instanceof Player ? sender.getName() : "Console";
+
+        BanService.BanResult result = banService.banIp(range, reason, operatorUuid, operatorName, -1);
+
+        switch (result) {
+            case SUCCESS:
+                sender.sendMessage(i18n("§a已封禁IP: §f") + range);
+                sender.sendMessage(i18n("§7原因: §f") + reason);
+                break;
+            case ALREADY_BANNED:
+                sender.sendMessage(i18n("§c该IP已被封禁"));
+                break;
+            case DISABLED:
+                sender.sendMessage(i18n("§c封禁功能已禁用"));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    protected void handleHelp(CommandSender sender) {
+        sender.sendMessage(i18n("用法: /ipban <IP|IP段> [原因]"));
+        sender.sendMessage(i18n("§7示例: 203.0.113.7, 203.0.113.0/24, 2001:db8::/64"));
+    }
+}
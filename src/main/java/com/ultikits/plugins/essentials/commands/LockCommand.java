@@ -1,16 +1,35 @@
 package com.ultikits.plugins.essentials.commands;
 
+import com.ultikits.plugins.essentials.entity.ChestLockData;
+import com.ultikits.plugins.essentials.entity.LockTrustData;
 import com.ultikits.plugins.essentials.service.ChestLockService;
+import com.ultikits.plugins.essentials.service.LockTrustService;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
+import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Command for locking containers.
  * <p>
  * Usage: /lock (while looking at a container)
+ *        /lock list [player]
+ *        /lock transfer <from> <to>
+ *        /lock purge <player>
+ *        /lock sweep
+ *        /lock trust|untrust <player> (while looking at a locked container)
+ *        /lock trustall|untrustall <player>
+ *        /lock trusted
+ * Listing other players' locks, transferring, purging and sweeping need
+ * {@code ultiessentials.lock.admin}.
  *
  * @author wisdomme
  * @version 1.0.0
@@ -23,9 +42,14 @@ import org.bukkit.entity.Player;
 )
 public class LockCommand extends BaseEssentialsCommand {
     
+    private static final int LIST_LIMIT = 20;
+    
     @Autowired
     private ChestLockService chestLockService;
     
+    @Autowired
+    private LockTrustService lockTrustService;
+    
     @CmdMapping(format = "")
     public void lock(@CmdSender Player player) {
         Block target = player.getTargetBlockExact(5);
@@ -53,12 +77,232 @@ public class LockCommand extends BaseEssentialsCommand {
             case DISABLED:
                 player.sendMessage(i18n("§c箱子锁功能已禁用"));
                 break;
+            case LOADING:
+                player.sendMessage(i18n("§e该区域的箱子锁数据正在加载，请稍后再试"));
+                break;
+        }
+    }
+    
+    @CmdMapping(format = "list")
+    public void list(@CmdSender Player player) {
+        listLocks(player, player);
+    }
+    
+    @CmdMapping(format = "list <player>")
+    public void listOf(@CmdSender Player player, @CmdParam("player") String playerName) {
+        if (!checkAdmin(player)) {
+            return;
+        }
+        OfflinePlayer target = findPlayer(player, playerName);
+        if (target != null) {
+            listLocks(player, target);
+        }
+    }
+    
+    @CmdMapping(format = "transfer <from> <to>")
+    public void transfer(
+        @CmdSender Player player,
+        @CmdParam("from") String fromName,
+        @CmdParam("to") String toName
+    ) {
+        if (!checkAdmin(player)) {
+            return;
+        }
+        OfflinePlayer from = findPlayer(player, fromName);
+        OfflinePlayer to = from == null ? null : findPlayer(player, toName);
+        if (to == null) {
+            return;
+        }
+        
+        String newOwnerName = to.getName() != null ? to.getName() : toName;
+        player.sendMessage(i18n("§7正在转移箱子锁..."));
+        chestLockService.transferLocksAsync(from.getUniqueId(), to.getUniqueId(), newOwnerName,
+            count -> player.sendMessage(i18n("§a已将箱子锁转移给 §f") + newOwnerName + " §7(" + count + ")"));
+    }
+    
+    @CmdMapping(format = "purge <player>")
+    public void purge(@CmdSender Player player, @CmdParam("player") String playerName) {
+        if (!checkAdmin(player)) {
+            return;
+        }
+        OfflinePlayer target = findPlayer(player, playerName);
+        if (target == null) {
+            return;
+        }
+        
+        player.sendMessage(i18n("§7正在清除箱子锁..."));
+        chestLockService.purgeLocksAsync(target.getUniqueId(),
+            count -> player.sendMessage(i18n("§a已清除该玩家的箱子锁 §7(") + count + ")"));
+    }
+    
+    @CmdMapping(format = "sweep")
+    public void sweep(@CmdSender Player player) {
+        if (!checkAdmin(player)) {
+            return;
+        }
+        if (chestLockService.startOrphanSweep()) {
+            player.sendMessage(i18n("§a已开始清理孤立的箱子锁"));
+            return;
+        }
+        ChestLockService.SweepProgress progress = chestLockService.getSweepProgress();
+        if (progress != null) {
+            player.sendMessage(i18n("§e清理正在进行: §f") + progress.getChecked() + "/" + progress.getTotal()
+                + i18n(" §7已移除: §f") + progress.getRemoved());
+        }
+    }
+    
+    @CmdMapping(format = "trust <player>")
+    public void trust(@CmdSender Player player, @CmdParam("player") String playerName) {
+        setTrusted(player, playerName, true);
+    }
+    
+    @CmdMapping(format = "untrust <player>")
+    public void untrust(@CmdSender Player player, @CmdParam("player") String playerName) {
+        setTrusted(player, playerName, false);
+    }
+    
+    @CmdMapping(format = "trustall <player>")
+    public void trustAll(@CmdSender Player player, @CmdParam("player") String playerName) {
+        OfflinePlayer target = findPlayer(player, playerName);
+        if (target == null) {
+            return;
+        }
+        String name = target.getName() != null ? target.getName() : playerName;
+        if (lockTrustService.trust(player.getUniqueId(), target.getUniqueId(), name)) {
+            player.sendMessage(i18n("§a已信任 §f") + name + i18n(" §a打开你的所有箱子锁"));
+        } else {
+            player.sendMessage(i18n("§e该玩家已在你的信任列表中"));
+        }
+    }
+    
+    @CmdMapping(format = "untrustall <player>")
+    public void untrustAll(@CmdSender Player player, @CmdParam("player") String playerName) {
+        OfflinePlayer target = findPlayer(player, playerName);
+        if (target == null) {
+            return;
+        }
+        if (lockTrustService.untrust(player.getUniqueId(), target.getUniqueId())) {
+            player.sendMessage(i18n("§a已将 §f") + playerName + i18n(" §a移出你的信任列表"));
+        } else {
+            player.sendMessage(i18n("§e该玩家不在你的信任列表中"));
+        }
+    }
+    
+    @CmdMapping(format = "trusted")
+    public void trusted(@CmdSender Player player) {
+        List<LockTrustData> trusted = lockTrustService.getTrusted(player.getUniqueId());
+        player.sendMessage(i18n("§6=== 信任列表 ===") + " §7(" + trusted.size() + ")");
+        for (LockTrustData entry : trusted) {
+            player.sendMessage("§7- §f" + entry.getTrustedName());
+        }
+        
+        Block target = player.getTargetBlockExact(5);
+        ChestLockData lock = target == null ? null : chestLockService.getLock(target);
+        if (lock != null && !lock.getTrustedIds().isEmpty()) {
+            player.sendMessage(i18n("§6该容器信任的玩家:"));
+            for (UUID id : lock.getTrustedIds()) {
+                String name = Bukkit.getOfflinePlayer(id).getName();
+                player.sendMessage("§7- §f" + (name != null ? name : id.toString()));
+            }
+        }
+    }
+    
+    private void setTrusted(Player player, String playerName, boolean trust) {
+        Block target = player.getTargetBlockExact(5);
+        if (target == null) {
+            player.sendMessage(i18n("§c请看向一个容器"));
+            return;
+        }
+        OfflinePlayer trusted = findPlayer(player, playerName);
+        if (trusted == null) {
+            return;
+        }
+        
+        switch (chestLockService.setTrusted(target, player, trusted.getUniqueId(), trust)) {
+            case SUCCESS:
+                player.sendMessage(trust
+                    ? i18n("§a已信任 §f") + playerName + i18n(" §a打开该容器")
+                    : i18n("§a已取消 §f") + playerName + i18n(" §a对该容器的信任"));
+                break;
+            case NOT_LOCKED:
+                player.sendMessage(i18n("§c该容器未被锁定"));
+                break;
+            case NOT_OWNER:
+                player.sendMessage(i18n("§c你不是该容器的主人"));
+                break;
+            case LOADING:
+                player.sendMessage(i18n("§e该区域的箱子锁数据正在加载，请稍后再试"));
+                break;
+            case UNCHANGED:
+                player.sendMessage(trust
+                    ? i18n("§e该玩家已被信任")
+                    : i18n("§e该玩家未被信任"));
+                break;
         }
     }
     
+    private void listLocks(Player viewer, OfflinePlayer owner) {
+        chestLockService.findLocksAsync(owner.getUniqueId(), locks -> {
+            if (locks.isEmpty()) {
+                viewer.sendMessage(i18n("§7没有找到箱子锁"));
+                return;
+            }
+            viewer.sendMessage(i18n("§6=== 箱子锁列表 ===") + " §7(" + locks.size() + ")");
+            int shown = Math.min(locks.size(), LIST_LIMIT);
+            for (int i = 0; i < shown; i++) {
+                ChestLockData lock = locks.get(i);
+                viewer.sendMessage("§7- §f" + lock.getWorld()
+                    + " (" + lock.getX() + ", " + lock.getY() + ", " + lock.getZ() + ")");
+            }
+            if (locks.size() > shown) {
+                viewer.sendMessage(i18n("§7...以及另外 §f") + (locks.size() - shown) + i18n(" §7个"));
+            }
+        });
+    }
+    
+    private boolean checkAdmin(Player player) {
+        if (player.hasPermission("ultiessentials.lock.admin")) {
+            return true;
+        }
+        player.sendMessage(i18n("§c你没有权限执行此操作"));
+        return false;
+    }
+    
+    /**
+     * Looks up a player who has joined before. A name nobody has joined with
+     * would otherwise resolve to a made-up offline UUID.
+     */
+    private OfflinePlayer findPlayer(Player sender, String name) {
+        OfflinePlayer target = Bukkit.getOfflinePlayer(name);
+        if (!target.hasPlayedBefore() && !target.isOnline()) {
+            sender.sendMessage(i18n("§c玩家不存在: ") + name);
+            return null;
+        }
+        return target;
+    }
+    
     @Override
     protected void handleHelp(CommandSender sender) {
         sender.sendMessage(i18n("用法: /lock"));
         sender.sendMessage(i18n("看向一个容器并使用此命令来锁定它"));
+        sender.sendMessage(i18n("/lock list [玩家] - 列出箱子锁"));
+        sender.sendMessage(i18n("/lock transfer <原主人> <新主人> - 转移所有箱子锁"));
+        sender.sendMessage(i18n("/lock purge <玩家> - 清除玩家的所有箱子锁"));
+        sender.sendMessage(i18n("/lock sweep - 清理容器已消失的箱子锁"));
+        sender.sendMessage(i18n("/lock trust|untrust <玩家> - 信任玩家打开看向的容器"));
+        sender.sendMessage(i18n("/lock trustall|untrustall <玩家> - 信任玩家打开你的所有容器"));
+        sender.sendMessage(i18n("/lock trusted - 查看信任列表"));
+    }
+    
+    @Override
+    protected List<String> suggest(Player player, Command command, String[] args) {
+        if (args.length == 1) {
+            return Arrays.asList("list", "transfer", "purge", "sweep",
+                "trust", "untrust", "trustall", "untrustall", "trusted");
+        }
+        if (args.length == 2 || (args.length == 3 && "transfer".equalsIgnoreCase(args[0]))) {
+            return suggestOnlinePlayers(args[args.length - 1]);
+        }
+        return super.suggest(player, command, args);
     }
 }
@@ -0,0 +1,48 @@
+package com.ultikits.plugins.essentials.commands;
+
+import com.ultikits.plugins.essentials.service.BanService;
+import com.ultikits.plugins.essentials.utils.IpRange;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.command.*;
+import org.bukkit.command.CommandSender;
+
+/**
+ * Command for lifting IP and CIDR range bans.
+ * <p>
+ * Usage: /unbanip <ip|cidr>
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@CmdTarget(CmdTarget.CmdTargetType.BOTH)
+@CmdExecutor(
+    alias = {"unbanip", "pardonip"},
+    permission = "ultiessentials.unban",
+    description = "解除IP封禁"
+)
+public class UnbanIpCommand extends BaseEssentialsCommand {
+
+    @Autowired
+    private BanService banService;
+
+    @CmdMapping(format = "<address>")
+    public void unbanIp(@CmdSender CommandSender sender, @CmdParam("address") String address) {
+        IpRange range = IpRange.parse(address);
+        if (range == null) {
+            sender.sendMessage(i18n("§c无效的IP地址或IP段: ") + address);
+            return;
+        }
+
+        if (banService.unbanIp(range.toString())) {
+            sender.sendMessage(i18n("§a已解除IP封禁: §f") + range);
+        } else {
+            sender.sendMessage(i18n("§c该IP未被封禁: ") + range);
+        }
+    }
+
+    @Override
+    protected void handleHelp(CommandSender sender) {
+        sender.sendMessage(i18n("用法: /unbanip <IP|IP段>"));
+        sender.sendMessage(i18n("解除IP或IP段的封禁"));
+    }
+}
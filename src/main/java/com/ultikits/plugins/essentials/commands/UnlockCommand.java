@@ -48,6 +48,9 @@ public class UnlockCommand extends BaseEssentialsCommand {
             case NOT_OWNER:
                 player.sendMessage(i18n("§c你不是该容器的主人"));
                 break;
+            case LOADING:
+                player.sendMessage(i18n("§e该区域的箱子锁数据正在加载，请稍后再试"));
+                break;
         }
     }
     
@@ -60,7 +63,7 @@ public class UnlockCommand extends BaseEssentialsCommand {
             return;
         }
         
-        ChestLockData lock = chestLockService.getLock(target.getLocation());
+        ChestLockData lock = chestLockService.getLock(target);
         
         if (lock == null) {
             player.sendMessage(i18n("§7该容器未被锁定"));
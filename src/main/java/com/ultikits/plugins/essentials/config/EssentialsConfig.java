@@ -94,6 +94,14 @@ public class EssentialsConfig extends AbstractConfigEntity {
     @ConfigEntry(path = "features.home.cancel-on-move", comment = "移动时取消传送")
     private boolean homeCancelOnMove = true;
 
+    @Range(min = 1, max = 10000)
+    @ConfigEntry(path = "features.home.import.batch-size", comment = "导入家和地标时每批读取的用户文件数量")
+    private int homeImportBatchSize = 1000;
+
+    @Range(min = 1, max = 16)
+    @ConfigEntry(path = "features.home.import.threads", comment = "导入家和地标时并行解析文件的线程数")
+    private int homeImportThreads = 4;
+
     // ============ TPA 传送功能 ============
     @ConfigEntry(path = "features.tpa.enabled", comment = "启用 /tpa 传送请求")
     private boolean tpaEnabled = true;
@@ -127,6 +135,53 @@ public class EssentialsConfig extends AbstractConfigEntity {
     @ConfigEntry(path = "features.ban.broadcast-unban", comment = "广播解禁消息")
     private boolean unbanBroadcast = true;
 
+    @ConfigEntry(path = "features.ban.kick-message", comment = "封禁踢出界面模板，可用 {reason} {operator} {duration}，按玩家语言翻译")
+    private String banKickMessage = "&c你已被封禁\n\n&7原因: &f{reason}\n&7操作者: &f{operator}\n{duration}\n\n&7如有异议，请联系服务器管理员";
+
+    @ConfigEntry(path = "features.ban.index.enabled", comment = "在内存中索引活跃封禁，登录检查不再查询存储")
+    private boolean banIndexEnabled = true;
+
+    @Range(min = 0, max = 86400)
+    @ConfigEntry(path = "features.ban.index.verify-interval", comment = "封禁索引与存储的一致性校验间隔(秒)，0为关闭")
+    private int banIndexVerifyInterval = 300;
+
+    @Range(min = 1, max = 3600)
+    @ConfigEntry(path = "features.ban.expiry.check-interval", comment = "过期临时封禁的检查间隔(秒)")
+    private int banExpiryCheckInterval = 30;
+
+    @Range(min = 1, max = 10000)
+    @ConfigEntry(path = "features.ban.expiry.batch-size", comment = "每批失效的过期封禁数量")
+    private int banExpiryBatchSize = 100;
+
+    @Range(min = 0, max = 300)
+    @ConfigEntry(path = "features.ban.lookup.negative-cache-ttl", comment = "登录检查\"未封禁\"结果的缓存时间(秒)，0为关闭")
+    private int banNegativeCacheTtl = 5;
+
+    @Range(min = 50, max = 60000)
+    @ConfigEntry(path = "features.ban.lookup.timeout", comment = "登录封禁检查的最长等待时间(毫秒)，超时后使用内存中的已知封禁")
+    private int banLookupTimeout = 2000;
+
+    @ConfigEntry(path = "features.ban.lookup.fail-closed", comment = "封禁检查超时且内存中无记录时拒绝登录(false则放行)")
+    private boolean banLookupFailClosed = false;
+
+    @Range(min = 1, max = 10000)
+    @ConfigEntry(path = "features.ban.import.batch-size", comment = "导入封禁列表时每批写入的数量")
+    private int banImportBatchSize = 500;
+
+    @ConfigEntry(path = "features.ban.alts.enabled", comment = "记录账号与登录IP的关联，用于查询小号")
+    private boolean altIndexEnabled = true;
+
+    @Range(min = 1, max = 365)
+    @ConfigEntry(path = "features.ban.alts.retention-days", comment = "账号与IP关联的保留天数")
+    private int altRetentionDays = 30;
+
+    @Range(min = 1, max = 1000)
+    @ConfigEntry(path = "features.ban.alts.max-accounts-per-ip", comment = "每个IP最多记录的账号数")
+    private int altMaxAccountsPerIp = 32;
+
+    @ConfigEntry(path = "features.ban.alts.extend-bans", comment = "登录时若同IP的已知小号被封禁，则一并拒绝登录")
+    private boolean altExtendBans = false;
+
     // ============ Scoreboard 计分板 ============
     @ConfigEntry(path = "features.scoreboard.enabled", comment = "启用计分板功能")
     private boolean scoreboardEnabled = true;
@@ -174,6 +229,30 @@ public class EssentialsConfig extends AbstractConfigEntity {
     @ConfigEntry(path = "features.chestlock.admin-bypass", comment = "管理员可以绕过锁定")
     private boolean chestLockAdminBypass = true;
 
+    @ConfigEntry(path = "features.chestlock.lazy-load", comment = "区块加载时按区块加载箱子锁，区块卸载时释放，不在启动时全部加载")
+    private boolean chestLockLazyLoad = true;
+
+    @ConfigEntry(path = "features.chestlock.chunk-keys-migrated", comment = "旧锁数据是否已补全区块键(自动设置，请勿修改)")
+    private boolean chestLockChunkKeysMigrated = false;
+
+    @ConfigEntry(path = "features.chestlock.storage", comment = "箱子锁存储位置: database(数据库) 或 chunk(区块持久化数据，不访问数据库)")
+    private String chestLockStorage = "database";
+
+    @ConfigEntry(path = "features.chestlock.chunk-storage-migrated", comment = "数据库中的锁是否已迁移到区块存储(自动设置，请勿修改)")
+    private boolean chestLockChunkStorageMigrated = false;
+
+    @Range(min = 1, max = 1200)
+    @ConfigEntry(path = "features.chestlock.write-interval", comment = "箱子锁变更批量写入数据库的间隔(tick)")
+    private int chestLockWriteInterval = 20;
+
+    @Range(min = 0, max = 1440)
+    @ConfigEntry(path = "features.chestlock.sweep-interval", comment = "清理已不存在容器的孤立锁的间隔(分钟)，0 为禁用")
+    private int chestLockSweepInterval = 30;
+
+    @Range(min = 1, max = 50)
+    @ConfigEntry(path = "features.chestlock.sweep-budget-ms", comment = "孤立锁清理每 tick 最多占用的时间(毫秒)")
+    private int chestLockSweepBudget = 2;
+
     // ============ DeathPunish 死亡惩罚 ============
     @ConfigEntry(path = "features.deathpunish.enabled", comment = "启用死亡惩罚")
     private boolean deathPunishEnabled = false;
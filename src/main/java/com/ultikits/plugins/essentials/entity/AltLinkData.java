@@ -0,0 +1,74 @@
+package com.ultikits.plugins.essentials.entity;
+
+import java.util.UUID;
+
+import com.ultikits.ultitools.abstracts.data.BaseDataEntity;
+import com.ultikits.ultitools.annotations.Column;
+import com.ultikits.ultitools.annotations.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity linking a player account to an IP address it logged in from.
+ * <p>
+ * 记录玩家账号与登录 IP 关联的实体类。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Table("essentials_alt_links")
+public class AltLinkData extends BaseDataEntity<String> {
+
+    /**
+     * Unique identifier for this link.
+     */
+    @Column("uuid")
+    private UUID uuid;
+
+    /**
+     * UUID of the player.
+     */
+    @Column("player_uuid")
+    private String playerUuid;
+
+    /**
+     * Name of the player at their last login from this address.
+     */
+    @Column("player_name")
+    private String playerName;
+
+    /**
+     * Canonical IP address.
+     */
+    @Column("ip_address")
+    private String ipAddress;
+
+    /**
+     * Timestamp of the last login from this address.
+     */
+    @Column("last_seen")
+    private long lastSeen;
+
+    @Override
+    public String getId() {
+        return uuid == null ? null : uuid.toString();
+    }
+
+    @Override
+    public void setId(String id) {
+        this.uuid = id == null ? null : UUID.fromString(id);
+    }
+
+    public void setId(UUID id) {
+        this.uuid = id;
+    }
+}
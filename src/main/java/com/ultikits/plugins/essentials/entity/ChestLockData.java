@@ -1,16 +1,23 @@
 package com.ultikits.plugins.essentials.entity;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 
 import com.ultikits.ultitools.abstracts.data.BaseDataEntity;
 import com.ultikits.ultitools.annotations.Column;
 import com.ultikits.ultitools.annotations.Table;
 
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
 
 /**
  * Entity representing a chest lock.
@@ -76,6 +83,146 @@ public class ChestLockData extends BaseDataEntity<String> {
     @Column("created_at")
     private long createdAt;
     
+    /**
+     * Key of the chunk containing the block, for per-chunk queries.
+     */
+    @Column("chunk_key")
+    private String chunkKey;
+    
+    /**
+     * Comma-separated UUIDs of players trusted to open this container.
+     */
+    @Column("trusted")
+    private String trusted;
+    
+    /**
+     * Parsed owner UUID, so access checks compare UUIDs instead of building strings.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient UUID ownerId;
+    
+    /**
+     * Parsed {@link #trusted}; usually only a handful of entries, so scanned linearly.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient UUID[] trustedIds;
+    
+    public void setOwnerUuid(String ownerUuid) {
+        this.ownerUuid = ownerUuid;
+        this.ownerId = null;
+    }
+    
+    public void setTrusted(String trusted) {
+        this.trusted = trusted;
+        this.trustedIds = null;
+    }
+    
+    /**
+     * Gets the owner's UUID.
+     *
+     * @return the owner's UUID, or null if missing or malformed
+     */
+    public UUID getOwnerId() {
+        if (ownerId == null && ownerUuid != null) {
+            try {
+                ownerId = UUID.fromString(ownerUuid);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return ownerId;
+    }
+    
+    /**
+     * Checks whether a player owns this lock.
+     */
+    public boolean isOwner(UUID player) {
+        return player.equals(getOwnerId());
+    }
+    
+    /**
+     * Checks whether a player is trusted on this lock.
+     */
+    public boolean isTrusted(UUID player) {
+        for (UUID id : trustedIds()) {
+            if (id.equals(player)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets the players trusted on this lock.
+     */
+    public List<UUID> getTrustedIds() {
+        return new ArrayList<>(Arrays.asList(trustedIds()));
+    }
+    
+    /**
+     * Trusts a player on this lock.
+     *
+     * @return false if the player was already trusted
+     */
+    public boolean addTrusted(UUID player) {
+        if (isTrusted(player)) {
+            return false;
+        }
+        UUID[] ids = Arrays.copyOf(trustedIds(), trustedIds.length + 1);
+        ids[ids.length - 1] = player;
+        setTrustedIds(ids);
+        return true;
+    }
+    
+    /**
+     * Removes a player's trust on this lock.
+     *
+     * @return false if the player was not trusted
+     */
+    public boolean removeTrusted(UUID player) {
+        List<UUID> ids = getTrustedIds();
+        if (!ids.remove(player)) {
+            return false;
+        }
+        setTrustedIds(ids.toArray(new UUID[0]));
+        return true;
+    }
+    
+    private UUID[] trustedIds() {
+        if (trustedIds == null) {
+            List<UUID> ids = new ArrayList<>();
+            if (trusted != null && !trusted.isEmpty()) {
+                for (String id : trusted.split(",")) {
+                    try {
+                        ids.add(UUID.fromString(id.trim()));
+                    } catch (IllegalArgumentException e) {
+                        // Ignore damaged entries
+                    }
+                }
+            }
+            trustedIds = ids.toArray(new UUID[0]);
+        }
+        return trustedIds;
+    }
+    
+    private void setTrustedIds(UUID[] ids) {
+        StringBuilder joined = new StringBuilder();
+        for (UUID id : ids) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(id);
+        }
+        this.trusted = ids.length == 0 ? null : joined.toString();
+        this.trustedIds = ids;
+    }
+    
     /**
      * Creates a location key for quick lookup.
      */
@@ -89,6 +236,32 @@ public class ChestLockData extends BaseDataEntity<String> {
     public static String createLocationKey(String world, int x, int y, int z) {
         return world + ":" + x + ":" + y + ":" + z;
     }
+    
+    /**
+     * Copies the stored fields of this lock, e.g. to queue a write while the
+     * original keeps changing.
+     */
+    public ChestLockData copy() {
+        return ChestLockData.builder()
+            .uuid(uuid)
+            .world(world)
+            .x(x)
+            .y(y)
+            .z(z)
+            .ownerUuid(ownerUuid)
+            .ownerName(ownerName)
+            .createdAt(createdAt)
+            .chunkKey(chunkKey)
+            .trusted(trusted)
+            .build();
+    }
+    
+    /**
+     * Static method to create the key of the chunk containing a block.
+     */
+    public static String createChunkKey(String world, int blockX, int blockZ) {
+        return world + ":" + (blockX >> 4) + ":" + (blockZ >> 4);
+    }
 
     @Override
     public String getId() {
@@ -0,0 +1,74 @@
+package com.ultikits.plugins.essentials.entity;
+
+import java.util.UUID;
+
+import com.ultikits.ultitools.abstracts.data.BaseDataEntity;
+import com.ultikits.ultitools.annotations.Column;
+import com.ultikits.ultitools.annotations.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity granting a player access to every chest lock of another player.
+ * <p>
+ * 玩家全局信任（可打开其所有上锁容器）的实体类。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@Table("essentials_lock_trust")
+public class LockTrustData extends BaseDataEntity<String> {
+
+    /**
+     * Unique identifier for this entry.
+     */
+    @Column("uuid")
+    private UUID uuid;
+
+    /**
+     * UUID of the lock owner.
+     */
+    @Column("owner_uuid")
+    private String ownerUuid;
+
+    /**
+     * UUID of the trusted player.
+     */
+    @Column("trusted_uuid")
+    private String trustedUuid;
+
+    /**
+     * Name of the trusted player when trust was granted.
+     */
+    @Column("trusted_name")
+    private String trustedName;
+
+    /**
+     * Timestamp when trust was granted.
+     */
+    @Column("created_at")
+    private long createdAt;
+
+    @Override
+    public String getId() {
+        return uuid == null ? null : uuid.toString();
+    }
+
+    @Override
+    public void setId(String id) {
+        this.uuid = id == null ? null : UUID.fromString(id);
+    }
+
+    public void setId(UUID id) {
+        this.uuid = id;
+    }
+}
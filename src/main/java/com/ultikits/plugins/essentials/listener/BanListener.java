@@ -2,36 +2,61 @@ package com.ultikits.plugins.essentials.listener;
 
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.service.AltAccountService;
 import com.ultikits.plugins.essentials.service.BanService;
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.EventListener;
+import lombok.extern.slf4j.Slf4j;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
 
+import javax.annotation.Nullable;
+import java.net.InetAddress;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Listener for handling player ban checks on login.
  * <p>
  * 处理玩家登录时的封禁检查监听器。
+ * <p>
+ * When the ban index is not loaded the check goes to storage, bounded by
+ * {@code features.ban.lookup.timeout}. If storage does not answer in time the
+ * last-known in-memory bans are applied (range bans, and bans recently found by
+ * lookups or made on this server; see {@link BanService#getIndexedBan}), and
+ * otherwise the login is allowed or refused according to
+ * {@code features.ban.lookup.fail-closed}.
  *
  * @author wisdomme
- * @version 1.0.0
+ * @version 1.1.0
  */
+@Slf4j
 @EventListener
 public class BanListener implements Listener {
 
+    @Autowired
+    private UltiToolsPlugin plugin;
+
     @Autowired
     private BanService banService;
 
+    @Autowired
+    private AltAccountService altAccountService;
+
     @Autowired
     private EssentialsConfig config;
 
     /**
      * Handles player login to check for bans.
-     * Checks both UUID-based bans and IP-based bans.
+     * Checks both UUID-based bans and IP-based bans, including CIDR range bans,
+     * and records allowed logins for alt-account lookups.
      *
      * @param event the async player pre-login event
      */
@@ -41,22 +66,89 @@ public class BanListener implements Listener {
             return;
         }
 
+        checkBan(event);
+        if (event.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            altAccountService.record(event.getUniqueId(), event.getName(), event.getAddress());
+        }
+    }
+
+    private void checkBan(AsyncPlayerPreLoginEvent event) {
         UUID playerUuid = event.getUniqueId();
-        String ipAddress = event.getAddress().getHostAddress();
+        InetAddress address = event.getAddress();
 
-        // Check UUID ban
+        BanData activeBan;
+        if (banService.isIndexLoaded()) {
+            activeBan = findBan(playerUuid, address);
+        } else {
+            Future<BanData> lookup = banService.getLookupExecutor().submit(() -> findBan(playerUuid, address));
+            try {
+                activeBan = lookup.get(config.getBanLookupTimeout(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                lookup.cancel(true);
+                long timeouts = banService.recordLoginTimeout();
+                log.warn("Ban check for {} timed out after {}ms ({} timeouts so far)",
+                    event.getName(), config.getBanLookupTimeout(), timeouts);
+                applyFallback(event, playerUuid, address);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lookup.cancel(true);
+                applyFallback(event, playerUuid, address);
+                return;
+            } catch (ExecutionException e) {
+                log.error("Ban check for {} failed", event.getName(), e.getCause());
+                applyFallback(event, playerUuid, address);
+                return;
+            }
+        }
+
+        if (activeBan != null) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED,
+                banService.formatLoginKickMessage(activeBan, playerUuid));
+        }
+    }
+
+    /**
+     * Remembers the client language so later login kicks can be localized.
+     *
+     * @param event the locale change event
+     */
+    @EventHandler
+    public void onLocaleChange(PlayerLocaleChangeEvent event) {
+        banService.rememberLocale(event.getPlayer().getUniqueId(), event.getLocale());
+    }
+
+    /**
+     * Checks the UUID ban first, then the IP ban, then bans on known alts.
+     */
+    @Nullable
+    private BanData findBan(UUID playerUuid, InetAddress address) {
         BanData activeBan = banService.getActiveBan(playerUuid);
         if (activeBan != null) {
-            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, 
-                banService.formatKickMessage(activeBan));
+            return activeBan;
+        }
+        BanData ipBan = banService.getActiveIpBan(address);
+        if (ipBan != null) {
+            return ipBan;
+        }
+        return altAccountService.findBannedAlt(playerUuid);
+    }
+
+    /**
+     * Decides a login without storage: known bans still apply, and unknown
+     * players follow the fail-open or fail-closed policy.
+     */
+    private void applyFallback(AsyncPlayerPreLoginEvent event, UUID playerUuid, InetAddress address) {
+        BanData knownBan = banService.getIndexedBan(playerUuid, address);
+        if (knownBan != null) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED,
+                banService.formatLoginKickMessage(knownBan, playerUuid));
             return;
         }
 
-        // Check IP ban
-        BanData ipBan = banService.getActiveIpBan(ipAddress);
-        if (ipBan != null) {
-            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, 
-                banService.formatKickMessage(ipBan));
+        if (config.isBanLookupFailClosed()) {
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER,
+                plugin.i18n("§c暂时无法验证封禁状态，请稍后重试"));
         }
     }
 }
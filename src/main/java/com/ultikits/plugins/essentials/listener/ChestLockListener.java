@@ -13,12 +13,14 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.BlockPistonExtendEvent;
 import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.inventory.InventoryMoveItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
-import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 
 /**
  * Listener for chest lock protection.
@@ -55,13 +57,15 @@ public class ChestLockListener implements Listener {
         
         Player player = event.getPlayer();
         
-        if (!chestLockService.canAccess(block.getLocation(), player)) {
+        if (!chestLockService.canAccess(block, player)) {
             event.setCancelled(true);
             
-            ChestLockData lock = chestLockService.getLock(block.getLocation());
+            ChestLockData lock = chestLockService.getLock(block);
             if (lock != null) {
                 player.sendMessage(plugin.i18n("§c该容器被 §f") + 
                     lock.getOwnerName() + plugin.i18n(" §c锁定"));
+            } else if (chestLockService.isLoading(block)) {
+                player.sendMessage(plugin.i18n("§e该区域的箱子锁数据正在加载，请稍后再试"));
             }
         }
     }
@@ -73,20 +77,20 @@ public class ChestLockListener implements Listener {
         }
         
         Block block = event.getBlock();
-        
-        if (!chestLockService.isLocked(block.getLocation())) {
-            return;
-        }
-        
         Player player = event.getPlayer();
-        ChestLockData lock = chestLockService.getLock(block.getLocation());
+        ChestLockData lock = chestLockService.getLock(block);
         
         if (lock == null) {
+            // Owner unknown until the chunk's locks arrive; other blocks there can't be locked
+            if (chestLockService.isLockable(block.getType()) && chestLockService.isLoading(block)) {
+                event.setCancelled(true);
+                player.sendMessage(plugin.i18n("§e该区域的箱子锁数据正在加载，请稍后再试"));
+            }
             return;
         }
         
         // Check if player is owner or admin
-        boolean isOwner = lock.getOwnerUuid().equals(player.getUniqueId().toString());
+        boolean isOwner = lock.isOwner(player.getUniqueId());
         boolean isAdmin = player.hasPermission("ultiessentials.lock.admin");
         
         if (!isOwner && !isAdmin) {
@@ -100,6 +104,26 @@ public class ChestLockListener implements Listener {
         chestLockService.onBlockBreak(block.getLocation());
     }
     
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (!config.isChestLockEnabled()) {
+            return;
+        }
+        
+        // A chest joined to a locked one shares its lock
+        chestLockService.onBlockPlace(event.getBlockPlaced());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        chestLockService.onChunkLoad(event.getChunk());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        chestLockService.onChunkUnload(event.getChunk());
+    }
+    
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onEntityExplode(EntityExplodeEvent event) {
         if (!config.isChestLockEnabled()) {
@@ -107,7 +131,7 @@ public class ChestLockListener implements Listener {
         }
         
         // Remove locked blocks from explosion
-        event.blockList().removeIf(block -> chestLockService.isLocked(block.getLocation()));
+        chestLockService.removeLocked(event.blockList());
     }
     
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
@@ -117,7 +141,7 @@ public class ChestLockListener implements Listener {
         }
         
         // Remove locked blocks from explosion
-        event.blockList().removeIf(block -> chestLockService.isLocked(block.getLocation()));
+        chestLockService.removeLocked(event.blockList());
     }
     
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
@@ -127,7 +151,7 @@ public class ChestLockListener implements Listener {
         }
         
         for (Block block : event.getBlocks()) {
-            if (chestLockService.isLocked(block.getLocation())) {
+            if (isProtected(block)) {
                 event.setCancelled(true);
                 return;
             }
@@ -141,26 +165,32 @@ public class ChestLockListener implements Listener {
         }
         
         for (Block block : event.getBlocks()) {
-            if (chestLockService.isLocked(block.getLocation())) {
+            if (isProtected(block)) {
                 event.setCancelled(true);
                 return;
             }
         }
     }
     
+    /**
+     * Checks if a block is locked, or is lockable and its chunk's locks are
+     * still loading. Other blocks in a loading chunk are never protected.
+     */
+    private boolean isProtected(Block block) {
+        return chestLockService.getLock(block) != null
+            || (chestLockService.isLockable(block.getType()) && chestLockService.isLoading(block));
+    }
+    
     @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
     public void onInventoryMove(InventoryMoveItemEvent event) {
         if (!config.isChestLockEnabled()) {
             return;
         }
         
-        // Prevent hopper from moving items from locked containers
-        InventoryHolder source = event.getSource().getHolder();
-        if (source instanceof org.bukkit.block.Container) {
-            org.bukkit.block.Container container = (org.bukkit.block.Container) source;
-            if (chestLockService.isLocked(container.getLocation())) {
-                event.setCancelled(true);
-            }
+        // Prevent hoppers from moving items out of or into locked containers.
+        // Inventory locations avoid building a block state snapshot per item.
+        if (chestLockService.isTransferBlocked(event.getSource().getLocation(), event.getDestination().getLocation())) {
+            event.setCancelled(true);
         }
     }
 }
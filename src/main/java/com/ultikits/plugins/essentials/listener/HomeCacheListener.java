@@ -0,0 +1,79 @@
+package com.ultikits.plugins.essentials.listener;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.service.HomeService;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.EventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * Listener keeping each online player's homes and home limit cached for the session.
+ * <p>
+ * 在玩家登录时预加载家数据，退出时释放的监听器。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Slf4j
+@EventListener
+public class HomeCacheListener implements Listener {
+
+    @Autowired
+    private HomeService homeService;
+
+    @Autowired
+    private EssentialsConfig config;
+
+    /**
+     * Loads the player's homes on the async login thread, once no other
+     * listener has refused the login.
+     *
+     * @param event the async player pre-login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (!config.isHomeEnabled() || event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+        try {
+            homeService.preload(event.getUniqueId());
+        } catch (RuntimeException e) {
+            // Homes are loaded on first use instead
+            log.error("Failed to preload homes for {}", event.getName(), e);
+        }
+    }
+
+    /**
+     * Drops homes preloaded for a login that was refused afterwards.
+     *
+     * @param event the player login event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            homeService.evict(event.getPlayer().getUniqueId());
+        }
+    }
+
+    /**
+     * Per-world permissions may grant a different home limit.
+     *
+     * @param event the world change event
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldChange(PlayerChangedWorldEvent event) {
+        homeService.invalidateMaxHomes(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        homeService.evict(event.getPlayer().getUniqueId());
+    }
+}
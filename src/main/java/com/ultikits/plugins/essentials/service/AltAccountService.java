@@ -0,0 +1,358 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.AltLinkData;
+import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.utils.IpRange;
+import com.ultikits.plugins.essentials.utils.WriteBehindQueue;
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.PostConstruct;
+import com.ultikits.ultitools.annotations.Service;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import lombok.extern.slf4j.Slf4j;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
+
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service tracking which accounts log in from which IP addresses.
+ * <p>
+ * 记录账号与登录 IP 的关联，用于查询小号。
+ * <p>
+ * Links are held in memory in both directions (IP to accounts, account to IPs),
+ * so an alt lookup is a couple of hash lookups. Memory is bounded by dropping
+ * links not seen within {@code features.ban.alts.retention-days} and by keeping at
+ * most {@code features.ban.alts.max-accounts-per-ip} accounts per address.
+ * Links are persisted off the login thread through a write-behind queue, so an
+ * insert and a later delete of the same link are applied in order; repeat logins
+ * only refresh the stored timestamp once per hour.
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class AltAccountService {
+
+    private static final long PERSIST_INTERVAL = TimeUnit.HOURS.toMillis(1);
+
+    private static final long FLUSH_INTERVAL_TICKS = 100L;
+
+    @Autowired
+    private UltiToolsPlugin plugin;
+
+    @Autowired
+    private EssentialsConfig config;
+
+    @Autowired
+    private BanService banService;
+
+    private DataOperator<AltLinkData> linkOperator;
+
+    private Plugin bukkitPlugin;
+
+    /**
+     * Canonical IP -> player UUID string -> link
+     */
+    private final Map<String, Map<String, AltLinkData>> linksByIp = new ConcurrentHashMap<>();
+
+    /**
+     * Player UUID string -> canonical IPs
+     */
+    private final Map<String, Set<String>> ipsByPlayer = new ConcurrentHashMap<>();
+
+    private WriteBehindQueue<AltLinkData> writeQueue;
+
+    private BukkitTask pruneTask;
+    private BukkitTask flushTask;
+
+    /**
+     * Initializes the service with the data operator.
+     * Automatically called by the IoC container after construction.
+     */
+    @PostConstruct
+    public void init() {
+        this.linkOperator = plugin.getDataOperator(AltLinkData.class);
+        this.bukkitPlugin = Bukkit.getPluginManager().getPlugin("UltiTools");
+        if (writeQueue != null) {
+            writeQueue.flushAll();
+        }
+        this.writeQueue = new WriteBehindQueue<>(linkOperator);
+
+        if (config.isAltIndexEnabled()) {
+            loadLinks();
+            startPruneTask();
+            startFlushTask();
+        }
+    }
+
+    /**
+     * Loads links within the retention window; older rows are deleted.
+     */
+    private void loadLinks() {
+        long cutoff = retentionCutoff();
+        for (AltLinkData link : linkOperator.getAll()) {
+            if (link.getLastSeen() < cutoff) {
+                writeQueue.delete(link);
+            } else {
+                addLink(link);
+            }
+        }
+        log.info("Loaded {} alt account links", ipsByPlayer.size());
+    }
+
+    private void startPruneTask() {
+        if (pruneTask != null) {
+            pruneTask.cancel();
+        }
+
+        long interval = TimeUnit.HOURS.toSeconds(1) * 20L;
+        pruneTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                prune();
+            }
+        }.runTaskTimerAsynchronously(bukkitPlugin, interval, interval);
+    }
+
+    private void startFlushTask() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+
+        flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                writeQueue.flush();
+            }
+        }.runTaskTimerAsynchronously(bukkitPlugin, FLUSH_INTERVAL_TICKS, FLUSH_INTERVAL_TICKS);
+    }
+
+    /**
+     * Stops background tasks and writes all queued link changes.
+     */
+    public void shutdown() {
+        if (pruneTask != null) {
+            pruneTask.cancel();
+            pruneTask = null;
+        }
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (writeQueue != null) {
+            writeQueue.flushAll();
+        }
+    }
+
+    /**
+     * Records a login. Cheap enough to call on the login thread; storage writes
+     * are queued and flushed asynchronously.
+     *
+     * @param playerUuid the player's UUID
+     * @param playerName the player's name
+     * @param address    the connecting address
+     */
+    public void record(UUID playerUuid, String playerName, @Nullable InetAddress address) {
+        if (!config.isAltIndexEnabled() || address == null) {
+            return;
+        }
+
+        String ip = IpRange.of(address).toString();
+        String player = playerUuid.toString();
+        long now = System.currentTimeMillis();
+
+        Map<String, AltLinkData> accounts = linksByIp.computeIfAbsent(ip, key -> new ConcurrentHashMap<>());
+        AltLinkData link = AltLinkData.builder()
+            .uuid(UUID.randomUUID())
+            .playerUuid(player)
+            .playerName(playerName)
+            .ipAddress(ip)
+            .lastSeen(now)
+            .build();
+        AltLinkData existing = accounts.putIfAbsent(player, link);
+
+        if (existing == null) {
+            ipsByPlayer.computeIfAbsent(player, key -> ConcurrentHashMap.newKeySet()).add(ip);
+            evictOverflow(accounts);
+            writeQueue.insert(link);
+            return;
+        }
+
+        long previous = existing.getLastSeen();
+        existing.setLastSeen(now);
+        existing.setPlayerName(playerName);
+        if (now - previous >= PERSIST_INTERVAL) {
+            writeQueue.update(existing);
+        }
+    }
+
+    /**
+     * Finds accounts that have shared an IP address with a player within the
+     * retention window, most recently seen first.
+     *
+     * @param playerUuid the player's UUID
+     * @return the alts, excluding the player
+     */
+    public List<AltAccount> findAlts(UUID playerUuid) {
+        String player = playerUuid.toString();
+        Set<String> ips = ipsByPlayer.get(player);
+        if (ips == null) {
+            return Collections.emptyList();
+        }
+
+        long cutoff = retentionCutoff();
+        Map<String, AltAccount> alts = new HashMap<>();
+        for (String ip : ips) {
+            Map<String, AltLinkData> accounts = linksByIp.get(ip);
+            if (accounts == null) {
+                continue;
+            }
+            for (AltLinkData link : accounts.values()) {
+                if (player.equals(link.getPlayerUuid()) || link.getLastSeen() < cutoff) {
+                    continue;
+                }
+                alts.computeIfAbsent(link.getPlayerUuid(),
+                        key -> new AltAccount(UUID.fromString(key), link.getPlayerName()))
+                    .addSharedIp(ip, link.getLastSeen());
+            }
+        }
+
+        List<AltAccount> result = new ArrayList<>(alts.values());
+        result.sort(Comparator.comparingLong(AltAccount::getLastSeen).reversed());
+        return result;
+    }
+
+    /**
+     * Finds an active ban on one of a player's known alts, when
+     * {@code features.ban.alts.extend-bans} is enabled.
+     *
+     * @param playerUuid the connecting player's UUID
+     * @return an alt's active ban, or null
+     */
+    @Nullable
+    public BanData findBannedAlt(UUID playerUuid) {
+        if (!config.isAltIndexEnabled() || !config.isAltExtendBans()) {
+            return null;
+        }
+        for (AltAccount alt : findAlts(playerUuid)) {
+            BanData ban = banService.getActiveBan(alt.getPlayerUuid());
+            if (ban != null) {
+                return ban;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Drops links older than the retention window from memory and storage.
+     *
+     * @return the number of links removed
+     */
+    public int prune() {
+        long cutoff = retentionCutoff();
+        int removed = 0;
+        for (Map<String, AltLinkData> accounts : linksByIp.values()) {
+            for (AltLinkData link : accounts.values()) {
+                if (link.getLastSeen() < cutoff) {
+                    removeLink(link);
+                    writeQueue.delete(link);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Keeps at most the configured number of accounts per IP, dropping the least recently seen.
+     */
+    private void evictOverflow(Map<String, AltLinkData> accounts) {
+        int max = config.getAltMaxAccountsPerIp();
+        while (accounts.size() > max) {
+            AltLinkData oldest = null;
+            for (AltLinkData link : accounts.values()) {
+                if (oldest == null || link.getLastSeen() < oldest.getLastSeen()) {
+                    oldest = link;
+                }
+            }
+            if (oldest == null) {
+                return;
+            }
+            removeLink(oldest);
+            writeQueue.delete(oldest);
+        }
+    }
+
+    private void addLink(AltLinkData link) {
+        linksByIp.computeIfAbsent(link.getIpAddress(), key -> new ConcurrentHashMap<>())
+            .put(link.getPlayerUuid(), link);
+        ipsByPlayer.computeIfAbsent(link.getPlayerUuid(), key -> ConcurrentHashMap.newKeySet())
+            .add(link.getIpAddress());
+    }
+
+    private void removeLink(AltLinkData link) {
+        Map<String, AltLinkData> accounts = linksByIp.get(link.getIpAddress());
+        if (accounts != null) {
+            accounts.remove(link.getPlayerUuid(), link);
+            if (accounts.isEmpty()) {
+                linksByIp.remove(link.getIpAddress(), accounts);
+            }
+        }
+        Set<String> ips = ipsByPlayer.get(link.getPlayerUuid());
+        if (ips != null) {
+            ips.remove(link.getIpAddress());
+            if (ips.isEmpty()) {
+                ipsByPlayer.remove(link.getPlayerUuid(), ips);
+            }
+        }
+    }
+
+    private long retentionCutoff() {
+        return System.currentTimeMillis() - TimeUnit.DAYS.toMillis(config.getAltRetentionDays());
+    }
+
+    /**
+     * An account that shared at least one IP address with the queried player.
+     */
+    public static class AltAccount {
+        private final UUID playerUuid;
+        private final String playerName;
+        private final List<String> sharedIps = new ArrayList<>();
+        private long lastSeen;
+
+        public AltAccount(UUID playerUuid, String playerName) {
+            this.playerUuid = playerUuid;
+            this.playerName = playerName;
+        }
+
+        void addSharedIp(String ip, long seen) {
+            sharedIps.add(ip);
+            lastSeen = Math.max(lastSeen, seen);
+        }
+
+        public UUID getPlayerUuid() {
+            return playerUuid;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public List<String> getSharedIps() {
+            return sharedIps;
+        }
+
+        public long getLastSeen() {
+            return lastSeen;
+        }
+    }
+}
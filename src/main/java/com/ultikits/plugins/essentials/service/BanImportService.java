@@ -0,0 +1,377 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.utils.IpRange;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Imports bans from vanilla ban lists and EssentialsX userdata.
+ * <p>
+ * 从原版封禁列表和 EssentialsX 用户数据导入封禁。
+ * <p>
+ * Sources are streamed one entry at a time (JSON lists with a streaming reader,
+ * userdata one file at a time), so memory stays bounded by the batch size and the
+ * set of keys already seen. Entries are de-duplicated against active bans and
+ * written in chunks of {@code features.ban.import.batch-size} on an async thread.
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class BanImportService {
+
+    private static final String VANILLA_DATE_FORMAT = "yyyy-MM-dd HH:mm:ss Z";
+
+    @Autowired
+    private BanService banService;
+
+    @Autowired
+    private EssentialsConfig config;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Supported import sources.
+     */
+    public enum Source {
+        /** {@code banned-players.json} and {@code banned-ips.json} in the server folder. */
+        VANILLA,
+        /** {@code plugins/Essentials/userdata/*.yml}. */
+        ESSENTIALS
+    }
+
+    /**
+     * Starts an import on an async thread.
+     *
+     * @param source   what to import
+     * @param progress receives progress after every batch and once when done, on the main thread
+     * @return false if another import is already running
+     */
+    public boolean startImport(Source source, Consumer<ImportProgress> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Plugin bukkitPlugin = Bukkit.getPluginManager().getPlugin("UltiTools");
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                ImportProgress result = new ImportProgress();
+                try {
+                    runImport(source, result, snapshot -> new BukkitRunnable() {
+                        @Override
+                        public void run() {
+                            progress.accept(snapshot);
+                        }
+                    }.runTask(bukkitPlugin));
+                } catch (IOException | RuntimeException e) {
+                    // Malformed JSON surfaces as IllegalStateException from the reader
+                    log.error("Ban import from {} failed", source, e);
+                    result.failed = true;
+                } finally {
+                    running.set(false);
+                }
+                ImportProgress done = result.snapshot(true);
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        progress.accept(done);
+                    }
+                }.runTask(bukkitPlugin);
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
+        return true;
+    }
+
+    /**
+     * Runs an import on the calling thread.
+     *
+     * @param source   what to import
+     * @param result   counters, updated as the import runs
+     * @param progress receives a snapshot after every written batch
+     * @throws IOException if a source file cannot be read
+     */
+    void runImport(Source source, ImportProgress result, Consumer<ImportProgress> progress) throws IOException {
+        Batcher batcher = new Batcher(result, progress);
+        File serverFolder = Bukkit.getWorldContainer();
+
+        if (source == Source.VANILLA) {
+            readVanillaFile(new File(serverFolder, "banned-players.json"), false, batcher);
+            readVanillaFile(new File(serverFolder, "banned-ips.json"), true, batcher);
+        } else {
+            File userdata = new File(serverFolder, "plugins/Essentials/userdata");
+            if (userdata.isDirectory()) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(userdata.toPath(), "*.yml")) {
+                    for (Path file : files) {
+                        batcher.accept(readEssentialsUser(file.toFile()));
+                    }
+                }
+            }
+        }
+
+        batcher.flush();
+    }
+
+    private void readVanillaFile(File file, boolean ipList, Batcher batcher) throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            readVanillaList(reader, ipList, batcher);
+        }
+    }
+
+    /**
+     * Streams a vanilla {@code banned-players.json} or {@code banned-ips.json} array.
+     *
+     * @param reader the JSON source
+     * @param ipList true for {@code banned-ips.json}
+     * @param sink   receives one ban per entry, or null for entries that cannot be imported
+     */
+    static void readVanillaList(Reader reader, boolean ipList, Consumer<BanData> sink) throws IOException {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(VANILLA_DATE_FORMAT, Locale.ROOT);
+        JsonReader json = new JsonReader(reader);
+        json.setLenient(true);
+        json.beginArray();
+        while (json.hasNext()) {
+            Map<String, String> fields = new HashMap<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (json.peek() == JsonToken.STRING) {
+                    fields.put(name, json.nextString());
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            sink.accept(ipList ? vanillaIpBan(fields, dateFormat) : vanillaPlayerBan(fields, dateFormat));
+        }
+        json.endArray();
+    }
+
+    @Nullable
+    private static BanData vanillaPlayerBan(Map<String, String> fields, SimpleDateFormat dateFormat) {
+        String uuid = fields.get("uuid");
+        if (uuid == null || parseUuid(uuid) == null) {
+            return null;
+        }
+        return BanData.builder()
+            .uuid(UUID.randomUUID())
+            .playerUuid(parseUuid(uuid).toString())
+            .playerName(fields.getOrDefault("name", uuid))
+            .reason(fields.getOrDefault("reason", "无理由"))
+            .bannedByName(fields.getOrDefault("source", "Server"))
+            .banTime(parseVanillaDate(fields.get("created"), dateFormat, System.currentTimeMillis()))
+            .expireTime(parseVanillaDate(fields.get("expires"), dateFormat, -1))
+            .active(true)
+            .build();
+    }
+
+    @Nullable
+    private static BanData vanillaIpBan(Map<String, String> fields, SimpleDateFormat dateFormat) {
+        IpRange range = IpRange.parse(fields.get("ip"));
+        if (range == null) {
+            return null;
+        }
+        return BanData.builder()
+            .uuid(UUID.randomUUID())
+            .playerName(range.toString())
+            .ipAddress(range.toString())
+            .reason(fields.getOrDefault("reason", "无理由"))
+            .bannedByName(fields.getOrDefault("source", "Server"))
+            .banTime(parseVanillaDate(fields.get("created"), dateFormat, System.currentTimeMillis()))
+            .expireTime(parseVanillaDate(fields.get("expires"), dateFormat, -1))
+            .active(true)
+            .build();
+    }
+
+    private static long parseVanillaDate(@Nullable String value, SimpleDateFormat dateFormat, long fallback) {
+        if (value == null || "forever".equalsIgnoreCase(value)) {
+            return fallback;
+        }
+        try {
+            return dateFormat.parse(value).getTime();
+        } catch (ParseException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * Reads the ban section of one EssentialsX userdata file.
+     * Supports both {@code ban.reason}/{@code ban.timeout} and the legacy
+     * {@code ban}/{@code bantimeout} layout.
+     *
+     * @param file the {@code <uuid>.yml} file
+     * @return the ban, or null if the user is not banned
+     */
+    @Nullable
+    static BanData readEssentialsUser(File file) {
+        String fileName = file.getName();
+        UUID uuid = parseUuid(fileName.substring(0, fileName.length() - ".yml".length()));
+        if (uuid == null) {
+            return null;
+        }
+
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        String reason;
+        long timeout;
+        if (yaml.isConfigurationSection("ban")) {
+            reason = yaml.getString("ban.reason");
+            timeout = yaml.getLong("ban.timeout", 0);
+        } else {
+            reason = yaml.getString("ban");
+            timeout = yaml.getLong("bantimeout", 0);
+        }
+        if (reason == null) {
+            return null;
+        }
+
+        String name = yaml.getString("last-account-name", yaml.getString("lastAccountName", uuid.toString()));
+        return BanData.builder()
+            .uuid(UUID.randomUUID())
+            .playerUuid(uuid.toString())
+            .playerName(name)
+            .reason(reason.isEmpty() ? "无理由" : reason)
+            .bannedByName("Essentials")
+            .banTime(file.lastModified())
+            .expireTime(timeout > 0 ? timeout : -1)
+            .active(true)
+            .build();
+    }
+
+    @Nullable
+    private static UUID parseUuid(String text) {
+        try {
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * De-duplicates entries and writes them in fixed-size chunks.
+     */
+    private final class Batcher implements Consumer<BanData> {
+        private final ImportProgress result;
+        private final Consumer<ImportProgress> progress;
+        private final Set<String> seenKeys = new HashSet<>();
+        private final List<BanData> batch = new ArrayList<>();
+        private final int batchSize = Math.max(1, config.getBanImportBatchSize());
+
+        Batcher(ImportProgress result, Consumer<ImportProgress> progress) {
+            this.result = result;
+            this.progress = progress;
+            for (BanData existing : banService.getActiveBans()) {
+                seenKeys.add(dedupKey(existing));
+            }
+        }
+
+        @Override
+        public void accept(@Nullable BanData ban) {
+            result.processed++;
+            if (ban == null || ban.hasExpired()) {
+                result.skipped++;
+                return;
+            }
+            if (!seenKeys.add(dedupKey(ban))) {
+                result.duplicates++;
+                return;
+            }
+            batch.add(ban);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            int written = banService.importBans(batch);
+            result.imported += written;
+            result.skipped += batch.size() - written;
+            batch.clear();
+            progress.accept(result.snapshot(false));
+        }
+    }
+
+    private static String dedupKey(BanData ban) {
+        if (ban.getPlayerUuid() != null) {
+            return "player:" + ban.getPlayerUuid();
+        }
+        IpRange range = IpRange.parse(ban.getIpAddress());
+        return "ip:" + (range != null ? range.toString() : ban.getIpAddress());
+    }
+
+    /**
+     * Import counters.
+     */
+    public static class ImportProgress {
+        private int processed;
+        private int imported;
+        private int duplicates;
+        private int skipped;
+        private boolean failed;
+        private boolean done;
+
+        ImportProgress snapshot(boolean finished) {
+            ImportProgress copy = new ImportProgress();
+            copy.processed = processed;
+            copy.imported = imported;
+            copy.duplicates = duplicates;
+            copy.skipped = skipped;
+            copy.failed = failed;
+            copy.done = finished;
+            return copy;
+        }
+
+        public int getProcessed() {
+            return processed;
+        }
+
+        public int getImported() {
+            return imported;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+}
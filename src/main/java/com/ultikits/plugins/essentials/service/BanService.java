@@ -2,18 +2,37 @@ package com.ultikits.plugins.essentials.service;
 
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.utils.IpRange;
+import com.ultikits.plugins.essentials.utils.IpRangeTrie;
+import com.ultikits.plugins.essentials.utils.KickMessageTemplate;
+import com.ultikits.plugins.essentials.utils.LocaleMessages;
+import com.ultikits.plugins.essentials.utils.MessageUtils;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.Service;
 import com.ultikits.ultitools.interfaces.DataOperator;
+import com.ultikits.ultitools.interfaces.Query;
 import lombok.extern.slf4j.Slf4j;
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
 import javax.annotation.Nullable;
 import com.ultikits.ultitools.annotations.PostConstruct;
+import java.net.InetAddress;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +41,19 @@ import java.util.stream.Collectors;
  * 管理玩家封禁的服务。
  * <p>
  * Note: Login ban checks are handled by {@link com.ultikits.plugins.essentials.listener.BanListener}
+ * <p>
+ * Active bans are kept in an in-memory index (player UUID and IP address) that is
+ * loaded at startup and updated by every ban/unban, so a login check does not
+ * touch storage. The index is periodically rebuilt from storage to catch changes
+ * made outside this service. IP bans may be single addresses or CIDR ranges
+ * (IPv4 and IPv6); they are matched through a binary prefix trie.
+ * <p>
+ * Temporary bans are tracked in a min-heap keyed on expiry time, whether or not
+ * the index is enabled; an async task drains due entries and marks them
+ * inactive in batches.
+ * <p>
+ * When login checks fall back to storage, concurrent lookups for the same UUID
+ * or address share one query, and "not banned" answers are cached briefly.
  *
  * @author wisdomme
  * @version 1.1.0
@@ -38,6 +70,122 @@ public class BanService {
 
     private DataOperator<BanData> banOperator;
 
+    private Plugin bukkitPlugin;
+
+    /**
+     * Active bans: player UUID string -> ban
+     */
+    private final Map<String, BanData> activeBansByPlayer = new ConcurrentHashMap<>();
+
+    /**
+     * Active bans: canonical IP address or CIDR range -> ban
+     */
+    private final Map<String, BanData> activeBansByIp = new ConcurrentHashMap<>();
+
+    /**
+     * Active IP bans by address bits, for range matching at login.
+     */
+    private volatile IpRangeTrie<BanData> ipBanTrie = new IpRangeTrie<>();
+
+    /**
+     * Guards index mutations so a rebuild never loses a concurrent ban/unban.
+     */
+    private final Object indexLock = new Object();
+
+    /**
+     * Serializes rebuilds, which read storage without holding {@link #indexLock}.
+     */
+    private final Object reloadLock = new Object();
+
+    /**
+     * Bans and unbans made while a rebuild is reading storage, replayed onto the
+     * fresh index before it is swapped in. Null when no rebuild is running.
+     * Guarded by {@link #indexLock}.
+     */
+    @Nullable
+    private List<IndexChange> reloadJournal;
+
+    /**
+     * Whether the index has been loaded. Lookups fall back to storage until it is.
+     */
+    private volatile boolean indexLoaded = false;
+
+    /**
+     * Temporary bans ordered by expiry time, drained by the expiry task.
+     * Guarded by {@link #indexLock}.
+     */
+    private final PriorityQueue<BanData> expiryQueue =
+        new PriorityQueue<>(Comparator.comparingLong(BanData::getExpireTime));
+
+    /**
+     * Storage lookups currently running, keyed by lookup key. Concurrent logins
+     * for the same UUID or address wait on the same future.
+     */
+    private final Map<String, CompletableFuture<BanData>> inFlightLookups = new ConcurrentHashMap<>();
+
+    /**
+     * Lookup key -> time until which a "not banned" answer may be reused.
+     */
+    private final Map<String, Long> notBannedUntil = new ConcurrentHashMap<>();
+
+    /**
+     * Bumped by every ban, so a lookup that started before it does not cache
+     * its "not banned" answer.
+     */
+    private final AtomicLong banGeneration = new AtomicLong();
+
+    private static final int NEGATIVE_CACHE_PRUNE_SIZE = 10000;
+
+    /**
+     * Login checks that ran past {@code features.ban.lookup.timeout}.
+     */
+    private final AtomicLong loginTimeouts = new AtomicLong();
+
+    /**
+     * Compiled kick screens: ban id -> language ("" for the server language) -> template.
+     */
+    private final Map<String, Map<String, KickMessageTemplate>> kickMessages = new ConcurrentHashMap<>();
+
+    private static final int KICK_MESSAGE_CACHE_SIZE = 10000;
+
+    private static final int PLAYER_LANGUAGE_CACHE_SIZE = 10000;
+
+    /**
+     * Last-reported client language per player UUID, so login kicks can be
+     * localized. Kept past logout, since it is needed at the next login; the
+     * least recently used entries are dropped. Guarded by itself.
+     */
+    private final Map<String, String> playerLanguages = new LinkedHashMap<String, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > PLAYER_LANGUAGE_CACHE_SIZE;
+        }
+    };
+
+    private static final int RECENT_BAN_CACHE_SIZE = 10000;
+
+    /**
+     * Bans found by storage lookups or made on this server while the index is
+     * not loaded, by lookup key, least recently used first. This is the
+     * last-known state a timed-out login check falls back to. Guarded by itself.
+     */
+    private final Map<String, BanData> recentBans = new LinkedHashMap<String, BanData>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BanData> eldest) {
+            return size() > RECENT_BAN_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Runs storage lookups for login checks, so a slow query can be abandoned at its deadline.
+     */
+    private ExecutorService lookupExecutor;
+
+    private static final String[] DEFAULT_UNITS = {"已过期", "天", "小时", "分钟", "秒"};
+
+    private BukkitTask verifyTask;
+    private BukkitTask expiryTask;
+
     /**
      * Initializes the service with the data operator.
      * Automatically called by the IoC container after construction.
@@ -45,6 +193,398 @@ public class BanService {
     @PostConstruct
     public void init() {
         this.banOperator = plugin.getDataOperator(BanData.class);
+        this.bukkitPlugin = Bukkit.getPluginManager().getPlugin("UltiTools");
+
+        if (config.isBanIndexEnabled()) {
+            reloadIndex();
+            startVerifyTask();
+        } else {
+            loadUnindexedBans();
+        }
+        startExpiryTask();
+    }
+
+    /**
+     * Rebuilds the active ban index from storage.
+     *
+     * @return the number of index entries that differed from storage
+     */
+    public int reloadIndex() {
+        synchronized (reloadLock) {
+            synchronized (indexLock) {
+                reloadJournal = new ArrayList<>();
+            }
+
+            // Storage is read outside the index lock, so bans and unbans are not held up by it
+            List<BanData> bans;
+            try {
+                bans = banOperator.query()
+                    .where("active").eq(true)
+                    .list();
+            } catch (RuntimeException e) {
+                synchronized (indexLock) {
+                    reloadJournal = null;
+                }
+                throw e;
+            }
+
+            Map<String, BanData> byPlayer = new HashMap<>();
+            Map<String, BanData> byIp = new HashMap<>();
+            List<BanData> temporary = new ArrayList<>();
+            for (BanData ban : bans) {
+                if (!ban.isActive()) {
+                    continue;
+                }
+                if (!ban.isPermanent()) {
+                    // Expired rows go straight to the heap so the next sweep deactivates them
+                    temporary.add(ban);
+                }
+                if (ban.hasExpired()) {
+                    continue;
+                }
+                if (ban.getPlayerUuid() != null) {
+                    byPlayer.put(ban.getPlayerUuid(), ban);
+                }
+                if (ban.getIpAddress() != null && !ban.getIpAddress().isEmpty()) {
+                    byIp.put(ipKey(ban.getIpAddress()), ban);
+                }
+            }
+
+            synchronized (indexLock) {
+                return swapIndex(byPlayer, byIp, temporary);
+            }
+        }
+    }
+
+    /**
+     * Replaces the index with a freshly loaded one, after replaying the bans and
+     * unbans made while it was loading. Must hold {@link #indexLock}.
+     */
+    private int swapIndex(Map<String, BanData> byPlayer, Map<String, BanData> byIp, List<BanData> temporary) {
+        List<IndexChange> journal = reloadJournal;
+        reloadJournal = null;
+        for (IndexChange change : journal) {
+            BanData ban = change.ban;
+            String address = ban.getIpAddress() != null && !ban.getIpAddress().isEmpty()
+                ? ipKey(ban.getIpAddress()) : null;
+            if (change.added) {
+                if (ban.getPlayerUuid() != null) {
+                    byPlayer.put(ban.getPlayerUuid(), ban);
+                }
+                if (address != null) {
+                    byIp.put(address, ban);
+                }
+                if (!ban.isPermanent()) {
+                    temporary.removeIf(queued -> Objects.equals(queued.getId(), ban.getId()));
+                    temporary.add(ban);
+                }
+                continue;
+            }
+            if (ban.getPlayerUuid() != null) {
+                byPlayer.computeIfPresent(ban.getPlayerUuid(),
+                    (key, indexed) -> Objects.equals(indexed.getId(), ban.getId()) ? null : indexed);
+            }
+            if (address != null) {
+                byIp.computeIfPresent(address,
+                    (key, indexed) -> Objects.equals(indexed.getId(), ban.getId()) ? null : indexed);
+            }
+            temporary.removeIf(queued -> Objects.equals(queued.getId(), ban.getId()));
+        }
+
+        IpRangeTrie<BanData> trie = new IpRangeTrie<>();
+        for (Map.Entry<String, BanData> entry : byIp.entrySet()) {
+            IpRange range = IpRange.parse(entry.getKey());
+            if (range != null) {
+                trie.put(range, entry.getValue());
+            }
+        }
+
+        int drift = countDrift(activeBansByPlayer, byPlayer) + countDrift(activeBansByIp, byIp);
+
+        activeBansByPlayer.keySet().retainAll(byPlayer.keySet());
+        activeBansByPlayer.putAll(byPlayer);
+        activeBansByIp.keySet().retainAll(byIp.keySet());
+        activeBansByIp.putAll(byIp);
+        ipBanTrie = trie;
+        expiryQueue.clear();
+        expiryQueue.addAll(temporary);
+        kickMessages.clear();
+        indexLoaded = true;
+
+        log.info("Loaded {} active bans into index", activeBansByPlayer.size());
+        return drift;
+    }
+
+    /**
+     * Counts keys that were added, removed or point to a different ban record.
+     */
+    private static int countDrift(Map<String, BanData> current, Map<String, BanData> fresh) {
+        int drift = 0;
+        for (Map.Entry<String, BanData> entry : fresh.entrySet()) {
+            BanData existing = current.get(entry.getKey());
+            if (existing == null || !Objects.equals(existing.getId(), entry.getValue().getId())) {
+                drift++;
+            }
+        }
+        for (String key : current.keySet()) {
+            if (!fresh.containsKey(key)) {
+                drift++;
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * Starts the periodic index consistency check.
+     */
+    private void startVerifyTask() {
+        if (verifyTask != null) {
+            verifyTask.cancel();
+        }
+
+        int interval = config.getBanIndexVerifyInterval();
+        if (interval <= 0) {
+            return;
+        }
+
+        verifyTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                int drift = reloadIndex();
+                if (drift > 0) {
+                    log.warn("Ban index was out of sync with storage ({} entries), rebuilt", drift);
+                }
+            }
+        }.runTaskTimerAsynchronously(bukkitPlugin, interval * 20L, interval * 20L);
+    }
+
+    /**
+     * Starts the task that deactivates expired temporary bans.
+     */
+    private void startExpiryTask() {
+        if (expiryTask != null) {
+            expiryTask.cancel();
+        }
+
+        long interval = config.getBanExpiryCheckInterval() * 20L;
+
+        expiryTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                expireDueBans();
+            }
+        }.runTaskTimerAsynchronously(bukkitPlugin, interval, interval);
+    }
+
+    /**
+     * Deactivates every temporary ban whose expiry time has passed.
+     * Due bans are removed from the index immediately and written to storage
+     * in batches of {@code features.ban.expiry.batch-size}.
+     *
+     * @return the number of bans deactivated
+     */
+    public int expireDueBans() {
+        int batchSize = Math.max(1, config.getBanExpiryBatchSize());
+        int total = 0;
+        List<BanData> batch;
+
+        do {
+            batch = pollDueBans(System.currentTimeMillis(), batchSize);
+            for (BanData ban : batch) {
+                ban.setActive(false);
+                try {
+                    banOperator.update(ban);
+                } catch (IllegalAccessException e) {
+                    log.error("Failed to deactivate expired ban {}", ban.getId(), e);
+                }
+            }
+            total += batch.size();
+        } while (batch.size() == batchSize);
+
+        if (total > 0) {
+            log.info("Deactivated {} expired bans", total);
+        }
+        return total;
+    }
+
+    /**
+     * Removes up to {@code limit} due bans from the heap and the index.
+     */
+    private List<BanData> pollDueBans(long now, int limit) {
+        List<BanData> due = new ArrayList<>();
+        synchronized (indexLock) {
+            while (due.size() < limit && !expiryQueue.isEmpty()
+                    && expiryQueue.peek().getExpireTime() < now) {
+                BanData ban = expiryQueue.poll();
+                deindexBan(ban);
+                due.add(ban);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Gets the pool login checks run storage lookups on.
+     *
+     * @return the lookup executor, created on first use
+     */
+    public synchronized ExecutorService getLookupExecutor() {
+        if (lookupExecutor == null) {
+            lookupExecutor = Executors.newFixedThreadPool(4, runnable -> {
+                Thread thread = new Thread(runnable, "UltiEssentials-BanLookup");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return lookupExecutor;
+    }
+
+    /**
+     * Stops background tasks and the login lookup pool.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (lookupExecutor != null) {
+                lookupExecutor.shutdownNow();
+                lookupExecutor = null;
+            }
+        }
+        if (verifyTask != null) {
+            verifyTask.cancel();
+            verifyTask = null;
+        }
+        if (expiryTask != null) {
+            expiryTask.cancel();
+            expiryTask = null;
+        }
+    }
+
+    /**
+     * Adds an active ban to the index.
+     */
+    private void indexBan(BanData ban) {
+        // A new ban may cover any cached "not banned" key, including via a range
+        banGeneration.incrementAndGet();
+        notBannedUntil.clear();
+        synchronized (indexLock) {
+            if (reloadJournal != null) {
+                reloadJournal.add(new IndexChange(ban, true));
+            }
+            if (!indexLoaded) {
+                indexRangeBan(ban);
+                rememberBan(ban);
+                if (!ban.isPermanent()) {
+                    expiryQueue.add(ban);
+                }
+                return;
+            }
+            if (ban.getPlayerUuid() != null) {
+                activeBansByPlayer.put(ban.getPlayerUuid(), ban);
+            }
+            if (ban.getIpAddress() != null && !ban.getIpAddress().isEmpty()) {
+                String key = ipKey(ban.getIpAddress());
+                activeBansByIp.put(key, ban);
+                IpRange range = IpRange.parse(key);
+                if (range != null) {
+                    ipBanTrie.put(range, ban);
+                }
+            }
+            if (!ban.isPermanent()) {
+                expiryQueue.add(ban);
+            }
+        }
+    }
+
+    /**
+     * Adds a range ban to the trie while the full index is not loaded. An exact
+     * storage query cannot find the range covering an address, so range bans
+     * are always kept in memory. Must hold {@link #indexLock}.
+     */
+    private void indexRangeBan(BanData ban) {
+        if (ban.getIpAddress() == null || ban.getIpAddress().isEmpty()) {
+            return;
+        }
+        IpRange range = IpRange.parse(ban.getIpAddress());
+        if (range != null && !range.isSingleHost()) {
+            ipBanTrie.put(range, ban);
+        }
+    }
+
+    /**
+     * Loads active range bans, and temporary bans into the expiry heap, when the
+     * full index is disabled. Expired rows are queued too, so the first sweep
+     * deactivates them.
+     */
+    private void loadUnindexedBans() {
+        List<BanData> bans = banOperator.query()
+            .where("active").eq(true)
+            .list();
+        synchronized (indexLock) {
+            expiryQueue.clear();
+            for (BanData ban : bans) {
+                if (!ban.isActive()) {
+                    continue;
+                }
+                if (!ban.isPermanent()) {
+                    expiryQueue.add(ban);
+                }
+                if (!ban.hasExpired()) {
+                    indexRangeBan(ban);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes a ban from the index if the index still points to that record.
+     */
+    private void deindexBan(BanData ban) {
+        if (ban.getId() != null) {
+            kickMessages.remove(ban.getId());
+            synchronized (recentBans) {
+                recentBans.values().removeIf(recent -> ban.getId().equals(recent.getId()));
+            }
+        }
+        synchronized (indexLock) {
+            if (reloadJournal != null) {
+                reloadJournal.add(new IndexChange(ban, false));
+            }
+            if (indexLoaded && ban.getPlayerUuid() != null) {
+                activeBansByPlayer.computeIfPresent(ban.getPlayerUuid(),
+                    (key, indexed) -> Objects.equals(indexed.getId(), ban.getId()) ? null : indexed);
+            }
+            if (ban.getIpAddress() != null) {
+                String key = ipKey(ban.getIpAddress());
+                activeBansByIp.computeIfPresent(key,
+                    (k, indexed) -> Objects.equals(indexed.getId(), ban.getId()) ? null : indexed);
+                // Range bans stay in the trie even without the index, see indexRangeBan
+                IpRange range = IpRange.parse(key);
+                if (range != null) {
+                    BanData indexed = ipBanTrie.get(range);
+                    if (indexed != null && Objects.equals(indexed.getId(), ban.getId())) {
+                        ipBanTrie.remove(range);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Normalizes a stored or user-supplied address or range to its canonical form.
+     */
+    private static String ipKey(String ipAddress) {
+        IpRange range = IpRange.parse(ipAddress);
+        return range != null ? range.toString() : ipAddress;
+    }
+
+    private static final class IndexChange {
+        private final BanData ban;
+        private final boolean added;
+
+        IndexChange(BanData ban, boolean added) {
+            this.ban = ban;
+            this.added = added;
+        }
     }
     
     /**
@@ -87,166 +627,667 @@ public class BanService {
             return BanResult.ALREADY_BANNED;
         }
         
-        long now = System.currentTimeMillis();
-        long expireTime = duration == -1 ? -1 : now + duration;
-        
-        BanData ban = BanData.builder()
-            .uuid(UUID.randomUUID())
-            .playerUuid(targetUuid.toString())
-            .playerName(targetName)
-            .reason(reason != null ? reason : "无理由")
-            .bannedBy(operatorUuid != null ? operatorUuid.toString() : null)
-            .bannedByName(operatorName)
-            .banTime(now)
-            .expireTime(expireTime)
-            .active(true)
-            .ipAddress(ipAddress)
-            .build();
+        BanData ban = newBan(targetUuid, targetName, reason, operatorUuid, operatorName,
+            duration, ipAddress != null ? ipKey(ipAddress) : null);
         
         banOperator.insert(ban);
+        indexBan(ban);
         
         // Kick the player if online
         Player target = Bukkit.getPlayer(targetUuid);
         if (target != null) {
-            target.kickPlayer(formatKickMessage(ban));
+            target.kickPlayer(formatKickMessage(ban, target.getLocale()));
         }
         
         return BanResult.SUCCESS;
     }
-    
+    
+    /**
+     * Bans an IP address or CIDR range, e.g. {@code 203.0.113.0/24} or {@code 2001:db8::/64}.
+     * Online players connecting from inside the range are kicked.
+     *
+     * @param range        the address range to ban
+     * @param reason       the ban reason
+     * @param operatorUuid UUID of the operator (null for console)
+     * @param operatorName name of the operator
+     * @param duration     ban duration in milliseconds (-1 for permanent)
+     * @return result of the ban operation
+     */
+    public BanResult banIp(IpRange range, String reason,
+                           @Nullable UUID operatorUuid, String operatorName, long duration) {
+        if (!config.isBanEnabled()) {
+            return BanResult.DISABLED;
+        }
+
+        String key = range.toString();
+        boolean alreadyBanned = indexLoaded
+            ? liveOrNull(activeBansByIp.get(key)) != null
+            : !queryActiveBans("ip_address", key).isEmpty();
+        if (alreadyBanned) {
+            return BanResult.ALREADY_BANNED;
+        }
+
+        BanData ban = newBan(null, key, reason, operatorUuid, operatorName, duration, key);
+
+        banOperator.insert(ban);
+        indexBan(ban);
+
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            if (online.getAddress() != null && online.getAddress().getAddress() != null
+                    && range.contains(online.getAddress().getAddress().getAddress())) {
+                online.kickPlayer(formatKickMessage(ban, online.getLocale()));
+            }
+        }
+
+        return BanResult.SUCCESS;
+    }
+    
+    /**
+     * Unbans a player.
+     *
+     * @param targetUuid the UUID of the player to unban
+     * @return true if unbanned, false if not banned
+     */
+    public boolean unbanPlayer(UUID targetUuid) {
+        return deactivateBans(queryActiveBans("player_uuid", targetUuid.toString()));
+    }
+    
+    /**
+     * Unbans a player by name.
+     *
+     * @param playerName the name of the player
+     * @return true if unbanned, false if not banned
+     */
+    public boolean unbanPlayerByName(String playerName) {
+        return deactivateBans(queryActiveBans("player_name", playerName));
+    }
+    
+    /**
+     * Unbans an IP address or CIDR range.
+     *
+     * @param ipAddress the IP address or range to unban
+     * @return true if unbanned, false if not banned
+     */
+    public boolean unbanIp(String ipAddress) {
+        return deactivateBans(queryActiveBans("ip_address", ipKey(ipAddress)));
+    }
+
+    /**
+     * Runs a ban wave off the main thread: targets are resolved and all ban rows
+     * written in one async pass, then affected online players are kicked in a
+     * single main-thread pass before the callback receives per-target results.
+     *
+     * @param targets      player names, UUIDs, IP addresses or CIDR ranges
+     * @param reason       the ban reason
+     * @param operatorUuid UUID of the operator (null for console)
+     * @param operatorName name of the operator
+     * @param duration     ban duration in milliseconds (-1 for permanent)
+     * @param callback     receives the results on the main thread
+     */
+    public void banWaveAsync(Collection<String> targets, String reason,
+                             @Nullable UUID operatorUuid, String operatorName, long duration,
+                             Consumer<List<WaveResult>> callback) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                List<WaveResult> results = banWave(targets, reason, operatorUuid, operatorName, duration);
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        kickWave(results);
+                        callback.accept(results);
+                    }
+                }.runTask(bukkitPlugin);
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
+    }
+
+    /**
+     * Runs an unban wave off the main thread.
+     *
+     * @param targets  player names, UUIDs, IP addresses or CIDR ranges
+     * @param callback receives the results on the main thread
+     */
+    public void unbanWaveAsync(Collection<String> targets, Consumer<List<WaveResult>> callback) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                List<WaveResult> results = unbanWave(targets);
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        callback.accept(results);
+                    }
+                }.runTask(bukkitPlugin);
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
+    }
+
+    /**
+     * Resolves wave targets and writes their bans. Does not kick anyone;
+     * call {@link #kickWave(List)} on the main thread afterwards.
+     * May block on player lookups, so must not run on the main thread.
+     *
+     * @return one result per distinct target, in input order
+     */
+    public List<WaveResult> banWave(Collection<String> targets, String reason,
+                                    @Nullable UUID operatorUuid, String operatorName, long duration) {
+        List<WaveResult> results = new ArrayList<>();
+        Set<String> seenKeys = new HashSet<>();
+        boolean enabled = config.isBanEnabled();
+
+        for (String target : new LinkedHashSet<>(targets)) {
+            if (!enabled) {
+                results.add(new WaveResult(target, WaveStatus.DISABLED, null));
+                continue;
+            }
+
+            BanData ban;
+            IpRange range = IpRange.parse(target);
+            if (range != null) {
+                String key = range.toString();
+                boolean alreadyBanned = !seenKeys.add("ip:" + key) || (indexLoaded
+                    ? liveOrNull(activeBansByIp.get(key)) != null
+                    : !queryActiveBans("ip_address", key).isEmpty());
+                if (alreadyBanned) {
+                    results.add(new WaveResult(target, WaveStatus.ALREADY_BANNED, null));
+                    continue;
+                }
+                ban = newBan(null, key, reason, operatorUuid, operatorName, duration, key);
+            } else {
+                OfflinePlayer player = resolvePlayer(target);
+                if (player == null) {
+                    results.add(new WaveResult(target, WaveStatus.NOT_FOUND, null));
+                    continue;
+                }
+                UUID uuid = player.getUniqueId();
+                if (!seenKeys.add("player:" + uuid) || getActiveBan(uuid) != null) {
+                    results.add(new WaveResult(target, WaveStatus.ALREADY_BANNED, null));
+                    continue;
+                }
+                String name = player.getName() != null ? player.getName() : target;
+                ban = newBan(uuid, name, reason, operatorUuid, operatorName, duration, null);
+            }
+
+            try {
+                banOperator.insert(ban);
+            } catch (RuntimeException e) {
+                log.error("Failed to write wave ban for {}", target, e);
+                results.add(new WaveResult(target, WaveStatus.FAILED, null));
+                continue;
+            }
+            indexBan(ban);
+            results.add(new WaveResult(target, WaveStatus.BANNED, ban));
+        }
+
+        return results;
+    }
+
+    /**
+     * Writes a chunk of already de-duplicated bans, e.g. from an import.
+     * Does not kick anyone. Must not run on the main thread.
+     *
+     * @param bans the bans to insert
+     * @return the number of rows written
+     */
+    public int importBans(List<BanData> bans) {
+        int written = 0;
+        for (BanData ban : bans) {
+            try {
+                banOperator.insert(ban);
+            } catch (RuntimeException e) {
+                log.error("Failed to import ban for {}", ban.getPlayerName(), e);
+                continue;
+            }
+            indexBan(ban);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Kicks every online player affected by the bans in a wave.
+     * Must run on the main thread.
+     */
+    public void kickWave(List<WaveResult> results) {
+        List<BanData> playerBans = new ArrayList<>();
+        List<BanData> ipBans = new ArrayList<>();
+        for (WaveResult result : results) {
+            BanData ban = result.getBan();
+            if (ban == null) {
+                continue;
+            }
+            (ban.getPlayerUuid() != null ? playerBans : ipBans).add(ban);
+        }
+        if (playerBans.isEmpty() && ipBans.isEmpty()) {
+            return;
+        }
+
+        Map<String, BanData> byPlayer = new HashMap<>();
+        for (BanData ban : playerBans) {
+            byPlayer.put(ban.getPlayerUuid(), ban);
+        }
+
+        for (Player online : Bukkit.getOnlinePlayers()) {
+            BanData ban = byPlayer.get(online.getUniqueId().toString());
+            if (ban == null && !ipBans.isEmpty()
+                    && online.getAddress() != null && online.getAddress().getAddress() != null) {
+                byte[] address = online.getAddress().getAddress().getAddress();
+                for (BanData ipBan : ipBans) {
+                    IpRange range = IpRange.parse(ipBan.getIpAddress());
+                    if (range != null && range.contains(address)) {
+                        ban = ipBan;
+                        break;
+                    }
+                }
+            }
+            if (ban != null) {
+                online.kickPlayer(formatKickMessage(ban, online.getLocale()));
+            }
+        }
+    }
+
+    /**
+     * Resolves wave targets and deactivates all of their active bans in one pass.
+     *
+     * @return one result per distinct target, in input order
+     */
+    public List<WaveResult> unbanWave(Collection<String> targets) {
+        List<WaveResult> results = new ArrayList<>();
+        Map<String, BanData> toDeactivate = new LinkedHashMap<>();
+
+        for (String target : new LinkedHashSet<>(targets)) {
+            List<BanData> bans;
+            IpRange range = IpRange.parse(target);
+            if (range != null) {
+                bans = queryActiveBans("ip_address", range.toString());
+            } else {
+                UUID uuid = parseUuid(target);
+                bans = uuid != null
+                    ? queryActiveBans("player_uuid", uuid.toString())
+                    : queryActiveBans("player_name", target);
+            }
+
+            for (BanData ban : bans) {
+                toDeactivate.putIfAbsent(ban.getId(), ban);
+            }
+            results.add(new WaveResult(target,
+                bans.isEmpty() ? WaveStatus.NOT_BANNED : WaveStatus.UNBANNED, null));
+        }
+
+        deactivateBans(new ArrayList<>(toDeactivate.values()));
+        return results;
+    }
+
+    /**
+     * Resolves a wave target to a known player by UUID or name.
+     */
+    @Nullable
+    private static OfflinePlayer resolvePlayer(String target) {
+        UUID uuid = parseUuid(target);
+        OfflinePlayer player = uuid != null ? Bukkit.getOfflinePlayer(uuid) : Bukkit.getOfflinePlayer(target);
+        if (player == null || player.getUniqueId() == null) {
+            return null;
+        }
+        if (uuid == null && !player.hasPlayedBefore() && !player.isOnline()) {
+            return null;
+        }
+        return player;
+    }
+
+    @Nullable
+    private static UUID parseUuid(String text) {
+        if (text.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static BanData newBan(@Nullable UUID playerUuid, String playerName, String reason,
+                                  @Nullable UUID operatorUuid, String operatorName,
+                                  long duration, @Nullable String ipAddress) {
+        long now = System.currentTimeMillis();
+        return BanData.builder()
+            .uuid(UUID.randomUUID())
+            .playerUuid(playerUuid != null ? playerUuid.toString() : null)
+            .playerName(playerName)
+            .reason(reason != null ? reason : "无理由")
+            .bannedBy(operatorUuid != null ? operatorUuid.toString() : null)
+            .bannedByName(operatorName)
+            .banTime(now)
+            .expireTime(duration == -1 ? -1 : now + duration)
+            .active(true)
+            .ipAddress(ipAddress)
+            .build();
+    }
+
     /**
-     * Unbans a player.
+     * Marks the given bans inactive in storage and removes them from the index.
      *
-     * @param targetUuid the UUID of the player to unban
-     * @return true if unbanned, false if not banned
+     * @param bans the active bans to deactivate
+     * @return true if there was anything to deactivate
      */
-    public boolean unbanPlayer(UUID targetUuid) {
-        List<BanData> activeBans = banOperator.query()
-            .where("player_uuid").eq(targetUuid.toString())
-            .list()
-            .stream()
-            .filter(b -> b.isActive() && !b.hasExpired())
-            .collect(Collectors.toList());
-
-        if (activeBans.isEmpty()) {
+    private boolean deactivateBans(List<BanData> bans) {
+        if (bans.isEmpty()) {
             return false;
         }
 
-        for (BanData ban : activeBans) {
+        for (BanData ban : bans) {
             ban.setActive(false);
             try {
                 banOperator.update(ban);
             } catch (IllegalAccessException e) {
                 log.error("Failed to update ban record", e);
             }
+            deindexBan(ban);
         }
 
         return true;
     }
-    
+
     /**
-     * Unbans a player by name.
-     *
-     * @param playerName the name of the player
-     * @return true if unbanned, false if not banned
+     * Queries storage for active, non-expired bans matching a column value.
      */
-    public boolean unbanPlayerByName(String playerName) {
-        List<BanData> activeBans = banOperator.query()
-            .where("player_name").eq(playerName)
+    private List<BanData> queryActiveBans(String column, String value) {
+        return banOperator.query()
+            .where(column).eq(value)
             .list()
             .stream()
             .filter(b -> b.isActive() && !b.hasExpired())
             .collect(Collectors.toList());
+    }
+    
+    /**
+     * Gets the active ban for a player.
+     * Served from the in-memory index once it is loaded.
+     */
+    @Nullable
+    public BanData getActiveBan(UUID playerUuid) {
+        if (indexLoaded) {
+            return liveOrNull(activeBansByPlayer.get(playerUuid.toString()));
+        }
 
-        if (activeBans.isEmpty()) {
-            return false;
+        return singleFlight("player:" + playerUuid, () ->
+            queryActiveBans("player_uuid", playerUuid.toString()).stream()
+                .findFirst()
+                .orElse(null));
+    }
+    
+    /**
+     * Gets active IP ban.
+     * Served from the in-memory index once it is loaded. Without the index,
+     * storage is queried for the exact address and range bans are matched in memory.
+     */
+    @Nullable
+    public BanData getActiveIpBan(String ipAddress) {
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return null;
         }
 
-        for (BanData ban : activeBans) {
-            ban.setActive(false);
-            try {
-                banOperator.update(ban);
-            } catch (IllegalAccessException e) {
-                log.error("Failed to update ban record", e);
+        if (indexLoaded) {
+            byte[] address = IpRange.parseAddress(ipAddress);
+            if (address != null) {
+                return lookupIpBan(address);
             }
+            // Ranges and anything unparseable are keyed the way indexBan keyed them
+            return liveOrNull(activeBansByIp.get(ipKey(ipAddress)));
         }
 
-        return true;
+        BanData ban = queryActiveBans("ip_address", ipKey(ipAddress)).stream()
+            .findFirst()
+            .orElse(null);
+        if (ban != null) {
+            return ban;
+        }
+        byte[] address = IpRange.parseAddress(ipAddress);
+        return address != null ? lookupIpBan(address) : null;
     }
-    
+
     /**
-     * Unbans an IP address.
+     * Gets the active IP ban covering a connecting address, including range bans.
      *
-     * @param ipAddress the IP address to unban
-     * @return true if unbanned, false if not banned
+     * @param address the address, e.g. from {@code AsyncPlayerPreLoginEvent#getAddress()}
+     * @return the most specific matching ban, or null
      */
-    public boolean unbanIp(String ipAddress) {
-        List<BanData> ipBans = banOperator.query()
-            .where("ip_address").eq(ipAddress)
-            .list()
-            .stream()
-            .filter(b -> b.isActive() && !b.hasExpired())
-            .collect(Collectors.toList());
+    @Nullable
+    public BanData getActiveIpBan(@Nullable InetAddress address) {
+        if (address == null) {
+            return null;
+        }
 
-        if (ipBans.isEmpty()) {
-            return false;
+        if (indexLoaded) {
+            return lookupIpBan(address.getAddress());
         }
 
-        for (BanData ban : ipBans) {
-            ban.setActive(false);
+        String key = IpRange.of(address).toString();
+        return singleFlight("ip:" + key, () -> getActiveIpBan(key));
+    }
+
+    /**
+     * Runs a storage lookup at most once at a time per key. Callers arriving while
+     * a lookup is running share its result, and a "not banned" result is reused
+     * for {@code features.ban.lookup.negative-cache-ttl} seconds.
+     */
+    @Nullable
+    private BanData singleFlight(String key, Supplier<BanData> lookup) {
+        Long until = notBannedUntil.get(key);
+        if (until != null) {
+            if (until > System.currentTimeMillis()) {
+                return null;
+            }
+            notBannedUntil.remove(key, until);
+        }
+
+        CompletableFuture<BanData> future = new CompletableFuture<>();
+        CompletableFuture<BanData> running = inFlightLookups.putIfAbsent(key, future);
+        if (running != null) {
             try {
-                banOperator.update(ban);
-            } catch (IllegalAccessException e) {
-                log.error("Failed to update ban record", e);
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
             }
         }
 
-        return true;
+        try {
+            long generation = banGeneration.get();
+            BanData ban = lookup.get();
+            if (ban == null) {
+                cacheNotBanned(key, generation);
+            } else {
+                synchronized (recentBans) {
+                    recentBans.put(key, ban);
+                }
+            }
+            future.complete(ban);
+            return ban;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLookups.remove(key, future);
+        }
     }
-    
+
     /**
-     * Gets the active ban for a player.
+     * Caches a "not banned" answer unless a ban was made since the lookup
+     * started. The entry is written before the check, so a ban racing with it
+     * either clears it or is seen by the check.
      */
-    @Nullable
-    public BanData getActiveBan(UUID playerUuid) {
-        List<BanData> bans = banOperator.query()
-            .where("player_uuid").eq(playerUuid.toString())
-            .list();
+    private void cacheNotBanned(String key, long generation) {
+        int ttl = config.getBanNegativeCacheTtl();
+        if (ttl <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (notBannedUntil.size() >= NEGATIVE_CACHE_PRUNE_SIZE) {
+            notBannedUntil.values().removeIf(until -> until <= now);
+        }
+        Long until = now + TimeUnit.SECONDS.toMillis(ttl);
+        notBannedUntil.put(key, until);
+        if (banGeneration.get() != generation) {
+            notBannedUntil.remove(key, until);
+        }
+    }
 
-        return bans.stream()
-            .filter(b -> b.isActive() && !b.hasExpired())
-            .findFirst()
-            .orElse(null);
+    /**
+     * Whether the in-memory index is loaded, so lookups never touch storage.
+     */
+    public boolean isIndexLoaded() {
+        return indexLoaded;
     }
-    
+
     /**
-     * Gets active IP ban.
+     * Gets the last-known ban for a login from memory only, never touching storage.
+     * Used when a storage lookup runs out of time. Without the index this is the
+     * range bans plus the bans recently found by lookups or made on this server.
+     *
+     * @param playerUuid the player's UUID
+     * @param address    the connecting address
+     * @return a live indexed ban, or null if memory knows of none
      */
     @Nullable
-    public BanData getActiveIpBan(String ipAddress) {
-        if (ipAddress == null || ipAddress.isEmpty()) {
-            return null;
+    public BanData getIndexedBan(UUID playerUuid, @Nullable InetAddress address) {
+        BanData ban = indexLoaded
+            ? activeBansByPlayer.get(playerUuid.toString())
+            : recentBan("player:" + playerUuid);
+        if ((ban == null || ban.hasExpired()) && address != null) {
+            ban = ipBanTrie.lookup(address.getAddress());
+            if ((ban == null || ban.hasExpired()) && !indexLoaded) {
+                ban = recentBan("ip:" + IpRange.of(address));
+            }
         }
+        return ban != null && !ban.hasExpired() ? ban : null;
+    }
 
-        List<BanData> bans = banOperator.query()
-            .where("ip_address").eq(ipAddress)
-            .list();
+    @Nullable
+    private BanData recentBan(String key) {
+        synchronized (recentBans) {
+            return recentBans.get(key);
+        }
+    }
 
-        return bans.stream()
-            .filter(b -> b.isActive() && !b.hasExpired())
-            .findFirst()
-            .orElse(null);
+    /**
+     * Remembers a ban made while the index is not loaded, under the keys login checks look up.
+     */
+    private void rememberBan(BanData ban) {
+        synchronized (recentBans) {
+            if (ban.getPlayerUuid() != null) {
+                recentBans.put("player:" + ban.getPlayerUuid(), ban);
+            }
+            if (ban.getIpAddress() != null && !ban.getIpAddress().isEmpty()) {
+                recentBans.put("ip:" + ipKey(ban.getIpAddress()), ban);
+            }
+        }
+    }
+
+    /**
+     * Records a login check that ran out of time.
+     *
+     * @return the total number of timeouts so far
+     */
+    public long recordLoginTimeout() {
+        return loginTimeouts.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of login checks that ran out of time since startup.
+     */
+    public long getLoginTimeoutCount() {
+        return loginTimeouts.get();
+    }
+
+    /**
+     * Finds the most specific live range ban for an address, dropping expired
+     * entries so a broader range underneath can still match.
+     */
+    @Nullable
+    private BanData lookupIpBan(byte[] address) {
+        BanData ban = ipBanTrie.lookup(address);
+        while (ban != null && ban.hasExpired()) {
+            deindexBan(ban);
+            ban = ipBanTrie.lookup(address);
+        }
+        return ban;
+    }
+
+    /**
+     * Returns the indexed ban unless it has expired, dropping expired entries.
+     */
+    @Nullable
+    private BanData liveOrNull(@Nullable BanData ban) {
+        if (ban == null) {
+            return null;
+        }
+        if (ban.hasExpired()) {
+            deindexBan(ban);
+            return null;
+        }
+        return ban;
     }
     
     /**
      * Gets all active bans.
+     * Served from the in-memory index once it is loaded.
      */
     public List<BanData> getActiveBans() {
+        if (indexLoaded) {
+            Map<String, BanData> unique = new LinkedHashMap<>();
+            for (BanData ban : activeBansByPlayer.values()) {
+                unique.putIfAbsent(ban.getId(), ban);
+            }
+            for (BanData ban : activeBansByIp.values()) {
+                unique.putIfAbsent(ban.getId(), ban);
+            }
+            return unique.values().stream()
+                .filter(b -> !b.hasExpired())
+                .collect(Collectors.toList());
+        }
+
         return banOperator.getAll().stream()
             .filter(b -> b.isActive() && !b.hasExpired())
             .collect(Collectors.toList());
     }
-    
+
+    /**
+     * Gets one page of active bans.
+     * Filtering, ordering and paging are pushed down to storage, so only the
+     * requested page is loaded. Expired rows still flagged active are dropped
+     * here; the expiry task keeps them rare.
+     *
+     * @param page page number, starting at 1 (clamped to the last page)
+     * @param size page size
+     * @param sort the ordering
+     * @return the page
+     */
+    public BanPage getActiveBans(int page, int size, BanSort sort) {
+        int pageSize = Math.max(1, size);
+        long total = banOperator.query()
+            .where("active").eq(true)
+            .count();
+        int totalPages = (int) Math.max(1, (total + pageSize - 1) / pageSize);
+        int currentPage = Math.min(Math.max(1, page), totalPages);
+
+        if (total == 0) {
+            return new BanPage(Collections.emptyList(), 0, currentPage, totalPages);
+        }
+
+        Query<BanData> query = banOperator.query().where("active").eq(true);
+        query = sort.isDescending() ? query.orderByDesc(sort.getColumn()) : query.orderBy(sort.getColumn());
+        List<BanData> items = query
+            .limit(pageSize)
+            .offset((currentPage - 1) * pageSize)
+            .list()
+            .stream()
+            .filter(b -> b.isActive() && !b.hasExpired())
+            .collect(Collectors.toList());
+
+        return new BanPage(items, total, currentPage, totalPages);
+    }
+
     /**
      * Gets ban history for a player.
      */
@@ -257,47 +1298,122 @@ public class BanService {
     }
     
     /**
-     * Formats the kick message for a banned player.
+     * Formats the kick message for a banned player, in the banned player's
+     * last-reported language when known.
      * 
      * @param ban the ban data
      * @return the formatted kick message
      */
     public String formatKickMessage(BanData ban) {
-        StringBuilder message = new StringBuilder();
-        message.append("§c你已被封禁\n\n");
-        message.append("§7原因: §f").append(ban.getReason()).append("\n");
-        message.append("§7操作者: §f").append(ban.getBannedByName()).append("\n");
-        
+        return formatKickMessage(ban, ban.getPlayerUuid() != null ? languageOf(ban.getPlayerUuid()) : null);
+    }
+
+    /**
+     * Formats the kick message for a refused login, in the connecting player's
+     * last-reported language when known. An IP or alt-account ban belongs to
+     * someone else, so the banned player's language would be the wrong one.
+     *
+     * @param ban        the ban data
+     * @param playerUuid the connecting player's UUID
+     * @return the formatted kick message
+     */
+    public String formatLoginKickMessage(BanData ban, UUID playerUuid) {
+        return formatKickMessage(ban, languageOf(playerUuid.toString()));
+    }
+
+    @Nullable
+    private String languageOf(String playerUuid) {
+        synchronized (playerLanguages) {
+            return playerLanguages.get(playerUuid);
+        }
+    }
+
+    /**
+     * Formats the kick message for a banned player in a client locale.
+     * The screen is compiled once per ban and language; only the remaining
+     * time is rendered per call.
+     *
+     * @param ban    the ban data
+     * @param locale the client locale, e.g. {@code en_us}, or null for the server language
+     * @return the formatted kick message
+     */
+    public String formatKickMessage(BanData ban, @Nullable String locale) {
+        String language = LocaleMessages.languageOf(locale);
+        if (ban.getId() == null) {
+            return compileKickMessage(ban, language).render(ban.getRemainingTime());
+        }
+        if (kickMessages.size() >= KICK_MESSAGE_CACHE_SIZE) {
+            kickMessages.clear();
+        }
+        KickMessageTemplate template = kickMessages
+            .computeIfAbsent(ban.getId(), id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(language != null ? language : "", key -> compileKickMessage(ban, language));
+        return template.render(ban.getRemainingTime());
+    }
+
+    /**
+     * Remembers a player's client language for localized login kicks.
+     *
+     * @param playerUuid the player's UUID
+     * @param locale     the client locale, e.g. {@code en_us}
+     */
+    public void rememberLocale(UUID playerUuid, @Nullable String locale) {
+        String language = LocaleMessages.languageOf(locale);
+        synchronized (playerLanguages) {
+            if (language != null) {
+                playerLanguages.put(playerUuid.toString(), language);
+            } else {
+                playerLanguages.remove(playerUuid.toString());
+            }
+        }
+    }
+
+    private KickMessageTemplate compileKickMessage(BanData ban, @Nullable String language) {
+        String template = translate(config.getBanKickMessage(), language);
+        int marker = template.indexOf("{duration}");
+        String head = marker >= 0 ? template.substring(0, marker) : template;
+        String tail = marker >= 0 ? template.substring(marker + "{duration}".length()) : "";
+        head = fillKickPlaceholders(head, ban);
+        tail = fillKickPlaceholders(tail, ban);
+
+        if (marker < 0) {
+            return KickMessageTemplate.fixed(head + tail);
+        }
         if (ban.isPermanent()) {
-            message.append("§7时长: §c永久封禁\n");
-        } else {
-            message.append("§7剩余时间: §f").append(formatDuration(ban.getRemainingTime())).append("\n");
+            return KickMessageTemplate.fixed(head + translate("§7时长: §c永久封禁", language) + tail);
         }
-        
-        message.append("\n§7如有异议，请联系服务器管理员");
-        return message.toString();
+        String[] units = new String[DEFAULT_UNITS.length];
+        for (int i = 0; i < units.length; i++) {
+            units[i] = translate(DEFAULT_UNITS[i], language);
+        }
+        return KickMessageTemplate.withRemaining(
+            head + translate("§7剩余时间: §f", language), tail, units);
+    }
+
+    private static String fillKickPlaceholders(String text, BanData ban) {
+        return MessageUtils.colorize(text
+            .replace("{reason}", String.valueOf(ban.getReason()))
+            .replace("{operator}", String.valueOf(ban.getBannedByName())));
+    }
+
+    /**
+     * Translates into a client language, falling back to the server language.
+     */
+    private String translate(String key, @Nullable String language) {
+        if (language != null) {
+            String translated = LocaleMessages.translate(language, key);
+            if (translated != null) {
+                return translated;
+            }
+        }
+        return plugin.i18n(key);
     }
     
     /**
      * Formats duration in human-readable format.
      */
     public static String formatDuration(long millis) {
-        if (millis <= 0) {
-            return "已过期";
-        }
-        
-        long days = TimeUnit.MILLISECONDS.toDays(millis);
-        long hours = TimeUnit.MILLISECONDS.toHours(millis) % 24;
-        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis) % 60;
-        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) % 60;
-        
-        StringBuilder sb = new StringBuilder();
-        if (days > 0) sb.append(days).append("天 ");
-        if (hours > 0) sb.append(hours).append("小时 ");
-        if (minutes > 0) sb.append(minutes).append("分钟 ");
-        if (seconds > 0 || sb.length() == 0) sb.append(seconds).append("秒");
-        
-        return sb.toString().trim();
+        return KickMessageTemplate.formatDuration(millis, DEFAULT_UNITS);
     }
     
     /**
@@ -354,4 +1470,125 @@ public class BanService {
         ALREADY_BANNED,
         DISABLED
     }
+
+    /**
+     * Outcome for a single target of a ban or unban wave.
+     */
+    public enum WaveStatus {
+        BANNED,
+        UNBANNED,
+        ALREADY_BANNED,
+        NOT_BANNED,
+        NOT_FOUND,
+        DISABLED,
+        FAILED
+    }
+
+    /**
+     * Result for a single target of a ban or unban wave.
+     */
+    public static class WaveResult {
+        private final String target;
+        private final WaveStatus status;
+        private final BanData ban;
+
+        public WaveResult(String target, WaveStatus status, @Nullable BanData ban) {
+            this.target = target;
+            this.status = status;
+            this.ban = ban;
+        }
+
+        public String getTarget() {
+            return target;
+        }
+
+        public WaveStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * Gets the ban written for this target, if any.
+         */
+        @Nullable
+        public BanData getBan() {
+            return ban;
+        }
+    }
+
+    /**
+     * Ordering for paged ban listings.
+     */
+    public enum BanSort {
+        NEWEST("ban_time", true),
+        OLDEST("ban_time", false),
+        NAME("player_name", false);
+
+        private final String column;
+        private final boolean descending;
+
+        BanSort(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        /**
+         * Parses a sort name, case-insensitively.
+         *
+         * @param name the sort name
+         * @return the sort, or null if unknown
+         */
+        @Nullable
+        public static BanSort fromName(@Nullable String name) {
+            if (name == null) {
+                return null;
+            }
+            for (BanSort sort : values()) {
+                if (sort.name().equalsIgnoreCase(name)) {
+                    return sort;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One page of active bans.
+     */
+    public static class BanPage {
+        private final List<BanData> items;
+        private final long total;
+        private final int page;
+        private final int totalPages;
+
+        public BanPage(List<BanData> items, long total, int page, int totalPages) {
+            this.items = items;
+            this.total = total;
+            this.page = page;
+            this.totalPages = totalPages;
+        }
+
+        public List<BanData> getItems() {
+            return items;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public int getTotalPages() {
+            return totalPages;
+        }
+    }
 }
@@ -2,29 +2,92 @@ package com.ultikits.plugins.essentials.service;
 
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.ChestLockData;
+import com.ultikits.plugins.essentials.utils.BlockPosIndex;
+import com.ultikits.plugins.essentials.utils.ChunkLockStorage;
+import com.ultikits.plugins.essentials.utils.TransferDecisionCache;
+import com.ultikits.plugins.essentials.utils.WriteBehindQueue;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.Service;
 import com.ultikits.ultitools.interfaces.DataOperator;
 import lombok.extern.slf4j.Slf4j;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
-import org.bukkit.block.Chest;
-import org.bukkit.block.DoubleChest;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Chest;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 
 import javax.annotation.Nullable;
 import com.ultikits.ultitools.annotations.PostConstruct;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 
 /**
  * Service for managing chest locks.
  * <p>
  * 管理箱子锁的服务。
+ * <p>
+ * Locks are indexed by world and chunk (see {@link BlockPosIndex}), so the
+ * lookups made by interaction, piston, explosion and hopper events allocate
+ * nothing, and chunks without locks can be skipped with a single probe.
+ * <p>
+ * With {@code features.chestlock.lazy-load}, only locks in loaded chunks are kept:
+ * a chunk's locks are queried off the main thread when it loads and dropped when
+ * it unloads. Until a chunk's locks arrive, its lockable blocks are treated as
+ * locked and cannot be opened, broken, moved or locked.
+ * <p>
+ * With {@code features.chestlock.storage: chunk}, locks live in each chunk's
+ * persistent data container (see {@link ChunkLockStorage}) and are read as the
+ * chunk loads, so neither startup nor lock checks touch the database. Existing
+ * rows are moved into a chunk when it loads, and deleted from the database
+ * once the chunk unloads (and is saved with them); until every row has moved,
+ * chunks are read from both places.
+ * <p>
+ * Database writes never happen on the server thread: lock and unlock update the
+ * index at once and queue the row change (see {@link WriteBehindQueue}), which is
+ * flushed every {@code features.chestlock.write-interval} ticks and on
+ * {@link #shutdown()}.
+ * <p>
+ * Hopper transfers are decided once per source and destination pair and cached
+ * (see {@link TransferDecisionCache}) until a lock in either chunk changes, the
+ * chunk loads or unloads, or an owner's trust list changes. Locked containers
+ * may exchange items when their owners are the same or trust each other.
+ * <p>
+ * A secondary index by owner mirrors the loaded locks. Listing, transferring
+ * and purging a player's locks combine it with a database query by owner made
+ * off the main thread, so locks in unloaded chunks are covered too (except in
+ * chunk storage, where only loaded chunks can be reached).
+ * <p>
+ * Locks whose block is no longer lockable (removed by WorldEdit, a world reset
+ * or chunk regeneration rather than a player) are found by a background sweep
+ * every {@code features.chestlock.sweep-interval} minutes. It walks the index a
+ * few locks per tick within {@code features.chestlock.sweep-budget-ms} and only
+ * looks at blocks in loaded chunks.
+ * <p>
+ * Besides its owner, a lock can be opened by players trusted on that lock
+ * (stored with the lock) and by players its owner trusts on all locks (see
+ * {@link LockTrustService}). Both checks compare UUIDs already held in memory.
+ * <p>
+ * A double chest is one logical lock: both halves are stored, and a chest
+ * placed against a locked one gets a copy of its lock, so lookups by position
+ * (hoppers, explosions, breaking) see the pair as locked. The connected half is
+ * found from the block data (chest type and facing) rather than a snapshot of
+ * the container. A block lookup on a half without its own lock, left from
+ * before this was done, still falls back to the connected half.
  *
  * @author wisdomme
  * @version 1.0.0
@@ -39,10 +102,67 @@ public class ChestLockService {
     @Autowired
     private EssentialsConfig config;
 
+    @Autowired
+    private LockTrustService lockTrustService;
+
     private DataOperator<ChestLockData> lockOperator;
+    
+    private WriteBehindQueue<ChestLockData> writeQueue;
+    
+    private BukkitTask flushTask;
+    
+    private BukkitTask sweepTimer;
+    
+    @Nullable
+    private OrphanSweep sweep;
 
-    // Cache for quick lookups
-    private final Map<String, ChestLockData> lockCache = new ConcurrentHashMap<>();
+    // Index for quick lookups, partitioned by world and chunk
+    private final BlockPosIndex<ChestLockData> lockIndex = new BlockPosIndex<>();
+    
+    // Owner UUID -> lock id -> lock, mirroring lockIndex
+    private final Map<String, Map<String, ChestLockData>> locksByOwner = new HashMap<>();
+    
+    // Hopper decisions by source and destination; entries are dropped when their chunks change
+    private final TransferDecisionCache transferCache = new TransferDecisionCache(2048);
+    
+    // Trust revision the cached hopper decisions were made under
+    private int transferTrustRevision;
+    
+    // World name -> packed chunk key -> token of the load in flight
+    private final Map<String, Map<Long, Object>> pendingChunks = new HashMap<>();
+    
+    private final Queue<ChunkRequest> loadQueue = new ConcurrentLinkedQueue<>();
+    
+    private final AtomicBoolean loaderRunning = new AtomicBoolean(false);
+    
+    // Chunk key -> locks stored before chunk keys existed, until their key is written
+    @Nullable
+    private volatile Map<String, List<ChestLockData>> unkeyedLocks;
+    
+    private boolean lazyLoading;
+    
+    private ChunkLockStorage chunkLockStorage = new ChunkLockStorage();
+    
+    // Locks are kept in chunk persistent data instead of the database
+    private boolean chunkStorage;
+    
+    // Rows are still being moved from the database into chunks
+    private boolean migratingToChunks;
+    
+    // World name -> packed chunk key -> rows written into the loaded chunk, deleted when it unloads
+    private final Map<String, Map<Long, List<ChestLockData>>> unsavedMigrations = new HashMap<>();
+    
+    // Ids of rows still in the database during the move into chunks; null until counted
+    @Nullable
+    private volatile Set<String> unmigratedIds;
+    
+    private Plugin bukkitPlugin;
+    
+    // Longest wait before retrying a failed chunk load, in ticks
+    private static final long MAX_RETRY_DELAY_TICKS = 600L;
+    
+    // Old locks given a chunk key per flush by the background backfill
+    private static final int CHUNK_KEY_BACKFILL_BATCH = 500;
     
     // Lockable block types
     private static final Set<Material> LOCKABLE_BLOCKS = new HashSet<>(Arrays.asList(
@@ -82,19 +202,398 @@ public class ChestLockService {
     @PostConstruct
     public void init() {
         this.lockOperator = plugin.getDataOperator(ChestLockData.class);
-        loadCache();
+        this.bukkitPlugin = Bukkit.getPluginManager().getPlugin("UltiTools");
+        if (writeQueue != null) {
+            writeQueue.flushAll();
+        }
+        this.writeQueue = new WriteBehindQueue<>(lockOperator, ChestLockData::copy);
+        startFlushTask();
+        startSweepTimer();
+        this.chunkStorage = "chunk".equalsIgnoreCase(config.getChestLockStorage());
+        this.migratingToChunks = chunkStorage && !config.isChestLockChunkStorageMigrated();
+        // Chunk storage is loaded per chunk by nature
+        this.lazyLoading = config.isChestLockLazyLoad() || chunkStorage;
+        
+        if (!lazyLoading) {
+            loadCache();
+            return;
+        }
+        
+        lockIndex.clear();
+        locksByOwner.clear();
+        transferCache.clear();
+        // Rows of chunks that stay loaded across a reload are moved again when re-queued
+        unsavedMigrations.clear();
+        unmigratedIds = null;
+        boolean addChunkKeys = readsDatabase() && !config.isChestLockChunkKeysMigrated();
+        boolean moveToChunks = migratingToChunks;
+        if (addChunkKeys || moveToChunks) {
+            // Must be the first loader run so no chunk is queried before old rows are known
+            startLoader(() -> {
+                if (addChunkKeys) {
+                    collectUnkeyedLocks();
+                }
+                if (moveToChunks) {
+                    countUnmigratedRows();
+                }
+            });
+        }
+        // Chunks loaded before the listener was registered never fire ChunkLoadEvent
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                onChunkLoad(chunk);
+            }
+        }
+    }
+    
+    private void startFlushTask() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+        
+        long interval = config.getChestLockWriteInterval();
+        flushTask = new BukkitRunnable() {
+            @Override
+            public void run() {
+                flushWrites();
+            }
+        }.runTaskTimerAsynchronously(bukkitPlugin, interval, interval);
+    }
+    
+    /**
+     * Writes all queued lock changes to the database. Blocks while a flush is running.
+     *
+     * @return the number of changes written
+     */
+    public int flushWrites() {
+        backfillChunkKeys(CHUNK_KEY_BACKFILL_BATCH);
+        return writeQueue.flush();
+    }
+    
+    /**
+     * Stops the flush task and writes all queued lock changes.
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (sweepTimer != null) {
+            sweepTimer.cancel();
+            sweepTimer = null;
+        }
+        if (sweep != null && sweep.running) {
+            sweep.cancel();
+        }
+        int written = writeQueue.flushAll();
+        if (written > 0) {
+            log.info("Saved {} pending chest lock changes", written);
+        }
+    }
+    
+    private void startSweepTimer() {
+        if (sweepTimer != null) {
+            sweepTimer.cancel();
+            sweepTimer = null;
+        }
+        
+        int minutes = config.getChestLockSweepInterval();
+        if (minutes <= 0) {
+            return;
+        }
+        long interval = minutes * 60L * 20L;
+        sweepTimer = new BukkitRunnable() {
+            @Override
+            public void run() {
+                startOrphanSweep();
+            }
+        }.runTaskTimer(bukkitPlugin, interval, interval);
+    }
+    
+    /**
+     * Starts a sweep for orphaned locks unless one is running.
+     *
+     * @return true if a sweep was started
+     */
+    public boolean startOrphanSweep() {
+        if (sweep != null && sweep.running) {
+            return false;
+        }
+        List<ChestLockData> locks = new ArrayList<>(lockIndex.size());
+        lockIndex.forEach(locks::add);
+        sweep = new OrphanSweep(locks);
+        sweep.runTaskTimer(bukkitPlugin, 1L, 1L);
+        log.info("Started orphaned chest lock sweep over {} locks", locks.size());
+        return true;
+    }
+    
+    /**
+     * Gets the progress of the current or last orphan sweep.
+     *
+     * @return the progress, or null if no sweep has run
+     */
+    @Nullable
+    public SweepProgress getSweepProgress() {
+        OrphanSweep current = sweep;
+        return current == null ? null
+            : new SweepProgress(current.running, current.locks.size(), current.next, current.removed);
+    }
+    
+    private boolean readsDatabase() {
+        return !chunkStorage || migratingToChunks;
     }
     
     /**
      * Loads all locks into cache.
      */
     private void loadCache() {
-        lockCache.clear();
-        List<ChestLockData> allLocks = lockOperator.getAll();
+        lockIndex.clear();
+        locksByOwner.clear();
+        transferCache.clear();
+        List<ChestLockData> allLocks = writeQueue.read(lockOperator::getAll, lock -> true);
         for (ChestLockData lock : allLocks) {
-            lockCache.put(lock.getLocationKey(), lock);
+            indexLock(lock);
+        }
+        log.info("Loaded {} chest locks into cache", lockIndex.size());
+    }
+    
+    /**
+     * Queues a chunk's locks for loading. Until they arrive the chunk counts as loading.
+     */
+    public void onChunkLoad(Chunk chunk) {
+        if (!lazyLoading) {
+            return;
+        }
+        String world = chunk.getWorld().getName();
+        if (chunkStorage) {
+            indexChunk(world, chunk.getX(), chunk.getZ(), chunkLockStorage.read(chunk));
+            if (!migratingToChunks) {
+                return;
+            }
+        }
+        Object token = new Object();
+        pendingChunks.computeIfAbsent(world, key -> new HashMap<>())
+            .put(BlockPosIndex.chunkKey(chunk.getX(), chunk.getZ()), token);
+        transferCache.invalidateChunk(world, chunk.getX(), chunk.getZ());
+        loadQueue.add(new ChunkRequest(world, chunk.getX(), chunk.getZ(), token, 0));
+        startLoader(null);
+    }
+    
+    /**
+     * Drops a chunk's locks from memory, and any load still in flight for it.
+     */
+    public void onChunkUnload(Chunk chunk) {
+        if (!lazyLoading) {
+            return;
+        }
+        String world = chunk.getWorld().getName();
+        Map<Long, Object> pending = pendingChunks.get(world);
+        if (pending != null) {
+            pending.remove(BlockPosIndex.chunkKey(chunk.getX(), chunk.getZ()));
+            if (pending.isEmpty()) {
+                pendingChunks.remove(world);
+            }
+        }
+        lockIndex.forEachInChunk(world, chunk.getX(), chunk.getZ(), this::removeOwned);
+        lockIndex.removeChunk(world, chunk.getX(), chunk.getZ());
+        transferCache.invalidateChunk(world, chunk.getX(), chunk.getZ());
+        deleteMigratedRows(world, chunk.getX(), chunk.getZ());
+    }
+    
+    /**
+     * Checks whether the locks of the chunk containing a block position are still loading.
+     */
+    public boolean isLoading(World world, int x, int z) {
+        if (pendingChunks.isEmpty()) {
+            return false;
+        }
+        Map<Long, Object> pending = pendingChunks.get(world.getName());
+        return pending != null && pending.containsKey(BlockPosIndex.chunkKey(x >> 4, z >> 4));
+    }
+    
+    /**
+     * Checks whether the locks of the chunk containing a block are still loading.
+     */
+    public boolean isLoading(Block block) {
+        return isLoading(block.getWorld(), block.getX(), block.getZ());
+    }
+    
+    /**
+     * Starts the loader thread unless it is already running. Requests are served
+     * one at a time so a burst of chunk loads does not flood storage.
+     */
+    private void startLoader(@Nullable Runnable migration) {
+        if (!loaderRunning.compareAndSet(false, true)) {
+            return;
+        }
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                try {
+                    if (migration != null) {
+                        migration.run();
+                    }
+                    ChunkRequest request;
+                    while ((request = loadQueue.poll()) != null) {
+                        loadChunk(request);
+                    }
+                } finally {
+                    loaderRunning.set(false);
+                }
+                if (!loadQueue.isEmpty()) {
+                    startLoader(null);
+                }
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
+    }
+    
+    private void loadChunk(ChunkRequest request) {
+        List<ChestLockData> locks;
+        try {
+            String key = request.key();
+            backfillChunk(key);
+            locks = writeQueue.read(
+                () -> lockOperator.query().where("chunk_key").eq(key).list(),
+                lock -> key.equals(lock.getChunkKey()));
+        } catch (RuntimeException e) {
+            // Keep the chunk loading (and therefore locked) rather than expose it unprotected
+            log.error("Failed to load chest locks for chunk {}, attempt {}", request.key(), request.attempt + 1, e);
+            retryLoad(request);
+            return;
         }
-        log.info("Loaded {} chest locks into cache", lockCache.size());
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Map<Long, Object> pending = pendingChunks.get(request.world);
+                long chunkKey = BlockPosIndex.chunkKey(request.chunkX, request.chunkZ);
+                // Skip results for chunks that unloaded, or reloaded with a newer request
+                if (pending == null || pending.get(chunkKey) != request.token) {
+                    return;
+                }
+                pending.remove(chunkKey);
+                if (pending.isEmpty()) {
+                    pendingChunks.remove(request.world);
+                }
+                List<ChestLockData> loaded = migratingToChunks
+                    ? migrateChunk(request.world, request.chunkX, request.chunkZ, locks)
+                    : locks;
+                indexChunk(request.world, request.chunkX, request.chunkZ, loaded);
+            }
+        }.runTask(bukkitPlugin);
+    }
+    
+    /**
+     * Queues a failed chunk load again after a delay that doubles with each
+     * attempt, unless the chunk unloaded or reloaded in the meantime.
+     */
+    private void retryLoad(ChunkRequest request) {
+        long delay = Math.min(20L << Math.min(request.attempt, 5), MAX_RETRY_DELAY_TICKS);
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                Map<Long, Object> pending = pendingChunks.get(request.world);
+                if (pending == null || pending.get(BlockPosIndex.chunkKey(request.chunkX, request.chunkZ)) != request.token) {
+                    return;
+                }
+                loadQueue.add(request.retry());
+                startLoader(null);
+            }
+        }.runTaskLater(bukkitPlugin, delay);
+    }
+    
+    /**
+     * Finds locks stored before chunk keys existed and groups them by chunk.
+     * Their keys are written per chunk as chunks load, and the rest by
+     * {@link #flushWrites()} a batch at a time, so chunks are served meanwhile.
+     */
+    private void collectUnkeyedLocks() {
+        Map<String, List<ChestLockData>> byChunk = new ConcurrentHashMap<>();
+        int found = 0;
+        for (ChestLockData lock : lockOperator.getAll()) {
+            if (lock.getChunkKey() != null) {
+                continue;
+            }
+            String key = ChestLockData.createChunkKey(lock.getWorld(), lock.getX(), lock.getZ());
+            lock.setChunkKey(key);
+            byChunk.computeIfAbsent(key, k -> new ArrayList<>()).add(lock);
+            found++;
+        }
+        log.info("Found {} chest locks without a chunk key", found);
+        unkeyedLocks = byChunk;
+        finishChunkKeyBackfill();
+    }
+    
+    /**
+     * Queues the chunk key of a chunk's old locks, so a read through the write
+     * queue sees them under that key.
+     */
+    private void backfillChunk(String key) {
+        Map<String, List<ChestLockData>> unkeyed = unkeyedLocks;
+        if (unkeyed == null) {
+            return;
+        }
+        List<ChestLockData> locks = unkeyed.remove(key);
+        if (locks == null) {
+            return;
+        }
+        for (ChestLockData lock : locks) {
+            writeQueue.update(lock);
+        }
+        finishChunkKeyBackfill();
+    }
+    
+    /**
+     * Queues the chunk keys of up to {@code limit} old locks in chunks nobody has loaded.
+     */
+    private void backfillChunkKeys(int limit) {
+        Map<String, List<ChestLockData>> unkeyed = unkeyedLocks;
+        if (unkeyed == null) {
+            return;
+        }
+        int queued = 0;
+        for (String key : unkeyed.keySet()) {
+            if (queued >= limit) {
+                break;
+            }
+            List<ChestLockData> locks = unkeyed.remove(key);
+            if (locks == null) {
+                continue;
+            }
+            for (ChestLockData lock : locks) {
+                writeQueue.update(lock);
+            }
+            queued += locks.size();
+        }
+        finishChunkKeyBackfill();
+    }
+    
+    /**
+     * Records the chunk key migration as done once every old lock has its key
+     * queued and the queue has been written.
+     */
+    private synchronized void finishChunkKeyBackfill() {
+        Map<String, List<ChestLockData>> unkeyed = unkeyedLocks;
+        if (unkeyed == null || !unkeyed.isEmpty()) {
+            return;
+        }
+        unkeyedLocks = null;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                writeQueue.flush();
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        config.setChestLockChunkKeysMigrated(true);
+                        try {
+                            config.save();
+                        } catch (IOException e) {
+                            log.error("Failed to save chest lock migration flag", e);
+                        }
+                    }
+                }.runTask(bukkitPlugin);
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
     }
     
     /**
@@ -116,10 +615,14 @@ public class ChestLockService {
             return LockResult.NOT_LOCKABLE;
         }
         
+        if (isLoading(block)) {
+            return LockResult.LOADING;
+        }
+        
         // Check if already locked
-        ChestLockData existing = getLock(block.getLocation());
+        ChestLockData existing = getLock(block);
         if (existing != null) {
-            if (existing.getOwnerUuid().equals(player.getUniqueId().toString())) {
+            if (existing.isOwner(player.getUniqueId())) {
                 return LockResult.ALREADY_LOCKED_BY_YOU;
             } else {
                 return LockResult.ALREADY_LOCKED;
@@ -127,19 +630,10 @@ public class ChestLockService {
         }
         
         // Create lock
-        ChestLockData lock = ChestLockData.builder()
-            .uuid(UUID.randomUUID())
-            .world(block.getWorld().getName())
-            .x(block.getX())
-            .y(block.getY())
-            .z(block.getZ())
-            .ownerUuid(player.getUniqueId().toString())
-            .ownerName(player.getName())
-            .createdAt(System.currentTimeMillis())
-            .build();
+        ChestLockData lock = newLock(block.getWorld().getName(), block.getX(), block.getY(), block.getZ(), player);
         
-        lockOperator.insert(lock);
-        lockCache.put(lock.getLocationKey(), lock);
+        storeLock(block.getWorld(), lock);
+        indexLock(lock);
         
         // If it's a double chest, lock the other half too
         lockDoubleChestOther(block, player);
@@ -151,63 +645,175 @@ public class ChestLockService {
      * Locks the other half of a double chest.
      */
     private void lockDoubleChestOther(Block block, Player player) {
-        if (block.getType() != Material.CHEST && block.getType() != Material.TRAPPED_CHEST) {
+        Block other = doubleChestOther(block);
+        if (other == null) {
             return;
         }
         
-        if (!(block.getState() instanceof Chest)) {
+        if (getLock(other.getWorld(), other.getX(), other.getY(), other.getZ()) == null
+                && !isLoading(other)) {
+            ChestLockData otherLock = newLock(
+                other.getWorld().getName(), other.getX(), other.getY(), other.getZ(), player);
+            
+            storeLock(other.getWorld(), otherLock);
+            indexLock(otherLock);
+        }
+    }
+    
+    /**
+     * Counts the rows left to move into chunk storage. Rows move as their chunks
+     * load, so no chunk is loaded for the migration. Runs on the loader thread.
+     */
+    private void countUnmigratedRows() {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        for (ChestLockData lock : writeQueue.read(lockOperator::getAll, lock -> true)) {
+            ids.add(lock.getId());
+        }
+        log.info("Moving {} chest locks into chunk storage as their chunks load", ids.size());
+        unmigratedIds = ids;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                finishChunkMigrationIfDone();
+            }
+        }.runTask(bukkitPlugin);
+    }
+    
+    /**
+     * Writes a loaded chunk's database rows into the chunk. Locks the chunk
+     * already holds win, since they may be newer than a row left behind by a
+     * move that was cut short. The rows are deleted when the chunk unloads.
+     *
+     * @return the rows the chunk did not hold yet
+     */
+    private List<ChestLockData> migrateChunk(String worldName, int chunkX, int chunkZ, List<ChestLockData> rows) {
+        World world = Bukkit.getWorld(worldName);
+        if (world == null || rows.isEmpty()) {
+            return rows;
+        }
+        // Still loaded, since its load was still pending
+        Chunk chunk = world.getChunkAt(chunkX, chunkZ);
+        List<ChestLockData> added = new ArrayList<>(rows.size());
+        for (ChestLockData row : rows) {
+            if (lockIndex.get(worldName, row.getX(), row.getY(), row.getZ()) == null) {
+                chunkLockStorage.write(chunk, row);
+                added.add(row);
+            }
+        }
+        unsavedMigrations.computeIfAbsent(worldName, key -> new HashMap<>())
+            .put(BlockPosIndex.chunkKey(chunkX, chunkZ), rows);
+        return added;
+    }
+    
+    /**
+     * Deletes the rows moved into a chunk that is unloading. The server saves
+     * the chunk as it unloads, and the delete is only written on the next flush.
+     */
+    private void deleteMigratedRows(String world, int chunkX, int chunkZ) {
+        Map<Long, List<ChestLockData>> unsaved = unsavedMigrations.get(world);
+        if (unsaved == null) {
             return;
         }
-        
-        Chest chest = (Chest) block.getState();
-        InventoryHolder holder = chest.getInventory().getHolder();
-        
-        if (!(holder instanceof DoubleChest)) {
+        List<ChestLockData> rows = unsaved.remove(BlockPosIndex.chunkKey(chunkX, chunkZ));
+        if (unsaved.isEmpty()) {
+            unsavedMigrations.remove(world);
+        }
+        if (rows == null) {
             return;
         }
-        
-        DoubleChest doubleChest = (DoubleChest) holder;
-        Location left = ((Chest) doubleChest.getLeftSide()).getLocation();
-        Location right = ((Chest) doubleChest.getRightSide()).getLocation();
-        
-        Location other = block.getLocation().equals(left) ? right : left;
-        
-        if (getLock(other) == null) {
-            ChestLockData otherLock = ChestLockData.builder()
-                .uuid(UUID.randomUUID())
-                .world(other.getWorld().getName())
-                .x(other.getBlockX())
-                .y(other.getBlockY())
-                .z(other.getBlockZ())
-                .ownerUuid(player.getUniqueId().toString())
-                .ownerName(player.getName())
-                .createdAt(System.currentTimeMillis())
-                .build();
-            
-            lockOperator.insert(otherLock);
-            lockCache.put(otherLock.getLocationKey(), otherLock);
+        for (ChestLockData row : rows) {
+            deleteRow(row);
+        }
+        finishChunkMigrationIfDone();
+    }
+    
+    /**
+     * Queues the delete of a lock's database row.
+     */
+    private void deleteRow(ChestLockData lock) {
+        writeQueue.delete(lock);
+        Set<String> unmigrated = unmigratedIds;
+        if (unmigrated != null) {
+            unmigrated.remove(lock.getId());
+        }
+    }
+    
+    private void finishChunkMigrationIfDone() {
+        Set<String> unmigrated = unmigratedIds;
+        if (!migratingToChunks || unmigrated == null || !unmigrated.isEmpty()) {
+            return;
+        }
+        log.info("Moved all chest locks into chunk storage");
+        migratingToChunks = false;
+        unmigratedIds = null;
+        config.setChestLockChunkStorageMigrated(true);
+        try {
+            config.save();
+        } catch (IOException e) {
+            log.error("Failed to save chest lock migration flag", e);
         }
     }
     
+    /**
+     * Writes a new lock to the configured storage. Database rows are written behind.
+     */
+    private void storeLock(World world, ChestLockData lock) {
+        if (chunkStorage) {
+            chunkLockStorage.write(world.getChunkAt(lock.getX() >> 4, lock.getZ() >> 4), lock);
+        } else {
+            writeQueue.insert(lock);
+        }
+    }
+    
+    /**
+     * Deletes a lock from the configured storage, and from the database while
+     * rows may still be there.
+     */
+    private void deleteLock(World world, ChestLockData lock) {
+        if (chunkStorage) {
+            chunkLockStorage.remove(world.getChunkAt(lock.getX() >> 4, lock.getZ() >> 4), lock);
+        }
+        if (readsDatabase()) {
+            deleteRow(lock);
+        }
+    }
+    
+    private static ChestLockData newLock(String world, int x, int y, int z, Player player) {
+        return ChestLockData.builder()
+            .uuid(UUID.randomUUID())
+            .world(world)
+            .x(x)
+            .y(y)
+            .z(z)
+            .ownerUuid(player.getUniqueId().toString())
+            .ownerName(player.getName())
+            .createdAt(System.currentTimeMillis())
+            .chunkKey(ChestLockData.createChunkKey(world, x, z))
+            .build();
+    }
+    
     /**
      * Unlocks a block.
      */
     public UnlockResult unlockBlock(Block block, Player player) {
-        ChestLockData lock = getLock(block.getLocation());
+        if (isLoading(block)) {
+            return UnlockResult.LOADING;
+        }
+        
+        ChestLockData lock = getLock(block);
         
         if (lock == null) {
             return UnlockResult.NOT_LOCKED;
         }
         
         // Check permission
-        if (!lock.getOwnerUuid().equals(player.getUniqueId().toString())
-                && !player.hasPermission("ultiessentials.lock.admin")) {
+        if (!lock.isOwner(player.getUniqueId()) && !player.hasPermission("ultiessentials.lock.admin")) {
             return UnlockResult.NOT_OWNER;
         }
         
         // Remove lock
-        lockOperator.delById(lock.getId());
-        lockCache.remove(lock.getLocationKey());
+        deleteLock(block.getWorld(), lock);
+        deindexLock(lock);
         
         // If it's a double chest, unlock the other half too
         unlockDoubleChestOther(block);
@@ -215,36 +821,228 @@ public class ChestLockService {
         return UnlockResult.SUCCESS;
     }
     
+    /**
+     * Gives a chest placed against a locked one a copy of that lock, with the
+     * same owner and trusted players. Chests placed in a loading chunk are left
+     * to the block lookup fallback.
+     */
+    public void onBlockPlace(Block block) {
+        if (lockIndex.size() == 0 || isLoading(block)
+                || getLock(block.getWorld(), block.getX(), block.getY(), block.getZ()) != null) {
+            return;
+        }
+        Block other = doubleChestOther(block);
+        ChestLockData otherLock = other == null ? null
+            : getLock(other.getWorld(), other.getX(), other.getY(), other.getZ());
+        if (otherLock == null) {
+            return;
+        }
+        String world = block.getWorld().getName();
+        ChestLockData lock = ChestLockData.builder()
+            .uuid(UUID.randomUUID())
+            .world(world)
+            .x(block.getX())
+            .y(block.getY())
+            .z(block.getZ())
+            .ownerUuid(otherLock.getOwnerUuid())
+            .ownerName(otherLock.getOwnerName())
+            .trusted(otherLock.getTrusted())
+            .createdAt(System.currentTimeMillis())
+            .chunkKey(ChestLockData.createChunkKey(world, block.getX(), block.getZ()))
+            .build();
+        storeLock(block.getWorld(), lock);
+        indexLock(lock);
+    }
+    
     /**
      * Unlocks the other half of a double chest.
      */
     private void unlockDoubleChestOther(Block block) {
-        if (block.getType() != Material.CHEST && block.getType() != Material.TRAPPED_CHEST) {
+        Block other = doubleChestOther(block);
+        if (other == null) {
             return;
         }
         
-        if (!(block.getState() instanceof Chest)) {
-            return;
+        ChestLockData otherLock = getLock(other.getWorld(), other.getX(), other.getY(), other.getZ());
+        if (otherLock != null) {
+            deleteLock(other.getWorld(), otherLock);
+            deindexLock(otherLock);
+        }
+    }
+    
+    /**
+     * Gets the other half of a double chest from the block data, without taking
+     * a snapshot of the container.
+     *
+     * @return the other half, or null if the block is not part of a double chest
+     */
+    @Nullable
+    private static Block doubleChestOther(Block block) {
+        Material type = block.getType();
+        if (type != Material.CHEST && type != Material.TRAPPED_CHEST) {
+            return null;
         }
         
-        Chest chest = (Chest) block.getState();
-        InventoryHolder holder = chest.getInventory().getHolder();
+        BlockData data = block.getBlockData();
+        if (!(data instanceof Chest)) {
+            return null;
+        }
         
-        if (!(holder instanceof DoubleChest)) {
-            return;
+        Chest chest = (Chest) data;
+        BlockFace toOther;
+        switch (chest.getType()) {
+            case LEFT:
+                toOther = clockwise(chest.getFacing());
+                break;
+            case RIGHT:
+                toOther = clockwise(chest.getFacing()).getOppositeFace();
+                break;
+            default:
+                return null;
+        }
+        
+        Block other = block.getRelative(toOther);
+        // A half left over from a broken pair may still claim a neighbor
+        return other.getType() == type ? other : null;
+    }
+    
+    private static BlockFace clockwise(BlockFace face) {
+        switch (face) {
+            case NORTH:
+                return BlockFace.EAST;
+            case EAST:
+                return BlockFace.SOUTH;
+            case SOUTH:
+                return BlockFace.WEST;
+            default:
+                return BlockFace.NORTH;
+        }
+    }
+    
+    /**
+     * Trusts a player on a locked block, or removes their trust. Applies to both
+     * halves of a double chest.
+     *
+     * @param block   the locked block
+     * @param actor   the player making the change; must own the lock or be an admin
+     * @param trusted the player to trust or untrust
+     * @param trust   true to trust, false to remove trust
+     * @return the result
+     */
+    public TrustResult setTrusted(Block block, Player actor, UUID trusted, boolean trust) {
+        if (isLoading(block)) {
+            return TrustResult.LOADING;
         }
         
-        DoubleChest doubleChest = (DoubleChest) holder;
-        Location left = ((Chest) doubleChest.getLeftSide()).getLocation();
-        Location right = ((Chest) doubleChest.getRightSide()).getLocation();
+        ChestLockData lock = getLock(block);
+        if (lock == null) {
+            return TrustResult.NOT_LOCKED;
+        }
         
-        Location other = block.getLocation().equals(left) ? right : left;
+        if (!lock.isOwner(actor.getUniqueId()) && !actor.hasPermission("ultiessentials.lock.admin")) {
+            return TrustResult.NOT_OWNER;
+        }
         
-        ChestLockData otherLock = getLock(other);
-        if (otherLock != null) {
-            lockOperator.delById(otherLock.getId());
-            lockCache.remove(otherLock.getLocationKey());
+        if (!applyTrust(lock, trusted, trust)) {
+            return TrustResult.UNCHANGED;
+        }
+        
+        Block other = doubleChestOther(block);
+        ChestLockData otherLock = other == null ? null
+            : getLock(other.getWorld(), other.getX(), other.getY(), other.getZ());
+        if (otherLock != null && otherLock != lock) {
+            applyTrust(otherLock, trusted, trust);
+        }
+        return TrustResult.SUCCESS;
+    }
+    
+    private boolean applyTrust(ChestLockData lock, UUID player, boolean trust) {
+        boolean changed = trust ? lock.addTrusted(player) : lock.removeTrusted(player);
+        if (changed) {
+            saveLock(lock);
+            transferCache.invalidateChunk(lock.getWorld(), lock.getX() >> 4, lock.getZ() >> 4);
+        }
+        return changed;
+    }
+    
+    /**
+     * Writes a changed lock to the configured storage. Chunk storage can only be
+     * written while the lock's chunk is loaded.
+     */
+    private void saveLock(ChestLockData lock) {
+        Chunk chunk = loadedChunk(lock);
+        if (chunkStorage && chunk != null) {
+            chunkLockStorage.write(chunk, lock);
+        }
+        if (readsDatabase()) {
+            writeQueue.update(lock);
+        }
+    }
+    
+    private void indexLock(ChestLockData lock) {
+        putIndexed(lock);
+        transferCache.invalidateChunk(lock.getWorld(), lock.getX() >> 4, lock.getZ() >> 4);
+    }
+    
+    private void deindexLock(ChestLockData lock) {
+        ChestLockData removed = lockIndex.remove(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ());
+        if (removed != null) {
+            removeOwned(removed);
+        }
+        transferCache.invalidateChunk(lock.getWorld(), lock.getX() >> 4, lock.getZ() >> 4);
+    }
+    
+    /**
+     * Adds a lock to the position and owner indexes.
+     */
+    private void putIndexed(ChestLockData lock) {
+        ChestLockData previous = lockIndex.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
+        if (previous != null) {
+            removeOwned(previous);
+        }
+        locksByOwner.computeIfAbsent(lock.getOwnerUuid(), key -> new HashMap<>()).put(lock.getId(), lock);
+    }
+    
+    private void removeOwned(ChestLockData lock) {
+        Map<String, ChestLockData> owned = locksByOwner.get(lock.getOwnerUuid());
+        if (owned != null) {
+            owned.remove(lock.getId());
+            if (owned.isEmpty()) {
+                locksByOwner.remove(lock.getOwnerUuid());
+            }
+        }
+    }
+    
+    /**
+     * Indexes a chunk's locks, dropping cached decisions for the chunk once.
+     */
+    private void indexChunk(String world, int chunkX, int chunkZ, List<ChestLockData> locks) {
+        for (ChestLockData lock : locks) {
+            putIndexed(lock);
         }
+        transferCache.invalidateChunk(world, chunkX, chunkZ);
+    }
+    
+    /**
+     * Gets the lock at a block position.
+     */
+    @Nullable
+    public ChestLockData getLock(World world, int x, int y, int z) {
+        return lockIndex.get(world.getName(), x, y, z);
+    }
+    
+    /**
+     * Gets the lock for a block. For a half of a double chest without its own
+     * lock, this is the lock of the other half.
+     */
+    @Nullable
+    public ChestLockData getLock(Block block) {
+        ChestLockData lock = getLock(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (lock != null || lockIndex.size() == 0) {
+            return lock;
+        }
+        Block other = doubleChestOther(block);
+        return other == null ? null : getLock(other.getWorld(), other.getX(), other.getY(), other.getZ());
     }
     
     /**
@@ -252,28 +1050,197 @@ public class ChestLockService {
      */
     @Nullable
     public ChestLockData getLock(Location location) {
-        String key = ChestLockData.createLocationKey(
-            location.getWorld().getName(),
-            location.getBlockX(),
-            location.getBlockY(),
-            location.getBlockZ()
-        );
-        return lockCache.get(key);
+        return getLock(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    /**
+     * Gets the loaded locks of a player. Locks in unloaded chunks are not included
+     * when lazy loading; see {@link #findLocksAsync(UUID, Consumer)}.
+     */
+    public List<ChestLockData> getLoadedLocks(UUID owner) {
+        Map<String, ChestLockData> owned = locksByOwner.get(owner.toString());
+        return owned == null ? new ArrayList<>() : new ArrayList<>(owned.values());
+    }
+    
+    /**
+     * Finds all locks of a player, loaded or not.
+     *
+     * @param owner    the owner's UUID
+     * @param callback receives the locks on the main thread
+     */
+    public void findLocksAsync(UUID owner, Consumer<List<ChestLockData>> callback) {
+        collectOwnedAsync(owner.toString(), callback);
+    }
+    
+    /**
+     * Gives all locks of a player to another player.
+     *
+     * @param from     the current owner's UUID
+     * @param to       the new owner's UUID
+     * @param toName   the new owner's name
+     * @param callback receives the number of locks transferred on the main thread
+     */
+    public void transferLocksAsync(UUID from, UUID to, String toName, IntConsumer callback) {
+        collectOwnedAsync(from.toString(), locks -> {
+            for (ChestLockData lock : locks) {
+                boolean indexed = isIndexed(lock);
+                if (indexed) {
+                    removeOwned(lock);
+                }
+                lock.setOwnerUuid(to.toString());
+                lock.setOwnerName(toName);
+                if (indexed) {
+                    locksByOwner.computeIfAbsent(lock.getOwnerUuid(), key -> new HashMap<>())
+                        .put(lock.getId(), lock);
+                }
+                saveLock(lock);
+                reloadIfLoading(lock);
+            }
+            callback.accept(locks.size());
+        });
+    }
+    
+    /**
+     * Removes all locks of a player.
+     *
+     * @param owner    the owner's UUID
+     * @param callback receives the number of locks removed on the main thread
+     */
+    public void purgeLocksAsync(UUID owner, IntConsumer callback) {
+        collectOwnedAsync(owner.toString(), locks -> {
+            for (ChestLockData lock : locks) {
+                if (isIndexed(lock)) {
+                    deindexLock(lock);
+                }
+                Chunk chunk = loadedChunk(lock);
+                if (chunkStorage && chunk != null) {
+                    chunkLockStorage.remove(chunk, lock);
+                }
+                if (readsDatabase()) {
+                    deleteRow(lock);
+                }
+                reloadIfLoading(lock);
+            }
+            callback.accept(locks.size());
+        });
+    }
+    
+    /**
+     * Queries an owner's stored locks off the main thread and merges them with the
+     * loaded ones on the main thread. Where the index is authoritative for a chunk,
+     * stored rows it does not hold were removed in the meantime and are dropped.
+     */
+    private void collectOwnedAsync(String owner, Consumer<List<ChestLockData>> onMainThread) {
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                List<ChestLockData> stored = Collections.emptyList();
+                if (readsDatabase()) {
+                    try {
+                        stored = writeQueue.read(
+                            () -> lockOperator.query().where("owner_uuid").eq(owner).list(),
+                            lock -> owner.equals(lock.getOwnerUuid()));
+                    } catch (RuntimeException e) {
+                        log.error("Failed to query chest locks of {}", owner, e);
+                    }
+                }
+                List<ChestLockData> rows = stored;
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        Map<String, ChestLockData> merged = new LinkedHashMap<>();
+                        Map<String, ChestLockData> loaded = locksByOwner.get(owner);
+                        if (loaded != null) {
+                            merged.putAll(loaded);
+                        }
+                        for (ChestLockData lock : rows) {
+                            if (!merged.containsKey(lock.getId()) && !isTracked(lock)) {
+                                merged.put(lock.getId(), lock);
+                            }
+                        }
+                        onMainThread.accept(new ArrayList<>(merged.values()));
+                    }
+                }.runTask(bukkitPlugin);
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
+    }
+    
+    private boolean isIndexed(ChestLockData lock) {
+        return lockIndex.get(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ()) == lock;
+    }
+    
+    /**
+     * Checks whether the index holds every lock of the chunk containing a lock.
+     */
+    private boolean isTracked(ChestLockData lock) {
+        if (!lazyLoading) {
+            return true;
+        }
+        World world = Bukkit.getWorld(lock.getWorld());
+        return world != null && world.isChunkLoaded(lock.getX() >> 4, lock.getZ() >> 4)
+            && !isLoading(world, lock.getX(), lock.getZ());
+    }
+    
+    @Nullable
+    private static Chunk loadedChunk(ChestLockData lock) {
+        World world = Bukkit.getWorld(lock.getWorld());
+        if (world == null || !world.isChunkLoaded(lock.getX() >> 4, lock.getZ() >> 4)) {
+            return null;
+        }
+        return world.getChunkAt(lock.getX() >> 4, lock.getZ() >> 4);
+    }
+    
+    /**
+     * Restarts the load of a lock's chunk if one is in flight, since its query
+     * may predate a change to the lock.
+     */
+    private void reloadIfLoading(ChestLockData lock) {
+        Map<Long, Object> pending = pendingChunks.get(lock.getWorld());
+        int chunkX = lock.getX() >> 4;
+        int chunkZ = lock.getZ() >> 4;
+        long chunkKey = BlockPosIndex.chunkKey(chunkX, chunkZ);
+        if (pending == null || !pending.containsKey(chunkKey)) {
+            return;
+        }
+        Object token = new Object();
+        pending.put(chunkKey, token);
+        loadQueue.add(new ChunkRequest(lock.getWorld(), chunkX, chunkZ, token, 0));
+        startLoader(null);
+    }
+    
+    /**
+     * Checks if any lock exists in a chunk.
+     */
+    public boolean hasLocks(World world, int chunkX, int chunkZ) {
+        return lockIndex.hasChunk(world.getName(), chunkX, chunkZ);
+    }
+    
+    /**
+     * Checks if a player can access a locked block.
+     */
+    public boolean canAccess(Block block, Player player) {
+        return canAccess(getLock(block), isLoading(block), player);
     }
     
     /**
      * Checks if a player can access a locked block.
      */
     public boolean canAccess(Location location, Player player) {
-        ChestLockData lock = getLock(location);
-        
-        if (lock == null) {
+        return canAccess(getLock(location),
+            isLoading(location.getWorld(), location.getBlockX(), location.getBlockZ()), player);
+    }
+    
+    private boolean canAccess(@Nullable ChestLockData lock, boolean loading, Player player) {
+        if (lock == null && !loading) {
             return true;
         }
         
-        // Owner can always access
-        if (lock.getOwnerUuid().equals(player.getUniqueId().toString())) {
-            return true;
+        // Owner and trusted players can always access
+        if (lock != null) {
+            UUID id = player.getUniqueId();
+            if (lock.isOwner(id) || lock.isTrusted(id) || lockTrustService.isTrusted(lock.getOwnerId(), id)) {
+                return true;
+            }
         }
         
         // Admin can access if config allows
@@ -281,10 +1248,110 @@ public class ChestLockService {
     }
     
     /**
-     * Checks if a block is locked.
+     * Checks if a block position is locked, or may be because its chunk is still loading.
+     */
+    public boolean isLocked(World world, int x, int y, int z) {
+        return getLock(world, x, y, z) != null || isLoading(world, x, z);
+    }
+    
+    /**
+     * Checks if a block is locked, or may be because its chunk is still loading.
+     */
+    public boolean isLocked(Block block) {
+        return getLock(block) != null || isLoading(block);
+    }
+    
+    /**
+     * Checks if a block is locked, or may be because its chunk is still loading.
      */
     public boolean isLocked(Location location) {
-        return getLock(location) != null;
+        return isLocked(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+    
+    /**
+     * Removes the blocks that are locked, or may be because their chunk is still
+     * loading, from a block list such as an explosion's.
+     * <p>
+     * Each chunk is checked once: blocks in chunks without locks are passed over
+     * without further lookups, and in loading chunks only lockable materials are
+     * protected. With no locks loaded the list is not even iterated.
+     *
+     * @param blocks the blocks, modified in place
+     * @return true if any block was removed
+     */
+    public boolean removeLocked(List<Block> blocks) {
+        if (blocks.isEmpty() || (lockIndex.size() == 0 && pendingChunks.isEmpty())) {
+            return false;
+        }
+        return blocks.removeIf(new LockedBlockFilter());
+    }
+    
+    /**
+     * Checks whether items may not move between two inventories. A transfer is
+     * blocked when either side is still loading, or when a locked side would be
+     * opened to a side that is not a block, not locked, or locked by someone
+     * its owner does not trust. Containers of one owner can feed each other.
+     * Decisions are cached per pair of positions until a lock or trust changes.
+     *
+     * @param source      the source inventory's location, or null if it is not a block
+     * @param destination the destination inventory's location, or null if it is not a block
+     * @return true if the transfer must be blocked
+     */
+    public boolean isTransferBlocked(@Nullable Location source, @Nullable Location destination) {
+        if (lockIndex.size() == 0 && pendingChunks.isEmpty()) {
+            return false;
+        }
+        World world = source != null ? source.getWorld() : destination != null ? destination.getWorld() : null;
+        if (world == null) {
+            return false;
+        }
+        if (source != null && destination != null && source.getWorld() != destination.getWorld()) {
+            return decideTransfer(source, destination);
+        }
+        int trustRevision = lockTrustService.getRevision();
+        if (trustRevision != transferTrustRevision) {
+            transferCache.clear();
+            transferTrustRevision = trustRevision;
+        }
+        
+        long sourceKey = source == null ? TransferDecisionCache.NO_POSITION
+            : TransferDecisionCache.pack(source.getBlockX(), source.getBlockY(), source.getBlockZ());
+        long destinationKey = destination == null ? TransferDecisionCache.NO_POSITION
+            : TransferDecisionCache.pack(destination.getBlockX(), destination.getBlockY(), destination.getBlockZ());
+        Boolean cached = transferCache.get(world.getName(), sourceKey, destinationKey);
+        if (cached != null) {
+            return cached;
+        }
+        
+        boolean blocked = decideTransfer(source, destination);
+        transferCache.put(world.getName(), sourceKey, destinationKey, blocked);
+        return blocked;
+    }
+    
+    private boolean decideTransfer(@Nullable Location source, @Nullable Location destination) {
+        if ((source != null && isLoading(source.getWorld(), source.getBlockX(), source.getBlockZ()))
+            || (destination != null && isLoading(destination.getWorld(), destination.getBlockX(), destination.getBlockZ()))) {
+            return true;
+        }
+        ChestLockData from = source == null ? null : getLock(source);
+        ChestLockData to = destination == null ? null : getLock(destination);
+        return exposes(from, to) || exposes(to, from);
+    }
+    
+    /**
+     * Checks whether a lock would be opened to the container at the other end
+     * of a transfer, which is allowed only for containers its owner could open.
+     */
+    private boolean exposes(@Nullable ChestLockData lock, @Nullable ChestLockData other) {
+        if (lock == null) {
+            return false;
+        }
+        UUID otherOwner = other == null ? null : other.getOwnerId();
+        if (otherOwner == null) {
+            return true;
+        }
+        return !lock.isOwner(otherOwner) && !lock.isTrusted(otherOwner)
+            && !lockTrustService.isTrusted(lock.getOwnerId(), otherOwner);
     }
     
     /**
@@ -293,8 +1360,8 @@ public class ChestLockService {
     public void onBlockBreak(Location location) {
         ChestLockData lock = getLock(location);
         if (lock != null) {
-            lockOperator.delById(lock.getId());
-            lockCache.remove(lock.getLocationKey());
+            deleteLock(location.getWorld(), lock);
+            deindexLock(lock);
         }
     }
     
@@ -303,12 +1370,200 @@ public class ChestLockService {
         NOT_LOCKABLE,
         ALREADY_LOCKED,
         ALREADY_LOCKED_BY_YOU,
-        DISABLED
+        DISABLED,
+        LOADING
     }
     
     public enum UnlockResult {
         SUCCESS,
         NOT_LOCKED,
-        NOT_OWNER
+        NOT_OWNER,
+        LOADING
+    }
+    
+    public enum TrustResult {
+        SUCCESS,
+        NOT_LOCKED,
+        NOT_OWNER,
+        LOADING,
+        UNCHANGED
+    }
+    
+    /**
+     * Stateful filter for {@link #removeLocked(List)}. Remembers, per chunk seen,
+     * whether the chunk has locks or is loading; an explosion touches only a few
+     * chunks, so a linear scan beats hashing boxed keys.
+     */
+    private final class LockedBlockFilter implements Predicate<Block> {
+        private static final int NO_LOCKS = 0;
+        private static final int HAS_LOCKS = 1;
+        private static final int LOADING = 2;
+        
+        private World world;
+        private long[] chunks = new long[8];
+        private int[] states = new int[8];
+        private int count;
+        
+        @Override
+        public boolean test(Block block) {
+            World blockWorld = block.getWorld();
+            if (blockWorld != world) {
+                world = blockWorld;
+                count = 0;
+            }
+            int x = block.getX();
+            int z = block.getZ();
+            int state = chunkState(x >> 4, z >> 4);
+            if (state == HAS_LOCKS) {
+                return getLock(world, x, block.getY(), z) != null;
+            }
+            return state == LOADING && isLockable(block.getType());
+        }
+        
+        private int chunkState(int chunkX, int chunkZ) {
+            long key = BlockPosIndex.chunkKey(chunkX, chunkZ);
+            for (int i = 0; i < count; i++) {
+                if (chunks[i] == key) {
+                    return states[i];
+                }
+            }
+            int state = isLoading(world, chunkX << 4, chunkZ << 4) ? LOADING
+                : hasLocks(world, chunkX, chunkZ) ? HAS_LOCKS : NO_LOCKS;
+            if (count == chunks.length) {
+                chunks = Arrays.copyOf(chunks, count * 2);
+                states = Arrays.copyOf(states, count * 2);
+            }
+            chunks[count] = key;
+            states[count] = state;
+            count++;
+            return state;
+        }
+    }
+    
+    /**
+     * Main-thread task checking indexed locks against their blocks, within a time
+     * budget per tick. Locks in unloaded or loading chunks are left alone.
+     */
+    private final class OrphanSweep extends BukkitRunnable {
+        private final List<ChestLockData> locks;
+        private int next;
+        private int removed;
+        private boolean running = true;
+        
+        OrphanSweep(List<ChestLockData> locks) {
+            this.locks = locks;
+        }
+        
+        @Override
+        public void run() {
+            long deadline = System.nanoTime() + config.getChestLockSweepBudget() * 1_000_000L;
+            while (next < locks.size() && System.nanoTime() < deadline) {
+                ChestLockData lock = locks.get(next++);
+                if (isOrphaned(lock)) {
+                    removeOrphan(lock);
+                    removed++;
+                }
+            }
+            
+            if (next >= locks.size()) {
+                running = false;
+                cancel();
+                log.info("Orphaned chest lock sweep finished: checked {} locks, removed {}", locks.size(), removed);
+            }
+        }
+        
+        @Override
+        public synchronized void cancel() {
+            running = false;
+            super.cancel();
+        }
+    }
+    
+    private boolean isOrphaned(ChestLockData lock) {
+        // Skip locks removed or replaced since the sweep started
+        if (!isIndexed(lock)) {
+            return false;
+        }
+        World world = Bukkit.getWorld(lock.getWorld());
+        int chunkX = lock.getX() >> 4;
+        int chunkZ = lock.getZ() >> 4;
+        if (world == null || !world.isChunkLoaded(chunkX, chunkZ) || isLoading(world, lock.getX(), lock.getZ())) {
+            return false;
+        }
+        return !isLockable(world.getBlockAt(lock.getX(), lock.getY(), lock.getZ()).getType());
+    }
+    
+    private void removeOrphan(ChestLockData lock) {
+        deindexLock(lock);
+        if (chunkStorage) {
+            Chunk chunk = loadedChunk(lock);
+            if (chunk != null) {
+                chunkLockStorage.remove(chunk, lock);
+            }
+        }
+        if (readsDatabase()) {
+            deleteRow(lock);
+        }
+    }
+    
+    /**
+     * Snapshot of an orphan sweep's progress.
+     */
+    public static class SweepProgress {
+        private final boolean running;
+        private final int total;
+        private final int checked;
+        private final int removed;
+        
+        public SweepProgress(boolean running, int total, int checked, int removed) {
+            this.running = running;
+            this.total = total;
+            this.checked = checked;
+            this.removed = removed;
+        }
+        
+        public boolean isRunning() {
+            return running;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+        
+        public int getChecked() {
+            return checked;
+        }
+        
+        public int getRemoved() {
+            return removed;
+        }
+    }
+    
+    /**
+     * A queued chunk load.
+     */
+    private static final class ChunkRequest {
+        private final String world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final Object token;
+        // Failed loads so far
+        private final int attempt;
+        
+        ChunkRequest(String world, int chunkX, int chunkZ, Object token, int attempt) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.token = token;
+            this.attempt = attempt;
+        }
+        
+        ChunkRequest retry() {
+            return new ChunkRequest(world, chunkX, chunkZ, token, attempt + 1);
+        }
+        
+        String key() {
+            return ChestLockData.createChunkKey(world, chunkX << 4, chunkZ << 4);
+        }
     }
 }
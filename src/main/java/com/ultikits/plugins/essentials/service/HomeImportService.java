@@ -0,0 +1,489 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.HomeData;
+import com.ultikits.plugins.essentials.entity.WarpData;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.Service;
+import lombok.extern.slf4j.Slf4j;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Imports homes and warps from EssentialsX.
+ * <p>
+ * 从 EssentialsX 导入家和地标。
+ * <p>
+ * Warps are read from {@code plugins/Essentials/warps}, then homes from
+ * {@code plugins/Essentials/userdata}. User files are taken in name order,
+ * {@code features.home.import.batch-size} at a time, and each batch is parsed
+ * on {@code features.home.import.threads} threads, so memory stays bounded by
+ * one batch. The parsed homes are de-duplicated against the stored homes of
+ * the batch's players, queried per batch, and written before the next batch
+ * is read.
+ * <p>
+ * After every written batch the last file name is saved to a checkpoint file.
+ * If the import stops (crash, restart, storage error), running it again skips
+ * everything up to the checkpoint. A batch that was written but not yet
+ * checkpointed is read again, and its homes are then skipped as duplicates of
+ * the stored ones. The checkpoint is deleted when the import completes.
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class HomeImportService {
+
+    static final String CHECKPOINT_FILE = "plugins/Essentials/ultiessentials-import.checkpoint";
+
+    private static final String ESSENTIALS_FOLDER = "plugins/Essentials";
+
+    @Autowired
+    private HomeService homeService;
+
+    @Autowired
+    private WarpService warpService;
+
+    @Autowired
+    private EssentialsConfig config;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * @return true if an earlier import stopped before completing and will be resumed
+     */
+    public boolean hasCheckpoint() {
+        return checkpointFile().isFile();
+    }
+
+    /**
+     * Starts or resumes an import on an async thread.
+     *
+     * @param progress receives progress after every batch and once when done, on the main thread
+     * @return false if another import is already running
+     */
+    public boolean startImport(Consumer<ImportProgress> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Plugin bukkitPlugin = Bukkit.getPluginManager().getPlugin("UltiTools");
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                ImportProgress result = new ImportProgress();
+                try {
+                    runImport(result, snapshot -> new BukkitRunnable() {
+                        @Override
+                        public void run() {
+                            progress.accept(snapshot);
+                        }
+                    }.runTask(bukkitPlugin));
+                } catch (IOException | RuntimeException e) {
+                    log.error("Home import from EssentialsX failed", e);
+                    result.failed = true;
+                } finally {
+                    running.set(false);
+                }
+                ImportProgress done = result.snapshot(true);
+                new BukkitRunnable() {
+                    @Override
+                    public void run() {
+                        progress.accept(done);
+                    }
+                }.runTask(bukkitPlugin);
+            }
+        }.runTaskAsynchronously(bukkitPlugin);
+        return true;
+    }
+
+    /**
+     * Runs or resumes an import on the calling thread.
+     *
+     * @param result   counters, updated as the import runs
+     * @param progress receives a snapshot after every written batch
+     * @throws IOException if a directory or the checkpoint cannot be read or written
+     */
+    void runImport(ImportProgress result, Consumer<ImportProgress> progress) throws IOException {
+        File essentials = new File(Bukkit.getWorldContainer(), ESSENTIALS_FOLDER);
+        Checkpoint checkpoint = Checkpoint.load(checkpointFile());
+
+        if (!checkpoint.warpsDone) {
+            importWarps(new File(essentials, "warps"), result);
+            checkpoint.warpsDone = true;
+            checkpoint.save();
+            progress.accept(result.snapshot(false));
+        }
+        importHomes(new File(essentials, "userdata"), checkpoint, result, progress);
+        checkpoint.delete();
+    }
+
+    private File checkpointFile() {
+        return new File(Bukkit.getWorldContainer(), CHECKPOINT_FILE);
+    }
+
+    private void importWarps(File folder, ImportProgress result) throws IOException {
+        Set<String> seen = new HashSet<>();
+        for (WarpData existing : warpService.getAllWarps()) {
+            seen.add(existing.getName());
+        }
+
+        List<WarpData> warps = new ArrayList<>();
+        for (String fileName : listYaml(folder)) {
+            result.processed++;
+            WarpData warp = readEssentialsWarp(new File(folder, fileName));
+            if (warp == null) {
+                result.skipped++;
+            } else if (!seen.add(warp.getName())) {
+                result.duplicates++;
+            } else {
+                warps.add(warp);
+            }
+        }
+
+        int written = warpService.importWarps(warps);
+        result.warps += written;
+        result.skipped += warps.size() - written;
+    }
+
+    private void importHomes(File folder, Checkpoint checkpoint, ImportProgress result,
+                             Consumer<ImportProgress> progress) throws IOException {
+        List<String> fileNames = listYaml(folder);
+        if (checkpoint.lastUser != null) {
+            int resumeAt = Collections.binarySearch(fileNames, checkpoint.lastUser);
+            fileNames = fileNames.subList(resumeAt >= 0 ? resumeAt + 1 : -resumeAt - 1, fileNames.size());
+        }
+        if (fileNames.isEmpty()) {
+            return;
+        }
+
+        int batchSize = Math.max(1, config.getHomeImportBatchSize());
+        ExecutorService parsers = newParserPool(Math.max(1, config.getHomeImportThreads()));
+        try {
+            for (int from = 0; from < fileNames.size(); from += batchSize) {
+                List<String> batch = fileNames.subList(from, Math.min(from + batchSize, fileNames.size()));
+                List<Callable<List<HomeData>>> tasks = new ArrayList<>(batch.size());
+                for (String fileName : batch) {
+                    File file = new File(folder, fileName);
+                    tasks.add(() -> readEssentialsHomes(file));
+                }
+
+                List<List<HomeData>> users = new ArrayList<>(batch.size());
+                Set<UUID> players = new HashSet<>();
+                List<Future<List<HomeData>>> parsed = parsers.invokeAll(tasks);
+                for (int i = 0; i < parsed.size(); i++) {
+                    result.processed++;
+                    List<HomeData> userHomes;
+                    try {
+                        userHomes = parsed.get(i).get();
+                    } catch (ExecutionException e) {
+                        log.warn("Failed to read {}", batch.get(i), e.getCause());
+                        result.skipped++;
+                        continue;
+                    }
+                    users.add(userHomes);
+                    for (HomeData home : userHomes) {
+                        if (home != null) {
+                            players.add(UUID.fromString(home.getPlayerUuid()));
+                        }
+                    }
+                }
+
+                Set<String> stored = new HashSet<>();
+                for (HomeData existing : homeService.getStoredHomes(players)) {
+                    if (existing.getName() != null) {
+                        stored.add(homeKey(existing));
+                    }
+                }
+
+                List<HomeData> homes = new ArrayList<>();
+                for (List<HomeData> userHomes : users) {
+                    Set<String> inFile = new HashSet<>();
+                    for (HomeData home : userHomes) {
+                        if (home == null) {
+                            result.skipped++;
+                        } else if (stored.contains(homeKey(home)) || !inFile.add(home.getName())) {
+                            result.duplicates++;
+                        } else {
+                            homes.add(home);
+                        }
+                    }
+                }
+
+                int written = homeService.importHomes(homes);
+                result.homes += written;
+                result.skipped += homes.size() - written;
+                checkpoint.lastUser = batch.get(batch.size() - 1);
+                checkpoint.save();
+                progress.accept(result.snapshot(false));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Home import interrupted", e);
+        } finally {
+            parsers.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newParserPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "UltiEssentials-HomeImport-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lists the {@code .yml} files of a folder in name order, so a resumed import
+     * walks them in the same order as the one it continues.
+     */
+    private static List<String> listYaml(File folder) throws IOException {
+        List<String> fileNames = new ArrayList<>();
+        if (!folder.isDirectory()) {
+            return fileNames;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder.toPath(), "*.yml")) {
+            for (Path file : files) {
+                fileNames.add(file.getFileName().toString());
+            }
+        }
+        Collections.sort(fileNames);
+        return fileNames;
+    }
+
+    /**
+     * Reads the homes of one EssentialsX userdata file.
+     *
+     * @param file the {@code <uuid>.yml} file
+     * @return one home per entry, or null for entries that cannot be imported;
+     *         empty if the file is not named after a UUID
+     */
+    static List<HomeData> readEssentialsHomes(File file) {
+        List<HomeData> homes = new ArrayList<>();
+        String fileName = file.getName();
+        UUID uuid = parseUuid(fileName.substring(0, fileName.length() - ".yml".length()));
+        if (uuid == null) {
+            return homes;
+        }
+
+        ConfigurationSection section = YamlConfiguration.loadConfiguration(file).getConfigurationSection("homes");
+        if (section == null) {
+            return homes;
+        }
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection home = section.getConfigurationSection(key);
+            String name = normalizeName(key);
+            String world = home != null ? worldName(home) : null;
+            if (name == null || world == null) {
+                homes.add(null);
+                continue;
+            }
+            homes.add(HomeData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(uuid.toString())
+                .name(name)
+                .world(world)
+                .x(home.getDouble("x"))
+                .y(home.getDouble("y"))
+                .z(home.getDouble("z"))
+                .yaw((float) home.getDouble("yaw"))
+                .pitch((float) home.getDouble("pitch"))
+                .createdAt(file.lastModified())
+                .build());
+        }
+        return homes;
+    }
+
+    /**
+     * Reads one EssentialsX warp file.
+     *
+     * @param file the {@code <name>.yml} file
+     * @return the warp, or null if it cannot be imported
+     */
+    @Nullable
+    static WarpData readEssentialsWarp(File file) {
+        YamlConfiguration yaml = YamlConfiguration.loadConfiguration(file);
+        String fileName = file.getName();
+        String name = normalizeName(yaml.getString("name", fileName.substring(0, fileName.length() - ".yml".length())));
+        String world = worldName(yaml);
+        if (name == null || world == null) {
+            return null;
+        }
+        UUID owner = parseUuid(yaml.getString("lastowner", ""));
+        return WarpData.builder()
+            .uuid(UUID.randomUUID())
+            .name(name)
+            .world(world)
+            .x(yaml.getDouble("x"))
+            .y(yaml.getDouble("y"))
+            .z(yaml.getDouble("z"))
+            .yaw((float) yaml.getDouble("yaw"))
+            .pitch((float) yaml.getDouble("pitch"))
+            .createdBy(owner != null ? owner.toString() : null)
+            .createdAt(file.lastModified())
+            .build();
+    }
+
+    /**
+     * Newer EssentialsX versions store the world UUID as {@code world} and its
+     * name as {@code world-name}; older ones store the name as {@code world}.
+     */
+    @Nullable
+    private static String worldName(ConfigurationSection section) {
+        String name = section.getString("world-name");
+        return name != null ? name : section.getString("world");
+    }
+
+    /**
+     * Applies the same rules as {@code /sethome} and {@code /setwarp}.
+     */
+    @Nullable
+    private static String normalizeName(String name) {
+        String normalized = name.toLowerCase().trim();
+        return normalized.isEmpty() || normalized.length() > 32 ? null : normalized;
+    }
+
+    private static String homeKey(HomeData home) {
+        return home.getPlayerUuid() + ':' + home.getName().toLowerCase();
+    }
+
+    @Nullable
+    private static UUID parseUuid(String text) {
+        try {
+            return UUID.fromString(text);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * How far an interrupted import got.
+     */
+    private static final class Checkpoint {
+        private static final String WARPS_DONE = "warps-done";
+        private static final String LAST_USER = "last-user";
+
+        private final File file;
+        private boolean warpsDone;
+        @Nullable
+        private String lastUser;
+
+        private Checkpoint(File file) {
+            this.file = file;
+        }
+
+        static Checkpoint load(File file) throws IOException {
+            Checkpoint checkpoint = new Checkpoint(file);
+            if (file.isFile()) {
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    properties.load(in);
+                }
+                checkpoint.warpsDone = Boolean.parseBoolean(properties.getProperty(WARPS_DONE));
+                checkpoint.lastUser = properties.getProperty(LAST_USER);
+            }
+            return checkpoint;
+        }
+
+        /**
+         * Writes to a temporary file first, so a crash never leaves a half-written checkpoint.
+         */
+        void save() throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty(WARPS_DONE, Boolean.toString(warpsDone));
+            if (lastUser != null) {
+                properties.setProperty(LAST_USER, lastUser);
+            }
+            File parent = file.getParentFile();
+            if (!parent.isDirectory()) {
+                Files.createDirectories(parent.toPath());
+            }
+            Path temp = new File(parent, file.getName() + ".tmp").toPath();
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "UltiEssentials home import");
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        void delete() throws IOException {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Import counters.
+     */
+    public static class ImportProgress {
+        private int processed;
+        private int homes;
+        private int warps;
+        private int duplicates;
+        private int skipped;
+        private boolean failed;
+        private boolean done;
+
+        ImportProgress snapshot(boolean finished) {
+            ImportProgress copy = new ImportProgress();
+            copy.processed = processed;
+            copy.homes = homes;
+            copy.warps = warps;
+            copy.duplicates = duplicates;
+            copy.skipped = skipped;
+            copy.failed = failed;
+            copy.done = finished;
+            return copy;
+        }
+
+        public int getProcessed() {
+            return processed;
+        }
+
+        public int getHomes() {
+            return homes;
+        }
+
+        public int getWarps() {
+            return warps;
+        }
+
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public boolean isDone() {
+            return done;
+        }
+    }
+}
@@ -3,22 +3,53 @@ package com.ultikits.plugins.essentials.service;
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.HomeData;
 import com.ultikits.plugins.essentials.enums.TeleportResult;
+import com.ultikits.plugins.essentials.utils.PermissionTiers;
 import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
 import com.ultikits.ultitools.annotations.Autowired;
 import com.ultikits.ultitools.annotations.Service;
 import com.ultikits.ultitools.interfaces.DataOperator;
 import lombok.extern.slf4j.Slf4j;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
 
 import javax.annotation.Nullable;
 import com.ultikits.ultitools.annotations.PostConstruct;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for managing player homes.
  * <p>
  * 管理玩家家位置的服务。
+ * <p>
+ * Each online player's homes are cached by name for the session: they are
+ * loaded by {@link #preload(UUID)} while the player logs in, on the writer
+ * thread after any writes still queued for them, and dropped by
+ * {@link #evict(UUID)} when they leave. Players already online when the
+ * service starts (after a reload) are loaded in the background. Lookups,
+ * counts and listings read the cache. A player still missing from the cache
+ * is loaded on first use. Names are kept sorted, so tab completion takes the
+ * range of names starting with what was typed without scanning or touching
+ * storage.
+ * <p>
+ * Changes update the cache at once and are written to storage in order on a
+ * single background thread. The writer gets a copy of each changed home, so
+ * the cached one is never read while it is being modified. If a write fails,
+ * the player's cached homes are reloaded from storage once no more writes are
+ * queued for them, and the player is told. {@link #shutdown()} waits for
+ * pending writes.
+ * <p>
+ * Home limits are resolved from the player's permissions once and cached
+ * (see {@link PermissionTiers}) until they leave or change worlds.
  *
  * @author wisdomme
  * @version 1.0.0
@@ -38,6 +69,24 @@ public class HomeService {
 
     private DataOperator<HomeData> homeOperator;
 
+    private Plugin bukkitPlugin;
+
+    // Single thread, so writes to the same home land in the order they were made
+    private ExecutorService writer;
+
+    /**
+     * Player UUID -> home name (sorted) -> home
+     */
+    private final Map<UUID, NavigableMap<String, HomeData>> homeCache = new ConcurrentHashMap<>();
+
+    /**
+     * Player UUID -> writes queued for them, guarded by itself
+     */
+    private final Map<UUID, PendingWrites> pendingWrites = new HashMap<>();
+
+    private final PermissionTiers maxHomeTiers = new PermissionTiers(
+        "ultiessentials.home.max.", "ultiessentials.home.unlimited", 100, TimeUnit.MINUTES.toMillis(1));
+
     /**
      * Initializes the service with the data operator.
      * Automatically called by the IoC container after construction.
@@ -45,18 +94,105 @@ public class HomeService {
     @PostConstruct
     public void init() {
         this.homeOperator = plugin.getDataOperator(HomeData.class);
+        this.bukkitPlugin = Bukkit.getPluginManager().getPlugin("UltiTools");
+        // Let writes queued before a reload finish before their bookkeeping is reset
+        shutdown();
+        homeCache.clear();
+        synchronized (pendingWrites) {
+            pendingWrites.clear();
+        }
+        maxHomeTiers.clear();
+        if (config.isHomeEnabled()) {
+            preloadOnlinePlayers();
+        }
     }
     
     /**
-     * Gets all homes for a player.
+     * Loads the homes of players who were online before the service started, on
+     * the writer thread. A player whose homes were loaded by first use in the
+     * meantime keeps that cache.
+     */
+    private void preloadOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID playerUuid = player.getUniqueId();
+            writer().execute(() -> {
+                try {
+                    homeCache.putIfAbsent(playerUuid, loadHomes(playerUuid));
+                } catch (RuntimeException e) {
+                    // Loaded on first use instead
+                    log.error("Failed to preload homes for {}", playerUuid, e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Loads a player's homes into the cache on the writer thread, so writes
+     * still queued from their last session are stored first. Blocks until
+     * loaded, so call it off the main thread.
+     *
+     * @param playerUuid the player's UUID
+     */
+    public void preload(UUID playerUuid) {
+        try {
+            CompletableFuture.runAsync(() -> homeCache.put(playerUuid, loadHomes(playerUuid)), writer()).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Drops a player's homes from the cache.
+     *
+     * @param playerUuid the player's UUID
+     */
+    public void evict(UUID playerUuid) {
+        homeCache.remove(playerUuid);
+        maxHomeTiers.invalidate(playerUuid);
+    }
+    
+    /**
+     * Drops a player's cached home limit, so it is resolved again on next use.
+     *
+     * @param playerUuid the player's UUID
+     */
+    public void invalidateMaxHomes(UUID playerUuid) {
+        maxHomeTiers.invalidate(playerUuid);
+    }
+    
+    private NavigableMap<String, HomeData> homesOf(UUID playerUuid) {
+        NavigableMap<String, HomeData> homes = homeCache.get(playerUuid);
+        if (homes != null) {
+            return homes;
+        }
+        homes = loadHomes(playerUuid);
+        NavigableMap<String, HomeData> raced = homeCache.putIfAbsent(playerUuid, homes);
+        return raced != null ? raced : homes;
+    }
+    
+    private NavigableMap<String, HomeData> loadHomes(UUID playerUuid) {
+        NavigableMap<String, HomeData> homes = new ConcurrentSkipListMap<>();
+        for (HomeData home : homeOperator.query().where("player_uuid").eq(playerUuid.toString()).list()) {
+            if (home.getName() != null) {
+                homes.put(home.getName().toLowerCase(), home);
+            }
+        }
+        return homes;
+    }
+    
+    /**
+     * Gets all homes for a player, oldest first.
      *
      * @param playerUuid the player's UUID
      * @return list of homes
      */
     public List<HomeData> getHomes(UUID playerUuid) {
-        return homeOperator.query()
-            .where("player_uuid").eq(playerUuid.toString())
-            .list();
+        List<HomeData> homes = new ArrayList<>(homesOf(playerUuid).values());
+        homes.sort(Comparator.comparingLong(HomeData::getCreatedAt));
+        return homes;
     }
     
     /**
@@ -68,10 +204,32 @@ public class HomeService {
      */
     @Nullable
     public HomeData getHome(UUID playerUuid, String name) {
-        return homeOperator.query()
-            .where("player_uuid").eq(playerUuid.toString())
-            .where("name").eq(name.toLowerCase())
-            .first();
+        return homesOf(playerUuid).get(name.toLowerCase());
+    }
+    
+    /**
+     * Completes a home name from the cache, never from storage. Players whose
+     * homes are not cached get no suggestions.
+     *
+     * @param playerUuid the player's UUID
+     * @param prefix     what has been typed so far
+     * @param limit      the maximum number of names
+     * @return matching home names in alphabetical order
+     */
+    public List<String> completeHomeNames(UUID playerUuid, String prefix, int limit) {
+        NavigableMap<String, HomeData> homes = homeCache.get(playerUuid);
+        if (homes == null) {
+            return new ArrayList<>();
+        }
+        String from = prefix.toLowerCase();
+        List<String> names = new ArrayList<>();
+        for (String name : homes.subMap(from, true, from + Character.MAX_VALUE, true).keySet()) {
+            if (names.size() >= limit) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
     }
     
     /**
@@ -81,28 +239,19 @@ public class HomeService {
      * @return the number of homes
      */
     public int getHomeCount(UUID playerUuid) {
-        return getHomes(playerUuid).size();
+        return homesOf(playerUuid).size();
     }
     
     /**
-     * Gets the maximum number of homes allowed for a player.
-     * Can be extended with permission-based limits.
+     * Gets the maximum number of homes allowed for a player: the highest
+     * {@code ultiessentials.home.max.<number>} they have (up to 100), unlimited
+     * with {@code ultiessentials.home.unlimited}, or the configured default.
      *
      * @param player the player
      * @return the maximum number of homes
      */
     public int getMaxHomes(Player player) {
-        // Check for permission-based limits (ultiessentials.home.max.<number>)
-        for (int i = 100; i >= 1; i--) {
-            if (player.hasPermission("ultiessentials.home.max." + i)) {
-                return i;
-            }
-        }
-        // Check for unlimited permission
-        if (player.hasPermission("ultiessentials.home.unlimited")) {
-            return Integer.MAX_VALUE;
-        }
-        return config.getHomeDefaultMaxHomes();
+        return maxHomeTiers.get(player, config.getHomeDefaultMaxHomes());
     }
     
     /**
@@ -128,11 +277,8 @@ public class HomeService {
         if (existingHome != null) {
             // Update existing home
             updateHomeLocation(existingHome, player.getLocation());
-            try {
-                homeOperator.update(existingHome);
-            } catch (IllegalAccessException e) {
-                log.error("Failed to update home", e);
-            }
+            HomeData saved = copyOf(existingHome);
+            writeAsync(playerUuid, "update", () -> homeOperator.update(saved));
             return SetHomeResult.UPDATED;
         }
         
@@ -159,7 +305,9 @@ public class HomeService {
             .createdAt(System.currentTimeMillis())
             .build();
         
-        homeOperator.insert(newHome);
+        homesOf(playerUuid).put(normalizedName, newHome);
+        HomeData saved = copyOf(newHome);
+        writeAsync(playerUuid, "create", () -> homeOperator.insert(saved));
         return SetHomeResult.CREATED;
     }
     
@@ -175,10 +323,184 @@ public class HomeService {
         if (home == null) {
             return false;
         }
-        homeOperator.delById(home.getId());
+        homesOf(playerUuid).remove(home.getName().toLowerCase());
+        String id = home.getId();
+        writeAsync(playerUuid, "delete", () -> homeOperator.delById(id));
         return true;
     }
     
+    /**
+     * Gets the stored homes of the given players, one query per player.
+     * Queries storage, so call it off the main thread.
+     *
+     * @param playerUuids the players' UUIDs
+     * @return their stored homes
+     */
+    public List<HomeData> getStoredHomes(Collection<UUID> playerUuids) {
+        List<HomeData> homes = new ArrayList<>();
+        for (UUID playerUuid : playerUuids) {
+            homes.addAll(homeOperator.query().where("player_uuid").eq(playerUuid.toString()).list());
+        }
+        return homes;
+    }
+
+    /**
+     * Writes imported homes on the calling thread, one row at a time, and adds
+     * them to the cache of players whose homes are loaded. Home limits are not
+     * applied.
+     *
+     * @param homes homes to insert
+     * @return the number of homes written
+     */
+    public int importHomes(List<HomeData> homes) {
+        int written = 0;
+        for (HomeData home : homes) {
+            try {
+                homeOperator.insert(home);
+            } catch (RuntimeException e) {
+                log.error("Failed to import home {} of {}", home.getName(), home.getPlayerUuid(), e);
+                continue;
+            }
+            NavigableMap<String, HomeData> cached = homeCache.get(UUID.fromString(home.getPlayerUuid()));
+            if (cached != null) {
+                cached.putIfAbsent(home.getName().toLowerCase(), home);
+            }
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Waits for pending home writes to finish.
+     */
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for home writes to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private synchronized ExecutorService writer() {
+        if (writer == null || writer.isShutdown()) {
+            writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UltiEssentials-HomeWriter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writer;
+    }
+    
+    /**
+     * Queues a write on the writer thread. Called on the main thread, right
+     * after the change it stores was made to the cache.
+     */
+    private void writeAsync(UUID playerUuid, String action, HomeWrite write) {
+        synchronized (pendingWrites) {
+            PendingWrites pending = pendingWrites.computeIfAbsent(playerUuid, uuid -> new PendingWrites());
+            pending.queued++;
+            pending.total++;
+        }
+        writer().execute(() -> {
+            boolean failed = false;
+            try {
+                write.run();
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.error("Failed to {} home of {}", action, playerUuid, e);
+                failed = true;
+            }
+            finishWrite(playerUuid, failed);
+        });
+    }
+    
+    /**
+     * Counts a write as done. Once the last queued write of a player with a
+     * failed write is done, storage holds everything that was meant to be
+     * saved, so their cache is reloaded. Runs on the writer thread.
+     */
+    private void finishWrite(UUID playerUuid, boolean failed) {
+        long total;
+        synchronized (pendingWrites) {
+            PendingWrites pending = pendingWrites.get(playerUuid);
+            if (pending == null) {
+                // Reset by init while this write was still running
+                return;
+            }
+            pending.queued--;
+            pending.failed |= failed;
+            if (pending.queued > 0) {
+                return;
+            }
+            if (!pending.failed) {
+                pendingWrites.remove(playerUuid);
+                return;
+            }
+            total = pending.total;
+        }
+        reconcile(playerUuid, total);
+    }
+    
+    /**
+     * Replaces a player's cached homes with what storage holds after a failed
+     * write, and tells the player. Storage is read on the writer thread and
+     * the cache replaced on the main thread, unless a write was queued in
+     * between; that write reconciles again when it is done.
+     *
+     * @param total the number of writes ever queued for the player when storage was read
+     */
+    private void reconcile(UUID playerUuid, long total) {
+        NavigableMap<String, HomeData> stored;
+        try {
+            stored = loadHomes(playerUuid);
+        } catch (RuntimeException e) {
+            // Loaded again on next use
+            stored = null;
+        }
+        NavigableMap<String, HomeData> reloaded = stored;
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                synchronized (pendingWrites) {
+                    PendingWrites pending = pendingWrites.get(playerUuid);
+                    if (pending == null || pending.total != total) {
+                        return;
+                    }
+                    pendingWrites.remove(playerUuid);
+                }
+                if (reloaded != null) {
+                    homeCache.replace(playerUuid, reloaded);
+                } else {
+                    homeCache.remove(playerUuid);
+                }
+                Player player = Bukkit.getPlayer(playerUuid);
+                if (player != null) {
+                    player.sendMessage(plugin.i18n("§c家数据保存失败，已恢复为上次保存的状态"));
+                }
+            }
+        }.runTask(bukkitPlugin);
+    }
+    
+    @FunctionalInterface
+    private interface HomeWrite {
+        void run() throws IllegalAccessException;
+    }
+    
+    private static final class PendingWrites {
+        // Writes queued and not yet done
+        int queued;
+        // Writes ever queued, so a reload can tell whether one came after it
+        long total;
+        // A write failed, so the cache is reloaded once the queue is empty
+        boolean failed;
+    }
+    
     /**
      * Teleports a player to their home with warmup support.
      *
@@ -240,6 +562,21 @@ public class HomeService {
         home.fromLocation(loc);
     }
     
+    private static HomeData copyOf(HomeData home) {
+        return HomeData.builder()
+            .uuid(home.getUuid())
+            .playerUuid(home.getPlayerUuid())
+            .name(home.getName())
+            .world(home.getWorld())
+            .x(home.getX())
+            .y(home.getY())
+            .z(home.getZ())
+            .yaw(home.getYaw())
+            .pitch(home.getPitch())
+            .createdAt(home.getCreatedAt())
+            .build();
+    }
+    
     public enum SetHomeResult {
         CREATED,
         UPDATED,
@@ -0,0 +1,216 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.LockTrustData;
+import com.ultikits.ultitools.abstracts.UltiToolsPlugin;
+import com.ultikits.ultitools.annotations.Autowired;
+import com.ultikits.ultitools.annotations.PostConstruct;
+import com.ultikits.ultitools.annotations.Service;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service for players trusted on all chest locks of an owner.
+ * <p>
+ * 管理箱子锁全局信任列表的服务。
+ * <p>
+ * Every owner's trust list is held in memory, keyed by UUID, so the access
+ * check made on each container interaction is two hash lookups with no
+ * allocation. Lists are small and loaded at startup; changes update memory
+ * at once and are written in order on a single background thread.
+ * {@link #shutdown()} waits for pending writes.
+ * Trust on a single lock is stored on the lock itself (see {@link ChestLockService}).
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Slf4j
+@Service
+public class LockTrustService {
+
+    @Autowired
+    private UltiToolsPlugin plugin;
+
+    @Autowired
+    private EssentialsConfig config;
+
+    private DataOperator<LockTrustData> trustOperator;
+
+    // Single thread, so a trust and the untrust that follows it land in order
+    private ExecutorService writer;
+
+    /**
+     * Owner UUID -> trusted player UUID -> entry
+     */
+    private final Map<UUID, Map<UUID, LockTrustData>> trustByOwner = new ConcurrentHashMap<>();
+
+    // Bumped on every change, so callers can tell when decisions based on trust are stale
+    private final AtomicInteger revision = new AtomicInteger();
+
+    /**
+     * Initializes the service with the data operator.
+     * Automatically called by the IoC container after construction.
+     */
+    @PostConstruct
+    public void init() {
+        this.trustOperator = plugin.getDataOperator(LockTrustData.class);
+
+        trustByOwner.clear();
+        revision.incrementAndGet();
+        if (config.isChestLockEnabled()) {
+            loadTrust();
+        }
+    }
+
+    private void loadTrust() {
+        int loaded = 0;
+        for (LockTrustData entry : trustOperator.getAll()) {
+            try {
+                add(UUID.fromString(entry.getOwnerUuid()), UUID.fromString(entry.getTrustedUuid()), entry);
+                loaded++;
+            } catch (IllegalArgumentException | NullPointerException e) {
+                log.warn("Skipping damaged lock trust entry {}", entry.getId());
+            }
+        }
+        log.info("Loaded {} chest lock trust entries", loaded);
+    }
+
+    /**
+     * Checks whether an owner trusts a player on all of their locks.
+     *
+     * @param owner  the owner's UUID, or null for a lock without an owner
+     * @param player the player's UUID
+     * @return true if trusted
+     */
+    public boolean isTrusted(@Nullable UUID owner, UUID player) {
+        if (owner == null) {
+            return false;
+        }
+        Map<UUID, LockTrustData> trusted = trustByOwner.get(owner);
+        return trusted != null && trusted.containsKey(player);
+    }
+
+    /**
+     * Trusts a player on all locks of an owner.
+     *
+     * @param owner       the owner's UUID
+     * @param player      the trusted player's UUID
+     * @param playerName  the trusted player's name
+     * @return false if the player was already trusted
+     */
+    public boolean trust(UUID owner, UUID player, String playerName) {
+        if (isTrusted(owner, player)) {
+            return false;
+        }
+        LockTrustData entry = LockTrustData.builder()
+            .uuid(UUID.randomUUID())
+            .ownerUuid(owner.toString())
+            .trustedUuid(player.toString())
+            .trustedName(playerName)
+            .createdAt(System.currentTimeMillis())
+            .build();
+        add(owner, player, entry);
+        writeAsync(() -> {
+            try {
+                trustOperator.insert(entry);
+            } catch (RuntimeException e) {
+                log.error("Failed to save lock trust for {}", playerName, e);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Removes a player's trust on all locks of an owner.
+     *
+     * @param owner  the owner's UUID
+     * @param player the trusted player's UUID
+     * @return false if the player was not trusted
+     */
+    public boolean untrust(UUID owner, UUID player) {
+        Map<UUID, LockTrustData> trusted = trustByOwner.get(owner);
+        LockTrustData entry = trusted == null ? null : trusted.remove(player);
+        if (entry == null) {
+            return false;
+        }
+        if (trusted.isEmpty()) {
+            trustByOwner.remove(owner, trusted);
+        }
+        revision.incrementAndGet();
+        String id = entry.getId();
+        writeAsync(() -> {
+            try {
+                trustOperator.delById(id);
+            } catch (RuntimeException e) {
+                log.error("Failed to delete lock trust {}", id, e);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Gets a number that changes whenever any trust entry is added or removed.
+     *
+     * @return the current revision
+     */
+    public int getRevision() {
+        return revision.get();
+    }
+
+    /**
+     * Gets the players an owner trusts on all of their locks, oldest first.
+     *
+     * @param owner the owner's UUID
+     * @return the trust entries
+     */
+    public List<LockTrustData> getTrusted(UUID owner) {
+        Map<UUID, LockTrustData> trusted = trustByOwner.get(owner);
+        if (trusted == null) {
+            return new ArrayList<>();
+        }
+        List<LockTrustData> result = new ArrayList<>(trusted.values());
+        result.sort(Comparator.comparingLong(LockTrustData::getCreatedAt));
+        return result;
+    }
+
+    /**
+     * Waits for pending trust writes to finish.
+     */
+    public void shutdown() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Timed out waiting for lock trust writes to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void writeAsync(Runnable write) {
+        if (writer == null || writer.isShutdown()) {
+            writer = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "UltiEssentials-LockTrustWriter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        writer.execute(write);
+    }
+
+    private void add(UUID owner, UUID player, LockTrustData entry) {
+        trustByOwner.computeIfAbsent(owner, key -> new ConcurrentHashMap<>()).put(player, entry);
+        revision.incrementAndGet();
+    }
+}
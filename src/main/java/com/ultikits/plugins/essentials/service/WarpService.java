@@ -154,6 +154,26 @@ public class WarpService {
         warpOperator.delById(warp.getId());
         return true;
     }
+
+    /**
+     * Writes imported warps on the calling thread, one row at a time.
+     *
+     * @param warps warps to insert
+     * @return the number of warps written
+     */
+    public int importWarps(List<WarpData> warps) {
+        int written = 0;
+        for (WarpData warp : warps) {
+            try {
+                warpOperator.insert(warp);
+            } catch (RuntimeException e) {
+                log.error("Failed to import warp {}", warp.getName(), e);
+                continue;
+            }
+            written++;
+        }
+        return written;
+    }
     
     /**
      * Teleports a player to a warp with warmup support.
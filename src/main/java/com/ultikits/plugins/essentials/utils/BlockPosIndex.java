@@ -0,0 +1,323 @@
+package com.ultikits.plugins.essentials.utils;
+
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Index of values by block position, partitioned by world and chunk.
+ * <p>
+ * Each world maps a packed chunk coordinate to a small open-addressing table
+ * keyed by the packed position inside the chunk. Lookups hash two primitives
+ * and allocate nothing, and whether a chunk holds any value is a single probe.
+ * Chunks are dropped as soon as their last value is removed.
+ * <p>
+ * Not thread-safe: like the worlds it mirrors, the index is meant to be used
+ * from the server thread.
+ * <p>
+ * 按世界和区块分区的方块坐标索引。
+ *
+ * @param <V> the value type
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class BlockPosIndex<V> {
+
+    private final Map<String, LongTable<LongTable<V>>> worlds = new HashMap<>();
+    private int size;
+
+    /**
+     * Packs chunk coordinates into a single key.
+     *
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     * @return the packed key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs a block position into a key unique within its chunk.
+     */
+    private static long blockKey(int x, int y, int z) {
+        return ((long) y << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    /**
+     * Gets the value at a block position.
+     *
+     * @param world the world name
+     * @param x     block X
+     * @param y     block Y
+     * @param z     block Z
+     * @return the value, or null
+     */
+    @Nullable
+    public V get(String world, int x, int y, int z) {
+        LongTable<LongTable<V>> chunks = worlds.get(world);
+        if (chunks == null) {
+            return null;
+        }
+        LongTable<V> chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+        return chunk == null ? null : chunk.get(blockKey(x, y, z));
+    }
+
+    /**
+     * Stores a value at a block position.
+     *
+     * @param world the world name
+     * @param x     block X
+     * @param y     block Y
+     * @param z     block Z
+     * @param value the value
+     * @return the previous value, or null
+     */
+    @Nullable
+    public V put(String world, int x, int y, int z, V value) {
+        LongTable<LongTable<V>> chunks = worlds.computeIfAbsent(world, key -> new LongTable<>(64));
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        LongTable<V> chunk = chunks.get(chunkKey);
+        if (chunk == null) {
+            chunk = new LongTable<>(4);
+            chunks.put(chunkKey, chunk);
+        }
+        V previous = chunk.put(blockKey(x, y, z), value);
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the value at a block position.
+     *
+     * @param world the world name
+     * @param x     block X
+     * @param y     block Y
+     * @param z     block Z
+     * @return the removed value, or null
+     */
+    @Nullable
+    public V remove(String world, int x, int y, int z) {
+        LongTable<LongTable<V>> chunks = worlds.get(world);
+        if (chunks == null) {
+            return null;
+        }
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        LongTable<V> chunk = chunks.get(chunkKey);
+        if (chunk == null) {
+            return null;
+        }
+        V previous = chunk.remove(blockKey(x, y, z));
+        if (previous != null) {
+            size--;
+            if (chunk.size == 0) {
+                chunks.remove(chunkKey);
+                if (chunks.size == 0) {
+                    worlds.remove(world);
+                }
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Checks whether any value is stored in a chunk.
+     *
+     * @param world  the world name
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     * @return true if the chunk holds at least one value
+     */
+    public boolean hasChunk(String world, int chunkX, int chunkZ) {
+        LongTable<LongTable<V>> chunks = worlds.get(world);
+        return chunks != null && chunks.get(chunkKey(chunkX, chunkZ)) != null;
+    }
+
+    /**
+     * Removes every value in a chunk.
+     *
+     * @param world  the world name
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     * @return the number of values removed
+     */
+    public int removeChunk(String world, int chunkX, int chunkZ) {
+        LongTable<LongTable<V>> chunks = worlds.get(world);
+        if (chunks == null) {
+            return 0;
+        }
+        LongTable<V> chunk = chunks.remove(chunkKey(chunkX, chunkZ));
+        if (chunk == null) {
+            return 0;
+        }
+        size -= chunk.size;
+        if (chunks.size == 0) {
+            worlds.remove(world);
+        }
+        return chunk.size;
+    }
+
+    /**
+     * Visits every value in a chunk.
+     *
+     * @param world  the world name
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     * @param action receives each value
+     */
+    public void forEachInChunk(String world, int chunkX, int chunkZ, Consumer<? super V> action) {
+        LongTable<LongTable<V>> chunks = worlds.get(world);
+        LongTable<V> chunk = chunks == null ? null : chunks.get(chunkKey(chunkX, chunkZ));
+        if (chunk != null) {
+            chunk.forEach(action);
+        }
+    }
+
+    /**
+     * Visits every value in the index.
+     *
+     * @param action receives each value
+     */
+    public void forEach(Consumer<? super V> action) {
+        for (LongTable<LongTable<V>> chunks : worlds.values()) {
+            chunks.forEach(chunk -> chunk.forEach(action));
+        }
+    }
+
+    /**
+     * @return the number of stored values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        worlds.clear();
+        size = 0;
+    }
+
+    /**
+     * Open-addressing hash table with primitive long keys and linear probing.
+     * A null value marks an empty slot, so null values cannot be stored.
+     */
+    private static final class LongTable<T> {
+        private long[] keys;
+        private Object[] values;
+        private int size;
+
+        LongTable(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(long key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    return (T) values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        T put(long key, T value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    T previous = (T) values[i];
+                    values[i] = value;
+                    return previous;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        T remove(long key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (values[i] != null) {
+                if (keys[i] == key) {
+                    T previous = (T) values[i];
+                    shiftBack(i);
+                    size--;
+                    return previous;
+                }
+                i = (i + 1) & mask;
+            }
+            return null;
+        }
+
+        /**
+         * Closes the gap left at {@code gap} so later probes still find displaced entries.
+         */
+        private void shiftBack(int gap) {
+            int mask = keys.length - 1;
+            int i = gap;
+            while (true) {
+                i = (i + 1) & mask;
+                if (values[i] == null) {
+                    break;
+                }
+                int home = mix(keys[i]) & mask;
+                // Move the entry into the gap unless its home slot lies cyclically in (gap, i]
+                if (gap <= i ? (home <= gap || home > i) : (home <= gap && home > i)) {
+                    keys[gap] = keys[i];
+                    values[gap] = values[i];
+                    gap = i;
+                }
+            }
+            values[gap] = null;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new long[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldValues[j] != null) {
+                    int i = mix(oldKeys[j]) & mask;
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    values[i] = oldValues[j];
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        void forEach(Consumer<? super T> action) {
+            for (Object value : values) {
+                if (value != null) {
+                    action.accept((T) value);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ultikits.plugins.essentials.utils;
+
+import com.ultikits.plugins.essentials.entity.ChestLockData;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads and writes chest locks in a chunk's persistent data container.
+ * <p>
+ * All locks of a chunk live under one {@code ultiessentials:chest_locks}
+ * container, keyed by the block's position inside the chunk. The data is saved
+ * and loaded with the chunk itself, so no database is involved.
+ * <p>
+ * 将箱子锁保存在区块的持久化数据容器中。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public class ChunkLockStorage {
+
+    private static final String NAMESPACE = "ultiessentials";
+    private static final NamespacedKey LOCKS_KEY = key("chest_locks");
+    private static final NamespacedKey ID_KEY = key("id");
+    private static final NamespacedKey OWNER_KEY = key("owner");
+    private static final NamespacedKey OWNER_NAME_KEY = key("owner_name");
+    private static final NamespacedKey CREATED_KEY = key("created");
+    private static final NamespacedKey TRUSTED_KEY = key("trusted");
+
+    private static NamespacedKey key(String name) {
+        return NamespacedKey.fromString(NAMESPACE + ":" + name);
+    }
+
+    private static NamespacedKey positionKey(int x, int y, int z) {
+        return key((x & 15) + "_" + y + "_" + (z & 15));
+    }
+
+    /**
+     * Reads every lock stored in a chunk.
+     *
+     * @param chunk the chunk
+     * @return the locks, with world and block coordinates filled in
+     */
+    public List<ChestLockData> read(Chunk chunk) {
+        PersistentDataContainer locks = chunk.getPersistentDataContainer()
+            .get(LOCKS_KEY, PersistentDataType.TAG_CONTAINER);
+        if (locks == null) {
+            return new ArrayList<>();
+        }
+
+        String world = chunk.getWorld().getName();
+        List<ChestLockData> result = new ArrayList<>();
+        for (NamespacedKey position : locks.getKeys()) {
+            String[] parts = position.getKey().split("_");
+            PersistentDataContainer data = locks.get(position, PersistentDataType.TAG_CONTAINER);
+            if (parts.length != 3 || data == null) {
+                continue;
+            }
+            try {
+                int x = (chunk.getX() << 4) + Integer.parseInt(parts[0]);
+                int y = Integer.parseInt(parts[1]);
+                int z = (chunk.getZ() << 4) + Integer.parseInt(parts[2]);
+                result.add(ChestLockData.builder()
+                    .uuid(UUID.fromString(data.get(ID_KEY, PersistentDataType.STRING)))
+                    .world(world)
+                    .x(x)
+                    .y(y)
+                    .z(z)
+                    .ownerUuid(data.get(OWNER_KEY, PersistentDataType.STRING))
+                    .ownerName(data.get(OWNER_NAME_KEY, PersistentDataType.STRING))
+                    .createdAt(data.getOrDefault(CREATED_KEY, PersistentDataType.LONG, 0L))
+                    .trusted(data.get(TRUSTED_KEY, PersistentDataType.STRING))
+                    .chunkKey(ChestLockData.createChunkKey(world, x, z))
+                    .build());
+            } catch (IllegalArgumentException | NullPointerException e) {
+                // Skip entries written by something else or damaged
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores a lock in its chunk, replacing any lock at the same position.
+     *
+     * @param chunk the chunk containing the lock
+     * @param lock  the lock
+     */
+    public void write(Chunk chunk, ChestLockData lock) {
+        PersistentDataContainer root = chunk.getPersistentDataContainer();
+        PersistentDataContainer locks = root.get(LOCKS_KEY, PersistentDataType.TAG_CONTAINER);
+        if (locks == null) {
+            locks = root.getAdapterContext().newPersistentDataContainer();
+        }
+
+        PersistentDataContainer data = root.getAdapterContext().newPersistentDataContainer();
+        data.set(ID_KEY, PersistentDataType.STRING, lock.getId());
+        data.set(OWNER_KEY, PersistentDataType.STRING, lock.getOwnerUuid());
+        if (lock.getOwnerName() != null) {
+            data.set(OWNER_NAME_KEY, PersistentDataType.STRING, lock.getOwnerName());
+        }
+        data.set(CREATED_KEY, PersistentDataType.LONG, lock.getCreatedAt());
+        if (lock.getTrusted() != null) {
+            data.set(TRUSTED_KEY, PersistentDataType.STRING, lock.getTrusted());
+        }
+
+        locks.set(positionKey(lock.getX(), lock.getY(), lock.getZ()), PersistentDataType.TAG_CONTAINER, data);
+        // Nested containers are copied on set, so the outer one has to be written back
+        root.set(LOCKS_KEY, PersistentDataType.TAG_CONTAINER, locks);
+    }
+
+    /**
+     * Removes the lock at a lock's position from its chunk.
+     *
+     * @param chunk the chunk containing the lock
+     * @param lock  the lock
+     */
+    public void remove(Chunk chunk, ChestLockData lock) {
+        PersistentDataContainer root = chunk.getPersistentDataContainer();
+        PersistentDataContainer locks = root.get(LOCKS_KEY, PersistentDataType.TAG_CONTAINER);
+        if (locks == null) {
+            return;
+        }
+
+        locks.remove(positionKey(lock.getX(), lock.getY(), lock.getZ()));
+        if (locks.isEmpty()) {
+            root.remove(LOCKS_KEY);
+        } else {
+            root.set(LOCKS_KEY, PersistentDataType.TAG_CONTAINER, locks);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.ultikits.plugins.essentials.utils;
+
+import javax.annotation.Nullable;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+/**
+ * An IPv4 or IPv6 address range in CIDR notation.
+ * <p>
+ * A plain address is treated as a single-host range (/32 or /128).
+ * IPv4-mapped IPv6 addresses are normalized to IPv4.
+ * <p>
+ * 以 CIDR 表示的 IPv4 / IPv6 地址段。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class IpRange {
+
+    private static final Pattern IPV6_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final byte[] network;
+    private final int prefixLength;
+
+    private IpRange(byte[] address, int prefixLength) {
+        this.network = mask(address, prefixLength);
+        this.prefixLength = prefixLength;
+    }
+
+    /**
+     * Parses a range such as {@code 203.0.113.0/24}, {@code 2001:db8::/64} or a plain address.
+     * Never performs a DNS lookup.
+     *
+     * @param text the text to parse
+     * @return the range, or null if the text is not a valid address or range
+     */
+    @Nullable
+    public static IpRange parse(@Nullable String text) {
+        if (text == null) {
+            return null;
+        }
+
+        String value = text.trim();
+        int prefix = -1;
+        int slash = value.indexOf('/');
+        if (slash >= 0) {
+            try {
+                prefix = Integer.parseInt(value.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            value = value.substring(0, slash);
+        }
+
+        byte[] address = parseAddress(value);
+        if (address == null) {
+            return null;
+        }
+
+        int maxPrefix = address.length * 8;
+        if (prefix == -1) {
+            prefix = maxPrefix;
+        }
+        if (prefix < 0 || prefix > maxPrefix) {
+            return null;
+        }
+        return new IpRange(address, prefix);
+    }
+
+    /**
+     * Creates a single-host range for an address.
+     *
+     * @param address the address
+     * @return the range covering exactly that address
+     */
+    public static IpRange of(InetAddress address) {
+        byte[] bytes = address.getAddress();
+        return new IpRange(bytes, bytes.length * 8);
+    }
+
+    /**
+     * Parses an address literal into its raw bytes (4 for IPv4, 16 for IPv6).
+     *
+     * @param text the address literal, optionally bracketed or with a zone id
+     * @return the address bytes, or null if the text is not an address literal
+     */
+    @Nullable
+    public static byte[] parseAddress(@Nullable String text) {
+        if (text == null) {
+            return null;
+        }
+
+        String value = text.trim();
+        if (value.startsWith("[") && value.endsWith("]")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        int zone = value.indexOf('%');
+        if (zone >= 0) {
+            value = value.substring(0, zone);
+        }
+        if (value.isEmpty()) {
+            return null;
+        }
+
+        if (value.indexOf(':') < 0) {
+            return parseIpv4(value);
+        }
+        if (!IPV6_LITERAL.matcher(value).matches()) {
+            return null;
+        }
+        try {
+            // Literals are parsed locally; mapped addresses come back as 4-byte IPv4
+            return InetAddress.getByName(value).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static byte[] parseIpv4(String value) {
+        String[] parts = value.split("\\.", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+
+        byte[] bytes = new byte[4];
+        for (int i = 0; i < 4; i++) {
+            String part = parts[i];
+            if (part.isEmpty() || part.length() > 3) {
+                return null;
+            }
+            int octet = 0;
+            for (int j = 0; j < part.length(); j++) {
+                char c = part.charAt(j);
+                if (c < '0' || c > '9') {
+                    return null;
+                }
+                octet = octet * 10 + (c - '0');
+            }
+            if (octet > 255) {
+                return null;
+            }
+            bytes[i] = (byte) octet;
+        }
+        return bytes;
+    }
+
+    private static byte[] mask(byte[] address, int prefixLength) {
+        byte[] masked = Arrays.copyOf(address, address.length);
+        for (int i = 0; i < masked.length; i++) {
+            int bitsInByte = Math.max(0, Math.min(8, prefixLength - i * 8));
+            masked[i] &= (byte) (0xFF << (8 - bitsInByte));
+        }
+        return masked;
+    }
+
+    /**
+     * Checks whether an address lies inside this range.
+     *
+     * @param address raw address bytes
+     * @return true if the address is covered by this range
+     */
+    public boolean contains(byte[] address) {
+        if (address.length != network.length) {
+            return false;
+        }
+        for (int i = 0; i < prefixLength; i++) {
+            if (bitAt(address, i) != bitAt(network, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets a single bit of an address, most significant bit first.
+     *
+     * @param address raw address bytes
+     * @param index   bit index
+     * @return 0 or 1
+     */
+    static int bitAt(byte[] address, int index) {
+        return (address[index >>> 3] >>> (7 - (index & 7))) & 1;
+    }
+
+    /**
+     * Gets the masked network address bytes.
+     */
+    public byte[] getNetwork() {
+        return Arrays.copyOf(network, network.length);
+    }
+
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    public boolean isIpv6() {
+        return network.length == 16;
+    }
+
+    /**
+     * Checks whether this range covers exactly one address.
+     */
+    public boolean isSingleHost() {
+        return prefixLength == network.length * 8;
+    }
+
+    /**
+     * Returns the canonical form, e.g. {@code 203.0.113.0/24} or {@code 10.0.0.1}.
+     * This is the form stored in {@code BanData.ipAddress}.
+     */
+    @Override
+    public String toString() {
+        String host;
+        if (network.length == 4) {
+            host = (network[0] & 0xFF) + "." + (network[1] & 0xFF) + "."
+                + (network[2] & 0xFF) + "." + (network[3] & 0xFF);
+        } else {
+            try {
+                host = InetAddress.getByAddress(network).getHostAddress();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return isSingleHost() ? host : host + "/" + prefixLength;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IpRange)) {
+            return false;
+        }
+        IpRange other = (IpRange) o;
+        return prefixLength == other.prefixLength && Arrays.equals(network, other.network);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(network) + prefixLength;
+    }
+}
@@ -0,0 +1,135 @@
+package com.ultikits.plugins.essentials.utils;
+
+import javax.annotation.Nullable;
+
+/**
+ * Binary radix trie mapping IP ranges to values.
+ * <p>
+ * A lookup walks at most 32 (IPv4) or 128 (IPv6) nodes no matter how many
+ * ranges are stored, and returns the value of the most specific matching range.
+ * Lookups are lock-free; writers are serialized on the trie.
+ * <p>
+ * 按地址位构建的 IP 段前缀树。
+ *
+ * @param <V> the value type
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class IpRangeTrie<V> {
+
+    private final Node<V> ipv4Root = new Node<>();
+    private final Node<V> ipv6Root = new Node<>();
+    private volatile int size;
+
+    /**
+     * Stores a value for a range, replacing any previous value for the same range.
+     *
+     * @param range the range
+     * @param value the value
+     * @return the previous value, or null
+     */
+    @Nullable
+    public synchronized V put(IpRange range, V value) {
+        Node<V> node = rootFor(range);
+        byte[] network = range.getNetwork();
+        for (int i = 0; i < range.getPrefixLength(); i++) {
+            Node<V> next = IpRange.bitAt(network, i) == 0 ? node.zero : node.one;
+            if (next == null) {
+                next = new Node<>();
+                if (IpRange.bitAt(network, i) == 0) {
+                    node.zero = next;
+                } else {
+                    node.one = next;
+                }
+            }
+            node = next;
+        }
+        V previous = node.value;
+        node.value = value;
+        if (previous == null) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Removes the value stored for exactly this range.
+     *
+     * @param range the range
+     * @return the removed value, or null
+     */
+    @Nullable
+    public synchronized V remove(IpRange range) {
+        Node<V> node = find(range);
+        if (node == null || node.value == null) {
+            return null;
+        }
+        V previous = node.value;
+        node.value = null;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Gets the value stored for exactly this range.
+     *
+     * @param range the range
+     * @return the value, or null
+     */
+    @Nullable
+    public V get(IpRange range) {
+        Node<V> node = find(range);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * Finds the value of the most specific range containing an address.
+     *
+     * @param address raw address bytes (4 or 16)
+     * @return the matching value, or null if no range covers the address
+     */
+    @Nullable
+    public V lookup(byte[] address) {
+        Node<V> node = address.length == 4 ? ipv4Root : ipv6Root;
+        V best = node.value;
+        int bits = address.length * 8;
+        for (int i = 0; i < bits; i++) {
+            node = IpRange.bitAt(address, i) == 0 ? node.zero : node.one;
+            if (node == null) {
+                break;
+            }
+            V value = node.value;
+            if (value != null) {
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the number of stored ranges.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Nullable
+    private Node<V> find(IpRange range) {
+        Node<V> node = rootFor(range);
+        byte[] network = range.getNetwork();
+        for (int i = 0; i < range.getPrefixLength() && node != null; i++) {
+            node = IpRange.bitAt(network, i) == 0 ? node.zero : node.one;
+        }
+        return node;
+    }
+
+    private Node<V> rootFor(IpRange range) {
+        return range.isIpv6() ? ipv6Root : ipv4Root;
+    }
+
+    private static final class Node<V> {
+        volatile Node<V> zero;
+        volatile Node<V> one;
+        volatile V value;
+    }
+}
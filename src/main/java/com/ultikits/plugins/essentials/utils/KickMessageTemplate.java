@@ -0,0 +1,96 @@
+package com.ultikits.plugins.essentials.utils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A kick screen compiled once for a ban and language.
+ * <p>
+ * Everything except the remaining time is fixed at compile time, so rendering
+ * a temporary ban is a single concatenation and a permanent ban is free.
+ * <p>
+ * 预编译的封禁踢出界面。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class KickMessageTemplate {
+
+    /**
+     * Duration unit labels: expired, days, hours, minutes, seconds.
+     */
+    public static final int UNIT_COUNT = 5;
+
+    private final String head;
+    private final String tail;
+    private final String[] units;
+
+    private KickMessageTemplate(String head, String tail, String[] units) {
+        this.head = head;
+        this.tail = tail;
+        this.units = units;
+    }
+
+    /**
+     * Creates a template whose text never changes, e.g. for a permanent ban.
+     *
+     * @param message the complete message
+     * @return the template
+     */
+    public static KickMessageTemplate fixed(String message) {
+        return new KickMessageTemplate(message, null, null);
+    }
+
+    /**
+     * Creates a template that renders the remaining time between two fixed parts.
+     *
+     * @param head  text before the remaining time
+     * @param tail  text after the remaining time
+     * @param units localized unit labels: expired, days, hours, minutes, seconds
+     * @return the template
+     */
+    public static KickMessageTemplate withRemaining(String head, String tail, String[] units) {
+        if (units.length != UNIT_COUNT) {
+            throw new IllegalArgumentException("Expected " + UNIT_COUNT + " unit labels");
+        }
+        return new KickMessageTemplate(head, tail, units.clone());
+    }
+
+    /**
+     * Renders the message.
+     *
+     * @param remainingMillis time left on the ban, ignored for fixed templates
+     * @return the kick message
+     */
+    public String render(long remainingMillis) {
+        if (units == null) {
+            return head;
+        }
+        return head + formatDuration(remainingMillis, units) + tail;
+    }
+
+    /**
+     * Formats a duration as e.g. {@code 1天 2小时 5秒} with the given unit labels.
+     *
+     * @param millis the duration
+     * @param units  unit labels: expired, days, hours, minutes, seconds
+     * @return the formatted duration
+     */
+    public static String formatDuration(long millis, String[] units) {
+        if (millis <= 0) {
+            return units[0];
+        }
+
+        long days = TimeUnit.MILLISECONDS.toDays(millis);
+        long hours = TimeUnit.MILLISECONDS.toHours(millis) % 24;
+        long minutes = TimeUnit.MILLISECONDS.toMinutes(millis) % 60;
+        long seconds = TimeUnit.MILLISECONDS.toSeconds(millis) % 60;
+
+        StringBuilder sb = new StringBuilder();
+        if (days > 0) sb.append(days).append(units[1]).append(' ');
+        if (hours > 0) sb.append(hours).append(units[2]).append(' ');
+        if (minutes > 0) sb.append(minutes).append(units[3]).append(' ');
+        if (seconds > 0 || sb.length() == 0) sb.append(seconds).append(units[4]);
+
+        return sb.toString().trim();
+    }
+}
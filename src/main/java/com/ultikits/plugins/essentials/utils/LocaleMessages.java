@@ -0,0 +1,95 @@
+package com.ultikits.plugins.essentials.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Per-language lookups in the bundled {@code lang/*.json} files.
+ * <p>
+ * The plugin's own {@code i18n} follows the server language; this is for the
+ * few messages that should follow a client's language instead, such as kick screens.
+ * Bundles are loaded lazily and kept for the lifetime of the plugin.
+ * <p>
+ * 按客户端语言读取内置语言文件。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class LocaleMessages {
+
+    private static final Pattern LANGUAGE = Pattern.compile("[a-z]{2,3}");
+    private static final Type BUNDLE_TYPE = new TypeToken<Map<String, String>>() { }.getType();
+    private static final Map<String, Map<String, String>> BUNDLES = new ConcurrentHashMap<>();
+
+    private LocaleMessages() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Maps a client locale such as {@code en_us} to a bundled language code.
+     *
+     * @param locale the client locale
+     * @return the language code, or null if no bundle ships for it
+     */
+    @Nullable
+    public static String languageOf(@Nullable String locale) {
+        if (locale == null || locale.isEmpty()) {
+            return null;
+        }
+        String language = locale.toLowerCase(Locale.ROOT);
+        int separator = language.indexOf('_');
+        if (separator < 0) {
+            separator = language.indexOf('-');
+        }
+        if (separator >= 0) {
+            language = language.substring(0, separator);
+        }
+        if (!LANGUAGE.matcher(language).matches()) {
+            return null;
+        }
+        return bundle(language).isEmpty() ? null : language;
+    }
+
+    /**
+     * Translates a key into a bundled language.
+     *
+     * @param language the language code from {@link #languageOf(String)}
+     * @param key      the message key
+     * @return the translation, or null if the bundle has none
+     */
+    @Nullable
+    public static String translate(String language, String key) {
+        return bundle(language).get(key);
+    }
+
+    private static Map<String, String> bundle(String language) {
+        return BUNDLES.computeIfAbsent(language, LocaleMessages::load);
+    }
+
+    private static Map<String, String> load(String language) {
+        InputStream in = LocaleMessages.class.getClassLoader().getResourceAsStream("lang/" + language + ".json");
+        if (in == null) {
+            return Collections.emptyMap();
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            Map<String, String> messages = new Gson().fromJson(reader, BUNDLE_TYPE);
+            return messages != null ? messages : Collections.<String, String>emptyMap();
+        } catch (IOException | JsonParseException e) {
+            return Collections.emptyMap();
+        }
+    }
+}
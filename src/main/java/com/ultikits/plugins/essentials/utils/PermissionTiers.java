@@ -0,0 +1,154 @@
+package com.ultikits.plugins.essentials.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves numeric limits granted by permissions such as
+ * {@code ultiessentials.home.max.5}, and caches them per player.
+ * <p>
+ * A player's tier is found with one scan of their effective permissions for
+ * the prefix, instead of asking {@code hasPermission} once per possible value.
+ * The highest granted number wins, capped at the maximum tier. A wildcard
+ * ({@code prefix*}) grants the maximum tier, and so does operator status even
+ * when lower tiers are granted explicitly, as {@code hasPermission} checks from
+ * the top tier down would have. The unlimited permission, if any,
+ * only applies when no tier is granted.
+ * <p>
+ * Results are cached until {@link #invalidate(UUID)} or {@link #clear()}, and
+ * for at most the given time, so changes made by a permissions plugin without
+ * a rejoin still apply.
+ * <p>
+ * 通过权限节点解析数值上限（如最大家数量）并按玩家缓存。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class PermissionTiers {
+
+    /**
+     * Returned when the player has no tier and no unlimited permission.
+     */
+    public static final int NONE = -1;
+
+    private final String prefix;
+    private final String unlimitedPermission;
+    private final int maxTier;
+    private final long ttlMillis;
+    private final Map<UUID, Entry> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param prefix              the permission prefix, including the trailing dot
+     * @param unlimitedPermission permission granting no limit, or null
+     * @param maxTier             the highest tier considered
+     * @param ttlMillis           how long a resolved tier is kept
+     */
+    public PermissionTiers(String prefix, String unlimitedPermission, int maxTier, long ttlMillis) {
+        this.prefix = prefix;
+        this.unlimitedPermission = unlimitedPermission;
+        this.maxTier = maxTier;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Gets a player's tier.
+     *
+     * @param player the player
+     * @return the tier, {@link Integer#MAX_VALUE} for unlimited, or {@link #NONE}
+     */
+    public int get(Player player) {
+        long now = System.currentTimeMillis();
+        Entry entry = cache.get(player.getUniqueId());
+        if (entry != null && entry.expiresAt > now) {
+            return entry.tier;
+        }
+        int tier = resolve(player);
+        cache.put(player.getUniqueId(), new Entry(tier, now + ttlMillis));
+        return tier;
+    }
+
+    /**
+     * Gets a player's tier, or a default if they have none.
+     *
+     * @param player       the player
+     * @param defaultValue the value for players without a tier
+     * @return the tier or the default
+     */
+    public int get(Player player, int defaultValue) {
+        int tier = get(player);
+        return tier == NONE ? defaultValue : tier;
+    }
+
+    private int resolve(Player player) {
+        if (player.isOp()) {
+            return maxTier;
+        }
+        int best = NONE;
+        for (PermissionAttachmentInfo info : player.getEffectivePermissions()) {
+            String permission = info.getPermission();
+            if (!info.getValue() || !permission.startsWith(prefix)) {
+                continue;
+            }
+            int tier = parseTier(permission);
+            if (tier > best) {
+                best = tier;
+            }
+        }
+        if (best != NONE) {
+            return best;
+        }
+        if (unlimitedPermission != null && player.hasPermission(unlimitedPermission)) {
+            return Integer.MAX_VALUE;
+        }
+        return NONE;
+    }
+
+    private int parseTier(String permission) {
+        String suffix = permission.substring(prefix.length());
+        if ("*".equals(suffix)) {
+            return maxTier;
+        }
+        int tier = 0;
+        if (suffix.isEmpty() || suffix.length() > 9) {
+            return NONE;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            char c = suffix.charAt(i);
+            if (c < '0' || c > '9') {
+                return NONE;
+            }
+            tier = tier * 10 + (c - '0');
+        }
+        return tier < 1 ? NONE : Math.min(tier, maxTier);
+    }
+
+    /**
+     * Drops a player's cached tier.
+     *
+     * @param playerUuid the player's UUID
+     */
+    public void invalidate(UUID playerUuid) {
+        cache.remove(playerUuid);
+    }
+
+    /**
+     * Drops all cached tiers.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private static final class Entry {
+        private final int tier;
+        private final long expiresAt;
+
+        Entry(int tier, long expiresAt) {
+            this.tier = tier;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.ultikits.plugins.essentials.utils;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Fixed-size cache of yes/no decisions for item transfers between two block
+ * positions, such as a hopper moving items out of or into a container.
+ * <p>
+ * Entries are direct-mapped by a hash of both positions, so a lookup is one
+ * array probe and a colliding pair simply replaces the previous entry. Entries
+ * are dropped per chunk when something in that chunk changes.
+ * <p>
+ * Not thread-safe; meant to be used from the server thread.
+ * <p>
+ * 缓存两个方块坐标之间物品传输（如漏斗）的判定结果。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+public final class TransferDecisionCache {
+
+    /**
+     * Position key for a side of the transfer that is not a block, such as a
+     * hopper minecart. Unreachable by {@link #pack(int, int, int)} within the
+     * world border.
+     */
+    public static final long NO_POSITION = Long.MIN_VALUE;
+
+    private static final byte EMPTY = 0;
+    private static final byte ALLOWED = 1;
+    private static final byte BLOCKED = 2;
+
+    private final String[] worlds;
+    private final long[] sources;
+    private final long[] destinations;
+    private final byte[] decisions;
+    private int size;
+
+    /**
+     * @param capacity the number of entries, rounded up to a power of two
+     */
+    public TransferDecisionCache(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        worlds = new String[slots];
+        sources = new long[slots];
+        destinations = new long[slots];
+        decisions = new byte[slots];
+    }
+
+    /**
+     * Packs a block position into a single key (26 bits X, 26 bits Z, 12 bits Y).
+     *
+     * @param x block X
+     * @param y block Y
+     * @param z block Z
+     * @return the packed key
+     */
+    public static long pack(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    private static int chunkX(long key) {
+        return (int) (key >> 38) >> 4;
+    }
+
+    private static int chunkZ(long key) {
+        return (int) (key << 26 >> 38) >> 4;
+    }
+
+    private int slot(long source, long destination) {
+        long h = (source * 0x9E3779B97F4A7C15L) ^ destination;
+        h *= 0xC2B2AE3D27D4EB4FL;
+        return (int) (h ^ (h >>> 32)) & (decisions.length - 1);
+    }
+
+    /**
+     * Gets a cached decision.
+     *
+     * @param world       the world name
+     * @param source      packed source position, or {@link #NO_POSITION}
+     * @param destination packed destination position, or {@link #NO_POSITION}
+     * @return true if blocked, false if allowed, null if not cached
+     */
+    @Nullable
+    public Boolean get(String world, long source, long destination) {
+        int i = slot(source, destination);
+        if (decisions[i] == EMPTY || sources[i] != source || destinations[i] != destination
+                || !world.equals(worlds[i])) {
+            return null;
+        }
+        return decisions[i] == BLOCKED;
+    }
+
+    /**
+     * Caches a decision.
+     *
+     * @param world       the world name
+     * @param source      packed source position, or {@link #NO_POSITION}
+     * @param destination packed destination position, or {@link #NO_POSITION}
+     * @param blocked     whether the transfer is blocked
+     */
+    public void put(String world, long source, long destination, boolean blocked) {
+        int i = slot(source, destination);
+        if (decisions[i] == EMPTY) {
+            size++;
+        }
+        worlds[i] = world;
+        sources[i] = source;
+        destinations[i] = destination;
+        decisions[i] = blocked ? BLOCKED : ALLOWED;
+    }
+
+    /**
+     * Drops every decision with a side in the given chunk.
+     *
+     * @param world  the world name
+     * @param chunkX chunk X
+     * @param chunkZ chunk Z
+     */
+    public void invalidateChunk(String world, int chunkX, int chunkZ) {
+        if (size == 0) {
+            return;
+        }
+        for (int i = 0; i < decisions.length; i++) {
+            if (decisions[i] != EMPTY && world.equals(worlds[i])
+                    && (inChunk(sources[i], chunkX, chunkZ) || inChunk(destinations[i], chunkX, chunkZ))) {
+                decisions[i] = EMPTY;
+                worlds[i] = null;
+                size--;
+            }
+        }
+    }
+
+    private static boolean inChunk(long key, int chunkX, int chunkZ) {
+        return key != NO_POSITION && chunkX(key) == chunkX && chunkZ(key) == chunkZ;
+    }
+
+    /**
+     * @return the number of cached decisions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops all decisions.
+     */
+    public void clear() {
+        Arrays.fill(decisions, EMPTY);
+        Arrays.fill(worlds, null);
+        size = 0;
+    }
+}
@@ -0,0 +1,290 @@
+package com.ultikits.plugins.essentials.utils;
+
+import com.ultikits.ultitools.abstracts.data.BaseDataEntity;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Queue of pending inserts, updates and deletes, written to a data operator in
+ * batches by {@link #flush()}.
+ * <p>
+ * Writes are coalesced per entity id: an insert followed by a delete cancels
+ * out, repeated updates keep only the latest state, and an update never undoes
+ * a queued delete. Callers keep their own in-memory view up to date and only
+ * hand the queue what has to be persisted. Given a snapshot function, the
+ * queue keeps a copy of each entity, so callers may go on changing theirs
+ * while a flush is writing it.
+ * Reads that must see queued writes go through {@link #read(Supplier, Predicate)}.
+ * <p>
+ * A write that fails stays queued, folded under any newer write for the same
+ * entity, and is retried by later flushes after a delay that doubles with each
+ * failure, up to five minutes. {@link #flushAll()} ignores the delay.
+ * <p>
+ * Thread-safe: writes are queued from the server thread and flushed from an
+ * async task; flushes never overlap.
+ * <p>
+ * 延迟批量写入数据库的队列。
+ *
+ * @param <T> the entity type
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@Slf4j
+public final class WriteBehindQueue<T extends BaseDataEntity<String>> {
+
+    private enum Op {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    // Delay before the first retry of a failed write, doubled per further failure
+    private static final long RETRY_DELAY_MS = 1000L;
+    private static final long MAX_RETRY_DELAY_MS = 300_000L;
+
+    private final DataOperator<T> operator;
+    private final UnaryOperator<T> snapshot;
+    private final LongSupplier clock;
+    private final Object queueLock = new Object();
+    // Held while writing a batch or reading through, so reads never see half a flush
+    private final Object flushLock = new Object();
+    private Map<String, Write<T>> pending = new LinkedHashMap<>();
+
+    public WriteBehindQueue(DataOperator<T> operator) {
+        this(operator, UnaryOperator.identity());
+    }
+
+    /**
+     * @param operator the data operator to write to
+     * @param snapshot copies an entity as it is queued and as it is read back
+     */
+    public WriteBehindQueue(DataOperator<T> operator, UnaryOperator<T> snapshot) {
+        this(operator, snapshot, System::currentTimeMillis);
+    }
+
+    WriteBehindQueue(DataOperator<T> operator, UnaryOperator<T> snapshot, LongSupplier clock) {
+        this.operator = operator;
+        this.snapshot = snapshot;
+        this.clock = clock;
+    }
+
+    /**
+     * Queues an insert.
+     *
+     * @param entity the new entity
+     */
+    public void insert(T entity) {
+        enqueue(Op.INSERT, entity);
+    }
+
+    /**
+     * Queues an update.
+     *
+     * @param entity the changed entity
+     */
+    public void update(T entity) {
+        enqueue(Op.UPDATE, entity);
+    }
+
+    /**
+     * Queues a delete.
+     *
+     * @param entity the deleted entity
+     */
+    public void delete(T entity) {
+        enqueue(Op.DELETE, entity);
+    }
+
+    private void enqueue(Op op, T entity) {
+        String id = entity.getId();
+        T queued = snapshot.apply(entity);
+        synchronized (queueLock) {
+            Write<T> merged = merge(pending.remove(id), op, queued);
+            if (merged != null) {
+                pending.put(id, merged);
+            }
+        }
+    }
+
+    /**
+     * Folds a new write into the one already queued for the same entity. The
+     * result keeps the retry delay of the queued write.
+     *
+     * @return the write to keep, or null if nothing needs to be written
+     */
+    private static <T> Write<T> merge(Write<T> queued, Op op, T entity) {
+        if (queued == null) {
+            return new Write<>(op, entity, 0, 0L);
+        }
+        if (queued.op == Op.INSERT) {
+            // The row was never written, so a delete leaves nothing to do
+            return op == Op.DELETE ? null : queued.with(Op.INSERT, entity);
+        }
+        if (queued.op == Op.DELETE) {
+            // Re-inserting overwrites the row, which still exists; an update must not resurrect it
+            return op == Op.INSERT ? queued.with(Op.UPDATE, entity) : queued;
+        }
+        return queued.with(op == Op.DELETE ? Op.DELETE : Op.UPDATE, entity);
+    }
+
+    /**
+     * @return the number of queued writes
+     */
+    public int size() {
+        synchronized (queueLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Writes everything queued so far, except failed writes still waiting for
+     * their retry. Blocks while another flush is running.
+     *
+     * @return the number of writes applied
+     */
+    public int flush() {
+        return flush(false);
+    }
+
+    /**
+     * Writes everything queued so far, retrying failed writes at once. Meant
+     * for the last flush before the queue is dropped.
+     *
+     * @return the number of writes applied
+     */
+    public int flushAll() {
+        return flush(true);
+    }
+
+    private int flush(boolean retryNow) {
+        synchronized (flushLock) {
+            long now = clock.getAsLong();
+            Map<String, Write<T>> batch = new LinkedHashMap<>();
+            synchronized (queueLock) {
+                Iterator<Map.Entry<String, Write<T>>> it = pending.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<String, Write<T>> entry = it.next();
+                    if (retryNow || entry.getValue().retryAt <= now) {
+                        batch.put(entry.getKey(), entry.getValue());
+                        it.remove();
+                    }
+                }
+            }
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            int written = 0;
+            Map<String, Write<T>> failed = new LinkedHashMap<>();
+            for (Map.Entry<String, Write<T>> entry : batch.entrySet()) {
+                Write<T> write = entry.getValue();
+                try {
+                    switch (write.op) {
+                        case INSERT:
+                            operator.insert(write.entity);
+                            break;
+                        case UPDATE:
+                            operator.update(write.entity);
+                            break;
+                        default:
+                            operator.delById(entry.getKey());
+                            break;
+                    }
+                    written++;
+                } catch (IllegalAccessException | RuntimeException e) {
+                    Write<T> retry = write.failed(now);
+                    log.error("Failed to {} {}, retrying in {} ms", write.op.name().toLowerCase(), entry.getKey(),
+                        retry.retryAt - now, e);
+                    failed.put(entry.getKey(), retry);
+                }
+            }
+            if (!failed.isEmpty()) {
+                requeue(failed);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Puts failed writes back, each under any write queued for the same entity
+     * while it was being written, so the newer state still wins.
+     */
+    private void requeue(Map<String, Write<T>> failed) {
+        synchronized (queueLock) {
+            for (Map.Entry<String, Write<T>> entry : failed.entrySet()) {
+                Write<T> newer = pending.remove(entry.getKey());
+                Write<T> merged = newer == null ? entry.getValue()
+                    : merge(entry.getValue(), newer.op, newer.entity);
+                if (merged != null) {
+                    pending.put(entry.getKey(), merged);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a storage query and applies the queued writes to its result, so the
+     * caller sees the same state it would after a flush.
+     *
+     * @param query   the storage query
+     * @param matches whether a queued entity belongs in the result
+     * @return the query result with queued inserts and updates applied and queued deletes removed
+     */
+    public List<T> read(Supplier<List<T>> query, Predicate<T> matches) {
+        synchronized (flushLock) {
+            List<T> rows = query.get();
+            synchronized (queueLock) {
+                if (pending.isEmpty()) {
+                    return rows;
+                }
+                List<T> result = new ArrayList<>(rows.size());
+                for (T row : rows) {
+                    if (!pending.containsKey(row.getId())) {
+                        result.add(row);
+                    }
+                }
+                for (Write<T> write : pending.values()) {
+                    if (write.op != Op.DELETE && matches.test(write.entity)) {
+                        // A copy, so the caller never changes the queued state
+                        result.add(snapshot.apply(write.entity));
+                    }
+                }
+                return result;
+            }
+        }
+    }
+
+    private static final class Write<T> {
+        private final Op op;
+        private final T entity;
+        // Failed attempts so far, and the earliest time of the next one
+        private final int failures;
+        private final long retryAt;
+
+        Write(Op op, T entity, int failures, long retryAt) {
+            this.op = op;
+            this.entity = entity;
+            this.failures = failures;
+            this.retryAt = retryAt;
+        }
+
+        Write<T> with(Op newOp, T newEntity) {
+            return new Write<>(newOp, newEntity, failures, retryAt);
+        }
+
+        Write<T> failed(long now) {
+            long delay = Math.min(RETRY_DELAY_MS << Math.min(failures, 16), MAX_RETRY_DELAY_MS);
+            return new Write<>(op, entity, failures + 1, now + delay);
+        }
+    }
+}
@@ -175,10 +175,15 @@ class BanCommandsTest {
             EssentialsTestHelper.setField(command, "banService", banService);
         }
 
+        private BanService.BanPage page(List<BanData> items, int page, int totalPages) {
+            return new BanService.BanPage(items, items.size(), page, totalPages);
+        }
+
         @Test
         @DisplayName("Should show empty ban list")
         void shouldShowEmptyBanList() {
-            when(banService.getActiveBans()).thenReturn(Collections.emptyList());
+            when(banService.getActiveBans(anyInt(), anyInt(), any(BanService.BanSort.class)))
+                .thenReturn(page(Collections.emptyList(), 1, 1));
 
             command.banlist(player);
 
@@ -208,7 +213,8 @@ class BanCommandsTest {
                     .active(true)
                     .build()
             );
-            when(banService.getActiveBans()).thenReturn(bans);
+            when(banService.getActiveBans(1, 10, BanService.BanSort.NEWEST))
+                .thenReturn(page(bans, 1, 1));
 
             command.banlist(player);
 
@@ -217,22 +223,46 @@ class BanCommandsTest {
         }
 
         @Test
-        @DisplayName("Should show specific page")
+        @DisplayName("Should request specific page from service")
         void shouldShowSpecificPage() {
-            when(banService.getActiveBans()).thenReturn(Collections.emptyList());
+            when(banService.getActiveBans(anyInt(), anyInt(), any(BanService.BanSort.class)))
+                .thenReturn(page(Collections.emptyList(), 2, 2));
 
             command.banlistPage(player, 2);
 
+            verify(banService).getActiveBans(2, 10, BanService.BanSort.NEWEST);
             verify(player).sendMessage(anyString());
         }
 
         @Test
         @DisplayName("Should clamp page to minimum 1")
         void shouldClampPageToMin() {
-            when(banService.getActiveBans()).thenReturn(Collections.emptyList());
+            when(banService.getActiveBans(anyInt(), anyInt(), any(BanService.BanSort.class)))
+                .thenReturn(page(Collections.emptyList(), 1, 1));
 
             command.banlistPage(player, -5);
 
+            verify(banService).getActiveBans(1, 10, BanService.BanSort.NEWEST);
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should pass sort order to service")
+        void shouldPassSortOrder() {
+            when(banService.getActiveBans(anyInt(), anyInt(), any(BanService.BanSort.class)))
+                .thenReturn(page(Collections.emptyList(), 1, 1));
+
+            command.banlistSorted(player, 1, "name");
+
+            verify(banService).getActiveBans(1, 10, BanService.BanSort.NAME);
+        }
+
+        @Test
+        @DisplayName("Should reject unknown sort order")
+        void shouldRejectUnknownSort() {
+            command.banlistSorted(player, 1, "random");
+
+            verify(banService, never()).getActiveBans(anyInt(), anyInt(), any(BanService.BanSort.class));
             verify(player).sendMessage(anyString());
         }
 
@@ -389,4 +419,55 @@ class BanCommandsTest {
             verify(player, atLeast(1)).sendMessage(anyString());
         }
     }
+
+    @Nested
+    @DisplayName("BanWaveCommand")
+    class BanWaveCommandTests {
+
+        private BanWaveCommand command;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            command = new BanWaveCommand();
+            EssentialsTestHelper.setField(command, "plugin", EssentialsTestHelper.getMockPlugin());
+            EssentialsTestHelper.setField(command, "banService", banService);
+        }
+
+        @Test
+        @DisplayName("Should split targets and report per-target results")
+        @SuppressWarnings("unchecked")
+        void shouldBanWaveAndReport() {
+            doAnswer(inv -> {
+                java.util.function.Consumer<List<BanService.WaveResult>> callback = inv.getArgument(5);
+                callback.accept(Arrays.asList(
+                    new BanService.WaveResult("A", BanService.WaveStatus.BANNED, null),
+                    new BanService.WaveResult("B", BanService.WaveStatus.NOT_FOUND, null)));
+                return null;
+            }).when(banService).banWaveAsync(anyCollection(), anyString(), any(), anyString(), anyLong(), any());
+
+            command.banWithReason(player, "A, B,,", "ring");
+
+            verify(banService).banWaveAsync(eq(Arrays.asList("A", "B")), eq("ring"),
+                eq(playerUuid), eq("TestPlayer"), eq(-1L), any());
+            // start + 2 targets + summary
+            verify(player, times(4)).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should unban wave")
+        void shouldUnbanWave() {
+            command.unban(player, "A,B");
+
+            verify(banService).unbanWaveAsync(eq(Arrays.asList("A", "B")), any());
+        }
+
+        @Test
+        @DisplayName("Should show help for empty target list")
+        void shouldShowHelpForEmptyTargets() {
+            command.ban(player, ",");
+
+            verify(banService, never()).banWaveAsync(anyCollection(), anyString(), any(), anyString(), anyLong(), any());
+            verify(player, atLeast(1)).sendMessage(anyString());
+        }
+    }
 }
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.*;
 
 import java.util.*;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -276,6 +277,14 @@ class HomeCommandsTest {
 
             verify(homeService, never()).deleteHome(any(), anyString());
         }
+
+        @Test
+        @DisplayName("Should complete home names from the service")
+        void shouldCompleteHomeNames() {
+            when(homeService.completeHomeNames(playerUuid, "ba", 50)).thenReturn(Arrays.asList("barn", "base"));
+
+            assertThat(command.suggest(player, null, new String[]{"ba"})).containsExactly("barn", "base");
+        }
     }
 
     @Nested
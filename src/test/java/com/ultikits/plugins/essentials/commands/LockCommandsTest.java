@@ -2,14 +2,20 @@ package com.ultikits.plugins.essentials.commands;
 
 import com.ultikits.plugins.essentials.entity.ChestLockData;
 import com.ultikits.plugins.essentials.service.ChestLockService;
+import com.ultikits.plugins.essentials.service.LockTrustService;
 import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
 import org.bukkit.Location;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.junit.jupiter.api.*;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -18,6 +24,7 @@ import static org.mockito.Mockito.*;
 class LockCommandsTest {
 
     private ChestLockService chestLockService;
+    private LockTrustService lockTrustService;
     private Player player;
     private UUID playerUuid;
 
@@ -25,6 +32,7 @@ class LockCommandsTest {
     void setUp() throws Exception {
         EssentialsTestHelper.setUp();
         chestLockService = mock(ChestLockService.class);
+        lockTrustService = mock(LockTrustService.class);
         playerUuid = UUID.randomUUID();
         player = EssentialsTestHelper.createMockPlayer("TestPlayer", playerUuid);
     }
@@ -45,6 +53,7 @@ class LockCommandsTest {
             command = new LockCommand();
             EssentialsTestHelper.setField(command, "plugin", EssentialsTestHelper.getMockPlugin());
             EssentialsTestHelper.setField(command, "chestLockService", chestLockService);
+            EssentialsTestHelper.setField(command, "lockTrustService", lockTrustService);
         }
 
         @Test
@@ -125,6 +134,148 @@ class LockCommandsTest {
             command.handleHelp(player);
             verify(player, atLeast(1)).sendMessage(anyString());
         }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        @DisplayName("Should list own locks")
+        void shouldListOwnLocks() {
+            ChestLockData lock = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(1).y(64).z(2)
+                    .build();
+            doAnswer(inv -> {
+                ((Consumer<List<ChestLockData>>) inv.getArgument(1)).accept(Collections.singletonList(lock));
+                return null;
+            }).when(chestLockService).findLocksAsync(eq(playerUuid), any());
+
+            command.list(player);
+
+            verify(player, times(2)).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should reject listing others without admin permission")
+        void shouldRejectListOfOthersWithoutAdmin() {
+            command.listOf(player, "Other");
+
+            verify(chestLockService, never()).findLocksAsync(any(), any());
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should transfer locks between players")
+        void shouldTransferLocks() {
+            when(player.hasPermission("ultiessentials.lock.admin")).thenReturn(true);
+            OfflinePlayer from = mockOfflinePlayer("Griefer");
+            OfflinePlayer to = mockOfflinePlayer("Heir");
+            doAnswer(inv -> {
+                ((IntConsumer) inv.getArgument(3)).accept(3);
+                return null;
+            }).when(chestLockService).transferLocksAsync(any(), any(), anyString(), any());
+
+            command.transfer(player, "Griefer", "Heir");
+
+            verify(chestLockService).transferLocksAsync(eq(from.getUniqueId()), eq(to.getUniqueId()), eq("Heir"), any());
+            verify(player, times(2)).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should refuse a transfer to a player who never joined")
+        void shouldRefuseTransferToUnknownPlayer() {
+            when(player.hasPermission("ultiessentials.lock.admin")).thenReturn(true);
+            mockOfflinePlayer("Griefer");
+            OfflinePlayer unknown = mock(OfflinePlayer.class);
+            when(unknown.getUniqueId()).thenReturn(UUID.randomUUID());
+            when(EssentialsTestHelper.getMockServer().getOfflinePlayer("Hier")).thenReturn(unknown);
+
+            command.transfer(player, "Griefer", "Hier");
+
+            verify(chestLockService, never()).transferLocksAsync(any(), any(), anyString(), any());
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should purge a player's locks")
+        void shouldPurgeLocks() {
+            when(player.hasPermission("ultiessentials.lock.admin")).thenReturn(true);
+            OfflinePlayer target = mockOfflinePlayer("Griefer");
+
+            command.purge(player, "Griefer");
+
+            verify(chestLockService).purgeLocksAsync(eq(target.getUniqueId()), any());
+        }
+
+        @Test
+        @DisplayName("Should not purge without admin permission")
+        void shouldNotPurgeWithoutAdmin() {
+            command.purge(player, "Griefer");
+
+            verify(chestLockService, never()).purgeLocksAsync(any(), any());
+        }
+
+        @Test
+        @DisplayName("Should start an orphan sweep or report its progress")
+        void shouldSweep() {
+            when(player.hasPermission("ultiessentials.lock.admin")).thenReturn(true);
+            when(chestLockService.startOrphanSweep()).thenReturn(true, false);
+            when(chestLockService.getSweepProgress()).thenReturn(new ChestLockService.SweepProgress(true, 10, 4, 1));
+
+            command.sweep(player);
+            command.sweep(player);
+
+            verify(chestLockService, times(2)).startOrphanSweep();
+            verify(player, times(2)).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should trust a player on the targeted container")
+        void shouldTrustOnContainer() {
+            Block block = mock(Block.class);
+            when(player.getTargetBlockExact(5)).thenReturn(block);
+            OfflinePlayer friend = mockOfflinePlayer("Friend");
+            when(chestLockService.setTrusted(block, player, friend.getUniqueId(), true))
+                    .thenReturn(ChestLockService.TrustResult.SUCCESS);
+
+            command.trust(player, "Friend");
+
+            verify(chestLockService).setTrusted(block, player, friend.getUniqueId(), true);
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should not change trust without a target container")
+        void shouldNotTrustWithoutTarget() {
+            when(player.getTargetBlockExact(5)).thenReturn(null);
+
+            command.untrust(player, "Friend");
+
+            verify(chestLockService, never()).setTrusted(any(), any(), any(), anyBoolean());
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should trust and untrust a player on all locks")
+        void shouldTrustOnAllLocks() {
+            OfflinePlayer friend = mockOfflinePlayer("Friend");
+            when(lockTrustService.trust(playerUuid, friend.getUniqueId(), "Friend")).thenReturn(true);
+            when(lockTrustService.untrust(playerUuid, friend.getUniqueId())).thenReturn(false);
+
+            command.trustAll(player, "Friend");
+            command.untrustAll(player, "Friend");
+
+            verify(lockTrustService).trust(playerUuid, friend.getUniqueId(), "Friend");
+            verify(lockTrustService).untrust(playerUuid, friend.getUniqueId());
+            verify(player, times(2)).sendMessage(anyString());
+        }
+
+        private OfflinePlayer mockOfflinePlayer(String name) {
+            OfflinePlayer offline = mock(OfflinePlayer.class);
+            when(offline.getUniqueId()).thenReturn(UUID.randomUUID());
+            when(offline.getName()).thenReturn(name);
+            when(offline.hasPlayedBefore()).thenReturn(true);
+            when(EssentialsTestHelper.getMockServer().getOfflinePlayer(name)).thenReturn(offline);
+            return offline;
+        }
     }
 
     @Nested
@@ -203,7 +354,7 @@ class LockCommandsTest {
                     .world("world")
                     .x(100).y(64).z(200)
                     .build();
-            when(chestLockService.getLock(loc)).thenReturn(lockData);
+            when(chestLockService.getLock(block)).thenReturn(lockData);
 
             command.info(player);
 
@@ -219,7 +370,7 @@ class LockCommandsTest {
             when(block.getLocation()).thenReturn(loc);
             when(player.getTargetBlockExact(5)).thenReturn(block);
 
-            when(chestLockService.getLock(loc)).thenReturn(null);
+            when(chestLockService.getLock(block)).thenReturn(null);
 
             command.info(player);
 
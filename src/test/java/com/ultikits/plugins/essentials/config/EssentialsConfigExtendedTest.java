@@ -174,6 +174,18 @@ class EssentialsConfigExtendedTest {
             assertThat(config.isChestLockAdminBypass()).isTrue();
         }
 
+        @Test
+        @DisplayName("Should have lock loading and storage defaults")
+        void shouldHaveLoadingAndStorageDefaults() {
+            assertThat(config.isChestLockLazyLoad()).isTrue();
+            assertThat(config.isChestLockChunkKeysMigrated()).isFalse();
+            assertThat(config.getChestLockStorage()).isEqualTo("database");
+            assertThat(config.isChestLockChunkStorageMigrated()).isFalse();
+            assertThat(config.getChestLockWriteInterval()).isEqualTo(20);
+            assertThat(config.getChestLockSweepInterval()).isEqualTo(30);
+            assertThat(config.getChestLockSweepBudget()).isEqualTo(2);
+        }
+
         @Test
         @DisplayName("Should update chest lock settings")
         void shouldUpdateChestLockSettings() {
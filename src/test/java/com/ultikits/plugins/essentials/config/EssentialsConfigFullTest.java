@@ -189,6 +189,8 @@ class EssentialsConfigFullTest {
             assertThat(config.getHomeDefaultMaxHomes()).isEqualTo(3);
             assertThat(config.getHomeTeleportWarmup()).isEqualTo(3);
             assertThat(config.isHomeCancelOnMove()).isTrue();
+            assertThat(config.getHomeImportBatchSize()).isEqualTo(1000);
+            assertThat(config.getHomeImportThreads()).isEqualTo(4);
         }
 
         @Test
@@ -283,6 +285,21 @@ class EssentialsConfigFullTest {
             assertThat(config.isUnbanBroadcast()).isTrue();
         }
 
+        @Test
+        @DisplayName("Should have ban index defaults")
+        void shouldHaveBanIndexDefaults() {
+            assertThat(config.isBanIndexEnabled()).isTrue();
+            assertThat(config.getBanIndexVerifyInterval()).isEqualTo(300);
+            assertThat(config.getBanNegativeCacheTtl()).isEqualTo(5);
+            assertThat(config.getBanLookupTimeout()).isEqualTo(2000);
+            assertThat(config.isBanLookupFailClosed()).isFalse();
+            assertThat(config.getBanImportBatchSize()).isEqualTo(500);
+            assertThat(config.isAltIndexEnabled()).isTrue();
+            assertThat(config.getAltRetentionDays()).isEqualTo(30);
+            assertThat(config.getAltMaxAccountsPerIp()).isEqualTo(32);
+            assertThat(config.isAltExtendBans()).isFalse();
+        }
+
         @Test
         @DisplayName("Should update ban settings")
         void shouldUpdateBanSettings() {
@@ -139,4 +139,49 @@ class ChestLockDataMockitoTest {
             assertThat(data.getCreatedAt()).isEqualTo(12345L);
         }
     }
+
+    @Nested
+    @DisplayName("Trust Tests")
+    class TrustTests {
+
+        @Test
+        @DisplayName("Should add and remove trusted players")
+        void shouldAddAndRemoveTrusted() {
+            ChestLockData data = new ChestLockData();
+            UUID first = UUID.randomUUID();
+            UUID second = UUID.randomUUID();
+
+            assertThat(data.addTrusted(first)).isTrue();
+            assertThat(data.addTrusted(second)).isTrue();
+            assertThat(data.addTrusted(first)).isFalse();
+            assertThat(data.getTrusted()).isEqualTo(first + "," + second);
+            assertThat(data.isTrusted(second)).isTrue();
+
+            assertThat(data.removeTrusted(first)).isTrue();
+            assertThat(data.removeTrusted(first)).isFalse();
+            assertThat(data.getTrustedIds()).containsExactly(second);
+
+            data.removeTrusted(second);
+            assertThat(data.getTrusted()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should re-read trust and owner after setters")
+        void shouldResetParsedFields() {
+            UUID trusted = UUID.randomUUID();
+            UUID owner = UUID.randomUUID();
+            ChestLockData data = new ChestLockData();
+            data.setOwnerUuid(UUID.randomUUID().toString());
+
+            assertThat(data.isTrusted(trusted)).isFalse();
+            assertThat(data.isOwner(owner)).isFalse();
+
+            data.setTrusted("not-a-uuid," + trusted);
+            data.setOwnerUuid(owner.toString());
+
+            assertThat(data.isTrusted(trusted)).isTrue();
+            assertThat(data.getTrustedIds()).containsExactly(trusted);
+            assertThat(data.isOwner(owner)).isTrue();
+        }
+    }
 }
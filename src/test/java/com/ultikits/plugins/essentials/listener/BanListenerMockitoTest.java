@@ -2,6 +2,7 @@ package com.ultikits.plugins.essentials.listener;
 
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.service.AltAccountService;
 import com.ultikits.plugins.essentials.service.BanService;
 import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
 
@@ -10,9 +11,10 @@ import org.junit.jupiter.api.*;
 
 import java.net.InetAddress;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -29,7 +31,9 @@ class BanListenerMockitoTest {
 
     private BanListener banListener;
     private BanService banService;
+    private AltAccountService altAccountService;
     private EssentialsConfig config;
+    private ExecutorService lookupExecutor;
 
     @BeforeEach
     void setUp() throws Exception {
@@ -37,14 +41,20 @@ class BanListenerMockitoTest {
 
         config = new EssentialsConfig();
         banService = mock(BanService.class);
+        lookupExecutor = Executors.newFixedThreadPool(2);
+        when(banService.getLookupExecutor()).thenReturn(lookupExecutor);
+
+        altAccountService = mock(AltAccountService.class);
 
         banListener = new BanListener();
         EssentialsTestHelper.setField(banListener, "banService", banService);
+        EssentialsTestHelper.setField(banListener, "altAccountService", altAccountService);
         EssentialsTestHelper.setField(banListener, "config", config);
     }
 
     @AfterEach
     void tearDown() throws Exception {
+        lookupExecutor.shutdownNow();
         EssentialsTestHelper.tearDown();
     }
 
@@ -67,7 +77,7 @@ class BanListenerMockitoTest {
 
             assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.ALLOWED);
             verify(banService, never()).getActiveBan(any());
-            verify(banService, never()).getActiveIpBan(anyString());
+            verify(banService, never()).getActiveIpBan(any(InetAddress.class));
         }
 
         @Test
@@ -88,7 +98,7 @@ class BanListenerMockitoTest {
                 .build();
 
             when(banService.getActiveBan(playerUuid)).thenReturn(ban);
-            when(banService.formatKickMessage(ban)).thenReturn("You are banned");
+            when(banService.formatLoginKickMessage(ban, playerUuid)).thenReturn("You are banned");
 
             AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
                 "TestPlayer", address, playerUuid
@@ -121,8 +131,8 @@ class BanListenerMockitoTest {
                 .ipAddress("192.168.1.1")
                 .build();
 
-            when(banService.getActiveIpBan("192.168.1.1")).thenReturn(ipBan);
-            when(banService.formatKickMessage(ipBan)).thenReturn("IP banned");
+            when(banService.getActiveIpBan(address)).thenReturn(ipBan);
+            when(banService.formatLoginKickMessage(ipBan, playerUuid)).thenReturn("IP banned");
 
             AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
                 "TestPlayer", address, playerUuid
@@ -141,7 +151,7 @@ class BanListenerMockitoTest {
             InetAddress address = InetAddress.getByName("10.0.0.1");
 
             when(banService.getActiveBan(playerUuid)).thenReturn(null);
-            when(banService.getActiveIpBan("10.0.0.1")).thenReturn(null);
+            when(banService.getActiveIpBan(address)).thenReturn(null);
 
             AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
                 "TestPlayer", address, playerUuid
@@ -170,7 +180,7 @@ class BanListenerMockitoTest {
                 .build();
 
             when(banService.getActiveBan(playerUuid)).thenReturn(uuidBan);
-            when(banService.formatKickMessage(uuidBan)).thenReturn("UUID banned");
+            when(banService.formatLoginKickMessage(uuidBan, playerUuid)).thenReturn("UUID banned");
 
             AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
                 "TestPlayer", address, playerUuid
@@ -179,7 +189,120 @@ class BanListenerMockitoTest {
             banListener.onPlayerLogin(event);
 
             // Should not check IP ban since UUID ban was found
-            verify(banService, never()).getActiveIpBan(anyString());
+            verify(banService, never()).getActiveIpBan(any(InetAddress.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Lookup deadline")
+    class LookupDeadlineTests {
+
+        private UUID playerUuid;
+        private InetAddress address;
+
+        @BeforeEach
+        void setUpSlowStorage() throws Exception {
+            EssentialsTestHelper.setField(banListener, "plugin", EssentialsTestHelper.getMockPlugin());
+            config.setBanLookupTimeout(50);
+            playerUuid = UUID.randomUUID();
+            address = InetAddress.getByName("10.0.0.1");
+            when(banService.getActiveBan(playerUuid)).thenAnswer(inv -> {
+                Thread.sleep(1000);
+                return null;
+            });
+        }
+
+        @Test
+        @DisplayName("Should allow login on timeout when failing open")
+        void shouldFailOpen() {
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("TestPlayer", address, playerUuid);
+
+            banListener.onPlayerLogin(event);
+
+            assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.ALLOWED);
+            verify(banService).recordLoginTimeout();
+        }
+
+        @Test
+        @DisplayName("Should refuse login on timeout when failing closed")
+        void shouldFailClosed() {
+            config.setBanLookupFailClosed(true);
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("TestPlayer", address, playerUuid);
+
+            banListener.onPlayerLogin(event);
+
+            assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.KICK_OTHER);
+        }
+
+        @Test
+        @DisplayName("Should apply last-known in-memory ban on timeout")
+        void shouldUseIndexedBanOnTimeout() {
+            BanData ban = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(playerUuid.toString())
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(banService.getIndexedBan(playerUuid, address)).thenReturn(ban);
+            when(banService.formatLoginKickMessage(ban, playerUuid)).thenReturn("You are banned");
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("TestPlayer", address, playerUuid);
+
+            banListener.onPlayerLogin(event);
+
+            assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.KICK_BANNED);
+            assertThat(event.getKickMessage()).isEqualTo("You are banned");
+        }
+
+        @Test
+        @DisplayName("Should check inline when the index is loaded")
+        void shouldCheckInlineWhenIndexLoaded() {
+            UUID otherUuid = UUID.randomUUID();
+            when(banService.isIndexLoaded()).thenReturn(true);
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("Other", address, otherUuid);
+
+            banListener.onPlayerLogin(event);
+
+            assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.ALLOWED);
+            verify(banService, never()).recordLoginTimeout();
+        }
+    }
+
+    @Nested
+    @DisplayName("Alt accounts")
+    class AltAccountTests {
+
+        @Test
+        @DisplayName("Should record allowed logins")
+        void shouldRecordLogin() throws Exception {
+            UUID playerUuid = UUID.randomUUID();
+            InetAddress address = InetAddress.getByName("10.0.0.2");
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("TestPlayer", address, playerUuid);
+
+            banListener.onPlayerLogin(event);
+
+            verify(altAccountService).record(playerUuid, "TestPlayer", address);
+        }
+
+        @Test
+        @DisplayName("Should block login when a known alt is banned")
+        void shouldBlockBannedAlt() throws Exception {
+            UUID playerUuid = UUID.randomUUID();
+            InetAddress address = InetAddress.getByName("10.0.0.3");
+            BanData altBan = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(UUID.randomUUID().toString())
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(altAccountService.findBannedAlt(playerUuid)).thenReturn(altBan);
+            when(banService.formatLoginKickMessage(altBan, playerUuid)).thenReturn("Alt banned");
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent("TestPlayer", address, playerUuid);
+
+            banListener.onPlayerLogin(event);
+
+            assertThat(event.getLoginResult()).isEqualTo(AsyncPlayerPreLoginEvent.Result.KICK_BANNED);
+            assertThat(event.getKickMessage()).isEqualTo("Alt banned");
+            verify(altAccountService, never()).record(any(), any(), any());
         }
     }
 }
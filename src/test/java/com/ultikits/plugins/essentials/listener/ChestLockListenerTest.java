@@ -4,19 +4,22 @@ import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.ChestLockData;
 import com.ultikits.plugins.essentials.service.ChestLockService;
 import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
-import org.bukkit.block.Container;
 import org.bukkit.entity.Player;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.BlockPistonExtendEvent;
 import org.bukkit.event.block.BlockPistonRetractEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.inventory.InventoryMoveItemEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.junit.jupiter.api.*;
@@ -68,12 +71,12 @@ class ChestLockListenerTest {
             when(block.getLocation()).thenReturn(loc);
 
             when(chestLockService.isLockable(Material.CHEST)).thenReturn(true);
-            when(chestLockService.canAccess(loc, player)).thenReturn(false);
+            when(chestLockService.canAccess(block, player)).thenReturn(false);
 
             ChestLockData lockData = ChestLockData.builder()
                     .ownerName("OtherPlayer")
                     .build();
-            when(chestLockService.getLock(loc)).thenReturn(lockData);
+            when(chestLockService.getLock(block)).thenReturn(lockData);
 
             PlayerInteractEvent event = mock(PlayerInteractEvent.class);
             when(event.getClickedBlock()).thenReturn(block);
@@ -95,7 +98,7 @@ class ChestLockListenerTest {
             when(block.getLocation()).thenReturn(loc);
 
             when(chestLockService.isLockable(Material.CHEST)).thenReturn(true);
-            when(chestLockService.canAccess(loc, player)).thenReturn(true);
+            when(chestLockService.canAccess(block, player)).thenReturn(true);
 
             PlayerInteractEvent event = mock(PlayerInteractEvent.class);
             when(event.getClickedBlock()).thenReturn(block);
@@ -141,7 +144,7 @@ class ChestLockListenerTest {
 
             listener.onPlayerInteract(event);
 
-            verify(chestLockService, never()).canAccess(any(), any());
+            verify(chestLockService, never()).canAccess(any(Block.class), any());
         }
     }
 
@@ -157,13 +160,11 @@ class ChestLockListenerTest {
             Location loc = new Location(world, 10, 64, 20);
             when(block.getLocation()).thenReturn(loc);
 
-            when(chestLockService.isLocked(loc)).thenReturn(true);
-
             ChestLockData lockData = ChestLockData.builder()
                     .ownerUuid("other-uuid")
                     .ownerName("OtherPlayer")
                     .build();
-            when(chestLockService.getLock(loc)).thenReturn(lockData);
+            when(chestLockService.getLock(block)).thenReturn(lockData);
             when(player.hasPermission("ultiessentials.lock.admin")).thenReturn(false);
 
             BlockBreakEvent event = new BlockBreakEvent(block, player);
@@ -184,13 +185,11 @@ class ChestLockListenerTest {
             Location loc = new Location(world, 10, 64, 20);
             when(block.getLocation()).thenReturn(loc);
 
-            when(chestLockService.isLocked(loc)).thenReturn(true);
-
             ChestLockData lockData = ChestLockData.builder()
                     .ownerUuid(ownerUuid.toString())
                     .ownerName("Owner")
                     .build();
-            when(chestLockService.getLock(loc)).thenReturn(lockData);
+            when(chestLockService.getLock(block)).thenReturn(lockData);
 
             BlockBreakEvent event = new BlockBreakEvent(block, owner);
 
@@ -208,13 +207,11 @@ class ChestLockListenerTest {
             Location loc = new Location(world, 10, 64, 20);
             when(block.getLocation()).thenReturn(loc);
 
-            when(chestLockService.isLocked(loc)).thenReturn(true);
-
             ChestLockData lockData = ChestLockData.builder()
                     .ownerUuid("other-uuid")
                     .ownerName("OtherPlayer")
                     .build();
-            when(chestLockService.getLock(loc)).thenReturn(lockData);
+            when(chestLockService.getLock(block)).thenReturn(lockData);
             when(player.hasPermission("ultiessentials.lock.admin")).thenReturn(true);
 
             BlockBreakEvent event = new BlockBreakEvent(block, player);
@@ -233,7 +230,7 @@ class ChestLockListenerTest {
             Location loc = new Location(world, 10, 64, 20);
             when(block.getLocation()).thenReturn(loc);
 
-            when(chestLockService.isLocked(loc)).thenReturn(false);
+            when(chestLockService.getLock(block)).thenReturn(null);
 
             BlockBreakEvent event = new BlockBreakEvent(block, player);
 
@@ -252,7 +249,7 @@ class ChestLockListenerTest {
 
             listener.onBlockBreak(event);
 
-            verify(chestLockService, never()).isLocked(any());
+            verify(chestLockService, never()).getLock(any(Block.class));
         }
 
         @Test
@@ -263,8 +260,7 @@ class ChestLockListenerTest {
             Location loc = new Location(world, 10, 64, 20);
             when(block.getLocation()).thenReturn(loc);
 
-            when(chestLockService.isLocked(loc)).thenReturn(true);
-            when(chestLockService.getLock(loc)).thenReturn(null);
+            when(chestLockService.getLock(block)).thenReturn(null);
 
             BlockBreakEvent event = new BlockBreakEvent(block, player);
 
@@ -274,6 +270,35 @@ class ChestLockListenerTest {
         }
     }
 
+    @Nested
+    @DisplayName("onBlockPlace")
+    class BlockPlaceTests {
+
+        @Test
+        @DisplayName("Should pass the placed block to the service")
+        void shouldForwardPlacedBlock() {
+            Block block = mock(Block.class);
+            BlockPlaceEvent event = mock(BlockPlaceEvent.class);
+            when(event.getBlockPlaced()).thenReturn(block);
+
+            listener.onBlockPlace(event);
+
+            verify(chestLockService).onBlockPlace(block);
+        }
+
+        @Test
+        @DisplayName("Should skip when feature is disabled")
+        void shouldSkipWhenDisabled() {
+            config.setChestLockEnabled(false);
+
+            BlockPlaceEvent event = mock(BlockPlaceEvent.class);
+
+            listener.onBlockPlace(event);
+
+            verify(chestLockService, never()).onBlockPlace(any());
+        }
+    }
+
     @Nested
     @DisplayName("onEntityExplode")
     class EntityExplodeTests {
@@ -281,26 +306,13 @@ class ChestLockListenerTest {
         @Test
         @DisplayName("Should remove locked blocks from explosion")
         void shouldRemoveLockedBlocks() {
-            World world = EssentialsTestHelper.createMockWorld("world");
-            Location loc1 = new Location(world, 1, 64, 1);
-            Location loc2 = new Location(world, 2, 64, 2);
-
-            Block lockedBlock = mock(Block.class);
-            when(lockedBlock.getLocation()).thenReturn(loc1);
-            Block normalBlock = mock(Block.class);
-            when(normalBlock.getLocation()).thenReturn(loc2);
-
-            when(chestLockService.isLocked(loc1)).thenReturn(true);
-            when(chestLockService.isLocked(loc2)).thenReturn(false);
-
-            List<Block> blockList = new ArrayList<>(Arrays.asList(lockedBlock, normalBlock));
+            List<Block> blockList = new ArrayList<>(Arrays.asList(mock(Block.class), mock(Block.class)));
             EntityExplodeEvent event = mock(EntityExplodeEvent.class);
             when(event.blockList()).thenReturn(blockList);
 
             listener.onEntityExplode(event);
 
-            assertThat(blockList).doesNotContain(lockedBlock);
-            assertThat(blockList).contains(normalBlock);
+            verify(chestLockService).removeLocked(blockList);
         }
 
         @Test
@@ -323,20 +335,13 @@ class ChestLockListenerTest {
         @Test
         @DisplayName("Should remove locked blocks from explosion")
         void shouldRemoveLockedBlocks() {
-            World world = EssentialsTestHelper.createMockWorld("world");
-            Location loc = new Location(world, 1, 64, 1);
-
-            Block lockedBlock = mock(Block.class);
-            when(lockedBlock.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(true);
-
-            List<Block> blockList = new ArrayList<>(Collections.singletonList(lockedBlock));
+            List<Block> blockList = new ArrayList<>(Collections.singletonList(mock(Block.class)));
             BlockExplodeEvent event = mock(BlockExplodeEvent.class);
             when(event.blockList()).thenReturn(blockList);
 
             listener.onBlockExplode(event);
 
-            assertThat(blockList).isEmpty();
+            verify(chestLockService).removeLocked(blockList);
         }
 
         @Test
@@ -364,7 +369,7 @@ class ChestLockListenerTest {
 
             Block lockedBlock = mock(Block.class);
             when(lockedBlock.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(true);
+            when(chestLockService.getLock(lockedBlock)).thenReturn(ChestLockData.builder().ownerName("Owner").build());
 
             BlockPistonExtendEvent event = mock(BlockPistonExtendEvent.class);
             when(event.getBlocks()).thenReturn(Collections.singletonList(lockedBlock));
@@ -382,7 +387,7 @@ class ChestLockListenerTest {
 
             Block normalBlock = mock(Block.class);
             when(normalBlock.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(false);
+            when(chestLockService.getLock(normalBlock)).thenReturn(null);
 
             BlockPistonExtendEvent event = mock(BlockPistonExtendEvent.class);
             when(event.getBlocks()).thenReturn(Collections.singletonList(normalBlock));
@@ -417,7 +422,7 @@ class ChestLockListenerTest {
 
             Block lockedBlock = mock(Block.class);
             when(lockedBlock.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(true);
+            when(chestLockService.getLock(lockedBlock)).thenReturn(ChestLockData.builder().ownerName("Owner").build());
 
             BlockPistonRetractEvent event = mock(BlockPistonRetractEvent.class);
             when(event.getBlocks()).thenReturn(Collections.singletonList(lockedBlock));
@@ -435,7 +440,7 @@ class ChestLockListenerTest {
 
             Block normalBlock = mock(Block.class);
             when(normalBlock.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(false);
+            when(chestLockService.getLock(normalBlock)).thenReturn(null);
 
             BlockPistonRetractEvent event = mock(BlockPistonRetractEvent.class);
             when(event.getBlocks()).thenReturn(Collections.singletonList(normalBlock));
@@ -463,20 +468,17 @@ class ChestLockListenerTest {
     class InventoryMoveTests {
 
         @Test
-        @DisplayName("Should cancel hopper item move from locked container")
+        @DisplayName("Should cancel hopper item move when the service blocks the transfer")
         void shouldCancelHopperFromLockedContainer() {
             World world = EssentialsTestHelper.createMockWorld("world");
-            Location loc = new Location(world, 1, 64, 1);
-
-            // Create a mock Container that is also an InventoryHolder
-            Container container = mock(Container.class);
-            when(container.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(true);
+            Location from = new Location(world, 1, 64, 1);
+            Location to = new Location(world, 1, 63, 1);
 
             Inventory sourceInv = mock(Inventory.class);
-            when(sourceInv.getHolder()).thenReturn(container);
-
+            when(sourceInv.getLocation()).thenReturn(from);
             Inventory destInv = mock(Inventory.class);
+            when(destInv.getLocation()).thenReturn(to);
+            when(chestLockService.isTransferBlocked(from, to)).thenReturn(true);
 
             InventoryMoveItemEvent event = mock(InventoryMoveItemEvent.class);
             when(event.getSource()).thenReturn(sourceInv);
@@ -486,26 +488,22 @@ class ChestLockListenerTest {
             listener.onInventoryMove(event);
 
             verify(event).setCancelled(true);
+            verify(sourceInv, never()).getHolder();
         }
 
         @Test
-        @DisplayName("Should allow hopper item move from unlocked container")
+        @DisplayName("Should allow hopper item move when the service allows the transfer")
         void shouldAllowHopperFromUnlockedContainer() {
-            World world = EssentialsTestHelper.createMockWorld("world");
-            Location loc = new Location(world, 1, 64, 1);
-
-            Container container = mock(Container.class);
-            when(container.getLocation()).thenReturn(loc);
-            when(chestLockService.isLocked(loc)).thenReturn(false);
-
             Inventory sourceInv = mock(Inventory.class);
-            when(sourceInv.getHolder()).thenReturn(container);
+            Inventory destInv = mock(Inventory.class);
 
             InventoryMoveItemEvent event = mock(InventoryMoveItemEvent.class);
             when(event.getSource()).thenReturn(sourceInv);
+            when(event.getDestination()).thenReturn(destInv);
 
             listener.onInventoryMove(event);
 
+            verify(chestLockService).isTransferBlocked(null, null);
             verify(event, never()).setCancelled(true);
         }
 
@@ -521,4 +519,83 @@ class ChestLockListenerTest {
             verify(event, never()).setCancelled(anyBoolean());
         }
     }
+
+    @Nested
+    @DisplayName("lazy loading")
+    class LazyLoadingTests {
+
+        @Test
+        @DisplayName("Should forward chunk load and unload to the service")
+        void shouldForwardChunkEvents() {
+            Chunk chunk = mock(Chunk.class);
+            ChunkLoadEvent load = mock(ChunkLoadEvent.class);
+            when(load.getChunk()).thenReturn(chunk);
+            ChunkUnloadEvent unload = mock(ChunkUnloadEvent.class);
+            when(unload.getChunk()).thenReturn(chunk);
+
+            listener.onChunkLoad(load);
+            listener.onChunkUnload(unload);
+
+            verify(chestLockService).onChunkLoad(chunk);
+            verify(chestLockService).onChunkUnload(chunk);
+        }
+
+        @Test
+        @DisplayName("Should cancel break while the chunk's locks are loading")
+        void shouldCancelBreakWhileLoading() {
+            Block block = mock(Block.class);
+            when(block.getType()).thenReturn(Material.CHEST);
+            when(chestLockService.isLockable(Material.CHEST)).thenReturn(true);
+            when(chestLockService.getLock(block)).thenReturn(null);
+            when(chestLockService.isLoading(block)).thenReturn(true);
+
+            BlockBreakEvent event = new BlockBreakEvent(block, player);
+
+            listener.onBlockBreak(event);
+
+            assertThat(event.isCancelled()).isTrue();
+            verify(chestLockService, never()).onBlockBreak(any());
+        }
+
+        @Test
+        @DisplayName("Should allow breaking or pushing other blocks while the chunk's locks are loading")
+        void shouldAllowUnlockableWhileLoading() {
+            Block block = mock(Block.class);
+            when(block.getType()).thenReturn(Material.STONE);
+            when(chestLockService.isLockable(Material.STONE)).thenReturn(false);
+            when(chestLockService.isLoading(block)).thenReturn(true);
+
+            BlockBreakEvent breakEvent = new BlockBreakEvent(block, player);
+            listener.onBlockBreak(breakEvent);
+
+            BlockPistonExtendEvent extend = mock(BlockPistonExtendEvent.class);
+            when(extend.getBlocks()).thenReturn(Collections.singletonList(block));
+            listener.onPistonExtend(extend);
+
+            BlockPistonRetractEvent retract = mock(BlockPistonRetractEvent.class);
+            when(retract.getBlocks()).thenReturn(Collections.singletonList(block));
+            listener.onPistonRetract(retract);
+
+            assertThat(breakEvent.isCancelled()).isFalse();
+            verify(player, never()).sendMessage(anyString());
+            verify(extend, never()).setCancelled(true);
+            verify(retract, never()).setCancelled(true);
+        }
+
+        @Test
+        @DisplayName("Should not let pistons move lockable blocks while the chunk's locks are loading")
+        void shouldCancelPistonWhileLoading() {
+            Block block = mock(Block.class);
+            when(block.getType()).thenReturn(Material.CHEST);
+            when(chestLockService.isLockable(Material.CHEST)).thenReturn(true);
+            when(chestLockService.isLoading(block)).thenReturn(true);
+
+            BlockPistonExtendEvent event = mock(BlockPistonExtendEvent.class);
+            when(event.getBlocks()).thenReturn(Collections.singletonList(block));
+
+            listener.onPistonExtend(event);
+
+            verify(event).setCancelled(true);
+        }
+    }
 }
@@ -4,12 +4,14 @@ import com.ultikits.plugins.essentials.commands.BackCommand;
 import com.ultikits.plugins.essentials.commands.HideCommand;
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.config.TabBarConfig;
+import com.ultikits.plugins.essentials.service.HomeService;
 import com.ultikits.plugins.essentials.service.NamePrefixService;
 import com.ultikits.plugins.essentials.service.ScoreboardService;
 import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
 import org.bukkit.Bukkit;
 import org.bukkit.Server;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.Plugin;
@@ -18,6 +20,7 @@ import org.bukkit.scheduler.BukkitScheduler;
 import org.junit.jupiter.api.*;
 
 import java.lang.reflect.Field;
+import java.net.InetAddress;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -273,4 +276,45 @@ class OtherListenersTest {
             assertThat(hideSet).doesNotContain(playerUuid);
         }
     }
+
+    @Nested
+    @DisplayName("HomeCacheListener")
+    class HomeCacheListenerTests {
+
+        private HomeCacheListener listener;
+        private HomeService homeService;
+
+        @BeforeEach
+        void setUp() throws Exception {
+            homeService = mock(HomeService.class);
+            listener = new HomeCacheListener();
+            EssentialsTestHelper.setField(listener, "config", config);
+            EssentialsTestHelper.setField(listener, "homeService", homeService);
+        }
+
+        @Test
+        @DisplayName("Should preload homes for allowed logins and evict on quit")
+        void shouldPreloadAndEvict() throws Exception {
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
+                "TestPlayer", InetAddress.getByName("127.0.0.1"), playerUuid);
+
+            listener.onPreLogin(event);
+            listener.onQuit(new PlayerQuitEvent(player, "left"));
+
+            verify(homeService).preload(playerUuid);
+            verify(homeService).evict(playerUuid);
+        }
+
+        @Test
+        @DisplayName("Should not preload homes for refused logins")
+        void shouldSkipRefusedLogin() throws Exception {
+            AsyncPlayerPreLoginEvent event = new AsyncPlayerPreLoginEvent(
+                "TestPlayer", InetAddress.getByName("127.0.0.1"), playerUuid);
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, "banned");
+
+            listener.onPreLogin(event);
+
+            verify(homeService, never()).preload(any());
+        }
+    }
 }
@@ -0,0 +1,184 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.AltLinkData;
+import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import com.ultikits.plugins.essentials.utils.WriteBehindQueue;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import org.junit.jupiter.api.*;
+
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mockito-based unit tests for AltAccountService.
+ * <p>
+ * 测试小号关联服务。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("AltAccountService Tests (Mockito)")
+class AltAccountServiceMockitoTest {
+
+    private AltAccountService altService;
+    private BanService banService;
+    private EssentialsConfig config;
+    private DataOperator<AltLinkData> linkOperator;
+
+    private final UUID main = UUID.randomUUID();
+    private final UUID alt = UUID.randomUUID();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        EssentialsTestHelper.setUp();
+
+        config = new EssentialsConfig();
+        banService = mock(BanService.class);
+
+        altService = new AltAccountService();
+        EssentialsTestHelper.setField(altService, "config", config);
+        EssentialsTestHelper.setField(altService, "banService", banService);
+        linkOperator = mock(DataOperator.class);
+        EssentialsTestHelper.setField(altService, "linkOperator", linkOperator);
+        EssentialsTestHelper.setField(altService, "writeQueue", new WriteBehindQueue<>(linkOperator));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        EssentialsTestHelper.tearDown();
+    }
+
+    private static InetAddress ip(String text) throws Exception {
+        return InetAddress.getByName(text);
+    }
+
+    @Nested
+    @DisplayName("findAlts")
+    class FindAltsTests {
+
+        @Test
+        @DisplayName("Should link accounts sharing an IP and exclude the player")
+        void shouldLinkSharedIp() throws Exception {
+            altService.record(main, "Main", ip("203.0.113.7"));
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+            altService.record(UUID.randomUUID(), "Stranger", ip("198.51.100.1"));
+
+            List<AltAccountService.AltAccount> alts = altService.findAlts(main);
+
+            assertThat(alts).hasSize(1);
+            assertThat(alts.get(0).getPlayerUuid()).isEqualTo(alt);
+            assertThat(alts.get(0).getPlayerName()).isEqualTo("Alt");
+            assertThat(alts.get(0).getSharedIps()).containsExactly("203.0.113.7");
+        }
+
+        @Test
+        @DisplayName("Should return nothing for unknown players or when disabled")
+        void shouldReturnEmpty() throws Exception {
+            config.setAltIndexEnabled(false);
+            altService.record(main, "Main", ip("203.0.113.7"));
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+
+            assertThat(altService.findAlts(main)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should ignore links outside the retention window")
+        void shouldIgnoreExpiredLinks() throws Exception {
+            altService.record(main, "Main", ip("203.0.113.7"));
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+            age(alt, "203.0.113.7", TimeUnit.DAYS.toMillis(config.getAltRetentionDays() + 1));
+
+            assertThat(altService.findAlts(main)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("bounds")
+    class BoundsTests {
+
+        @Test
+        @DisplayName("Should prune links outside the retention window")
+        void shouldPrune() throws Exception {
+            altService.record(main, "Main", ip("203.0.113.7"));
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+            age(alt, "203.0.113.7", TimeUnit.DAYS.toMillis(config.getAltRetentionDays() + 1));
+
+            assertThat(altService.prune()).isEqualTo(1);
+            assertThat(altService.findAlts(alt)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should evict the least recently seen account beyond the per-IP cap")
+        void shouldEvictOverflow() throws Exception {
+            config.setAltMaxAccountsPerIp(2);
+            altService.record(main, "Main", ip("203.0.113.7"));
+            age(main, "203.0.113.7", 1000);
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+            UUID third = UUID.randomUUID();
+            altService.record(third, "Third", ip("203.0.113.7"));
+
+            assertThat(altService.findAlts(third))
+                .extracting(AltAccountService.AltAccount::getPlayerUuid)
+                .containsExactly(alt);
+        }
+
+        @Test
+        @DisplayName("Should never write a link evicted before it was saved")
+        void shouldCancelUnsavedEvictedLink() throws Exception {
+            config.setAltMaxAccountsPerIp(1);
+            altService.record(main, "Main", ip("203.0.113.7"));
+            age(main, "203.0.113.7", 1000);
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+
+            altService.shutdown();
+
+            verify(linkOperator).insert(argThat(link -> alt.toString().equals(link.getPlayerUuid())));
+            verify(linkOperator, times(1)).insert(any());
+            verify(linkOperator, never()).delById(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("findBannedAlt")
+    class FindBannedAltTests {
+
+        @Test
+        @DisplayName("Should return an alt's ban when extend-bans is enabled")
+        void shouldReturnAltBan() throws Exception {
+            config.setAltExtendBans(true);
+            BanData ban = BanData.builder().uuid(UUID.randomUUID()).playerUuid(alt.toString()).build();
+            when(banService.getActiveBan(alt)).thenReturn(ban);
+            altService.record(main, "Main", ip("203.0.113.7"));
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+
+            assertThat(altService.findBannedAlt(main)).isSameAs(ban);
+        }
+
+        @Test
+        @DisplayName("Should not look up alt bans when extend-bans is disabled")
+        void shouldSkipWhenDisabled() throws Exception {
+            altService.record(main, "Main", ip("203.0.113.7"));
+            altService.record(alt, "Alt", ip("203.0.113.7"));
+
+            assertThat(altService.findBannedAlt(main)).isNull();
+            verifyNoInteractions(banService);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void age(UUID player, String ip, long millis) throws Exception {
+        Map<String, Map<String, AltLinkData>> links =
+            (Map<String, Map<String, AltLinkData>>) EssentialsTestHelper.getField(altService, "linksByIp");
+        AltLinkData link = links.get(ip).get(player.toString());
+        link.setLastSeen(link.getLastSeen() - millis);
+    }
+}
@@ -0,0 +1,208 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.BanData;
+import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mockito-based unit tests for BanImportService.
+ * <p>
+ * 测试封禁导入服务。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("BanImportService Tests (Mockito)")
+class BanImportServiceMockitoTest {
+
+    private BanImportService importService;
+    private BanService banService;
+    private EssentialsConfig config;
+
+    @TempDir
+    Path serverFolder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EssentialsTestHelper.setUp();
+
+        config = new EssentialsConfig();
+        banService = mock(BanService.class);
+        when(banService.getActiveBans()).thenReturn(new ArrayList<>());
+        when(banService.importBans(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        importService = new BanImportService();
+        EssentialsTestHelper.setField(importService, "banService", banService);
+        EssentialsTestHelper.setField(importService, "config", config);
+
+        when(EssentialsTestHelper.getMockServer().getWorldContainer()).thenReturn(serverFolder.toFile());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        EssentialsTestHelper.tearDown();
+    }
+
+    @Nested
+    @DisplayName("readVanillaList")
+    class VanillaListTests {
+
+        @Test
+        @DisplayName("Should stream player bans with dates and permanent expiry")
+        void shouldReadPlayerBans() throws Exception {
+            String uuid = UUID.randomUUID().toString();
+            String json = "[{\"uuid\":\"" + uuid + "\",\"name\":\"Griefer\","
+                + "\"created\":\"2024-01-02 03:04:05 +0000\",\"source\":\"Admin\","
+                + "\"expires\":\"forever\",\"reason\":\"Griefing\"}]";
+            List<BanData> bans = new ArrayList<>();
+
+            BanImportService.readVanillaList(new StringReader(json), false, bans::add);
+
+            assertThat(bans).hasSize(1);
+            BanData ban = bans.get(0);
+            assertThat(ban.getPlayerUuid()).isEqualTo(uuid);
+            assertThat(ban.getPlayerName()).isEqualTo("Griefer");
+            assertThat(ban.getReason()).isEqualTo("Griefing");
+            assertThat(ban.getBannedByName()).isEqualTo("Admin");
+            assertThat(ban.getBanTime()).isEqualTo(1704164645000L);
+            assertThat(ban.isPermanent()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should stream IP bans and reject bad entries")
+        void shouldReadIpBans() throws Exception {
+            String json = "[{\"ip\":\"203.0.113.7\",\"reason\":\"Bots\"},{\"ip\":\"not-an-ip\"}]";
+            List<BanData> bans = new ArrayList<>();
+
+            BanImportService.readVanillaList(new StringReader(json), true, bans::add);
+
+            assertThat(bans).hasSize(2);
+            assertThat(bans.get(0).getIpAddress()).isEqualTo("203.0.113.7");
+            assertThat(bans.get(1)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("readEssentialsUser")
+    class EssentialsUserTests {
+
+        @Test
+        @DisplayName("Should read ban section")
+        void shouldReadBanSection() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            File file = serverFolder.resolve(uuid + ".yml").toFile();
+            Files.write(file.toPath(), ("last-account-name: Cheater\n"
+                + "ban:\n  reason: Flying\n  timeout: 0\n").getBytes(StandardCharsets.UTF_8));
+
+            BanData ban = BanImportService.readEssentialsUser(file);
+
+            assertThat(ban).isNotNull();
+            assertThat(ban.getPlayerUuid()).isEqualTo(uuid.toString());
+            assertThat(ban.getPlayerName()).isEqualTo("Cheater");
+            assertThat(ban.getReason()).isEqualTo("Flying");
+            assertThat(ban.isPermanent()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should return null for users without a ban")
+        void shouldSkipUnbannedUser() throws Exception {
+            File file = serverFolder.resolve(UUID.randomUUID() + ".yml").toFile();
+            Files.write(file.toPath(), "lastAccountName: Fine\n".getBytes(StandardCharsets.UTF_8));
+
+            assertThat(BanImportService.readEssentialsUser(file)).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("runImport")
+    class RunImportTests {
+
+        @Test
+        @DisplayName("Should write in batches and report progress per batch")
+        void shouldWriteInBatches() throws Exception {
+            config.setBanImportBatchSize(2);
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < 5; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"uuid\":\"").append(UUID.randomUUID()).append("\",\"name\":\"P").append(i).append("\"}");
+            }
+            json.append(']');
+            Files.write(serverFolder.resolve("banned-players.json"), json.toString().getBytes(StandardCharsets.UTF_8));
+
+            BanImportService.ImportProgress result = new BanImportService.ImportProgress();
+            List<Integer> progress = new ArrayList<>();
+            importService.runImport(BanImportService.Source.VANILLA, result, p -> progress.add(p.getImported()));
+
+            verify(banService, times(3)).importBans(anyList());
+            assertThat(progress).containsExactly(2, 4, 5);
+            assertThat(result.getProcessed()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("Should skip entries that duplicate active bans or each other")
+        void shouldDeduplicate() throws Exception {
+            String existing = UUID.randomUUID().toString();
+            String fresh = UUID.randomUUID().toString();
+            when(banService.getActiveBans()).thenReturn(Collections.singletonList(
+                BanData.builder().uuid(UUID.randomUUID()).playerUuid(existing).expireTime(-1).active(true).build()));
+            String json = "[{\"uuid\":\"" + existing + "\"},{\"uuid\":\"" + fresh + "\"},{\"uuid\":\"" + fresh + "\"}]";
+            Files.write(serverFolder.resolve("banned-players.json"), json.getBytes(StandardCharsets.UTF_8));
+
+            BanImportService.ImportProgress result = new BanImportService.ImportProgress();
+            importService.runImport(BanImportService.Source.VANILLA, result, p -> { });
+
+            assertThat(result.getImported()).isEqualTo(1);
+            assertThat(result.getDuplicates()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("Should report a failed import when the JSON is malformed")
+        void shouldReportMalformedJson() throws Exception {
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTaskAsynchronously(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            Files.write(serverFolder.resolve("banned-players.json"), "{\"not\": \"a list\"}".getBytes(StandardCharsets.UTF_8));
+            List<BanImportService.ImportProgress> reports = new ArrayList<>();
+
+            assertThat(importService.startImport(BanImportService.Source.VANILLA, reports::add)).isTrue();
+
+            assertThat(reports).hasSize(1);
+            assertThat(reports.get(0).isDone()).isTrue();
+            assertThat(reports.get(0).isFailed()).isTrue();
+            assertThat(importService.startImport(BanImportService.Source.VANILLA, p -> { })).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should refuse a second concurrent import")
+        void shouldRefuseConcurrentImport() throws Exception {
+            assertThat(importService.startImport(BanImportService.Source.VANILLA, p -> { })).isTrue();
+            assertThat(importService.startImport(BanImportService.Source.VANILLA, p -> { })).isFalse();
+        }
+    }
+}
@@ -3,20 +3,32 @@ package com.ultikits.plugins.essentials.service;
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.BanData;
 import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import com.ultikits.plugins.essentials.utils.IpRange;
 import com.ultikits.ultitools.interfaces.DataOperator;
 import com.ultikits.ultitools.interfaces.Query;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
 import org.bukkit.entity.Player;
 import org.junit.jupiter.api.*;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -52,6 +64,7 @@ class BanServiceMockitoTest {
         // ban is enabled by default
 
         banService = new BanService();
+        EssentialsTestHelper.setField(banService, "plugin", EssentialsTestHelper.getMockPlugin());
         EssentialsTestHelper.setField(banService, "config", config);
         EssentialsTestHelper.setField(banService, "banOperator", banOperator);
 
@@ -574,6 +587,671 @@ class BanServiceMockitoTest {
         }
     }
 
+    // ==================== Paged Active Bans Tests ====================
+
+    @Nested
+    @DisplayName("getActiveBans paged")
+    class PagedActiveBansTests {
+
+        @BeforeEach
+        void setUpPaging() {
+            when(query.orderBy(anyString())).thenReturn(query);
+            when(query.orderByDesc(anyString())).thenReturn(query);
+            when(query.limit(anyInt())).thenReturn(query);
+            when(query.offset(anyInt())).thenReturn(query);
+        }
+
+        @Test
+        @DisplayName("Should push ordering, limit and offset down to storage")
+        void shouldPushPagingToStorage() {
+            BanData ban = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerName("PageBan")
+                .banTime(System.currentTimeMillis())
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(query.count()).thenReturn(25L);
+            when(query.list()).thenReturn(Collections.singletonList(ban));
+
+            BanService.BanPage page = banService.getActiveBans(2, 10, BanService.BanSort.NEWEST);
+
+            verify(query).orderByDesc("ban_time");
+            verify(query).limit(10);
+            verify(query).offset(10);
+            verify(banOperator, never()).getAll();
+            assertThat(page.getItems()).containsExactly(ban);
+            assertThat(page.getTotal()).isEqualTo(25);
+            assertThat(page.getPage()).isEqualTo(2);
+            assertThat(page.getTotalPages()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should clamp page to last page")
+        void shouldClampToLastPage() {
+            when(query.count()).thenReturn(5L);
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            BanService.BanPage page = banService.getActiveBans(9, 10, BanService.BanSort.NAME);
+
+            assertThat(page.getPage()).isEqualTo(1);
+            verify(query).orderBy("player_name");
+            verify(query).offset(0);
+        }
+
+        @Test
+        @DisplayName("Should skip page query when there are no bans")
+        void shouldSkipQueryWhenEmpty() {
+            when(query.count()).thenReturn(0L);
+
+            BanService.BanPage page = banService.getActiveBans(1, 10, BanService.BanSort.OLDEST);
+
+            assertThat(page.getItems()).isEmpty();
+            assertThat(page.getTotalPages()).isEqualTo(1);
+            verify(query, never()).list();
+        }
+
+        @Test
+        @DisplayName("Should drop expired rows from the page")
+        void shouldDropExpiredRows() {
+            BanData expired = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerName("Expired")
+                .banTime(System.currentTimeMillis() - 200000)
+                .expireTime(System.currentTimeMillis() - 100000)
+                .active(true)
+                .build();
+            when(query.count()).thenReturn(1L);
+            when(query.list()).thenReturn(Collections.singletonList(expired));
+
+            BanService.BanPage page = banService.getActiveBans(1, 10, BanService.BanSort.NEWEST);
+
+            assertThat(page.getItems()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should parse sort names case-insensitively")
+        void shouldParseSortNames() {
+            assertThat(BanService.BanSort.fromName("Oldest")).isEqualTo(BanService.BanSort.OLDEST);
+            assertThat(BanService.BanSort.fromName("bogus")).isNull();
+            assertThat(BanService.BanSort.fromName(null)).isNull();
+        }
+    }
+
+    // ==================== Active Ban Index Tests ====================
+
+    @Nested
+    @DisplayName("Active ban index")
+    class ActiveBanIndexTests {
+
+        private BanData activeBan(UUID player, String ip) {
+            return BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(player.toString())
+                .playerName("TestPlayer")
+                .reason("Indexed")
+                .bannedByName("Admin")
+                .banTime(System.currentTimeMillis())
+                .expireTime(-1)
+                .active(true)
+                .ipAddress(ip)
+                .build();
+        }
+
+        @Test
+        @DisplayName("Should serve login lookups from the index without querying storage")
+        void shouldServeLookupsFromIndex() throws Exception {
+            BanData ban = activeBan(playerUuid, "10.0.0.5");
+            when(query.list()).thenReturn(Collections.singletonList(ban));
+
+            banService.reloadIndex();
+            clearInvocations(banOperator);
+
+            assertThat(banService.getActiveBan(playerUuid)).isSameAs(ban);
+            assertThat(banService.getActiveIpBan("10.0.0.5")).isSameAs(ban);
+            assertThat(banService.getActiveBan(UUID.randomUUID())).isNull();
+            verify(banOperator, never()).query();
+        }
+
+        @Test
+        @DisplayName("Should add new bans to the index")
+        void shouldIndexNewBans() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            banService.banPlayer(playerUuid, "TestPlayer", "Test", operatorUuid, "Admin");
+
+            assertThat(banService.getActiveBan(playerUuid)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should remove unbanned players from the index")
+        void shouldDeindexOnUnban() throws Exception {
+            BanData ban = activeBan(playerUuid, null);
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(ban)));
+            banService.reloadIndex();
+
+            assertThat(banService.unbanPlayer(playerUuid)).isTrue();
+
+            assertThat(banService.getActiveBan(playerUuid)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should drop expired bans on lookup")
+        void shouldDropExpiredBans() throws Exception {
+            BanData ban = activeBan(playerUuid, null);
+            when(query.list()).thenReturn(Collections.singletonList(ban));
+            banService.reloadIndex();
+
+            ban.setExpireTime(System.currentTimeMillis() - 1000);
+
+            assertThat(banService.getActiveBan(playerUuid)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should report drift between index and storage")
+        void shouldReportDrift() throws Exception {
+            BanData ban = activeBan(playerUuid, "10.0.0.5");
+            when(query.list()).thenReturn(Collections.singletonList(ban));
+
+            assertThat(banService.reloadIndex()).isEqualTo(2);
+            assertThat(banService.reloadIndex()).isZero();
+
+            when(query.list()).thenReturn(new ArrayList<>());
+            assertThat(banService.reloadIndex()).isEqualTo(2);
+            assertThat(banService.getActiveBan(playerUuid)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should keep bans made while a rebuild reads storage")
+        void shouldReplayBansDuringReload() throws Exception {
+            AtomicBoolean reloading = new AtomicBoolean(true);
+            when(query.list()).thenAnswer(inv -> {
+                if (reloading.getAndSet(false)) {
+                    banService.banPlayer(playerUuid, "TestPlayer", "Test", operatorUuid, "Admin");
+                }
+                return new ArrayList<>();
+            });
+
+            banService.reloadIndex();
+
+            assertThat(banService.isIndexLoaded()).isTrue();
+            assertThat(banService.getActiveBan(playerUuid)).isNotNull();
+        }
+    }
+
+    // ==================== Lookup Coalescing Tests ====================
+
+    @Nested
+    @DisplayName("Login lookup coalescing")
+    class LookupCoalescingTests {
+
+        @Test
+        @DisplayName("Should share one storage lookup across concurrent logins")
+        void shouldCoalesceConcurrentLookups() throws Exception {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            when(query.list()).thenAnswer(inv -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return new ArrayList<>();
+            });
+            InetAddress address = InetAddress.getByName("192.0.2.10");
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<BanData>> results = new ArrayList<>();
+                results.add(executor.submit(() -> banService.getActiveIpBan(address)));
+                assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+                for (int i = 0; i < 7; i++) {
+                    results.add(executor.submit(() -> banService.getActiveIpBan(address)));
+                }
+                release.countDown();
+                for (Future<BanData> result : results) {
+                    assertThat(result.get(5, TimeUnit.SECONDS)).isNull();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            verify(query, times(1)).list();
+        }
+
+        @Test
+        @DisplayName("Should reuse a recent not-banned answer")
+        void shouldCacheNotBanned() {
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            assertThat(banService.getActiveBan(playerUuid)).isNull();
+            assertThat(banService.getActiveBan(playerUuid)).isNull();
+
+            verify(query, times(1)).list();
+        }
+
+        @Test
+        @DisplayName("Should not cache when the TTL is zero")
+        void shouldNotCacheWhenDisabled() {
+            config.setBanNegativeCacheTtl(0);
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            banService.getActiveBan(playerUuid);
+            banService.getActiveBan(playerUuid);
+
+            verify(query, times(2)).list();
+        }
+
+        @Test
+        @DisplayName("Should drop cached answers when a ban is added")
+        void shouldInvalidateOnBan() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            InetAddress address = InetAddress.getByName("198.51.100.5");
+            assertThat(banService.getActiveIpBan(address)).isNull();
+
+            banService.banIp(IpRange.parse("198.51.100.0/24"), "Range", null, "Console", -1);
+            BanData rangeBan = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .ipAddress("198.51.100.0/24")
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(rangeBan)));
+
+            assertThat(banService.getActiveIpBan(address)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should not cache a not-banned answer when a ban is added during the lookup")
+        void shouldNotCacheAcrossConcurrentBan() throws Exception {
+            InetAddress address = InetAddress.getByName("198.51.100.5");
+            BanData hostBan = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .ipAddress("198.51.100.5")
+                .expireTime(-1)
+                .active(true)
+                .build();
+            AtomicInteger calls = new AtomicInteger();
+            when(query.list()).thenAnswer(inv -> {
+                int call = calls.incrementAndGet();
+                if (call == 1) {
+                    // Banned while the first lookup is reading storage
+                    banService.banIp(IpRange.parse("198.51.100.5"), "Host", null, "Console", -1);
+                }
+                return call > 2 ? new ArrayList<>(Collections.singletonList(hostBan)) : new ArrayList<>();
+            });
+
+            assertThat(banService.getActiveIpBan(address)).isNull();
+
+            assertThat(banService.getActiveIpBan(address)).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should remember bans found by lookups as the last-known state")
+        void shouldRememberFoundBans() throws Exception {
+            BanData ban = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(playerUuid.toString())
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(ban)));
+            InetAddress address = InetAddress.getByName("192.0.2.44");
+
+            assertThat(banService.getIndexedBan(playerUuid, address)).isNull();
+            assertThat(banService.getActiveBan(playerUuid)).isSameAs(ban);
+            assertThat(banService.getIndexedBan(playerUuid, address)).isSameAs(ban);
+
+            assertThat(banService.unbanPlayer(playerUuid)).isTrue();
+            assertThat(banService.getIndexedBan(playerUuid, address)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should stop the lookup pool on shutdown")
+        void shouldShutDownLookupPool() {
+            ExecutorService executor = banService.getLookupExecutor();
+
+            banService.shutdown();
+
+            assertThat(executor.isShutdown()).isTrue();
+            assertThat(banService.getLookupExecutor()).isNotSameAs(executor);
+            banService.shutdown();
+        }
+    }
+
+    // ==================== Range Ban Tests ====================
+
+    @Nested
+    @DisplayName("Range IP bans")
+    class RangeBanTests {
+
+        @Test
+        @DisplayName("Should match addresses inside a banned CIDR range")
+        void shouldMatchAddressInsideRange() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            BanService.BanResult result = banService.banIp(
+                IpRange.parse("203.0.113.0/24"), "VPN", operatorUuid, "Admin", -1);
+
+            assertThat(result).isEqualTo(BanService.BanResult.SUCCESS);
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("203.0.113.9"))).isNotNull();
+            assertThat(banService.getActiveIpBan("203.0.113.250")).isNotNull();
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("203.0.114.9"))).isNull();
+            verify(banOperator).insert(argThat(ban -> "203.0.113.0/24".equals(ban.getIpAddress())));
+        }
+
+        @Test
+        @DisplayName("Should match IPv6 /64 bans")
+        void shouldMatchIpv6Range() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            banService.banIp(IpRange.parse("2001:db8:1:2::/64"), "VPN", null, "Console", -1);
+
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("2001:db8:1:2:abcd::1"))).isNotNull();
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("2001:db8:1:3::1"))).isNull();
+        }
+
+        @Test
+        @DisplayName("Should reject duplicate range ban")
+        void shouldRejectDuplicateRangeBan() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            banService.banIp(IpRange.parse("10.0.0.0/8"), "First", null, "Console", -1);
+            BanService.BanResult result = banService.banIp(
+                IpRange.parse("10.1.2.3/8"), "Second", null, "Console", -1);
+
+            assertThat(result).isEqualTo(BanService.BanResult.ALREADY_BANNED);
+        }
+
+        @Test
+        @DisplayName("Should find an indexed range ban by any form of the range")
+        void shouldLookUpRangeByCanonicalForm() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            banService.banIp(IpRange.parse("10.0.0.0/8"), "Range", null, "Console", -1);
+
+            assertThat(banService.getActiveIpBan("10.20.30.40/8")).isNotNull();
+            assertThat(banService.getActiveIpBan("not-an-address")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should lift range bans by their canonical form")
+        void shouldUnbanRange() throws Exception {
+            BanData rangeBan = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerName("10.0.0.0/8")
+                .reason("Range")
+                .bannedByName("Admin")
+                .banTime(System.currentTimeMillis())
+                .expireTime(-1)
+                .active(true)
+                .ipAddress("10.0.0.0/8")
+                .build();
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(rangeBan)));
+            banService.reloadIndex();
+
+            assertThat(banService.unbanIp("10.20.30.40/8")).isTrue();
+
+            verify(query).eq("10.0.0.0/8");
+            assertThat(banService.getActiveIpBan("10.1.1.1")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should match range bans with the index disabled")
+        void shouldMatchRangesWithoutIndex() throws Exception {
+            config.setBanIndexEnabled(false);
+            BanData storedRange = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerName("198.51.100.0/24")
+                .reason("Range")
+                .bannedByName("Admin")
+                .banTime(System.currentTimeMillis())
+                .expireTime(-1)
+                .active(true)
+                .ipAddress("198.51.100.0/24")
+                .build();
+            when(EssentialsTestHelper.getMockPlugin().getDataOperator(BanData.class)).thenReturn(banOperator);
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(storedRange)));
+            banService.init();
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            banService.banIp(IpRange.parse("2001:db8:1:2::/64"), "VPN", null, "Console", -1);
+
+            assertThat(banService.isIndexLoaded()).isFalse();
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("198.51.100.7"))).isSameAs(storedRange);
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("2001:db8:1:2::9"))).isNotNull();
+            assertThat(banService.getActiveIpBan(InetAddress.getByName("198.51.101.7"))).isNull();
+
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(storedRange)));
+            assertThat(banService.unbanIp("198.51.100.0/24")).isTrue();
+            when(query.list()).thenReturn(new ArrayList<>());
+            assertThat(banService.getActiveIpBan("198.51.100.8")).isNull();
+        }
+    }
+
+    // ==================== Ban Wave Tests ====================
+
+    @Nested
+    @DisplayName("Ban waves")
+    class BanWaveTests {
+
+        private OfflinePlayer mockOfflinePlayer(String name, UUID uuid) {
+            OfflinePlayer offline = mock(OfflinePlayer.class);
+            when(offline.getUniqueId()).thenReturn(uuid);
+            when(offline.getName()).thenReturn(name);
+            when(offline.hasPlayedBefore()).thenReturn(true);
+            return offline;
+        }
+
+        @Test
+        @DisplayName("Should ban names, UUIDs and ranges with per-target results")
+        void shouldBanMixedTargets() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            UUID cheaterUuid = UUID.randomUUID();
+            UUID altUuid = UUID.randomUUID();
+            Server server = EssentialsTestHelper.getMockServer();
+            OfflinePlayer cheater = mockOfflinePlayer("Cheater", cheaterUuid);
+            when(server.getOfflinePlayer("Cheater")).thenReturn(cheater);
+            OfflinePlayer alt = mockOfflinePlayer("Alt", altUuid);
+            when(server.getOfflinePlayer(altUuid)).thenReturn(alt);
+            OfflinePlayer unknown = mock(OfflinePlayer.class);
+            when(unknown.getUniqueId()).thenReturn(UUID.randomUUID());
+            when(server.getOfflinePlayer("Nobody")).thenReturn(unknown);
+
+            List<BanService.WaveResult> results = banService.banWave(
+                Arrays.asList("Cheater", altUuid.toString(), "198.51.100.0/24", "Nobody", "Cheater"),
+                "Ring", operatorUuid, "Admin", -1);
+
+            assertThat(results).extracting(BanService.WaveResult::getStatus).containsExactly(
+                BanService.WaveStatus.BANNED,
+                BanService.WaveStatus.BANNED,
+                BanService.WaveStatus.BANNED,
+                BanService.WaveStatus.NOT_FOUND);
+            verify(banOperator, times(3)).insert(any(BanData.class));
+            assertThat(banService.getActiveBan(cheaterUuid)).isNotNull();
+            assertThat(banService.getActiveBan(altUuid)).isNotNull();
+            assertThat(banService.getActiveIpBan("198.51.100.7")).isNotNull();
+        }
+
+        @Test
+        @DisplayName("Should skip targets that are already banned")
+        void shouldSkipAlreadyBanned() throws Exception {
+            BanData existing = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(playerUuid.toString())
+                .playerName("TestPlayer")
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(query.list()).thenReturn(new ArrayList<>(Collections.singletonList(existing)));
+            banService.reloadIndex();
+
+            OfflinePlayer offline = mockOfflinePlayer("TestPlayer", playerUuid);
+            when(EssentialsTestHelper.getMockServer().getOfflinePlayer("TestPlayer")).thenReturn(offline);
+
+            List<BanService.WaveResult> results = banService.banWave(
+                Collections.singletonList("TestPlayer"), "Ring", null, "Console", -1);
+
+            assertThat(results.get(0).getStatus()).isEqualTo(BanService.WaveStatus.ALREADY_BANNED);
+            verify(banOperator, never()).insert(any());
+        }
+
+        @Test
+        @DisplayName("Should report disabled for every target when bans are off")
+        void shouldReportDisabled() throws Exception {
+            config.setBanEnabled(false);
+
+            List<BanService.WaveResult> results = banService.banWave(
+                Arrays.asList("A", "B"), "Ring", null, "Console", -1);
+
+            assertThat(results).extracting(BanService.WaveResult::getStatus)
+                .containsOnly(BanService.WaveStatus.DISABLED);
+            verify(banOperator, never()).insert(any());
+        }
+
+        @Test
+        @DisplayName("Should kick affected online players in one pass")
+        void shouldKickAffectedPlayers() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            Player inRange = mock(Player.class);
+            when(inRange.getUniqueId()).thenReturn(UUID.randomUUID());
+            when(inRange.getAddress()).thenReturn(
+                new InetSocketAddress(InetAddress.getByName("198.51.100.20"), 25565));
+            Player bystander = mock(Player.class);
+            when(bystander.getUniqueId()).thenReturn(UUID.randomUUID());
+            when(bystander.getAddress()).thenReturn(
+                new InetSocketAddress(InetAddress.getByName("192.0.2.1"), 25565));
+            doReturn(Arrays.asList(inRange, bystander))
+                .when(EssentialsTestHelper.getMockServer()).getOnlinePlayers();
+
+            List<BanService.WaveResult> results = banService.banWave(
+                Collections.singletonList("198.51.100.0/24"), "Ring", null, "Console", -1);
+            banService.kickWave(results);
+
+            verify(inRange).kickPlayer(anyString());
+            verify(bystander, never()).kickPlayer(anyString());
+        }
+
+        @Test
+        @DisplayName("Should unban all targets in one pass")
+        void shouldUnbanWave() throws Exception {
+            BanData ban = BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(playerUuid.toString())
+                .playerName("TestPlayer")
+                .expireTime(-1)
+                .active(true)
+                .build();
+            when(query.list())
+                .thenReturn(new ArrayList<>(Collections.singletonList(ban)))
+                .thenReturn(new ArrayList<>());
+
+            List<BanService.WaveResult> results = banService.unbanWave(
+                Arrays.asList("TestPlayer", "Innocent"));
+
+            assertThat(results).extracting(BanService.WaveResult::getStatus).containsExactly(
+                BanService.WaveStatus.UNBANNED,
+                BanService.WaveStatus.NOT_BANNED);
+            assertThat(ban.isActive()).isFalse();
+            verify(banOperator).update(ban);
+        }
+    }
+
+    // ==================== Expiry Tests ====================
+
+    @Nested
+    @DisplayName("expireDueBans")
+    class ExpireDueBansTests {
+
+        private BanData tempBan(long expireTime) {
+            return BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(UUID.randomUUID().toString())
+                .playerName("Temp")
+                .reason("Temp")
+                .bannedByName("Admin")
+                .banTime(System.currentTimeMillis() - 10000)
+                .expireTime(expireTime)
+                .active(true)
+                .build();
+        }
+
+        @Test
+        @DisplayName("Should deactivate expired bans and keep running ones")
+        void shouldDeactivateExpiredBans() throws Exception {
+            BanData expired = tempBan(System.currentTimeMillis() - 1000);
+            BanData running = tempBan(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+            when(query.list()).thenReturn(Arrays.asList(expired, running));
+            banService.reloadIndex();
+
+            int count = banService.expireDueBans();
+
+            assertThat(count).isEqualTo(1);
+            assertThat(expired.isActive()).isFalse();
+            assertThat(running.isActive()).isTrue();
+            verify(banOperator).update(expired);
+            verify(banOperator, never()).update(running);
+        }
+
+        @Test
+        @DisplayName("Should drain due bans in batches")
+        void shouldDrainInBatches() throws Exception {
+            config.setBanExpiryBatchSize(2);
+            List<BanData> bans = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                bans.add(tempBan(System.currentTimeMillis() - 1000 - i));
+            }
+            when(query.list()).thenReturn(bans);
+            banService.reloadIndex();
+
+            assertThat(banService.expireDueBans()).isEqualTo(5);
+            verify(banOperator, times(5)).update(any(BanData.class));
+            assertThat(banService.expireDueBans()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should expire bans added after the index was loaded")
+        void shouldExpireNewTempBans() throws Exception {
+            when(query.list()).thenReturn(new ArrayList<>());
+            banService.reloadIndex();
+
+            banService.banPlayer(playerUuid, "TestPlayer", "Temp",
+                operatorUuid, "Admin", 1, null);
+            Thread.sleep(5);
+
+            assertThat(banService.expireDueBans()).isEqualTo(1);
+            assertThat(banService.getActiveBans()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should expire temporary bans with the index disabled")
+        void shouldExpireWithoutIndex() throws Exception {
+            config.setBanIndexEnabled(false);
+            BanData expired = tempBan(System.currentTimeMillis() - 1000);
+            BanData running = tempBan(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1));
+            when(EssentialsTestHelper.getMockPlugin().getDataOperator(BanData.class)).thenReturn(banOperator);
+            when(query.list()).thenReturn(new ArrayList<>(Arrays.asList(expired, running)));
+            banService.init();
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            banService.banPlayer(playerUuid, "TestPlayer", "Temp",
+                operatorUuid, "Admin", 1, null);
+            Thread.sleep(5);
+
+            assertThat(banService.isIndexLoaded()).isFalse();
+            assertThat(banService.expireDueBans()).isEqualTo(2);
+            assertThat(expired.isActive()).isFalse();
+            assertThat(running.isActive()).isTrue();
+            verify(banOperator, times(2)).update(any(BanData.class));
+        }
+    }
+
     // ==================== Get Ban History Tests ====================
 
     @Nested
@@ -654,6 +1332,72 @@ class BanServiceMockitoTest {
         }
     }
 
+    // ==================== Localized Kick Message Tests ====================
+
+    @Nested
+    @DisplayName("Localized kick messages")
+    class LocalizedKickMessageTests {
+
+        private BanData tempBan() {
+            return BanData.builder()
+                .uuid(UUID.randomUUID())
+                .playerUuid(playerUuid.toString())
+                .playerName("TestPlayer")
+                .reason("Griefing")
+                .bannedByName("Mod")
+                .banTime(System.currentTimeMillis())
+                .expireTime(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(3))
+                .active(true)
+                .build();
+        }
+
+        @Test
+        @DisplayName("Should render in the client language")
+        void shouldRenderInClientLanguage() {
+            String message = banService.formatKickMessage(tempBan(), "en_US");
+
+            assertThat(message).contains("You are banned");
+            assertThat(message).contains("Griefing");
+            assertThat(message).contains("Time remaining");
+            assertThat(message).doesNotContain("{reason}");
+        }
+
+        @Test
+        @DisplayName("Should compile the template once per ban and language")
+        void shouldCompileOnce() {
+            BanData ban = tempBan();
+
+            banService.formatKickMessage(ban);
+            banService.formatKickMessage(ban);
+
+            verify(EssentialsTestHelper.getMockPlugin(), times(1)).i18n(config.getBanKickMessage());
+        }
+
+        @Test
+        @DisplayName("Should use the remembered language for login kicks")
+        void shouldUseRememberedLanguage() {
+            banService.rememberLocale(playerUuid, "en_gb");
+
+            assertThat(banService.formatKickMessage(tempBan())).contains("You are banned");
+        }
+
+        @Test
+        @DisplayName("Should use the connecting player's language for IP ban kicks")
+        void shouldUseConnectingPlayersLanguage() {
+            UUID connecting = UUID.randomUUID();
+            banService.rememberLocale(connecting, "en_gb");
+
+            assertThat(banService.formatLoginKickMessage(tempBan(), connecting)).contains("You are banned");
+            assertThat(banService.formatKickMessage(tempBan())).contains("你已被封禁");
+        }
+
+        @Test
+        @DisplayName("Should fall back to the server language for unknown locales")
+        void shouldFallBackForUnknownLocale() {
+            assertThat(banService.formatKickMessage(tempBan(), "xx_yy")).contains("你已被封禁");
+        }
+    }
+
     // ==================== Duration Parsing Tests ====================
 
     @Nested
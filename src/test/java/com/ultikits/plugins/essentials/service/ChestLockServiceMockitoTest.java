@@ -2,15 +2,23 @@ package com.ultikits.plugins.essentials.service;
 
 import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.ChestLockData;
+import com.ultikits.plugins.essentials.utils.BlockPosIndex;
+import com.ultikits.plugins.essentials.utils.ChunkLockStorage;
 import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import com.ultikits.plugins.essentials.utils.WriteBehindQueue;
 import com.ultikits.ultitools.interfaces.DataOperator;
 import com.ultikits.ultitools.interfaces.Query;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
+import org.bukkit.block.data.type.Chest;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
 import org.junit.jupiter.api.*;
 
 import java.util.*;
@@ -31,6 +39,7 @@ import static org.mockito.Mockito.*;
 class ChestLockServiceMockitoTest {
 
     private ChestLockService service;
+    private LockTrustService trustService;
     private EssentialsConfig config;
 
     @SuppressWarnings("unchecked")
@@ -42,10 +51,15 @@ class ChestLockServiceMockitoTest {
 
         config = new EssentialsConfig();
 
+        trustService = new LockTrustService();
+        EssentialsTestHelper.setField(trustService, "trustOperator", mock(DataOperator.class));
+
         service = new ChestLockService();
         EssentialsTestHelper.setField(service, "config", config);
+        EssentialsTestHelper.setField(service, "lockTrustService", trustService);
         EssentialsTestHelper.setField(service, "plugin", EssentialsTestHelper.getMockPlugin());
         EssentialsTestHelper.setField(service, "lockOperator", lockOperator);
+        EssentialsTestHelper.setField(service, "writeQueue", new WriteBehindQueue<>(lockOperator, ChestLockData::copy));
 
         reset(lockOperator);
         when(lockOperator.getAll()).thenReturn(new ArrayList<>());
@@ -138,6 +152,8 @@ class ChestLockServiceMockitoTest {
             ChestLockService.LockResult result = service.lockBlock(block, player);
 
             assertThat(result).isEqualTo(ChestLockService.LockResult.SUCCESS);
+            verify(lockOperator, never()).insert(any());
+            service.flushWrites();
             verify(lockOperator).insert(any(ChestLockData.class));
         }
 
@@ -181,9 +197,9 @@ class ChestLockServiceMockitoTest {
                     .ownerName("Other")
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(existing.getLocationKey(), existing);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(existing.getWorld(), existing.getX(), existing.getY(), existing.getZ(), existing);
 
             Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
 
@@ -206,9 +222,9 @@ class ChestLockServiceMockitoTest {
                     .ownerName("Steve")
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(existing.getLocationKey(), existing);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(existing.getWorld(), existing.getX(), existing.getY(), existing.getZ(), existing);
 
             Player player = EssentialsTestHelper.createMockPlayer("Steve", playerUuid);
 
@@ -237,15 +253,16 @@ class ChestLockServiceMockitoTest {
                     .ownerName("Steve")
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Player player = EssentialsTestHelper.createMockPlayer("Steve", playerUuid);
 
             ChestLockService.UnlockResult result = service.unlockBlock(block, player);
 
             assertThat(result).isEqualTo(ChestLockService.UnlockResult.SUCCESS);
+            service.flushWrites();
             verify(lockOperator).delById(lockId.toString());
         }
 
@@ -274,9 +291,9 @@ class ChestLockServiceMockitoTest {
                     .ownerName("Other")
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
 
@@ -299,9 +316,9 @@ class ChestLockServiceMockitoTest {
                     .ownerName("Other")
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Player admin = EssentialsTestHelper.createMockPlayer("Admin", UUID.randomUUID());
             when(admin.hasPermission("ultiessentials.lock.admin")).thenReturn(true);
@@ -338,9 +355,9 @@ class ChestLockServiceMockitoTest {
                     .ownerUuid(playerUuid.toString())
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Location loc = new Location(world, 100, 64, 200);
             Player player = EssentialsTestHelper.createMockPlayer("Steve", playerUuid);
@@ -359,9 +376,9 @@ class ChestLockServiceMockitoTest {
                     .ownerUuid(UUID.randomUUID().toString())
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Location loc = new Location(world, 100, 64, 200);
             Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
@@ -381,9 +398,9 @@ class ChestLockServiceMockitoTest {
                     .ownerUuid(UUID.randomUUID().toString())
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Location loc = new Location(world, 100, 64, 200);
             Player admin = EssentialsTestHelper.createMockPlayer("Admin", UUID.randomUUID());
@@ -391,6 +408,223 @@ class ChestLockServiceMockitoTest {
 
             assertThat(service.canAccess(loc, admin)).isTrue();
         }
+
+        @Test
+        @DisplayName("Should return true for players trusted on the lock or by the owner")
+        void shouldReturnTrueWhenTrusted() throws Exception {
+            World world = EssentialsTestHelper.createMockWorld("world");
+            UUID owner = UUID.randomUUID();
+            UUID onLock = UUID.randomUUID();
+            UUID onOwner = UUID.randomUUID();
+
+            ChestLockData lock = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(200)
+                    .ownerUuid(owner.toString())
+                    .trusted(onLock.toString())
+                    .build();
+            @SuppressWarnings("unchecked")
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
+            trustService.trust(owner, onOwner, "Alex");
+
+            Location loc = new Location(world, 100, 64, 200);
+
+            assertThat(service.canAccess(loc, EssentialsTestHelper.createMockPlayer("Bob", onLock))).isTrue();
+            assertThat(service.canAccess(loc, EssentialsTestHelper.createMockPlayer("Alex", onOwner))).isTrue();
+            assertThat(service.canAccess(loc, EssentialsTestHelper.createMockPlayer("Eve", UUID.randomUUID())))
+                    .isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("Double chests")
+    class DoubleChestTests {
+
+        private World world;
+        private Block left;
+        private Block right;
+
+        @BeforeEach
+        void pairChests() {
+            world = EssentialsTestHelper.createMockWorld("world");
+            left = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            right = createMockBlock(Material.CHEST, world, 101, 64, 200);
+            Chest leftData = mock(Chest.class);
+            when(leftData.getType()).thenReturn(Chest.Type.LEFT);
+            when(leftData.getFacing()).thenReturn(BlockFace.NORTH);
+            Chest rightData = mock(Chest.class);
+            when(rightData.getType()).thenReturn(Chest.Type.RIGHT);
+            when(rightData.getFacing()).thenReturn(BlockFace.NORTH);
+            when(left.getBlockData()).thenReturn(leftData);
+            when(right.getBlockData()).thenReturn(rightData);
+            when(left.getRelative(BlockFace.EAST)).thenReturn(right);
+            when(right.getRelative(BlockFace.WEST)).thenReturn(left);
+        }
+
+        @Test
+        @DisplayName("Should lock both halves from the block data")
+        void shouldLockBothHalves() {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+
+            assertThat(service.lockBlock(left, player)).isEqualTo(ChestLockService.LockResult.SUCCESS);
+
+            assertThat(service.getLock(world, 101, 64, 200)).isNotNull();
+            verify(left, never()).getState();
+            verify(right, never()).getState();
+        }
+
+        @Test
+        @DisplayName("Should protect a half joined to a locked chest")
+        void shouldResolveToOtherHalf() throws Exception {
+            UUID owner = UUID.randomUUID();
+            ChestLockData lock = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(200)
+                    .ownerUuid(owner.toString())
+                    .build();
+            @SuppressWarnings("unchecked")
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
+            Player stranger = EssentialsTestHelper.createMockPlayer("Eve", UUID.randomUUID());
+
+            assertThat(service.getLock(right)).isSameAs(lock);
+            assertThat(service.isLocked(right)).isTrue();
+            assertThat(service.canAccess(right, stranger)).isFalse();
+
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", owner);
+            assertThat(service.unlockBlock(right, player)).isEqualTo(ChestLockService.UnlockResult.SUCCESS);
+            assertThat(service.getLock(left)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should copy the lock to a chest placed against a locked one")
+        void shouldLockPlacedHalf() throws Exception {
+            ChestLockData lock = leftLock();
+            lock.setTrusted(UUID.randomUUID().toString());
+            index(lock);
+
+            service.onBlockPlace(right);
+
+            ChestLockData placed = service.getLock(world, 101, 64, 200);
+            assertThat(placed).isNotNull().isNotSameAs(lock);
+            assertThat(placed.getOwnerUuid()).isEqualTo(lock.getOwnerUuid());
+            assertThat(placed.getTrusted()).isEqualTo(lock.getTrusted());
+            service.flushWrites();
+            verify(lockOperator).insert(argThat(lock -> placed.getId().equals(lock.getId())));
+        }
+
+        @Test
+        @DisplayName("Should keep a placed half locked for hoppers and explosions")
+        void shouldProtectPlacedHalfByPosition() throws Exception {
+            index(leftLock());
+            service.onBlockPlace(right);
+            Location rightHalf = new Location(world, 101, 64, 200);
+            Location hopper = new Location(world, 101, 63, 200);
+            List<Block> blocks = new ArrayList<>(Collections.singletonList(right));
+
+            assertThat(service.isLocked(rightHalf)).isTrue();
+            assertThat(service.isTransferBlocked(rightHalf, hopper)).isTrue();
+            assertThat(service.removeLocked(blocks)).isTrue();
+            assertThat(blocks).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should keep the other half locked when one half is broken")
+        void shouldKeepOtherHalfOnBreak() throws Exception {
+            index(leftLock());
+            service.onBlockPlace(right);
+
+            service.onBlockBreak(new Location(world, 100, 64, 200));
+
+            assertThat(service.getLock(world, 100, 64, 200)).isNull();
+            assertThat(service.isLocked(new Location(world, 101, 64, 200))).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should not lock a chest placed next to an unlocked one")
+        void shouldIgnoreUnlockedNeighbor() {
+            service.lockBlock(createMockBlock(Material.CHEST, world, 0, 64, 0),
+                    EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID()));
+
+            service.onBlockPlace(right);
+
+            assertThat(service.getLock(world, 101, 64, 200)).isNull();
+        }
+
+        private void index(ChestLockData lock) throws Exception {
+            @SuppressWarnings("unchecked")
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
+        }
+
+        private ChestLockData leftLock() {
+            return ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(200)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .ownerName("Steve")
+                    .build();
+        }
+    }
+
+    @Nested
+    @DisplayName("setTrusted")
+    class SetTrustedTests {
+
+        private World world;
+        private Block block;
+        private Player owner;
+
+        @BeforeEach
+        void lockBlock() {
+            world = EssentialsTestHelper.createMockWorld("world");
+            block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            owner = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            service.lockBlock(block, owner);
+        }
+
+        @Test
+        @DisplayName("Should trust and untrust a player and queue the change")
+        void shouldTrustAndUntrust() throws Exception {
+            UUID friend = UUID.randomUUID();
+            Player friendPlayer = EssentialsTestHelper.createMockPlayer("Alex", friend);
+            service.flushWrites();
+
+            assertThat(service.setTrusted(block, owner, friend, true)).isEqualTo(ChestLockService.TrustResult.SUCCESS);
+            assertThat(service.setTrusted(block, owner, friend, true))
+                    .isEqualTo(ChestLockService.TrustResult.UNCHANGED);
+            assertThat(service.canAccess(block, friendPlayer)).isTrue();
+
+            service.flushWrites();
+            verify(lockOperator).update(argThat(lock -> friend.toString().equals(lock.getTrusted())));
+
+            assertThat(service.setTrusted(block, owner, friend, false)).isEqualTo(ChestLockService.TrustResult.SUCCESS);
+            assertThat(service.canAccess(block, friendPlayer)).isFalse();
+            assertThat(service.getLock(block).getTrusted()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should refuse players who do not own the lock")
+        void shouldRefuseNonOwner() {
+            Player stranger = EssentialsTestHelper.createMockPlayer("Eve", UUID.randomUUID());
+
+            assertThat(service.setTrusted(block, stranger, stranger.getUniqueId(), true))
+                    .isEqualTo(ChestLockService.TrustResult.NOT_OWNER);
+            assertThat(service.canAccess(block, stranger)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should report unlocked blocks")
+        void shouldReportNotLocked() {
+            Block other = createMockBlock(Material.CHEST, world, 110, 64, 200);
+
+            assertThat(service.setTrusted(other, owner, UUID.randomUUID(), true))
+                    .isEqualTo(ChestLockService.TrustResult.NOT_LOCKED);
+        }
     }
 
     @Nested
@@ -417,9 +651,9 @@ class ChestLockServiceMockitoTest {
                     .ownerUuid(UUID.randomUUID().toString())
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Location loc = new Location(world, 100, 64, 200);
 
@@ -443,12 +677,13 @@ class ChestLockServiceMockitoTest {
                     .ownerUuid(UUID.randomUUID().toString())
                     .build();
             @SuppressWarnings("unchecked")
-            Map<String, ChestLockData> cache = (Map<String, ChestLockData>)
-                    EssentialsTestHelper.getField(service, "lockCache");
-            cache.put(lock.getLocationKey(), lock);
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
 
             Location loc = new Location(world, 100, 64, 200);
             service.onBlockBreak(loc);
+            service.flushWrites();
 
             verify(lockOperator).delById(lockId.toString());
             assertThat(service.isLocked(loc)).isFalse();
@@ -466,6 +701,40 @@ class ChestLockServiceMockitoTest {
         }
     }
 
+    @Nested
+    @DisplayName("chunk index")
+    class ChunkIndexTests {
+
+        @Test
+        @DisplayName("Should find locks by block and report locked chunks")
+        void shouldFindByBlockAndChunk() {
+            World world = EssentialsTestHelper.createMockWorld("world");
+            Block block = createMockBlock(Material.CHEST, world, -5, 64, 37);
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+
+            service.lockBlock(block, player);
+
+            assertThat(service.getLock(block)).isNotNull();
+            assertThat(service.isLocked(world, -5, 64, 37)).isTrue();
+            assertThat(service.hasLocks(world, -1, 2)).isTrue();
+            assertThat(service.hasLocks(world, 0, 2)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should forget empty chunks after the last lock is removed")
+        void shouldForgetEmptyChunks() {
+            World world = EssentialsTestHelper.createMockWorld("world");
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            service.lockBlock(block, player);
+
+            service.unlockBlock(block, player);
+
+            assertThat(service.isLocked(block)).isFalse();
+            assertThat(service.hasLocks(world, 6, 12)).isFalse();
+        }
+    }
+
     @Nested
     @DisplayName("loadCache")
     class LoadCacheTests {
@@ -485,6 +754,7 @@ class ChestLockServiceMockitoTest {
                     .build();
 
             when(lockOperator.getAll()).thenReturn(Arrays.asList(lock1, lock2));
+            config.setChestLockLazyLoad(false);
 
             // Manually call init to trigger loadCache
             when(EssentialsTestHelper.getMockPlugin().getDataOperator(ChestLockData.class))
@@ -497,6 +767,704 @@ class ChestLockServiceMockitoTest {
         }
     }
 
+    @Nested
+    @DisplayName("lazy loading")
+    class LazyLoadTests {
+
+        private World world;
+        private Chunk chunk;
+        private ChestLockData stored;
+        private final List<Runnable> mainThreadTasks = new ArrayList<>();
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUpLazy() {
+            world = EssentialsTestHelper.createMockWorld("world");
+            chunk = mock(Chunk.class);
+            when(chunk.getWorld()).thenReturn(world);
+            when(chunk.getX()).thenReturn(6);
+            when(chunk.getZ()).thenReturn(12);
+
+            stored = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(200)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .ownerName("Other")
+                    .chunkKey("world:6:12")
+                    .build();
+            Query<ChestLockData> query = mock(Query.class);
+            when(lockOperator.query()).thenReturn(query);
+            when(query.where(anyString())).thenReturn(query);
+            when(query.eq(any())).thenReturn(query);
+            when(query.list()).thenReturn(Collections.singletonList(stored));
+
+            // Async tasks run inline; main-thread tasks are held until the test releases them
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTaskAsynchronously(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(inv -> {
+                mainThreadTasks.add(inv.getArgument(1));
+                return null;
+            });
+
+            when(EssentialsTestHelper.getMockPlugin().getDataOperator(ChestLockData.class))
+                    .thenReturn(lockOperator);
+            config.setChestLockChunkKeysMigrated(true);
+            service.init();
+        }
+
+        private void runMainThreadTasks() {
+            List<Runnable> tasks = new ArrayList<>(mainThreadTasks);
+            mainThreadTasks.clear();
+            tasks.forEach(Runnable::run);
+        }
+
+        @Test
+        @DisplayName("Should not load any lock at startup")
+        void shouldNotLoadAllAtStartup() {
+            verify(lockOperator, never()).getAll();
+        }
+
+        @Test
+        @DisplayName("Should deny access while the chunk is loading")
+        void shouldDenyWhileLoading() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+
+            service.onChunkLoad(chunk);
+
+            assertThat(service.isLoading(block)).isTrue();
+            assertThat(service.isLocked(world, 101, 64, 201)).isTrue();
+            assertThat(service.canAccess(block, player)).isFalse();
+            assertThat(service.lockBlock(block, player)).isEqualTo(ChestLockService.LockResult.LOADING);
+        }
+
+        @Test
+        @DisplayName("Should index the chunk's locks once loaded and drop them on unload")
+        void shouldLoadAndEvict() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+
+            service.onChunkLoad(chunk);
+            runMainThreadTasks();
+
+            assertThat(service.isLoading(block)).isFalse();
+            assertThat(service.getLock(block)).isSameAs(stored);
+            assertThat(service.isLocked(world, 101, 64, 201)).isFalse();
+
+            service.onChunkUnload(chunk);
+
+            assertThat(service.getLock(block)).isNull();
+            assertThat(service.hasLocks(world, 6, 12)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should discard results for chunks that unloaded while loading")
+        void shouldDiscardStaleResults() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+
+            service.onChunkLoad(chunk);
+            service.onChunkUnload(chunk);
+            runMainThreadTasks();
+
+            assertThat(service.getLock(block)).isNull();
+            assertThat(service.isLoading(block)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should give new locks a chunk key")
+        void shouldStoreChunkKey() {
+            Block block = createMockBlock(Material.CHEST, world, -1, 64, -17);
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+
+            service.lockBlock(block, player);
+
+            assertThat(service.getLock(block).getChunkKey()).isEqualTo("world:-1:-2");
+        }
+
+        @Test
+        @DisplayName("Should see queued writes when a chunk is reloaded before they are flushed")
+        void shouldReadQueuedWrites() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Block other = createMockBlock(Material.CHEST, world, 101, 64, 200);
+            Player owner = EssentialsTestHelper.createMockPlayer("Other", UUID.fromString(stored.getOwnerUuid()));
+            service.onChunkLoad(chunk);
+            runMainThreadTasks();
+            service.unlockBlock(block, owner);
+            service.lockBlock(other, owner);
+
+            service.onChunkUnload(chunk);
+            service.onChunkLoad(chunk);
+            runMainThreadTasks();
+
+            assertThat(service.getLock(block)).isNull();
+            assertThat(service.getLock(other)).isNotNull();
+            verify(lockOperator, never()).insert(any());
+            verify(lockOperator, never()).delById(any());
+        }
+
+        @Test
+        @DisplayName("Should retry a failed chunk load after a delay")
+        @SuppressWarnings("unchecked")
+        void shouldRetryFailedLoad() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Query<ChestLockData> query = lockOperator.query();
+            when(query.list())
+                    .thenThrow(new IllegalStateException("storage down"))
+                    .thenReturn(Collections.singletonList(stored));
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTaskLater(any(), any(Runnable.class), anyLong())).thenAnswer(inv -> {
+                mainThreadTasks.add(inv.getArgument(1));
+                return null;
+            });
+
+            service.onChunkLoad(chunk);
+
+            assertThat(service.isLoading(block)).isTrue();
+            verify(scheduler).runTaskLater(any(), any(Runnable.class), eq(20L));
+
+            runMainThreadTasks();
+            runMainThreadTasks();
+
+            assertThat(service.isLoading(block)).isFalse();
+            assertThat(service.getLock(block)).isSameAs(stored);
+        }
+
+        @Test
+        @DisplayName("Should serve locks stored without a chunk key while their keys are written")
+        void shouldServeUnkeyedLocks() throws Exception {
+            ChestLockData old = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(201)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .ownerName("Old")
+                    .build();
+            ChestLockData elsewhere = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(500).y(64).z(500)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .ownerName("Old")
+                    .build();
+            when(lockOperator.getAll()).thenReturn(new ArrayList<>(Arrays.asList(old, elsewhere)));
+            EssentialsConfig spyConfig = spy(config);
+            doNothing().when(spyConfig).save();
+            EssentialsTestHelper.setField(service, "config", spyConfig);
+            spyConfig.setChestLockChunkKeysMigrated(false);
+            service.init();
+
+            service.onChunkLoad(chunk);
+            runMainThreadTasks();
+
+            ChestLockData served = service.getLock(createMockBlock(Material.CHEST, world, 100, 64, 201));
+            assertThat(served).isNotNull();
+            assertThat(served.getId()).isEqualTo(old.getId());
+            assertThat(served.getChunkKey()).isEqualTo("world:6:12");
+            verify(lockOperator, never()).update(any());
+
+            service.flushWrites();
+            runMainThreadTasks();
+
+            verify(lockOperator).update(argThat(lock -> old.getId().equals(lock.getId())
+                && "world:6:12".equals(lock.getChunkKey())));
+            verify(lockOperator).update(argThat(lock -> elsewhere.getId().equals(lock.getId())));
+            assertThat(spyConfig.isChestLockChunkKeysMigrated()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("chunk storage")
+    class ChunkStorageTests {
+
+        private World world;
+        private Chunk chunk;
+        private ChunkLockStorage storage;
+        private ChestLockData stored;
+
+        @BeforeEach
+        void setUpChunkStorage() throws Exception {
+            world = EssentialsTestHelper.createMockWorld("world");
+            chunk = mock(Chunk.class);
+            when(chunk.getWorld()).thenReturn(world);
+            when(chunk.getX()).thenReturn(6);
+            when(chunk.getZ()).thenReturn(12);
+            when(world.getChunkAt(6, 12)).thenReturn(chunk);
+
+            stored = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(200)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .ownerName("Other")
+                    .chunkKey("world:6:12")
+                    .build();
+            storage = mock(ChunkLockStorage.class);
+            when(storage.read(chunk)).thenReturn(Collections.singletonList(stored));
+            EssentialsTestHelper.setField(service, "chunkLockStorage", storage);
+
+            when(EssentialsTestHelper.getMockPlugin().getDataOperator(ChestLockData.class))
+                    .thenReturn(lockOperator);
+            config.setChestLockStorage("chunk");
+            config.setChestLockChunkStorageMigrated(true);
+            service.init();
+        }
+
+        @Test
+        @DisplayName("Should index locks read from the chunk without querying the database")
+        void shouldReadFromChunk() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+
+            service.onChunkLoad(chunk);
+
+            assertThat(service.isLoading(block)).isFalse();
+            assertThat(service.getLock(block)).isSameAs(stored);
+            verify(lockOperator, never()).query();
+            verify(lockOperator, never()).getAll();
+        }
+
+        @Test
+        @DisplayName("Should write new locks to the chunk instead of the database")
+        void shouldWriteToChunk() throws Exception {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+
+            assertThat(service.lockBlock(block, player)).isEqualTo(ChestLockService.LockResult.SUCCESS);
+
+            verify(storage).write(eq(chunk), any(ChestLockData.class));
+            verify(lockOperator, never()).insert(any());
+        }
+
+        @Test
+        @DisplayName("Should remove unlocked locks from the chunk only")
+        void shouldRemoveFromChunk() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Player owner = EssentialsTestHelper.createMockPlayer("Other", UUID.fromString(stored.getOwnerUuid()));
+            service.onChunkLoad(chunk);
+
+            assertThat(service.unlockBlock(block, owner)).isEqualTo(ChestLockService.UnlockResult.SUCCESS);
+
+            verify(storage).remove(chunk, stored);
+            verify(lockOperator, never()).delById(any());
+        }
+
+        @Test
+        @DisplayName("Should move rows into a chunk as it loads and delete them once it unloads")
+        @SuppressWarnings("unchecked")
+        void shouldMigrateOnLoad() throws Exception {
+            ChestLockData row = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(101).y(64).z(200)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .ownerName("Old")
+                    .chunkKey("world:6:12")
+                    .build();
+            when(lockOperator.getAll()).thenReturn(new ArrayList<>(Collections.singletonList(row)));
+            Query<ChestLockData> query = mock(Query.class);
+            when(lockOperator.query()).thenReturn(query);
+            when(query.where(anyString())).thenReturn(query);
+            when(query.eq(any())).thenReturn(query);
+            when(query.list()).thenReturn(Collections.singletonList(row));
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTaskAsynchronously(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(EssentialsTestHelper.getMockServer().getWorld("world")).thenReturn(world);
+            EssentialsConfig spyConfig = spy(config);
+            doNothing().when(spyConfig).save();
+            EssentialsTestHelper.setField(service, "config", spyConfig);
+            spyConfig.setChestLockChunkStorageMigrated(false);
+            service.init();
+
+            verify(world, never()).getChunkAt(anyInt(), anyInt());
+
+            service.onChunkLoad(chunk);
+
+            verify(storage).write(chunk, row);
+            assertThat(service.getLock(createMockBlock(Material.CHEST, world, 101, 64, 200))).isSameAs(row);
+            assertThat(service.getLock(createMockBlock(Material.CHEST, world, 100, 64, 200))).isSameAs(stored);
+            service.flushWrites();
+            verify(lockOperator, never()).delById(any());
+
+            service.onChunkUnload(chunk);
+            service.flushWrites();
+
+            verify(lockOperator).delById(row.getId());
+            assertThat(spyConfig.isChestLockChunkStorageMigrated()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("removeLocked")
+    class RemoveLockedTests {
+
+        private World world;
+
+        @BeforeEach
+        void setUpWorld() throws Exception {
+            world = EssentialsTestHelper.createMockWorld("world");
+            ChestLockData lock = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(100).y(64).z(200)
+                    .ownerUuid(UUID.randomUUID().toString())
+                    .build();
+            @SuppressWarnings("unchecked")
+            BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>)
+                    EssentialsTestHelper.getField(service, "lockIndex");
+            index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
+        }
+
+        @Test
+        @DisplayName("Should remove only locked blocks")
+        void shouldRemoveLockedBlocks() {
+            Block locked = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            Block sameChunk = createMockBlock(Material.CHEST, world, 101, 64, 200);
+            Block otherChunk = createMockBlock(Material.CHEST, world, 0, 64, 0);
+            List<Block> blocks = new ArrayList<>(Arrays.asList(locked, sameChunk, otherChunk));
+
+            assertThat(service.removeLocked(blocks)).isTrue();
+
+            assertThat(blocks).containsExactly(sameChunk, otherChunk);
+        }
+
+        @Test
+        @DisplayName("Should not inspect blocks in chunks without locks")
+        void shouldSkipChunksWithoutLocks() {
+            Block block = createMockBlock(Material.CHEST, world, 0, 64, 0);
+            List<Block> blocks = new ArrayList<>(Collections.singletonList(block));
+
+            assertThat(service.removeLocked(blocks)).isFalse();
+
+            verify(block, never()).getType();
+            verify(block, never()).getY();
+        }
+
+        @Test
+        @DisplayName("Should protect only lockable blocks in loading chunks")
+        void shouldProtectLockableBlocksWhileLoading() throws Exception {
+            Chunk chunk = mock(Chunk.class);
+            when(chunk.getWorld()).thenReturn(world);
+            EssentialsTestHelper.setField(service, "lazyLoading", true);
+            service.onChunkLoad(chunk);
+            Block chest = createMockBlock(Material.CHEST, world, 1, 64, 1);
+            Block stone = createMockBlock(Material.STONE, world, 2, 64, 2);
+            List<Block> blocks = new ArrayList<>(Arrays.asList(chest, stone));
+
+            service.removeLocked(blocks);
+
+            assertThat(blocks).containsExactly(stone);
+        }
+    }
+
+    @Nested
+    @DisplayName("isTransferBlocked")
+    class TransferTests {
+
+        private World world;
+        private Player player;
+
+        @BeforeEach
+        void setUpWorld() {
+            world = EssentialsTestHelper.createMockWorld("world");
+            player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+        }
+
+        @Test
+        @DisplayName("Should block transfers out of and into locked containers")
+        void shouldProtectBothDirections() {
+            service.lockBlock(createMockBlock(Material.CHEST, world, 100, 64, 200), player);
+            Location chest = new Location(world, 100, 64, 200);
+            Location hopper = new Location(world, 100, 63, 200);
+            Location other = new Location(world, 101, 63, 200);
+
+            assertThat(service.isTransferBlocked(chest, hopper)).isTrue();
+            assertThat(service.isTransferBlocked(hopper, chest)).isTrue();
+            assertThat(service.isTransferBlocked(hopper, other)).isFalse();
+            assertThat(service.isTransferBlocked(null, chest)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should let containers of the same owner feed each other")
+        void shouldAllowSameOwner() {
+            Player stranger = EssentialsTestHelper.createMockPlayer("Alex", UUID.randomUUID());
+            service.lockBlock(createMockBlock(Material.CHEST, world, 100, 64, 200), player);
+            service.lockBlock(createMockBlock(Material.HOPPER, world, 100, 63, 200), player);
+            service.lockBlock(createMockBlock(Material.HOPPER, world, 101, 63, 200), stranger);
+            Location chest = new Location(world, 100, 64, 200);
+            Location ownHopper = new Location(world, 100, 63, 200);
+            Location strangerHopper = new Location(world, 101, 63, 200);
+
+            assertThat(service.isTransferBlocked(ownHopper, chest)).isFalse();
+            assertThat(service.isTransferBlocked(chest, ownHopper)).isFalse();
+            assertThat(service.isTransferBlocked(chest, strangerHopper)).isTrue();
+            assertThat(service.isTransferBlocked(strangerHopper, chest)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should let a container feed one whose owner trusts its owner")
+        void shouldAllowTrustedOwner() {
+            Player friend = EssentialsTestHelper.createMockPlayer("Alex", UUID.randomUUID());
+            service.lockBlock(createMockBlock(Material.CHEST, world, 100, 64, 200), player);
+            service.lockBlock(createMockBlock(Material.HOPPER, world, 100, 63, 200), friend);
+            Location chest = new Location(world, 100, 64, 200);
+            Location hopper = new Location(world, 100, 63, 200);
+
+            assertThat(service.isTransferBlocked(chest, hopper)).isTrue();
+
+            trustService.trust(player.getUniqueId(), friend.getUniqueId(), "Alex");
+            trustService.trust(friend.getUniqueId(), player.getUniqueId(), "Steve");
+
+            assertThat(service.isTransferBlocked(chest, hopper)).isFalse();
+
+            trustService.untrust(player.getUniqueId(), friend.getUniqueId());
+
+            assertThat(service.isTransferBlocked(chest, hopper)).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should drop cached decisions when a lock in the chunk changes")
+        void shouldInvalidateOnLockChange() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            service.lockBlock(createMockBlock(Material.CHEST, world, 110, 64, 200), player);
+            Location chest = new Location(world, 100, 64, 200);
+            Location hopper = new Location(world, 100, 63, 200);
+
+            assertThat(service.isTransferBlocked(chest, hopper)).isFalse();
+            service.lockBlock(block, player);
+            assertThat(service.isTransferBlocked(chest, hopper)).isTrue();
+            service.unlockBlock(block, player);
+            assertThat(service.isTransferBlocked(chest, hopper)).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should allow everything without touching the cache when nothing is locked")
+        void shouldShortCircuitWithoutLocks() {
+            Location from = mock(Location.class);
+
+            assertThat(service.isTransferBlocked(from, null)).isFalse();
+
+            verifyNoInteractions(from);
+        }
+    }
+
+    @Nested
+    @DisplayName("owner index")
+    class OwnerIndexTests {
+
+        private World world;
+        private Player owner;
+        private ChestLockData unloaded;
+
+        @BeforeEach
+        @SuppressWarnings("unchecked")
+        void setUpOwner() throws Exception {
+            world = EssentialsTestHelper.createMockWorld("world");
+            owner = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            unloaded = ChestLockData.builder()
+                    .uuid(UUID.randomUUID())
+                    .world("world").x(5000).y(64).z(5000)
+                    .ownerUuid(owner.getUniqueId().toString())
+                    .ownerName("Steve")
+                    .build();
+
+            Query<ChestLockData> query = mock(Query.class);
+            when(lockOperator.query()).thenReturn(query);
+            when(query.where(anyString())).thenReturn(query);
+            when(query.eq(any())).thenReturn(query);
+            when(query.list()).thenReturn(Collections.singletonList(unloaded));
+
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTaskAsynchronously(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            // Only locks in loaded chunks are held in memory
+            EssentialsTestHelper.setField(service, "lazyLoading", true);
+        }
+
+        @Test
+        @DisplayName("Should track loaded locks by owner")
+        void shouldTrackLoadedLocks() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+
+            service.lockBlock(block, owner);
+            assertThat(service.getLoadedLocks(owner.getUniqueId())).containsExactly(service.getLock(block));
+
+            service.unlockBlock(block, owner);
+            assertThat(service.getLoadedLocks(owner.getUniqueId())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should find loaded and stored locks")
+        void shouldFindAllLocks() {
+            service.lockBlock(createMockBlock(Material.CHEST, world, 100, 64, 200), owner);
+            List<ChestLockData> found = new ArrayList<>();
+
+            service.findLocksAsync(owner.getUniqueId(), found::addAll);
+
+            assertThat(found).hasSize(2).contains(unloaded);
+        }
+
+        @Test
+        @DisplayName("Should transfer locks and persist them in one batch")
+        void shouldTransferLocks() throws Exception {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            service.lockBlock(block, owner);
+            service.flushWrites();
+            UUID heir = UUID.randomUUID();
+            int[] count = new int[1];
+
+            service.transferLocksAsync(owner.getUniqueId(), heir, "Heir", transferred -> count[0] = transferred);
+
+            assertThat(count[0]).isEqualTo(2);
+            assertThat(service.getLock(block).getOwnerName()).isEqualTo("Heir");
+            assertThat(service.getLoadedLocks(owner.getUniqueId())).isEmpty();
+            assertThat(service.getLoadedLocks(heir)).hasSize(1);
+            assertThat(unloaded.getOwnerUuid()).isEqualTo(heir.toString());
+            assertThat(service.flushWrites()).isEqualTo(2);
+            verify(lockOperator, times(2)).update(any(ChestLockData.class));
+        }
+
+        @Test
+        @DisplayName("Should purge loaded and stored locks")
+        void shouldPurgeLocks() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+            service.lockBlock(block, owner);
+            service.flushWrites();
+
+            service.purgeLocksAsync(owner.getUniqueId(), purged -> assertThat(purged).isEqualTo(2));
+
+            assertThat(service.getLock(block)).isNull();
+            assertThat(service.getLoadedLocks(owner.getUniqueId())).isEmpty();
+            service.flushWrites();
+            verify(lockOperator).delById(unloaded.getId());
+            verify(lockOperator, times(2)).delById(anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("orphan sweep")
+    class OrphanSweepTests {
+
+        private World world;
+        private Player player;
+        private final List<Runnable> timers = new ArrayList<>();
+
+        @BeforeEach
+        void setUpSweep() {
+            world = EssentialsTestHelper.createMockWorld("world");
+            player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            when(EssentialsTestHelper.getMockServer().getWorld("world")).thenReturn(world);
+            when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTaskTimer(any(), any(Runnable.class), anyLong(), anyLong())).thenAnswer(inv -> {
+                timers.add(inv.getArgument(1));
+                return mock(BukkitTask.class);
+            });
+        }
+
+        private Block placeLocked(Material current, int x) {
+            Block block = createMockBlock(Material.CHEST, world, x, 64, 200);
+            service.lockBlock(block, player);
+            Block now = mock(Block.class);
+            when(now.getType()).thenReturn(current);
+            when(world.getBlockAt(x, 64, 200)).thenReturn(now);
+            return block;
+        }
+
+        @Test
+        @DisplayName("Should remove locks whose block is no longer lockable")
+        void shouldRemoveOrphans() {
+            Block kept = placeLocked(Material.CHEST, 100);
+            Block gone = placeLocked(Material.AIR, 101);
+            service.flushWrites();
+
+            assertThat(service.startOrphanSweep()).isTrue();
+            assertThat(service.startOrphanSweep()).isFalse();
+            timers.forEach(Runnable::run);
+
+            assertThat(service.getLock(kept)).isNotNull();
+            assertThat(service.getLock(gone)).isNull();
+            ChestLockService.SweepProgress progress = service.getSweepProgress();
+            assertThat(progress.isRunning()).isFalse();
+            assertThat(progress.getChecked()).isEqualTo(2);
+            assertThat(progress.getRemoved()).isEqualTo(1);
+            service.flushWrites();
+            verify(lockOperator).delById(anyString());
+        }
+
+        @Test
+        @DisplayName("Should leave locks in unloaded chunks alone")
+        void shouldSkipUnloadedChunks() {
+            Block gone = placeLocked(Material.AIR, 101);
+            when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(false);
+
+            service.startOrphanSweep();
+            timers.forEach(Runnable::run);
+
+            assertThat(service.getLock(gone)).isNotNull();
+            assertThat(service.getSweepProgress().getRemoved()).isZero();
+            verify(world, never()).getBlockAt(anyInt(), anyInt(), anyInt());
+        }
+    }
+
+    @Nested
+    @DisplayName("write-behind")
+    class WriteBehindTests {
+
+        private World world;
+        private Player player;
+
+        @BeforeEach
+        void setUpWorld() {
+            world = EssentialsTestHelper.createMockWorld("world");
+            player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+        }
+
+        @Test
+        @DisplayName("Should not write a lock that is removed before the flush")
+        void shouldCoalesceInsertAndDelete() {
+            Block block = createMockBlock(Material.CHEST, world, 100, 64, 200);
+
+            service.lockBlock(block, player);
+            service.unlockBlock(block, player);
+
+            assertThat(service.flushWrites()).isZero();
+            verify(lockOperator, never()).insert(any());
+            verify(lockOperator, never()).delById(any());
+        }
+
+        @Test
+        @DisplayName("Should write all queued changes in one flush")
+        void shouldBatchWrites() {
+            for (int i = 0; i < 3; i++) {
+                service.lockBlock(createMockBlock(Material.CHEST, world, i, 64, 0), player);
+            }
+
+            assertThat(service.flushWrites()).isEqualTo(3);
+            assertThat(service.flushWrites()).isZero();
+            verify(lockOperator, times(3)).insert(any(ChestLockData.class));
+        }
+
+        @Test
+        @DisplayName("Should write queued changes on shutdown")
+        void shouldFlushOnShutdown() {
+            service.lockBlock(createMockBlock(Material.CHEST, world, 100, 64, 200), player);
+
+            service.shutdown();
+
+            verify(lockOperator).insert(any(ChestLockData.class));
+        }
+    }
+
     @Nested
     @DisplayName("Enum coverage")
     class EnumTests {
@@ -504,7 +1472,7 @@ class ChestLockServiceMockitoTest {
         @Test
         @DisplayName("LockResult should have all values")
         void lockResultValues() {
-            assertThat(ChestLockService.LockResult.values()).hasSize(5);
+            assertThat(ChestLockService.LockResult.values()).hasSize(6);
             assertThat(ChestLockService.LockResult.valueOf("SUCCESS"))
                     .isEqualTo(ChestLockService.LockResult.SUCCESS);
         }
@@ -512,7 +1480,7 @@ class ChestLockServiceMockitoTest {
         @Test
         @DisplayName("UnlockResult should have all values")
         void unlockResultValues() {
-            assertThat(ChestLockService.UnlockResult.values()).hasSize(3);
+            assertThat(ChestLockService.UnlockResult.values()).hasSize(4);
             assertThat(ChestLockService.UnlockResult.valueOf("SUCCESS"))
                     .isEqualTo(ChestLockService.UnlockResult.SUCCESS);
         }
@@ -8,6 +8,7 @@ import com.ultikits.plugins.essentials.config.EssentialsConfig;
 import com.ultikits.plugins.essentials.entity.ChestLockData;
 import com.ultikits.plugins.essentials.service.ChestLockService.LockResult;
 import com.ultikits.plugins.essentials.service.ChestLockService.UnlockResult;
+import com.ultikits.plugins.essentials.utils.BlockPosIndex;
 import com.ultikits.plugins.essentials.utils.MockBukkitHelper;
 import com.ultikits.plugins.essentials.utils.TestHelper;
 import com.ultikits.ultitools.interfaces.DataOperator;
@@ -120,6 +121,7 @@ class ChestLockServiceTest {
             LockResult result = lockService.lockBlock(block, player);
 
             assertThat(result).isEqualTo(LockResult.SUCCESS);
+            lockService.flushWrites();
             verify(lockOperator).insert(any(ChestLockData.class));
         }
 
@@ -169,10 +171,10 @@ class ChestLockServiceTest {
 
             // Inject lock into cache
             try {
-                java.lang.reflect.Field cacheField = ChestLockService.class.getDeclaredField("lockCache");
-                cacheField.setAccessible(true);
-                java.util.Map<String, ChestLockData> cache = (java.util.Map<String, ChestLockData>) cacheField.get(lockService);
-                cache.put(lock.getLocationKey(), lock);
+                java.lang.reflect.Field indexField = ChestLockService.class.getDeclaredField("lockIndex");
+                indexField.setAccessible(true);
+                BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>) indexField.get(lockService);
+                index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -180,6 +182,7 @@ class ChestLockServiceTest {
             UnlockResult result = lockService.unlockBlock(block, player);
 
             assertThat(result).isEqualTo(UnlockResult.SUCCESS);
+            lockService.flushWrites();
             verify(lockOperator).delById(lock.getId());
         }
 
@@ -225,10 +228,10 @@ class ChestLockServiceTest {
 
             // Inject lock into cache
             try {
-                java.lang.reflect.Field cacheField = ChestLockService.class.getDeclaredField("lockCache");
-                cacheField.setAccessible(true);
-                java.util.Map<String, ChestLockData> cache = (java.util.Map<String, ChestLockData>) cacheField.get(lockService);
-                cache.put(lock.getLocationKey(), lock);
+                java.lang.reflect.Field indexField = ChestLockService.class.getDeclaredField("lockIndex");
+                indexField.setAccessible(true);
+                BlockPosIndex<ChestLockData> index = (BlockPosIndex<ChestLockData>) indexField.get(lockService);
+                index.put(lock.getWorld(), lock.getX(), lock.getY(), lock.getZ(), lock);
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -0,0 +1,259 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.HomeData;
+import com.ultikits.plugins.essentials.entity.WarpData;
+import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mockito-based unit tests for HomeImportService.
+ * <p>
+ * 测试家和地标导入服务。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("HomeImportService Tests (Mockito)")
+class HomeImportServiceMockitoTest {
+
+    private HomeImportService importService;
+    private HomeService homeService;
+    private WarpService warpService;
+    private EssentialsConfig config;
+
+    @TempDir
+    Path serverFolder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EssentialsTestHelper.setUp();
+
+        config = new EssentialsConfig();
+        config.setHomeImportThreads(2);
+        homeService = mock(HomeService.class);
+        warpService = mock(WarpService.class);
+        when(homeService.getStoredHomes(anyCollection())).thenReturn(new ArrayList<>());
+        when(homeService.importHomes(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(warpService.getAllWarps()).thenReturn(new ArrayList<>());
+        when(warpService.importWarps(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+
+        importService = new HomeImportService();
+        EssentialsTestHelper.setField(importService, "homeService", homeService);
+        EssentialsTestHelper.setField(importService, "warpService", warpService);
+        EssentialsTestHelper.setField(importService, "config", config);
+
+        when(EssentialsTestHelper.getMockServer().getWorldContainer()).thenReturn(serverFolder.toFile());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        EssentialsTestHelper.tearDown();
+    }
+
+    private Path write(String relative, String yaml) throws Exception {
+        Path file = serverFolder.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, yaml.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private List<String> writeUsers(int count) throws Exception {
+        List<String> uuids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            uuids.add(UUID.randomUUID().toString());
+        }
+        Collections.sort(uuids);
+        for (String uuid : uuids) {
+            write("plugins/Essentials/userdata/" + uuid + ".yml",
+                "homes:\n  home:\n    world: world\n    x: 1.0\n    y: 64.0\n    z: 2.0\n");
+        }
+        return uuids;
+    }
+
+    private File checkpoint() {
+        return serverFolder.resolve(HomeImportService.CHECKPOINT_FILE).toFile();
+    }
+
+    @Nested
+    @DisplayName("readEssentialsHomes")
+    class EssentialsHomesTests {
+
+        @Test
+        @DisplayName("Should read homes in both world layouts")
+        void shouldReadHomes() throws Exception {
+            UUID uuid = UUID.randomUUID();
+            Path file = write(uuid + ".yml", "homes:\n"
+                + "  Base:\n    world: " + UUID.randomUUID() + "\n    world-name: survival\n"
+                + "    x: 10.5\n    y: 64.0\n    z: -3.5\n    yaw: 90.0\n    pitch: 15.0\n"
+                + "  mine:\n    world: world_nether\n    x: 1.0\n    y: 2.0\n    z: 3.0\n");
+
+            List<HomeData> homes = HomeImportService.readEssentialsHomes(file.toFile());
+
+            assertThat(homes).hasSize(2);
+            HomeData base = homes.get(0);
+            assertThat(base.getPlayerUuid()).isEqualTo(uuid.toString());
+            assertThat(base.getName()).isEqualTo("base");
+            assertThat(base.getWorld()).isEqualTo("survival");
+            assertThat(base.getX()).isEqualTo(10.5);
+            assertThat(base.getZ()).isEqualTo(-3.5);
+            assertThat(base.getYaw()).isEqualTo(90.0f);
+            assertThat(base.getPitch()).isEqualTo(15.0f);
+            assertThat(homes.get(1).getWorld()).isEqualTo("world_nether");
+        }
+
+        @Test
+        @DisplayName("Should return null for homes without a world")
+        void shouldRejectHomeWithoutWorld() throws Exception {
+            Path file = write(UUID.randomUUID() + ".yml", "homes:\n  lost:\n    x: 1.0\n");
+
+            assertThat(HomeImportService.readEssentialsHomes(file.toFile())).containsExactly((HomeData) null);
+        }
+
+        @Test
+        @DisplayName("Should ignore files not named after a UUID")
+        void shouldIgnoreNonUuidFile() throws Exception {
+            Path file = write("Steve.yml", "homes:\n  home:\n    world: world\n");
+
+            assertThat(HomeImportService.readEssentialsHomes(file.toFile())).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("readEssentialsWarp")
+    class EssentialsWarpTests {
+
+        @Test
+        @DisplayName("Should read a warp with its owner")
+        void shouldReadWarp() throws Exception {
+            UUID owner = UUID.randomUUID();
+            Path file = write("spawn.yml", "name: Spawn\nworld-name: world\nworld: " + UUID.randomUUID() + "\n"
+                + "x: 0.5\ny: 70.0\nz: 0.5\nyaw: 180.0\npitch: 0.0\nlastowner: " + owner + "\n");
+
+            WarpData warp = HomeImportService.readEssentialsWarp(file.toFile());
+
+            assertThat(warp).isNotNull();
+            assertThat(warp.getName()).isEqualTo("spawn");
+            assertThat(warp.getWorld()).isEqualTo("world");
+            assertThat(warp.getY()).isEqualTo(70.0);
+            assertThat(warp.getCreatedBy()).isEqualTo(owner.toString());
+        }
+
+        @Test
+        @DisplayName("Should return null for warps without a world")
+        void shouldRejectWarpWithoutWorld() throws Exception {
+            Path file = write("broken.yml", "x: 1.0\n");
+
+            assertThat(HomeImportService.readEssentialsWarp(file.toFile())).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("runImport")
+    class RunImportTests {
+
+        @Test
+        @DisplayName("Should import warps, then homes in batches, and remove the checkpoint")
+        void shouldImportInBatches() throws Exception {
+            config.setHomeImportBatchSize(2);
+            writeUsers(5);
+            write("plugins/Essentials/warps/spawn.yml", "world: world\nx: 0.0\ny: 64.0\nz: 0.0\n");
+
+            HomeImportService.ImportProgress result = new HomeImportService.ImportProgress();
+            List<Integer> progress = new ArrayList<>();
+            importService.runImport(result, p -> progress.add(p.getHomes()));
+
+            verify(warpService).importWarps(anyList());
+            verify(homeService, times(3)).importHomes(anyList());
+            assertThat(progress).containsExactly(0, 2, 4, 5);
+            assertThat(result.getWarps()).isEqualTo(1);
+            assertThat(result.getProcessed()).isEqualTo(6);
+            assertThat(checkpoint()).doesNotExist();
+        }
+
+        @Test
+        @DisplayName("Should skip homes that are already stored")
+        void shouldDeduplicate() throws Exception {
+            String uuid = writeUsers(1).get(0);
+            when(homeService.getStoredHomes(anyCollection())).thenReturn(Collections.singletonList(
+                HomeData.builder().uuid(UUID.randomUUID()).playerUuid(uuid).name("home").build()));
+
+            HomeImportService.ImportProgress result = new HomeImportService.ImportProgress();
+            importService.runImport(result, p -> { });
+
+            assertThat(result.getHomes()).isZero();
+            assertThat(result.getDuplicates()).isEqualTo(1);
+            verify(homeService).getStoredHomes(Collections.singleton(UUID.fromString(uuid)));
+        }
+
+        @Test
+        @DisplayName("Should look up stored homes of each batch's players only")
+        @SuppressWarnings("unchecked")
+        void shouldQueryStoredHomesPerBatch() throws Exception {
+            config.setHomeImportBatchSize(2);
+            List<String> uuids = writeUsers(3);
+
+            importService.runImport(new HomeImportService.ImportProgress(), p -> { });
+
+            ArgumentCaptor<Collection<UUID>> players = ArgumentCaptor.forClass(Collection.class);
+            verify(homeService, times(2)).getStoredHomes(players.capture());
+            assertThat(players.getAllValues().get(0)).containsExactlyInAnyOrder(
+                UUID.fromString(uuids.get(0)), UUID.fromString(uuids.get(1)));
+            assertThat(players.getAllValues().get(1)).containsExactly(UUID.fromString(uuids.get(2)));
+        }
+
+        @Test
+        @DisplayName("Should resume after the last checkpointed batch")
+        @SuppressWarnings("unchecked")
+        void shouldResumeFromCheckpoint() throws Exception {
+            config.setHomeImportBatchSize(2);
+            List<String> uuids = writeUsers(4);
+            when(homeService.importHomes(anyList()))
+                .thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size())
+                .thenThrow(new IllegalStateException("storage down"));
+
+            assertThatThrownBy(() -> importService.runImport(new HomeImportService.ImportProgress(), p -> { }))
+                .isInstanceOf(IllegalStateException.class);
+            assertThat(importService.hasCheckpoint()).isTrue();
+
+            reset(homeService, warpService);
+            when(homeService.getStoredHomes(anyCollection())).thenReturn(new ArrayList<>());
+            when(homeService.importHomes(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+            HomeImportService.ImportProgress result = new HomeImportService.ImportProgress();
+            importService.runImport(result, p -> { });
+
+            ArgumentCaptor<List<HomeData>> written = ArgumentCaptor.forClass(List.class);
+            verify(homeService).importHomes(written.capture());
+            assertThat(written.getValue()).extracting(HomeData::getPlayerUuid)
+                .containsExactly(uuids.get(2), uuids.get(3));
+            verifyNoInteractions(warpService);
+            assertThat(result.getProcessed()).isEqualTo(2);
+            assertThat(importService.hasCheckpoint()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should refuse a second concurrent import")
+        void shouldRefuseConcurrentImport() {
+            assertThat(importService.startImport(p -> { })).isTrue();
+            assertThat(importService.startImport(p -> { })).isFalse();
+        }
+    }
+}
@@ -9,9 +9,13 @@ import com.ultikits.ultitools.interfaces.Query;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.bukkit.scheduler.BukkitScheduler;
 import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -51,6 +55,14 @@ class HomeServiceMockitoTest {
         EssentialsTestHelper.setField(homeService, "homeOperator", homeOperator);
         EssentialsTestHelper.setField(homeService, "teleportService", teleportService);
 
+        // Run storage writes inline
+        ExecutorService writer = mock(ExecutorService.class);
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(writer).execute(any(Runnable.class));
+        EssentialsTestHelper.setField(homeService, "writer", writer);
+
         reset(homeOperator, query);
         when(homeOperator.query()).thenReturn(query);
         when(query.where(anyString())).thenReturn(query);
@@ -100,7 +112,7 @@ class HomeServiceMockitoTest {
         @DisplayName("Should return home by name")
         void shouldReturnHomeByName() {
             HomeData home = HomeData.builder().uuid(UUID.randomUUID()).name("home").build();
-            when(query.first()).thenReturn(home);
+            when(query.list()).thenReturn(Collections.singletonList(home));
 
             HomeData result = homeService.getHome(UUID.randomUUID(), "home");
 
@@ -127,8 +139,8 @@ class HomeServiceMockitoTest {
         @DisplayName("Should return count of homes")
         void shouldReturnCount() {
             when(query.list()).thenReturn(Arrays.asList(
-                    HomeData.builder().build(),
-                    HomeData.builder().build()
+                    HomeData.builder().name("home1").build(),
+                    HomeData.builder().name("home2").build()
             ));
 
             int count = homeService.getHomeCount(UUID.randomUUID());
@@ -137,6 +149,187 @@ class HomeServiceMockitoTest {
         }
     }
 
+    @Nested
+    @DisplayName("Session cache")
+    class CacheTests {
+
+        @Test
+        @DisplayName("Should answer lookups from preloaded homes without querying")
+        void shouldReadPreloadedHomes() {
+            UUID playerUuid = UUID.randomUUID();
+            HomeData home = HomeData.builder().uuid(UUID.randomUUID()).name("home").build();
+            when(query.list()).thenReturn(Collections.singletonList(home));
+
+            homeService.preload(playerUuid);
+            homeService.getHome(playerUuid, "HOME");
+            homeService.getHomes(playerUuid);
+            homeService.getHomeCount(playerUuid);
+
+            verify(homeOperator, times(1)).query();
+            assertThat(homeService.getHome(playerUuid, "home")).isSameAs(home);
+        }
+
+        @Test
+        @DisplayName("Should keep the cache in step with writes")
+        void shouldWriteThrough() {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            homeService.preload(player.getUniqueId());
+
+            homeService.setHome(player, "Base");
+            assertThat(homeService.getHome(player.getUniqueId(), "base")).isNotNull();
+            verify(homeOperator).insert(any(HomeData.class));
+
+            assertThat(homeService.deleteHome(player.getUniqueId(), "base")).isTrue();
+            assertThat(homeService.getHomeCount(player.getUniqueId())).isZero();
+            verify(homeOperator, times(1)).query();
+        }
+
+        @Test
+        @DisplayName("Should restore stored homes and tell the player when a write fails")
+        void shouldReconcileFailedWrite() {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            when(EssentialsTestHelper.getMockServer().getPlayer(player.getUniqueId())).thenReturn(player);
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
+            doThrow(new IllegalStateException("down")).when(homeOperator).insert(any(HomeData.class));
+            homeService.preload(player.getUniqueId());
+
+            assertThat(homeService.setHome(player, "base")).isEqualTo(HomeService.SetHomeResult.CREATED);
+
+            assertThat(homeService.getHome(player.getUniqueId(), "base")).isNull();
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should reconcile a failed write only once later queued writes are stored")
+        void shouldReconcileAfterQueuedWrites() throws Exception {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            UUID playerUuid = player.getUniqueId();
+            when(EssentialsTestHelper.getMockServer().getPlayer(playerUuid)).thenReturn(player);
+            homeService.preload(playerUuid);
+
+            List<Runnable> writes = new ArrayList<>();
+            ExecutorService writer = mock(ExecutorService.class);
+            doAnswer(inv -> writes.add(inv.getArgument(0))).when(writer).execute(any(Runnable.class));
+            EssentialsTestHelper.setField(homeService, "writer", writer);
+            List<Runnable> mainThread = new ArrayList<>();
+            BukkitScheduler scheduler = EssentialsTestHelper.getMockServer().getScheduler();
+            when(scheduler.runTask(any(), any(Runnable.class))).thenAnswer(inv -> {
+                mainThread.add(inv.getArgument(1));
+                return null;
+            });
+            doThrow(new IllegalStateException("down")).doNothing().when(homeOperator).insert(any(HomeData.class));
+
+            homeService.setHome(player, "base");
+            writes.remove(0).run();
+            // Queued while storage was being read back
+            homeService.setHome(player, "farm");
+            mainThread.remove(0).run();
+
+            assertThat(homeService.getHome(playerUuid, "farm")).isNotNull();
+            verify(player, never()).sendMessage(anyString());
+
+            HomeData farm = homeService.getHome(playerUuid, "farm");
+            when(query.list()).thenReturn(Collections.singletonList(farm));
+            writes.remove(0).run();
+            mainThread.remove(0).run();
+
+            assertThat(homeService.getHome(playerUuid, "base")).isNull();
+            assertThat(homeService.getHome(playerUuid, "farm")).isSameAs(farm);
+            verify(player).sendMessage(anyString());
+        }
+
+        @Test
+        @DisplayName("Should finish a write queued before the service was reinitialized")
+        void shouldFinishWriteAfterInit() throws Exception {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            when(EssentialsTestHelper.getMockPlugin().getDataOperator(HomeData.class)).thenReturn(homeOperator);
+            homeService.preload(player.getUniqueId());
+
+            List<Runnable> writes = new ArrayList<>();
+            ExecutorService writer = mock(ExecutorService.class);
+            doAnswer(inv -> writes.add(inv.getArgument(0))).when(writer).execute(any(Runnable.class));
+            EssentialsTestHelper.setField(homeService, "writer", writer);
+            homeService.setHome(player, "base");
+
+            homeService.init();
+            writes.remove(0).run();
+
+            verify(writer).shutdown();
+            verify(homeOperator).insert(any(HomeData.class));
+        }
+
+        @Test
+        @DisplayName("Should add imported homes to loaded players only")
+        void shouldImportIntoCache() {
+            UUID loaded = UUID.randomUUID();
+            UUID offline = UUID.randomUUID();
+            homeService.preload(loaded);
+            HomeData imported = HomeData.builder().uuid(UUID.randomUUID()).playerUuid(loaded.toString()).name("base").build();
+            HomeData failed = HomeData.builder().uuid(UUID.randomUUID()).playerUuid(loaded.toString()).name("farm").build();
+            HomeData other = HomeData.builder().uuid(UUID.randomUUID()).playerUuid(offline.toString()).name("base").build();
+            doThrow(new IllegalStateException("down")).when(homeOperator).insert(failed);
+
+            assertThat(homeService.importHomes(Arrays.asList(imported, failed, other))).isEqualTo(2);
+
+            assertThat(homeService.getHome(loaded, "base")).isSameAs(imported);
+            assertThat(homeService.getHome(loaded, "farm")).isNull();
+            verify(homeOperator, times(1)).query();
+        }
+
+        @Test
+        @DisplayName("Should complete names by prefix from the cache only")
+        void shouldCompleteNames() {
+            UUID playerUuid = UUID.randomUUID();
+            List<HomeData> homes = new ArrayList<>();
+            for (String name : Arrays.asList("mine", "base", "Barn", "bath", "farm")) {
+                homes.add(HomeData.builder().uuid(UUID.randomUUID()).name(name).build());
+            }
+            when(query.list()).thenReturn(homes);
+
+            assertThat(homeService.completeHomeNames(playerUuid, "ba", 10)).isEmpty();
+            homeService.preload(playerUuid);
+
+            assertThat(homeService.completeHomeNames(playerUuid, "BA", 10)).containsExactly("barn", "base", "bath");
+            assertThat(homeService.completeHomeNames(playerUuid, "ba", 2)).containsExactly("barn", "base");
+            assertThat(homeService.completeHomeNames(playerUuid, "", 10)).hasSize(5);
+            assertThat(homeService.completeHomeNames(playerUuid, "x", 10)).isEmpty();
+            verify(homeOperator, times(1)).query();
+        }
+
+        @Test
+        @DisplayName("Should preload players already online when the service starts")
+        void shouldPreloadOnlinePlayersOnInit() {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            HomeData home = HomeData.builder().uuid(UUID.randomUUID()).name("home").build();
+            when(query.list()).thenReturn(Collections.singletonList(home));
+            doReturn(Collections.singletonList(player)).when(EssentialsTestHelper.getMockServer()).getOnlinePlayers();
+            when(EssentialsTestHelper.getMockPlugin().getDataOperator(HomeData.class)).thenReturn(homeOperator);
+
+            homeService.init();
+
+            verify(homeOperator, times(1)).query();
+            assertThat(homeService.completeHomeNames(player.getUniqueId(), "", 10)).containsExactly("home");
+            assertThat(homeService.getHome(player.getUniqueId(), "home")).isSameAs(home);
+            verify(homeOperator, times(1)).query();
+        }
+
+        @Test
+        @DisplayName("Should reload homes after eviction")
+        void shouldReloadAfterEvict() {
+            UUID playerUuid = UUID.randomUUID();
+            homeService.preload(playerUuid);
+
+            homeService.evict(playerUuid);
+            homeService.getHomes(playerUuid);
+
+            verify(homeOperator, times(2)).query();
+        }
+    }
+
     @Nested
     @DisplayName("getMaxHomes")
     class GetMaxHomesTests {
@@ -155,13 +348,29 @@ class HomeServiceMockitoTest {
         @DisplayName("Should return permission-based max homes")
         void shouldReturnPermissionBased() {
             Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
-            when(player.hasPermission("ultiessentials.home.max.10")).thenReturn(true);
+            when(player.getEffectivePermissions()).thenReturn(new HashSet<>(Arrays.asList(
+                    new PermissionAttachmentInfo(player, "ultiessentials.home.max.3", null, true),
+                    new PermissionAttachmentInfo(player, "ultiessentials.home.max.10", null, true))));
 
             int max = homeService.getMaxHomes(player);
 
             assertThat(max).isEqualTo(10);
         }
 
+        @Test
+        @DisplayName("Should cache the limit until it is invalidated")
+        void shouldCacheLimit() {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+
+            homeService.getMaxHomes(player);
+            homeService.getMaxHomes(player);
+            verify(player, times(1)).getEffectivePermissions();
+
+            homeService.invalidateMaxHomes(player.getUniqueId());
+            homeService.getMaxHomes(player);
+            verify(player, times(2)).getEffectivePermissions();
+        }
+
         @Test
         @DisplayName("Should return unlimited for unlimited permission")
         void shouldReturnUnlimited() {
@@ -200,7 +409,7 @@ class HomeServiceMockitoTest {
                     .name("home")
                     .world("world").x(0).y(0).z(0)
                     .build();
-            when(query.first()).thenReturn(existing);
+            when(query.list()).thenReturn(Collections.singletonList(existing));
 
             HomeService.SetHomeResult result = homeService.setHome(player, "home");
 
@@ -208,6 +417,43 @@ class HomeServiceMockitoTest {
             verify(homeOperator).update(any(HomeData.class));
         }
 
+        @Test
+        @DisplayName("Should write a copy of the new home, not the cached one")
+        void shouldWriteCopyOnCreate() {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            when(query.list()).thenReturn(new ArrayList<>());
+
+            homeService.setHome(player, "home");
+
+            ArgumentCaptor<HomeData> saved = ArgumentCaptor.forClass(HomeData.class);
+            verify(homeOperator).insert(saved.capture());
+            HomeData cached = homeService.getHome(player.getUniqueId(), "home");
+            assertThat(saved.getValue()).isNotSameAs(cached);
+            assertThat(saved.getValue().getUuid()).isEqualTo(cached.getUuid());
+            assertThat(saved.getValue().getX()).isEqualTo(100.5);
+        }
+
+        @Test
+        @DisplayName("Should write a copy of the updated home, not the cached one")
+        void shouldWriteCopyOnUpdate() throws Exception {
+            Player player = EssentialsTestHelper.createMockPlayer("Steve", UUID.randomUUID());
+            HomeData existing = HomeData.builder()
+                    .uuid(UUID.randomUUID())
+                    .name("home")
+                    .world("world").x(0).y(0).z(0)
+                    .build();
+            when(query.list()).thenReturn(Collections.singletonList(existing));
+
+            homeService.setHome(player, "home");
+
+            ArgumentCaptor<HomeData> saved = ArgumentCaptor.forClass(HomeData.class);
+            verify(homeOperator).update(saved.capture());
+            assertThat(saved.getValue()).isNotSameAs(existing);
+            assertThat(saved.getValue().getUuid()).isEqualTo(existing.getUuid());
+            assertThat(saved.getValue().getX()).isEqualTo(100.5);
+            assertThat(homeService.getHome(player.getUniqueId(), "home")).isSameAs(existing);
+        }
+
         @Test
         @DisplayName("Should return DISABLED when home is disabled")
         void shouldReturnDisabled() {
@@ -249,7 +495,7 @@ class HomeServiceMockitoTest {
             // Return max homes count
             List<HomeData> existingHomes = new ArrayList<>();
             for (int i = 0; i < config.getHomeDefaultMaxHomes(); i++) {
-                existingHomes.add(HomeData.builder().build());
+                existingHomes.add(HomeData.builder().name("home" + i).build());
             }
             when(query.list()).thenReturn(existingHomes);
 
@@ -268,7 +514,7 @@ class HomeServiceMockitoTest {
         void shouldDeleteHome() {
             UUID homeId = UUID.randomUUID();
             HomeData home = HomeData.builder().uuid(homeId).name("home").build();
-            when(query.first()).thenReturn(home);
+            when(query.list()).thenReturn(Collections.singletonList(home));
 
             boolean result = homeService.deleteHome(UUID.randomUUID(), "home");
 
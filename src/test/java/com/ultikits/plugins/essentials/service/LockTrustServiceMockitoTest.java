@@ -0,0 +1,125 @@
+package com.ultikits.plugins.essentials.service;
+
+import com.ultikits.plugins.essentials.config.EssentialsConfig;
+import com.ultikits.plugins.essentials.entity.LockTrustData;
+import com.ultikits.plugins.essentials.utils.EssentialsTestHelper;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import org.junit.jupiter.api.*;
+import org.mockito.InOrder;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Mockito-based unit tests for LockTrustService.
+ * <p>
+ * 测试箱子锁信任服务。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("LockTrustService Tests (Mockito)")
+class LockTrustServiceMockitoTest {
+
+    private LockTrustService trustService;
+    private EssentialsConfig config;
+
+    @SuppressWarnings("unchecked")
+    private final DataOperator<LockTrustData> trustOperator = mock(DataOperator.class);
+
+    private final UUID owner = UUID.randomUUID();
+    private final UUID friend = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        EssentialsTestHelper.setUp();
+
+        config = new EssentialsConfig();
+
+        trustService = new LockTrustService();
+        EssentialsTestHelper.setField(trustService, "config", config);
+        EssentialsTestHelper.setField(trustService, "plugin", EssentialsTestHelper.getMockPlugin());
+        when(EssentialsTestHelper.getMockPlugin().getDataOperator(LockTrustData.class)).thenReturn(trustOperator);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        trustService.shutdown();
+        EssentialsTestHelper.tearDown();
+    }
+
+    @Test
+    @DisplayName("Should trust and untrust players per owner")
+    void shouldTrustAndUntrust() {
+        trustService.init();
+
+        assertThat(trustService.trust(owner, friend, "Alex")).isTrue();
+        assertThat(trustService.trust(owner, friend, "Alex")).isFalse();
+        assertThat(trustService.isTrusted(owner, friend)).isTrue();
+        assertThat(trustService.isTrusted(friend, owner)).isFalse();
+        assertThat(trustService.isTrusted(null, friend)).isFalse();
+        trustService.shutdown();
+        verify(trustOperator).insert(any(LockTrustData.class));
+
+        LockTrustData entry = trustService.getTrusted(owner).get(0);
+        assertThat(entry.getTrustedName()).isEqualTo("Alex");
+
+        assertThat(trustService.untrust(owner, friend)).isTrue();
+        assertThat(trustService.untrust(owner, friend)).isFalse();
+        assertThat(trustService.isTrusted(owner, friend)).isFalse();
+        assertThat(trustService.getTrusted(owner)).isEmpty();
+        trustService.shutdown();
+        verify(trustOperator).delById(entry.getId());
+    }
+
+    @Test
+    @DisplayName("Should write a trust before the untrust that follows it")
+    void shouldWriteInOrder() {
+        trustService.init();
+
+        trustService.trust(owner, friend, "Alex");
+        String id = trustService.getTrusted(owner).get(0).getId();
+        trustService.untrust(owner, friend);
+        trustService.shutdown();
+
+        InOrder order = inOrder(trustOperator);
+        order.verify(trustOperator).insert(any(LockTrustData.class));
+        order.verify(trustOperator).delById(id);
+    }
+
+    @Test
+    @DisplayName("Should load stored trust and skip damaged entries")
+    void shouldLoadTrust() {
+        LockTrustData stored = LockTrustData.builder()
+            .uuid(UUID.randomUUID())
+            .ownerUuid(owner.toString())
+            .trustedUuid(friend.toString())
+            .trustedName("Alex")
+            .build();
+        LockTrustData damaged = LockTrustData.builder()
+            .uuid(UUID.randomUUID())
+            .ownerUuid("not-a-uuid")
+            .trustedUuid(friend.toString())
+            .build();
+        when(trustOperator.getAll()).thenReturn(Arrays.asList(stored, damaged));
+
+        trustService.init();
+
+        assertThat(trustService.isTrusted(owner, friend)).isTrue();
+        assertThat(trustService.getTrusted(owner)).containsExactly(stored);
+    }
+
+    @Test
+    @DisplayName("Should not load trust when chest locks are disabled")
+    void shouldSkipWhenDisabled() {
+        config.setChestLockEnabled(false);
+
+        trustService.init();
+
+        verify(trustOperator, never()).getAll();
+    }
+}
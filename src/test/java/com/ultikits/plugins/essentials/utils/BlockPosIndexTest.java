@@ -0,0 +1,117 @@
+package com.ultikits.plugins.essentials.utils;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for BlockPosIndex.
+ * <p>
+ * 测试按区块分区的方块坐标索引。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("BlockPosIndex Tests")
+class BlockPosIndexTest {
+
+    private BlockPosIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BlockPosIndex<>();
+    }
+
+    @Test
+    @DisplayName("Should store and find values by world and position")
+    void shouldPutAndGet() {
+        index.put("world", 100, 64, -200, "a");
+        index.put("world_nether", 100, 64, -200, "b");
+
+        assertThat(index.get("world", 100, 64, -200)).isEqualTo("a");
+        assertThat(index.get("world_nether", 100, 64, -200)).isEqualTo("b");
+        assertThat(index.get("world", 100, 65, -200)).isNull();
+        assertThat(index.get("world_the_end", 100, 64, -200)).isNull();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should keep negative coordinates and heights distinct")
+    void shouldHandleNegativeCoordinates() {
+        index.put("world", -1, -64, -1, "low");
+        index.put("world", -1, 319, -1, "high");
+        index.put("world", 15, -64, 15, "other");
+
+        assertThat(index.get("world", -1, -64, -1)).isEqualTo("low");
+        assertThat(index.get("world", -1, 319, -1)).isEqualTo("high");
+        assertThat(index.get("world", 15, -64, 15)).isEqualTo("other");
+        assertThat(index.hasChunk("world", -1, -1)).isTrue();
+        assertThat(index.hasChunk("world", 0, 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should replace values at the same position")
+    void shouldReplace() {
+        index.put("world", 1, 2, 3, "a");
+
+        assertThat(index.put("world", 1, 2, 3, "b")).isEqualTo("a");
+        assertThat(index.get("world", 1, 2, 3)).isEqualTo("b");
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should drop chunks when their last value is removed")
+    void shouldDropEmptyChunks() {
+        index.put("world", 1, 64, 1, "a");
+        index.put("world", 2, 64, 2, "b");
+
+        assertThat(index.remove("world", 1, 64, 1)).isEqualTo("a");
+        assertThat(index.hasChunk("world", 0, 0)).isTrue();
+        assertThat(index.remove("world", 2, 64, 2)).isEqualTo("b");
+        assertThat(index.hasChunk("world", 0, 0)).isFalse();
+        assertThat(index.remove("world", 2, 64, 2)).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should visit values of one chunk")
+    void shouldVisitChunk() {
+        index.put("world", 1, 64, 1, "a");
+        index.put("world", 14, 70, 14, "b");
+        index.put("world", 16, 64, 1, "c");
+
+        List<String> visited = new ArrayList<>();
+        index.forEachInChunk("world", 0, 0, visited::add);
+
+        assertThat(visited).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    @DisplayName("Should stay consistent through many inserts and removals")
+    void shouldMatchReferenceMap() {
+        Random random = new Random(42);
+        Map<String, String> reference = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(64) - 32;
+            int y = random.nextInt(8);
+            int z = random.nextInt(64) - 32;
+            String key = x + ":" + y + ":" + z;
+            if (random.nextBoolean()) {
+                assertThat(index.put("world", x, y, z, key)).isEqualTo(reference.put(key, key));
+            } else {
+                assertThat(index.remove("world", x, y, z)).isEqualTo(reference.remove(key));
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(reference.size());
+        List<String> all = new ArrayList<>();
+        index.forEach(all::add);
+        assertThat(all).containsExactlyInAnyOrderElementsOf(reference.values());
+    }
+}
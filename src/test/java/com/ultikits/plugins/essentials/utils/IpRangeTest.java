@@ -0,0 +1,138 @@
+package com.ultikits.plugins.essentials.utils;
+
+import org.junit.jupiter.api.*;
+
+import java.net.InetAddress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for IpRange and IpRangeTrie.
+ * <p>
+ * 测试 IP 段解析与前缀树。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("IpRange Tests")
+class IpRangeTest {
+
+    @Nested
+    @DisplayName("parse")
+    class ParseTests {
+
+        @Test
+        @DisplayName("Should parse plain IPv4 address as single host")
+        void shouldParsePlainIpv4() {
+            IpRange range = IpRange.parse("10.0.0.1");
+
+            assertThat(range).isNotNull();
+            assertThat(range.isSingleHost()).isTrue();
+            assertThat(range.toString()).isEqualTo("10.0.0.1");
+        }
+
+        @Test
+        @DisplayName("Should mask host bits of IPv4 CIDR")
+        void shouldMaskIpv4Cidr() {
+            IpRange range = IpRange.parse("203.0.113.77/24");
+
+            assertThat(range).isNotNull();
+            assertThat(range.toString()).isEqualTo("203.0.113.0/24");
+            assertThat(range).isEqualTo(IpRange.parse("203.0.113.0/24"));
+        }
+
+        @Test
+        @DisplayName("Should parse IPv6 CIDR")
+        void shouldParseIpv6Cidr() {
+            IpRange range = IpRange.parse("2001:db8:1:2::5/64");
+
+            assertThat(range).isNotNull();
+            assertThat(range.isIpv6()).isTrue();
+            assertThat(range.getPrefixLength()).isEqualTo(64);
+            assertThat(range).isEqualTo(IpRange.parse("2001:db8:1:2::/64"));
+        }
+
+        @Test
+        @DisplayName("Should reject invalid input")
+        void shouldRejectInvalidInput() {
+            assertThat(IpRange.parse(null)).isNull();
+            assertThat(IpRange.parse("")).isNull();
+            assertThat(IpRange.parse("256.0.0.1")).isNull();
+            assertThat(IpRange.parse("10.0.0")).isNull();
+            assertThat(IpRange.parse("10.0.0.1/33")).isNull();
+            assertThat(IpRange.parse("10.0.0.1/abc")).isNull();
+            assertThat(IpRange.parse("example.com")).isNull();
+        }
+
+        @Test
+        @DisplayName("Should check containment")
+        void shouldCheckContainment() {
+            IpRange range = IpRange.parse("192.168.0.0/16");
+
+            assertThat(range.contains(IpRange.parseAddress("192.168.44.3"))).isTrue();
+            assertThat(range.contains(IpRange.parseAddress("192.169.0.1"))).isFalse();
+            assertThat(range.contains(IpRange.parseAddress("::1"))).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should normalize IPv4-mapped IPv6 addresses")
+        void shouldNormalizeMappedAddresses() throws Exception {
+            assertThat(IpRange.parseAddress("::ffff:10.0.0.1")).hasSize(4);
+            assertThat(IpRange.of(InetAddress.getByName("10.0.0.1")).toString()).isEqualTo("10.0.0.1");
+        }
+    }
+
+    @Nested
+    @DisplayName("IpRangeTrie")
+    class TrieTests {
+
+        @Test
+        @DisplayName("Should match addresses inside stored ranges")
+        void shouldMatchAddressesInRange() {
+            IpRangeTrie<String> trie = new IpRangeTrie<>();
+            trie.put(IpRange.parse("203.0.113.0/24"), "range");
+
+            assertThat(trie.lookup(IpRange.parseAddress("203.0.113.200"))).isEqualTo("range");
+            assertThat(trie.lookup(IpRange.parseAddress("203.0.114.1"))).isNull();
+        }
+
+        @Test
+        @DisplayName("Should return the most specific match")
+        void shouldReturnMostSpecificMatch() {
+            IpRangeTrie<String> trie = new IpRangeTrie<>();
+            trie.put(IpRange.parse("10.0.0.0/8"), "wide");
+            trie.put(IpRange.parse("10.1.0.0/16"), "narrow");
+            trie.put(IpRange.parse("10.1.2.3"), "host");
+
+            assertThat(trie.lookup(IpRange.parseAddress("10.1.2.3"))).isEqualTo("host");
+            assertThat(trie.lookup(IpRange.parseAddress("10.1.9.9"))).isEqualTo("narrow");
+            assertThat(trie.lookup(IpRange.parseAddress("10.9.9.9"))).isEqualTo("wide");
+            assertThat(trie.size()).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("Should keep IPv4 and IPv6 separate")
+        void shouldSeparateFamilies() {
+            IpRangeTrie<String> trie = new IpRangeTrie<>();
+            trie.put(IpRange.parse("2001:db8::/32"), "v6");
+            trie.put(IpRange.parse("0.0.0.0/0"), "all-v4");
+
+            assertThat(trie.lookup(IpRange.parseAddress("2001:db8:ffff::1"))).isEqualTo("v6");
+            assertThat(trie.lookup(IpRange.parseAddress("2001:db9::1"))).isNull();
+            assertThat(trie.lookup(IpRange.parseAddress("8.8.8.8"))).isEqualTo("all-v4");
+        }
+
+        @Test
+        @DisplayName("Should remove exact ranges only")
+        void shouldRemoveExactRanges() {
+            IpRangeTrie<String> trie = new IpRangeTrie<>();
+            trie.put(IpRange.parse("10.0.0.0/8"), "wide");
+            trie.put(IpRange.parse("10.1.0.0/16"), "narrow");
+
+            assertThat(trie.remove(IpRange.parse("10.1.0.0/16"))).isEqualTo("narrow");
+            assertThat(trie.remove(IpRange.parse("10.2.0.0/16"))).isNull();
+            assertThat(trie.lookup(IpRange.parseAddress("10.1.2.3"))).isEqualTo("wide");
+            assertThat(trie.size()).isEqualTo(1);
+        }
+    }
+}
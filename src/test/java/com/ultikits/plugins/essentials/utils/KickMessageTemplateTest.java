@@ -0,0 +1,81 @@
+package com.ultikits.plugins.essentials.utils;
+
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for KickMessageTemplate and LocaleMessages.
+ * <p>
+ * 测试踢出界面模板与语言文件读取。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("KickMessageTemplate Tests")
+class KickMessageTemplateTest {
+
+    private static final String[] UNITS = {"expired", "d", "h", "m", "s"};
+
+    @Nested
+    @DisplayName("render")
+    class RenderTests {
+
+        @Test
+        @DisplayName("Should return fixed text unchanged")
+        void shouldRenderFixed() {
+            KickMessageTemplate template = KickMessageTemplate.fixed("Banned forever");
+
+            assertThat(template.render(12345)).isEqualTo("Banned forever");
+        }
+
+        @Test
+        @DisplayName("Should insert remaining time between head and tail")
+        void shouldRenderRemaining() {
+            KickMessageTemplate template = KickMessageTemplate.withRemaining("Left: ", "!", UNITS);
+
+            long remaining = TimeUnit.DAYS.toMillis(1) + TimeUnit.MINUTES.toMillis(5);
+            assertThat(template.render(remaining)).isEqualTo("Left: 1d 5m!");
+        }
+
+        @Test
+        @DisplayName("Should show expired label for non-positive time")
+        void shouldRenderExpired() {
+            KickMessageTemplate template = KickMessageTemplate.withRemaining("Left: ", "", UNITS);
+
+            assertThat(template.render(0)).isEqualTo("Left: expired");
+        }
+
+        @Test
+        @DisplayName("Should reject wrong number of unit labels")
+        void shouldRejectBadUnits() {
+            assertThatThrownBy(() -> KickMessageTemplate.withRemaining("", "", new String[]{"d"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("LocaleMessages")
+    class LocaleMessagesTests {
+
+        @Test
+        @DisplayName("Should map client locales to bundled languages")
+        void shouldMapLocales() {
+            assertThat(LocaleMessages.languageOf("en_us")).isEqualTo("en");
+            assertThat(LocaleMessages.languageOf("zh-CN")).isEqualTo("zh");
+            assertThat(LocaleMessages.languageOf("xx_yy")).isNull();
+            assertThat(LocaleMessages.languageOf("../en")).isNull();
+            assertThat(LocaleMessages.languageOf(null)).isNull();
+        }
+
+        @Test
+        @DisplayName("Should translate from the bundled file")
+        void shouldTranslate() {
+            assertThat(LocaleMessages.translate("en", "玩家不存在")).isEqualTo("Player not found");
+            assertThat(LocaleMessages.translate("en", "no such key")).isNull();
+        }
+    }
+}
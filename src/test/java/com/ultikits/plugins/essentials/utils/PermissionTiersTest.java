@@ -0,0 +1,99 @@
+package com.ultikits.plugins.essentials.utils;
+
+import org.bukkit.entity.Player;
+import org.bukkit.permissions.PermissionAttachmentInfo;
+import org.junit.jupiter.api.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PermissionTiers.
+ * <p>
+ * 测试权限数值上限解析。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("PermissionTiers Tests")
+class PermissionTiersTest {
+
+    private PermissionTiers tiers;
+    private Player player;
+
+    @BeforeEach
+    void setUp() {
+        tiers = new PermissionTiers("test.max.", "test.unlimited", 100, 60_000L);
+        player = mock(Player.class);
+        when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+    }
+
+    private void grant(String... permissions) {
+        HashSet<PermissionAttachmentInfo> infos = new HashSet<>();
+        for (String permission : permissions) {
+            boolean value = !permission.startsWith("-");
+            infos.add(new PermissionAttachmentInfo(player, permission.replace("-", ""), null, value));
+        }
+        when(player.getEffectivePermissions()).thenReturn(infos);
+    }
+
+    @Test
+    @DisplayName("Should pick the highest granted tier and cap it")
+    void shouldPickHighestTier() {
+        grant("test.max.4", "test.max.12", "-test.max.50", "other.max.90", "test.max.abc");
+
+        assertThat(tiers.get(player)).isEqualTo(12);
+
+        grant("test.max.500");
+        tiers.invalidate(player.getUniqueId());
+        assertThat(tiers.get(player)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should grant the maximum tier to wildcards and operators")
+    void shouldGrantMaxTier() {
+        grant("test.max.*");
+        assertThat(tiers.get(player)).isEqualTo(100);
+
+        PermissionTiers other = new PermissionTiers("test.max.", null, 100, 60_000L);
+        grant();
+        when(player.isOp()).thenReturn(true);
+        assertThat(other.get(player)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should give operators the maximum tier over explicit lower tiers")
+    void shouldPreferOpOverExplicitTier() {
+        grant("test.max.5");
+        when(player.isOp()).thenReturn(true);
+
+        assertThat(tiers.get(player)).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should fall back to unlimited, then to the default")
+    void shouldFallBack() {
+        grant();
+        assertThat(tiers.get(player, 3)).isEqualTo(3);
+
+        when(player.hasPermission("test.unlimited")).thenReturn(true);
+        tiers.clear();
+        assertThat(tiers.get(player, 3)).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("Should resolve again once the entry expires")
+    void shouldExpire() {
+        PermissionTiers shortLived = new PermissionTiers("test.max.", null, 100, 0L);
+        grant("test.max.2");
+
+        shortLived.get(player);
+        shortLived.get(player);
+
+        verify(player, times(2)).getEffectivePermissions();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ultikits.plugins.essentials.utils;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TransferDecisionCache.
+ * <p>
+ * 测试漏斗传输判定缓存。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("TransferDecisionCache Tests")
+class TransferDecisionCacheTest {
+
+    private TransferDecisionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TransferDecisionCache(64);
+    }
+
+    @Test
+    @DisplayName("Should return cached decisions by world and both positions")
+    void shouldPutAndGet() {
+        long chest = TransferDecisionCache.pack(100, 64, -200);
+        long hopper = TransferDecisionCache.pack(100, 63, -200);
+
+        cache.put("world", chest, hopper, true);
+        cache.put("world", hopper, TransferDecisionCache.NO_POSITION, false);
+
+        assertThat(cache.get("world", chest, hopper)).isTrue();
+        assertThat(cache.get("world", hopper, TransferDecisionCache.NO_POSITION)).isFalse();
+        assertThat(cache.get("world", hopper, chest)).isNull();
+        assertThat(cache.get("world_nether", chest, hopper)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should pack distinct positions to distinct keys")
+    void shouldPackDistinctly() {
+        assertThat(TransferDecisionCache.pack(-1, 64, 0)).isNotEqualTo(TransferDecisionCache.pack(0, 64, -1));
+        assertThat(TransferDecisionCache.pack(0, -64, 0)).isNotEqualTo(TransferDecisionCache.pack(0, 64, 0));
+        assertThat(TransferDecisionCache.pack(-29_999_984, 0, 29_999_984))
+                .isNotEqualTo(TransferDecisionCache.NO_POSITION);
+    }
+
+    @Test
+    @DisplayName("Should drop only decisions touching the invalidated chunk")
+    void shouldInvalidateChunk() {
+        long inChunk = TransferDecisionCache.pack(-1, 64, -17);
+        long nextToChunk = TransferDecisionCache.pack(0, 64, -17);
+        long farAway = TransferDecisionCache.pack(500, 64, 500);
+
+        cache.put("world", inChunk, nextToChunk, true);
+        cache.put("world", farAway, farAway + 1, false);
+        cache.put("world_nether", inChunk, nextToChunk, true);
+
+        cache.invalidateChunk("world", -1, -2);
+
+        assertThat(cache.get("world", inChunk, nextToChunk)).isNull();
+        assertThat(cache.get("world", farAway, farAway + 1)).isFalse();
+        assertThat(cache.get("world_nether", inChunk, nextToChunk)).isTrue();
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should clear all decisions")
+    void shouldClear() {
+        cache.put("world", 1L, 2L, true);
+
+        cache.clear();
+
+        assertThat(cache.get("world", 1L, 2L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,241 @@
+package com.ultikits.plugins.essentials.utils;
+
+import com.ultikits.plugins.essentials.entity.ChestLockData;
+import com.ultikits.ultitools.interfaces.DataOperator;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for WriteBehindQueue.
+ * <p>
+ * 测试延迟批量写入队列。
+ *
+ * @author wisdomme
+ * @version 1.0.0
+ */
+@DisplayName("WriteBehindQueue Tests")
+class WriteBehindQueueTest {
+
+    @SuppressWarnings("unchecked")
+    private final DataOperator<ChestLockData> operator = mock(DataOperator.class);
+    private final AtomicLong now = new AtomicLong(10_000L);
+    private WriteBehindQueue<ChestLockData> queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = new WriteBehindQueue<>(operator, UnaryOperator.identity(), now::get);
+    }
+
+    private static ChestLockData lock(String world) {
+        return ChestLockData.builder()
+                .uuid(UUID.randomUUID())
+                .world(world)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should write nothing until flushed")
+    void shouldDeferWrites() {
+        queue.insert(lock("world"));
+
+        verifyNoInteractions(operator);
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.flush()).isEqualTo(1);
+        verify(operator).insert(any(ChestLockData.class));
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drop an insert that is deleted before the flush")
+    void shouldCancelInsertThenDelete() {
+        ChestLockData lock = lock("world");
+
+        queue.insert(lock);
+        queue.delete(lock);
+
+        assertThat(queue.flush()).isZero();
+        verifyNoInteractions(operator);
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest state of a row")
+    void shouldCoalesceUpdates() throws Exception {
+        ChestLockData lock = lock("world");
+
+        queue.insert(lock);
+        queue.update(lock);
+        queue.update(lock);
+
+        assertThat(queue.flush()).isEqualTo(1);
+        verify(operator).insert(lock);
+        verify(operator, never()).update(any());
+    }
+
+    @Test
+    @DisplayName("Should turn a delete followed by a write into an update")
+    void shouldUpdateAfterDelete() throws Exception {
+        ChestLockData lock = lock("world");
+
+        queue.delete(lock);
+        queue.insert(lock);
+        queue.flush();
+
+        verify(operator).update(lock);
+        verify(operator, never()).delById(any());
+    }
+
+    @Test
+    @DisplayName("Should not let an update undo a queued delete")
+    void shouldKeepDeleteOverUpdate() throws Exception {
+        ChestLockData lock = lock("world");
+
+        queue.delete(lock);
+        queue.update(lock);
+        queue.flush();
+
+        verify(operator).delById(lock.getId());
+        verify(operator, never()).update(any());
+    }
+
+    @Test
+    @DisplayName("Should write and read back the state queued, not later changes")
+    void shouldQueueSnapshots() {
+        queue = new WriteBehindQueue<>(operator, ChestLockData::copy, now::get);
+        ChestLockData lock = lock("world");
+        lock.setOwnerName("Steve");
+
+        queue.insert(lock);
+        lock.setOwnerName("Alex");
+        ChestLockData read = queue.read(ArrayList::new, queued -> true).get(0);
+        read.setOwnerName("Herobrine");
+        queue.flush();
+
+        ArgumentCaptor<ChestLockData> written = ArgumentCaptor.forClass(ChestLockData.class);
+        verify(operator).insert(written.capture());
+        assertThat(written.getValue()).isNotSameAs(lock).isNotSameAs(read);
+        assertThat(written.getValue().getOwnerName()).isEqualTo("Steve");
+    }
+
+    @Test
+    @DisplayName("Should write in queue order and keep going after a failure")
+    void shouldWriteInOrder() {
+        ChestLockData first = lock("world");
+        ChestLockData second = lock("world");
+        doThrow(new IllegalStateException("down")).when(operator).insert(first);
+
+        queue.insert(first);
+        queue.delete(second);
+
+        assertThat(queue.flush()).isEqualTo(1);
+        InOrder order = inOrder(operator);
+        order.verify(operator).insert(first);
+        order.verify(operator).delById(second.getId());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed write after a delay")
+    void shouldRetryFailedWrite() {
+        ChestLockData lock = lock("world");
+        doThrow(new IllegalStateException("down")).doNothing().when(operator).insert(lock);
+
+        queue.insert(lock);
+
+        assertThat(queue.flush()).isZero();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.flush()).isZero();
+        verify(operator, times(1)).insert(lock);
+
+        now.addAndGet(1000L);
+
+        assertThat(queue.flush()).isEqualTo(1);
+        verify(operator, times(2)).insert(lock);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should double the retry delay after each failure")
+    void shouldBackOff() {
+        ChestLockData lock = lock("world");
+        doThrow(new IllegalStateException("down")).when(operator).insert(lock);
+
+        queue.insert(lock);
+        queue.flush();
+        now.addAndGet(1000L);
+        queue.flush();
+        now.addAndGet(1999L);
+        queue.flush();
+
+        verify(operator, times(2)).insert(lock);
+
+        now.addAndGet(1L);
+        queue.flush();
+
+        verify(operator, times(3)).insert(lock);
+    }
+
+    @Test
+    @DisplayName("Should not let a failed write overwrite a newer one")
+    void shouldKeepNewerWriteOverFailed() throws Exception {
+        ChestLockData lock = lock("world");
+        ChestLockData newer = ChestLockData.builder()
+                .uuid(lock.getUuid())
+                .world("world")
+                .ownerName("Newer")
+                .build();
+        doThrow(new IllegalStateException("down")).when(operator).update(lock);
+        doAnswer(inv -> {
+            queue.update(newer);
+            return null;
+        }).when(operator).insert(any());
+
+        queue.update(lock);
+        queue.insert(lock("world"));
+        queue.flush();
+        queue.flushAll();
+
+        verify(operator).update(newer);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the insert of a failed new row when it is updated before the retry")
+    void shouldKeepInsertOfFailedRow() throws Exception {
+        ChestLockData lock = lock("world");
+        doThrow(new IllegalStateException("down")).doNothing().when(operator).insert(lock);
+
+        queue.insert(lock);
+        queue.flush();
+        queue.update(lock);
+        queue.flushAll();
+
+        verify(operator, times(2)).insert(lock);
+        verify(operator, never()).update(any());
+    }
+
+    @Test
+    @DisplayName("Should apply queued writes to reads")
+    void shouldReadThroughQueue() {
+        ChestLockData stored = lock("world");
+        ChestLockData deleted = lock("world");
+        ChestLockData inserted = lock("world");
+        ChestLockData elsewhere = lock("world_nether");
+
+        queue.delete(deleted);
+        queue.insert(inserted);
+        queue.insert(elsewhere);
+
+        assertThat(queue.read(() -> Arrays.asList(stored, deleted), lock -> "world".equals(lock.getWorld())))
+                .containsExactly(stored, inserted);
+    }
+}